@@ -1,5 +1,14 @@
+import model.game.AI.BotHost;
+
+import java.util.Arrays;
+
 public class App {
-    public static void main(String[] args) {
+    public static void main(String[] args) throws InterruptedException {
+        // "--bots [host] [port] [seats] [cleverness]" runs a headless bot host instead of the UI
+        if (args.length > 0 && args[0].equals("--bots")) {
+            BotHost.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
         Launcher.main(args);
     }
-}
\ No newline at end of file
+}
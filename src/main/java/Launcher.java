@@ -1,4 +1,5 @@
 
+import helpers.SoundFX;
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
@@ -21,6 +22,8 @@ public class Launcher extends Application {
 
     @Override
     public void start(Stage primaryStage) {
+        // Decode the sounds while the launcher is shown
+        SoundFX.preload();
         try {
             if (Taskbar.isTaskbarSupported()) {
                 Taskbar taskbar = Taskbar.getTaskbar();
@@ -1,17 +1,18 @@
 package helpers;
 
-import javafx.beans.property.IntegerProperty;
 import javafx.beans.property.ObjectProperty;
-import javafx.beans.property.SimpleIntegerProperty;
 import javafx.beans.property.SimpleObjectProperty;
 import model.game.board.Direction;
+import model.game.board.Position;
 
 /**
  * Represents a robot with its position, direction and name.
  */
 public class RobotModel {
-    private final IntegerProperty x;
-    private final IntegerProperty y;
+    /**
+     * One property for both coordinates, so a move is a single change and never seen half done.
+     */
+    private final ObjectProperty<Position> position;
     private final ObjectProperty<Direction> direction;
     private String name;
 
@@ -24,19 +25,14 @@ public class RobotModel {
      * @param name           the name of the robot
      */
     public RobotModel(int startX, int startY, Direction startDirection, String name) {
-        this.x = new SimpleIntegerProperty(startX);
-        this.y = new SimpleIntegerProperty(startY);
+        this.position = new SimpleObjectProperty<>(new Position(startX, startY));
         this.direction = new SimpleObjectProperty<>(startDirection);
         this.name = name;
     }
 
     // Getters and setters for properties
-    public IntegerProperty xProperty() {
-        return x;
-    }
-
-    public IntegerProperty yProperty() {
-        return y;
+    public ObjectProperty<Position> positionProperty() {
+        return position;
     }
 
     public ObjectProperty<Direction> directionProperty() {
@@ -44,19 +40,23 @@ public class RobotModel {
     }
 
     public int getX() {
-        return x.get();
+        return position.get().x();
     }
 
     public void setX(int x) {
-        this.x.set(x);
+        setPosition(x, getY());
     }
 
     public int getY() {
-        return y.get();
+        return position.get().y();
     }
 
     public void setY(int y) {
-        this.y.set(y);
+        setPosition(getX(), y);
+    }
+
+    public void setPosition(int x, int y) {
+        this.position.set(new Position(x, y));
     }
 
     public Direction getDirection() {
@@ -1,15 +1,97 @@
 package helpers;
 
 import javax.sound.sampled.*;
-import java.io.File;
 import java.io.IOException;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+/**
+ * Plays the sound effects and the background music of the game.
+ * <p>
+ * All bundled sounds are decoded once from the classpath by {@link #preload()}. Every sound effect gets a
+ * small pool of opened clips, so playing an effect only rewinds and starts a clip. Loading and playback run
+ * on one background thread that owns all clips, so the methods of this class never block the caller.
+ * </p>
+ */
 public class SoundFX {
     private static final Logger logger = Logger.getLogger(SoundFX.class.getName());
+
+    private static final String SOUND_DIRECTORY = "/sounds/";
+    private static final List<String> SOUND_EFFECTS = List.of(
+            "boardlaser.wav", "charging.wav", "checkpoint.wav", "conveyor.wav", "damage.wav", "gears.wav",
+            "pushPanel.wav", "roboServo.wav", "robotlaser.wav", "scream1.wav", "selection.wav",
+            "selection_decline.wav", "selection_switch.wav", "shop.wav", "step.wav");
+    /**
+     * The tracks are not bundled yet; each one is loaded only if its file exists, otherwise it is not played.
+     */
+    private static final List<String> BACKGROUND_MUSIC = List.of("theme.wav", "activation.wav");
+    private static final int CLIPS_PER_EFFECT = 3;
+    private static final float BACKGROUND_MUSIC_GAIN = -15.0f;
+
+    private static final ExecutorService audioThread = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "sound-bank");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Only accessed on the audio thread
+    private static final Map<String, ClipPool> soundEffects = new HashMap<>();
+    private static final Map<String, Clip> backgroundMusic = new HashMap<>();
     private static Clip backgroundClip;
+    private static boolean loaded;
+
+    /**
+     * The samples of a sound, decoded once and shared by all clips that play it.
+     */
+    private record DecodedSound(AudioFormat format, byte[] data) {
+        private Clip openClip() throws LineUnavailableException {
+            Clip clip = AudioSystem.getClip();
+            clip.open(format, data, 0, data.length);
+            return clip;
+        }
+    }
+
+    /**
+     * The opened clips of one sound effect. If all clips are playing, the one started first is restarted.
+     */
+    private static final class ClipPool {
+        private final Clip[] clips;
+        private int next;
+
+        private ClipPool(Clip[] clips) {
+            this.clips = clips;
+        }
+
+        private void play() {
+            for (Clip clip : clips) {
+                if (!clip.isRunning()) {
+                    clip.setFramePosition(0);
+                    clip.start();
+                    return;
+                }
+            }
+            Clip clip = clips[next];
+            next = (next + 1) % clips.length;
+            clip.stop();
+            clip.setFramePosition(0);
+            clip.start();
+        }
+    }
+
+    /**
+     * Decodes all bundled sounds in the background. Sounds played before loading has finished are played
+     * as soon as it has.
+     */
+    public static void preload() {
+        audioThread.execute(SoundFX::loadAll);
+    }
 
     /**
      * Plays background music and stops any currently playing background music.
@@ -17,41 +99,25 @@ public class SoundFX {
      * @param fileName The name of the sound file
      */
     public static void playBackgroundMusic(String fileName) {
-        stopBackgroundMusic();
-        try {
-            URL soundURL = SoundFX.class.getResource("/sounds/" + fileName);
-            if (soundURL == null) {
-                throw new IllegalArgumentException("Sound file not found: " + fileName);
-            }
-            AudioInputStream audioInputStream = AudioSystem.getAudioInputStream(soundURL);
-            backgroundClip = AudioSystem.getClip();
-            backgroundClip.open(audioInputStream);
-
-            if (backgroundClip.isControlSupported(FloatControl.Type.MASTER_GAIN)) {
-                FloatControl gainControl = (FloatControl) backgroundClip.getControl(FloatControl.Type.MASTER_GAIN);
-                gainControl.setValue(-15.0f);
+        audioThread.execute(() -> {
+            loadAll();
+            stopMusic();
+            Clip clip = backgroundMusic.get(fileName);
+            if (clip == null) {
+                logger.fine("Background music not available: " + fileName);
+                return;
             }
-
-            backgroundClip.loop(Clip.LOOP_CONTINUOUSLY);
-            backgroundClip.start();
-
-        } catch (UnsupportedAudioFileException e) {
-            logger.log(Level.SEVERE, "Unsupported audio file: " + fileName, e);
-        } catch (IOException e) {
-            logger.log(Level.SEVERE, "I/O error while trying to read the sound file: " + fileName, e);
-        } catch (LineUnavailableException e) {
-            logger.log(Level.SEVERE, "No available line to play the sound file: " + fileName, e);
-        }
+            clip.setFramePosition(0);
+            clip.loop(Clip.LOOP_CONTINUOUSLY);
+            backgroundClip = clip;
+        });
     }
 
     /**
      * Stops the background music.
      */
     public static void stopBackgroundMusic() {
-        if (backgroundClip != null && backgroundClip.isRunning()) {
-            backgroundClip.stop();
-            backgroundClip.close();
-        }
+        audioThread.execute(SoundFX::stopMusic);
     }
 
     /**
@@ -60,24 +126,90 @@ public class SoundFX {
      * @param fileName The name of the sound file.
      */
     public static void playSoundEffect(String fileName) {
-        try {
-            File soundFile = new File("src/main/resources/sounds/" + fileName);
-            AudioInputStream audioInputStream = AudioSystem.getAudioInputStream(soundFile);
-            Clip soundEffectClip = AudioSystem.getClip();
-            soundEffectClip.open(audioInputStream);
-            soundEffectClip.start();
-
-            soundEffectClip.addLineListener(event -> {
-                if (event.getType() == LineEvent.Type.STOP) {
-                    soundEffectClip.close();
+        audioThread.execute(() -> {
+            loadAll();
+            ClipPool pool = soundEffects.get(fileName);
+            if (pool == null) {
+                logger.fine("Sound effect not available: " + fileName);
+                return;
+            }
+            pool.play();
+        });
+    }
+
+    private static void stopMusic() {
+        if (backgroundClip != null && backgroundClip.isRunning()) {
+            backgroundClip.stop();
+        }
+        backgroundClip = null;
+    }
+
+    private static void loadAll() {
+        if (loaded) {
+            return;
+        }
+        for (String fileName : SOUND_EFFECTS) {
+            DecodedSound sound = decode(fileName);
+            if (sound == null) {
+                continue;
+            }
+            List<Clip> clips = new ArrayList<>(CLIPS_PER_EFFECT);
+            try {
+                while (clips.size() < CLIPS_PER_EFFECT) {
+                    clips.add(sound.openClip());
+                }
+            } catch (LineUnavailableException | IllegalArgumentException e) {
+                // Out of lines: the clips opened so far are still used, without any the sound is not played
+                logger.log(Level.WARNING, "No available line for " + fileName, e);
+            }
+            if (!clips.isEmpty()) {
+                soundEffects.put(fileName, new ClipPool(clips.toArray(new Clip[0])));
+            }
+        }
+        for (String fileName : BACKGROUND_MUSIC) {
+            if (SoundFX.class.getResource(SOUND_DIRECTORY + fileName) == null) {
+                logger.fine("Background music not bundled: " + fileName);
+                continue;
+            }
+            try {
+                DecodedSound sound = decode(fileName);
+                if (sound != null) {
+                    Clip clip = sound.openClip();
+                    if (clip.isControlSupported(FloatControl.Type.MASTER_GAIN)) {
+                        FloatControl gainControl = (FloatControl) clip.getControl(FloatControl.Type.MASTER_GAIN);
+                        gainControl.setValue(BACKGROUND_MUSIC_GAIN);
+                    }
+                    backgroundMusic.put(fileName, clip);
                 }
-            });
+            } catch (LineUnavailableException | IllegalArgumentException e) {
+                logger.log(Level.WARNING, "No available line for " + fileName, e);
+            }
+        }
+        // Only set once everything was tried, so a failed sound never stops the others from loading
+        loaded = true;
+        logger.info("Loaded " + soundEffects.size() + " sound effects and " + backgroundMusic.size()
+                + " background tracks");
+    }
+
+    /**
+     * Decodes a bundled sound.
+     *
+     * @param fileName The name of the sound file.
+     * @return the decoded sound, or {@code null} if it cannot be read
+     */
+    private static DecodedSound decode(String fileName) {
+        URL soundURL = SoundFX.class.getResource(SOUND_DIRECTORY + fileName);
+        if (soundURL == null) {
+            logger.warning("Sound file not found: " + fileName);
+            return null;
+        }
+        try (AudioInputStream audioInputStream = AudioSystem.getAudioInputStream(soundURL)) {
+            return new DecodedSound(audioInputStream.getFormat(), audioInputStream.readAllBytes());
         } catch (UnsupportedAudioFileException e) {
             logger.log(Level.SEVERE, "Unsupported audio file: " + fileName, e);
         } catch (IOException e) {
             logger.log(Level.SEVERE, "I/O error while trying to read the sound file: " + fileName, e);
-        } catch (LineUnavailableException e) {
-            logger.log(Level.SEVERE, "No available line for the sound file: " + fileName, e);
         }
+        return null;
     }
-}
\ No newline at end of file
+}
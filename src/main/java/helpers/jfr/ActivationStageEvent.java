@@ -0,0 +1,22 @@
+package helpers.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Recorded for every stage of the board activation, e.g. the conveyor belts or the lasers of one register.
+ * The duration is the time the stage took on the server, without the pauses for the client animations.
+ */
+@Name("roborally.ActivationStage")
+@Label("Activation Stage")
+@Category({"RoboRally", "Game"})
+@Description("The board elements of one kind were activated for a register")
+public class ActivationStageEvent extends jdk.jfr.Event {
+    @Label("Stage")
+    public String stage;
+
+    @Label("Register")
+    public int register;
+}
@@ -0,0 +1,27 @@
+package helpers.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Recorded for every broadcast of the server. The duration is the time it took to hand the message to all
+ * recipients.
+ */
+@Name("roborally.Broadcast")
+@Label("Broadcast")
+@Category({"RoboRally", "Server"})
+@Description("A message was sent to several clients")
+public class BroadcastEvent extends jdk.jfr.Event {
+    @Label("Kind")
+    @Description("The broadcast method, e.g. all, players or stateFrame")
+    public String kind;
+
+    @Label("Recipients")
+    public int recipients;
+
+    @Label("Length")
+    @Description("The length of the message in characters")
+    public int length;
+}
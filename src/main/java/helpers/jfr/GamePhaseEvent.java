@@ -0,0 +1,24 @@
+package helpers.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Recorded for every phase of a game, from the moment the phase starts until the next phase starts.
+ */
+@Name("roborally.GamePhase")
+@Label("Game Phase")
+@Category({"RoboRally", "Game"})
+@Description("A phase of the game")
+public class GamePhaseEvent extends jdk.jfr.Event {
+    @Label("Phase")
+    public String phase;
+
+    @Label("Round")
+    public int round;
+
+    @Label("Players")
+    public int players;
+}
@@ -0,0 +1,45 @@
+package helpers.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Recorded when the matchmaking starts a game, with the matchmaking counters since the server started.
+ */
+@Name("roborally.MatchStarted")
+@Label("Match Started")
+@Category({"RoboRally", "Server"})
+@Description("The matchmaking started a game")
+public class MatchStartedEvent extends jdk.jfr.Event {
+    @Label("Map")
+    public String map;
+
+    @Label("Humans")
+    public int humans;
+
+    @Label("Bots")
+    public int bots;
+
+    @Label("Map Voted")
+    @Description("The map chooser left, so the map most players preferred is played")
+    public boolean mapVoted;
+
+    @Label("Time To Game")
+    @Description("The time from the first human becoming ready to the start of the game")
+    @Timespan(Timespan.MILLISECONDS)
+    public long timeToGameMillis;
+
+    @Label("Joins")
+    @Description("How often a player became ready since the server started")
+    public int joins;
+
+    @Label("Bots Added")
+    @Description("How many bots were added to fill seats since the server started")
+    public int botsAdded;
+
+    @Label("Games Started")
+    public int gamesStarted;
+}
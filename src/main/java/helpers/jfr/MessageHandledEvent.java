@@ -0,0 +1,26 @@
+package helpers.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Recorded for every message the server receives from a client. The duration is the time the message took to
+ * be parsed and handled.
+ */
+@Name("roborally.MessageHandled")
+@Label("Message Handled")
+@Category({"RoboRally", "Server"})
+@Description("A message from a client was parsed and handled")
+public class MessageHandledEvent extends jdk.jfr.Event {
+    @Label("Message Type")
+    public String messageType;
+
+    @Label("Length")
+    @Description("The length of the message in characters")
+    public int length;
+
+    @Label("Client ID")
+    public int clientId;
+}
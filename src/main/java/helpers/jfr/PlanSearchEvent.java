@@ -0,0 +1,45 @@
+package helpers.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Recorded for every hand an AI plans. The duration is the time from receiving the hand until the plan was
+ * complete; the search runs in slices, so the time actually spent searching is recorded separately.
+ */
+@Name("roborally.PlanSearch")
+@Label("AI Plan Search")
+@Category({"RoboRally", "AI"})
+@Description("An AI searched for the best card sequence of a hand")
+public class PlanSearchEvent extends jdk.jfr.Event {
+    @Label("Cleverness")
+    public int cleverness;
+
+    @Label("Hand Size")
+    public int handSize;
+
+    @Label("Sequences Evaluated")
+    public int evaluations;
+
+    @Label("Best Score")
+    public int bestScore;
+
+    @Label("Search Time")
+    @Timespan(Timespan.NANOSECONDS)
+    public long searchNanos;
+
+    @Label("Rollout Time")
+    @Timespan(Timespan.NANOSECONDS)
+    public long rolloutNanos;
+
+    @Label("Cached")
+    @Description("The sequence came from the decision cache, no search was run")
+    public boolean cached;
+
+    @Label("Cut Short")
+    @Description("The search was stopped by the deadline or cancelled")
+    public boolean cutShort;
+}
@@ -0,0 +1,23 @@
+package helpers.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Recorded for every FXML view the client loads, with the time the loading of the FXML, the controller and the
+ * scene took.
+ */
+@Name("roborally.SceneLoad")
+@Label("Scene Load")
+@Category({"RoboRally", "Client"})
+@Description("An FXML view was loaded")
+public class SceneLoadEvent extends jdk.jfr.Event {
+    @Label("View")
+    public String view;
+
+    @Label("Preloaded")
+    @Description("Whether the view was loaded ahead of time on a background thread")
+    public boolean preloaded;
+}
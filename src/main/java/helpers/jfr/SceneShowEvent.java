@@ -0,0 +1,23 @@
+package helpers.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Recorded for every scene switch and popup of the client, from the moment it is requested until the window
+ * shows it. This is the delay the player sees.
+ */
+@Name("roborally.SceneShow")
+@Label("Scene Show")
+@Category({"RoboRally", "Client"})
+@Description("A scene or popup was shown")
+public class SceneShowEvent extends jdk.jfr.Event {
+    @Label("View")
+    public String view;
+
+    @Label("Reused")
+    @Description("Whether a view loaded ahead of time was shown, instead of loading it on the JavaFX thread")
+    public boolean reused;
+}
@@ -3,6 +3,7 @@ package model.game.AI;
 import model.game.board.Direction;
 import model.game.board.Position;
 import model.server_client.BaseClient;
+import model.server_client.HashedWheelTimer;
 import network.interpreters.AIJsonInterpreter;
 import network.JsonHandler;
 import network.messages.actions8.RebootDirectionMessage;
@@ -11,10 +12,7 @@ import network.messages.lobby3.PlayerValuesMessage;
 
 import java.io.IOException;
 import java.util.*;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
-import java.util.logging.Logger;
 
 /**
  * This class simulates an automated player. It extends
@@ -29,9 +27,12 @@ public class AIClient extends BaseClient {
     private Position position;
     private Direction direction;
     private Pathfinder pathfinder;
+    private AnytimePlanner planner;
+    private OpponentModel opponentModel;
     private int phase;
     private final List<Integer> availableFigures = new ArrayList<>();
     private final int cleverness;
+    private volatile boolean joined;
     private AIJsonInterpreter aiJsonInterpreter;
     private final Map<Integer, List<String>> availableAINames = new HashMap<>();
 
@@ -67,9 +68,10 @@ public class AIClient extends BaseClient {
         this.hand = new ArrayList<>();
         this.availableStartingPoints = new ArrayList<>();
         this.pathfinder = new Pathfinder();
+        this.opponentModel = new OpponentModel();
+        this.planner = new AnytimePlanner(pathfinder, opponentModel);
         this.aiJsonInterpreter = new AIJsonInterpreter(this, logger);
         this.isAI = true;
-        initializeLogger();
         for (int figureIndex = 0; figureIndex < 6; figureIndex++) {
             this.availableFigures.add(figureIndex);
         }
@@ -99,6 +101,19 @@ public class AIClient extends BaseClient {
         )));
     }
 
+    /**
+     * Marks that the server added the AI's player, so it can change its status.
+     *
+     * @param joined {@code true} once the AI's own PlayerAdded message was received
+     */
+    public void setJoined(boolean joined) {
+        this.joined = joined;
+    }
+
+    public boolean hasJoined() {
+        return joined;
+    }
+
     public void setPosition(Position pos) {
         this.position = pos;
     }
@@ -118,9 +133,13 @@ public class AIClient extends BaseClient {
         pathfinder.setDirection(this.direction);
     }
 
+    /**
+     * Reads the server messages on a virtual thread, so a host running many bots does not need
+     * a platform thread per bot.
+     */
     @Override
     protected void listenForMessages() {
-        new Thread(() -> {
+        Thread.ofVirtual().name("ai-reader").start(() -> {
             try {
                 String messageFromServer;
                 while ((messageFromServer = in.readLine()) != null) {
@@ -130,7 +149,7 @@ public class AIClient extends BaseClient {
             } catch (IOException e) {
                 logger.severe("Something went wrong: " + e.getMessage());
             }
-        }).start();
+        });
     }
 
     public void setEnergy(int energy) {
@@ -188,14 +207,12 @@ public class AIClient extends BaseClient {
      * Chooses a random starting point from the available options and notifies the server.
      */
     public void setStartingPoint() {
-        ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
-        scheduler.schedule(() -> {
+        HashedWheelTimer.getInstance().schedule(() -> {
             List<Position> startingPointsList = getAvailableStartingPoints();
             int randomIndex = (int) (Math.random() * startingPointsList.size());
             Position selectedPoint = startingPointsList.get(randomIndex);
             sendSetStartingPoint(selectedPoint.x(), selectedPoint.y());
             getPathfinder().setStartingPoint(new int[]{selectedPoint.x(), selectedPoint.y()});
-            scheduler.shutdown();
         }, 3, TimeUnit.SECONDS);
 
     }
@@ -325,33 +342,37 @@ public class AIClient extends BaseClient {
         }
     }
 
+    /**
+     * Starts planning the programming cards in the background. The cards are sent to the server
+     * once the planner commits its best sequence; the calling thread never waits for the search.
+     */
     public void selectProgrammingCards() {
-        int cleverness = this.cleverness;
-        Logger logger = Logger.getLogger(AIClient.class.getName());
-        Pathfinder pathfinder = getPathfinder();  // Get the unique Pathfinder for this client
         logger.info("SmartAIClient Hand: " + hand);
         logger.info("Position: " + position + " Direction: " + pathfinder.getDirection());
+        planner.start(position, pathfinder.getDirection(), new ArrayList<>(hand), cleverness, this::sendProgram);
+    }
 
-        // calculates the best possible sequence for a given hand, limited by cleverness of the AI.
-        List<String> bestCards = pathfinder.bruteForceBestSequence(position, hand, cleverness);
-
-        new Thread(() -> {
-            Random random = new Random();
-            for (int i = 0; i < bestCards.size(); i++) {
-                try {
-                    // waits between 2 and 4 seconds to send the next card to simulate thinking
-                    long delay = 2000 + random.nextInt(2000);
-                    Thread.sleep(delay);
-                    sendSelectedCard(bestCards.get(i), i);
-                } catch (InterruptedException e) {
-                    logger.warning("Card sending thread interrupted: " + e.getMessage());
-                    Thread.currentThread().interrupt();
-                    break;
-                }
+    /**
+     * Sends the planned cards to the registers.
+     *
+     * @param cards the cards for the registers
+     */
+    private void sendProgram(List<String> cards) {
+        sendSelectedCards(cards);
+    }
 
-            }
-            //play Upgrade Card if available
-        }).start();
+    public OpponentModel getOpponentModel() {
+        return opponentModel;
+    }
+
+    public AnytimePlanner getPlanner() {
+        return planner;
+    }
+
+    @Override
+    public void shutdown() {
+        planner.shutdown();
+        super.shutdown();
     }
 
 
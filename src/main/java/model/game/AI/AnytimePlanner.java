@@ -0,0 +1,544 @@
+package model.game.AI;
+
+import helpers.jfr.PlanSearchEvent;
+import model.game.board.Direction;
+import model.game.board.Position;
+import model.server_client.HashedWheelTimer;
+
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+/**
+ * Plans the programming cards of an AI in the background.
+ * <p>
+ * Planning starts as soon as the hand is known and runs in slices on the shared {@link PlanningPool}, so it never
+ * blocks the thread that reads the server messages.
+ * The search widens step by step: first all sequences of the five most promising cards are scored, then
+ * every further round adds the next card of the hand. A valid sequence is known from the start, so there is
+ * always a best-so-far answer to commit.
+ * </p>
+ * <p>
+ * The plan is committed once the search is done and the AI has "thought" for a few seconds, but never after the
+ * deadline. The deadline is 30 seconds after the hand arrived and is moved up when the programming timer starts.
+ * </p>
+ * <p>
+ * Results of complete searches are stored in the shared {@link DecisionCache}. When the same situation comes up
+ * again, the cached sequence is used and no search is started.
+ * </p>
+ * <p>
+ * Smart AIs refine the search with Monte-Carlo rollouts: the best sequences of the search, which simulated the
+ * robot alone, are played again and again against random programs of the opponents. The rollouts of all
+ * candidates run in parallel on the planning pool for a fixed time, and the sequence with the best average
+ * score is chosen. Every candidate sees the same opponent programs, so the comparison is fair.
+ * </p>
+ */
+public class AnytimePlanner {
+    private static final Logger logger = Logger.getLogger(AnytimePlanner.class.getName());
+
+    /** Duration of the programming timer that is started by the first player to finish. */
+    private static final long PROGRAMMING_TIMER_MILLIS = 30_000;
+    /** Time reserved for sending the cards before the timer runs out. */
+    private static final long SAFETY_MARGIN_MILLIS = 2_000;
+    private static final long MIN_THINKING_MILLIS = 10_000;
+    private static final long MAX_THINKING_MILLIS = 20_000;
+    private static final int REGISTER_COUNT = 5;
+    /** Time a search may use the planning pool before the other bots get their turn. */
+    private static final long SLICE_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+    private static final Set<String> DAMAGE_CARDS = Set.of("Spam", "Worm", "Trojan", "Virus");
+    /** Number of sequences of the search that are compared in rollouts. */
+    private static final int ROLLOUT_CANDIDATES = 6;
+    private static final long ROLLOUT_MILLIS = 3_000;
+    private static final int MAX_ROLLOUTS_PER_CANDIDATE = 200;
+    private static final int ROLLOUT_CLEVERNESS = 2;
+
+    private final Pathfinder pathfinder;
+    private final OpponentModel opponentModel;
+    private final HashedWheelTimer timer = HashedWheelTimer.getInstance();
+    private final DecisionCache decisionCache = DecisionCache.getInstance();
+    private final PlanningPool planningPool = PlanningPool.getInstance();
+    private volatile Plan currentPlan;
+
+    /**
+     * Creates a planner that evaluates card sequences with the given pathfinder.
+     *
+     * @param pathfinder    the pathfinder of the AI.
+     * @param opponentModel what the AI knows about the other robots, used for rollouts.
+     */
+    public AnytimePlanner(Pathfinder pathfinder, OpponentModel opponentModel) {
+        this.pathfinder = pathfinder;
+        this.opponentModel = opponentModel;
+    }
+
+    /**
+     * Starts planning for a new hand. A plan that is still running is cancelled.
+     *
+     * @param start      the position of the robot.
+     * @param direction  the direction the robot faces.
+     * @param hand       the cards in hand.
+     * @param cleverness the AI's cleverness level; limits how many sequences are scored.
+     * @param onCommit   receives the chosen cards once, in register order.
+     */
+    public void start(Position start, Direction direction, List<String> hand, int cleverness,
+                      Consumer<List<String>> onCommit) {
+        cancel();
+        PlanSearchEvent searchEvent = new PlanSearchEvent();
+        searchEvent.begin();
+        long now = System.currentTimeMillis();
+        long thinkingTime = ThreadLocalRandom.current().nextLong(MIN_THINKING_MILLIS, MAX_THINKING_MILLIS);
+        List<String> orderedHand = orderHand(hand);
+        List<OpponentModel.Opponent> opponents = cleverness >= ROLLOUT_CLEVERNESS && rolloutsEnabled()
+                ? opponentModel.snapshot() : List.of();
+        String situation = pathfinder.describeSituation(start, direction);
+        if (situation != null && !opponents.isEmpty()) {
+            // Rollout decisions also depend on where the opponents are
+            situation += "|" + opponents.stream().map(Object::toString).sorted().toList();
+        }
+        long situationKey = situation == null ? 0
+                : DecisionCache.situationHash(situation + "|" + cleverness, orderedHand);
+        Plan plan = new Plan(start, direction, orderedHand, budgetFor(cleverness), situationKey, opponents, onCommit,
+                now + thinkingTime, now + PROGRAMMING_TIMER_MILLIS - SAFETY_MARGIN_MILLIS);
+        currentPlan = plan;
+        plan.thinkingTimeout = timer.schedule(plan::thinkingTimeElapsed, thinkingTime, TimeUnit.MILLISECONDS);
+        plan.scheduleDeadline(now);
+
+        List<String> cachedSequence = situationKey == 0 ? null : decisionCache.get(situationKey, orderedHand);
+        if (cachedSequence != null) {
+            logger.info("Using cached decision " + cachedSequence + "; decision cache: " + decisionCache.getStats());
+            plan.bestSequence = cachedSequence;
+            plan.searchDone = true;
+            searchEvent.end();
+            if (searchEvent.shouldCommit()) {
+                searchEvent.cleverness = cleverness;
+                searchEvent.handSize = hand.size();
+                searchEvent.cached = true;
+                searchEvent.commit();
+            }
+        } else {
+            plan.searchEvent = searchEvent;
+            plan.searchCleverness = cleverness;
+            planningPool.submit(plan::runSlice);
+        }
+    }
+
+    /**
+     * Moves the deadline of the current plan up to the end of the programming timer that just started.
+     */
+    public void onTimerStarted() {
+        Plan plan = currentPlan;
+        if (plan != null) {
+            long now = System.currentTimeMillis();
+            plan.moveDeadline(now, now + PROGRAMMING_TIMER_MILLIS - SAFETY_MARGIN_MILLIS);
+        }
+    }
+
+    /**
+     * Cancels the current plan without committing it, e.g. because the server already filled the registers.
+     */
+    public void cancel() {
+        Plan plan = currentPlan;
+        if (plan != null) {
+            plan.cancel();
+            currentPlan = null;
+        }
+    }
+
+    /**
+     * Cancels the current plan. The planning pool is shared and keeps running.
+     */
+    public void shutdown() {
+        cancel();
+        decisionCache.flush();
+        logger.info("Decision cache: " + decisionCache.getStats());
+    }
+
+    /**
+     * Rollouts can be switched off with the system property {@code roborally.aiRollouts=false}.
+     */
+    private static boolean rolloutsEnabled() {
+        return Boolean.parseBoolean(System.getProperty("roborally.aiRollouts", "true"));
+    }
+
+    /**
+     * Maps the cleverness of the AI to the number of sequences it may score.
+     */
+    private static int budgetFor(int cleverness) {
+        return switch (cleverness) {
+            case 0 -> 125;
+            case 1 -> 500;
+            default -> Integer.MAX_VALUE;
+        };
+    }
+
+    /**
+     * Moves damage cards to the end of the hand, so the first rounds of the search use the useful cards.
+     * The cards are sorted by name otherwise, so the same multiset of cards always gives the same search.
+     */
+    private static List<String> orderHand(List<String> hand) {
+        List<String> ordered = new ArrayList<>(hand);
+        ordered.sort(Comparator.comparing((String card) -> DAMAGE_CARDS.contains(card))
+                .thenComparing(Comparator.naturalOrder()));
+        return ordered;
+    }
+
+    /**
+     * Builds a valid sequence without any search: the cards in hand order, with a card other than "Again" first.
+     */
+    private static List<String> defaultSequence(List<String> hand) {
+        List<String> sequence = new ArrayList<>(hand);
+        for (int i = 0; i < sequence.size(); i++) {
+            if (!sequence.get(i).equalsIgnoreCase("Again")) {
+                sequence.addFirst(sequence.remove(i));
+                break;
+            }
+        }
+        return new ArrayList<>(sequence.subList(0, Math.min(REGISTER_COUNT, sequence.size())));
+    }
+
+    /**
+     * The planning state for one hand.
+     */
+    private final class Plan {
+        private final Position start;
+        private final Direction direction;
+        private final List<String> hand;
+        private final int budget;
+        private final long situationKey;
+        private final List<OpponentModel.Opponent> opponents;
+        private final PriorityQueue<Candidate> candidates =
+                new PriorityQueue<>(Comparator.comparingInt(Candidate::soloScore));
+        private final AtomicInteger pendingRolloutTasks = new AtomicInteger();
+        private final AtomicLong rolloutNanos = new AtomicLong();
+        private long rolloutDeadline;
+        private final Consumer<List<String>> onCommit;
+        private final long earliestCommit;
+        private final AtomicBoolean finished = new AtomicBoolean();
+        private final Set<List<String>> scoredSequences = new HashSet<>();
+        private volatile long deadline;
+        private volatile boolean searchDone;
+        private volatile List<String> bestSequence;
+        private int bestScore = Integer.MIN_VALUE;
+        private final SequenceEnumerator enumerator;
+        private int evaluations;
+        private long searchNanos;
+        private HashedWheelTimer.Timeout thinkingTimeout;
+        private HashedWheelTimer.Timeout deadlineTimeout;
+        private PlanSearchEvent searchEvent;
+        private int searchCleverness;
+
+        Plan(Position start, Direction direction, List<String> hand, int budget, long situationKey,
+             List<OpponentModel.Opponent> opponents, Consumer<List<String>> onCommit, long earliestCommit,
+             long deadline) {
+            this.start = start;
+            this.direction = direction;
+            this.hand = hand;
+            this.budget = budget;
+            this.situationKey = situationKey;
+            this.opponents = opponents;
+            this.onCommit = onCommit;
+            this.earliestCommit = earliestCommit;
+            this.deadline = deadline;
+            this.bestSequence = defaultSequence(hand);
+            this.enumerator = new SequenceEnumerator(hand.size());
+        }
+
+        /**
+         * Runs one slice of the search on the planning pool.
+         *
+         * @return {@code true} if the search is not finished yet.
+         */
+        boolean runSlice() {
+            long sliceStart = System.nanoTime();
+            boolean exhausted = false;
+            while (!shouldStop() && System.nanoTime() - sliceStart < SLICE_NANOS) {
+                int[] cardIndices = enumerator.next();
+                if (cardIndices == null) {
+                    exhausted = true;
+                    break;
+                }
+                List<String> sequence = new ArrayList<>(REGISTER_COUNT);
+                for (int index : cardIndices) {
+                    sequence.add(hand.get(index));
+                }
+                if (!sequence.getFirst().equalsIgnoreCase("Again") && scoredSequences.add(sequence)) {
+                    score(sequence);
+                }
+            }
+            searchNanos += System.nanoTime() - sliceStart;
+            if (!exhausted && !shouldStop()) {
+                return true;
+            }
+            finishSearch();
+            return false;
+        }
+
+        private void finishSearch() {
+            logger.info("Scored " + evaluations + " sequences, best: " + bestSequence + " (" + bestScore + ")");
+            long now = System.currentTimeMillis();
+            if (!opponents.isEmpty() && candidates.size() > 1 && !finished.get() && now < deadline) {
+                startRollouts(now);
+                return;
+            }
+            completePlan();
+        }
+
+        /**
+         * Hands every candidate to the planning pool, so their rollouts run in parallel.
+         */
+        private void startRollouts(long now) {
+            rolloutDeadline = Math.min(deadline, now + ROLLOUT_MILLIS);
+            long seed = ThreadLocalRandom.current().nextLong();
+            List<Candidate> rolloutCandidates = new ArrayList<>(candidates);
+            pendingRolloutTasks.set(rolloutCandidates.size());
+            for (Candidate candidate : rolloutCandidates) {
+                // The same seed gives every candidate the same sequence of opponent programs
+                candidate.random = new Random(seed);
+                planningPool.submit(() -> runRollouts(candidate));
+            }
+        }
+
+        /**
+         * Runs one slice of rollouts for a candidate on the planning pool.
+         *
+         * @return {@code true} if the candidate needs more rollouts.
+         */
+        private boolean runRollouts(Candidate candidate) {
+            long sliceStart = System.nanoTime();
+            boolean stopped = false;
+            while (!stopped && System.nanoTime() - sliceStart < SLICE_NANOS) {
+                if (finished.get() || candidate.rollouts >= MAX_ROLLOUTS_PER_CANDIDATE
+                        || System.currentTimeMillis() >= rolloutDeadline) {
+                    stopped = true;
+                    break;
+                }
+                try {
+                    candidate.addRollout(pathfinder.evaluateRollout(start, direction, candidate.sequence(),
+                            opponents, candidate.random));
+                } catch (RuntimeException e) {
+                    logger.fine("Could not simulate rollout of " + candidate.sequence() + ": " + e.getMessage());
+                    stopped = true;
+                }
+            }
+            rolloutNanos.addAndGet(System.nanoTime() - sliceStart);
+            if (!stopped) {
+                return true;
+            }
+            if (pendingRolloutTasks.decrementAndGet() == 0) {
+                finishRollouts();
+            }
+            return false;
+        }
+
+        /**
+         * Chooses the candidate with the best average rollout score. Runs once, after the last candidate is done.
+         */
+        private void finishRollouts() {
+            Candidate best = null;
+            for (Candidate candidate : candidates) {
+                if (candidate.rollouts > 0 && (best == null || candidate.expectedScore() > best.expectedScore())) {
+                    best = candidate;
+                }
+            }
+            if (best != null) {
+                bestSequence = best.sequence();
+                logger.info(String.format("Rollouts: best %s, expected score %.1f over %d rollouts (%d candidates)",
+                        best.sequence(), best.expectedScore(), best.rollouts, candidates.size()));
+            }
+            completePlan();
+        }
+
+        private void completePlan() {
+            // Only a search that was not cut short by the deadline gives the same result next time
+            boolean complete = !finished.get() && System.currentTimeMillis() < deadline;
+            if (complete && situationKey != 0 && bestScore > Integer.MIN_VALUE) {
+                decisionCache.put(situationKey, hand, bestSequence, searchNanos + rolloutNanos.get());
+            }
+            recordSearch(!complete);
+            searchDone = true;
+            if (System.currentTimeMillis() >= earliestCommit) {
+                commit();
+            }
+        }
+
+        private void recordSearch(boolean cutShort) {
+            searchEvent.end();
+            if (searchEvent.shouldCommit()) {
+                searchEvent.cleverness = searchCleverness;
+                searchEvent.handSize = hand.size();
+                searchEvent.evaluations = evaluations;
+                searchEvent.bestScore = bestScore;
+                searchEvent.searchNanos = searchNanos;
+                searchEvent.rolloutNanos = rolloutNanos.get();
+                searchEvent.cutShort = cutShort;
+                searchEvent.commit();
+            }
+        }
+
+        private void score(List<String> sequence) {
+            evaluations++;
+            int score;
+            try {
+                score = pathfinder.evaluateSequence(start, direction, sequence);
+            } catch (RuntimeException e) {
+                // A sequence the simulation cannot handle is skipped; the others are still worth scoring
+                logger.fine("Could not simulate " + sequence + ": " + e.getMessage());
+                return;
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                bestSequence = List.copyOf(sequence);
+            }
+            if (!opponents.isEmpty()) {
+                if (candidates.size() < ROLLOUT_CANDIDATES) {
+                    candidates.add(new Candidate(List.copyOf(sequence), score));
+                } else if (score > candidates.peek().soloScore()) {
+                    candidates.poll();
+                    candidates.add(new Candidate(List.copyOf(sequence), score));
+                }
+            }
+        }
+
+        private boolean shouldStop() {
+            return finished.get() || evaluations >= budget || System.currentTimeMillis() >= deadline;
+        }
+
+        /**
+         * Runs on the timer thread once the AI has thought long enough.
+         */
+        void thinkingTimeElapsed() {
+            if (searchDone) {
+                commit();
+            }
+        }
+
+        void scheduleDeadline(long now) {
+            deadlineTimeout = timer.schedule(this::commit, Math.max(0, deadline - now), TimeUnit.MILLISECONDS);
+        }
+
+        void moveDeadline(long now, long newDeadline) {
+            if (newDeadline >= deadline || finished.get()) {
+                return;
+            }
+            deadline = newDeadline;
+            deadlineTimeout.cancel();
+            scheduleDeadline(now);
+        }
+
+        /**
+         * Hands the best sequence so far to the AI. Only the first call has an effect.
+         */
+        void commit() {
+            if (finished.compareAndSet(false, true)) {
+                thinkingTimeout.cancel();
+                deadlineTimeout.cancel();
+                onCommit.accept(bestSequence);
+            }
+        }
+
+        void cancel() {
+            if (finished.compareAndSet(false, true)) {
+                thinkingTimeout.cancel();
+                deadlineTimeout.cancel();
+            }
+        }
+    }
+
+    /**
+     * A sequence that is compared in rollouts. Its rollouts are only run by one task at a time.
+     */
+    private static final class Candidate {
+        private final List<String> sequence;
+        private final int soloScore;
+        private Random random;
+        private long rolloutTotal;
+        private int rollouts;
+
+        Candidate(List<String> sequence, int soloScore) {
+            this.sequence = sequence;
+            this.soloScore = soloScore;
+        }
+
+        List<String> sequence() {
+            return sequence;
+        }
+
+        int soloScore() {
+            return soloScore;
+        }
+
+        void addRollout(int score) {
+            rolloutTotal += score;
+            rollouts++;
+        }
+
+        double expectedScore() {
+            return (double) rolloutTotal / rollouts;
+        }
+    }
+
+    /**
+     * Enumerates the card index sequences of the widening search one at a time, so the search can pause between
+     * any two of them. Round k yields the sequences of the first k cards that use card k - 1, so after round k all
+     * sequences of the first k cards have been seen.
+     */
+    private static final class SequenceEnumerator {
+        private final int handSize;
+        private final int[] indices = new int[REGISTER_COUNT];
+        private int round = REGISTER_COUNT;
+
+        SequenceEnumerator(int handSize) {
+            this.handSize = handSize;
+            // Start one step before the first sequence of the first round
+            indices[REGISTER_COUNT - 1] = -1;
+        }
+
+        /**
+         * @return the next sequence of distinct card indices, or {@code null} if all sequences have been returned.
+         */
+        int[] next() {
+            while (round <= handSize) {
+                if (!advance()) {
+                    round++;
+                    Arrays.fill(indices, 0);
+                    indices[REGISTER_COUNT - 1] = -1;
+                    continue;
+                }
+                if (isValid()) {
+                    return indices.clone();
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Counts the indices up like an odometer in base {@code round}.
+         */
+        private boolean advance() {
+            for (int i = REGISTER_COUNT - 1; i >= 0; i--) {
+                if (++indices[i] < round) {
+                    return true;
+                }
+                indices[i] = 0;
+            }
+            return false;
+        }
+
+        private boolean isValid() {
+            boolean usesNewestCard = false;
+            for (int i = 0; i < REGISTER_COUNT; i++) {
+                usesNewestCard |= indices[i] == round - 1;
+                for (int j = 0; j < i; j++) {
+                    if (indices[i] == indices[j]) {
+                        return false;
+                    }
+                }
+            }
+            return usesNewestCard;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package model.game.AI;
+
+import model.game.maps.MapRegistry;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.logging.Logger;
+
+/**
+ * Runs many AI seats in one JVM, e.g. to fill practice lobbies.
+ * <p>
+ * All seats share the compiled maps of the {@link MapRegistry}, the {@link PlanningPool}, the
+ * {@link DecisionCache} and the game timer, and read their messages on virtual threads. A seat itself only
+ * keeps its connection and a small amount of game state.
+ * </p>
+ * <p>
+ * Usage: {@code BotHost [host] [port] [seats] [cleverness]}, defaults are localhost, 8080, 4 and 2.
+ * </p>
+ */
+public class BotHost {
+    private static final Logger logger = Logger.getLogger(BotHost.class.getName());
+    private static final long SEAT_STAGGER_MILLIS = 1000;
+
+    private final String host;
+    private final int port;
+    private final List<AIClient> seats = Collections.synchronizedList(new ArrayList<>());
+
+    /**
+     * Creates a host whose seats connect to the given server.
+     *
+     * @param host the server host
+     * @param port the server port
+     */
+    public BotHost(String host, int port) {
+        this.host = host;
+        this.port = port;
+    }
+
+    /**
+     * Connects a new seat to the server.
+     *
+     * @param cleverness the seat's cleverness level (0 = basic, 1 = medium, 2 = smart)
+     * @return the AI client of the seat
+     */
+    public AIClient addSeat(int cleverness) {
+        AIClient seat = new AIClient(host, port, cleverness);
+        seat.run();
+        seats.add(seat);
+        return seat;
+    }
+
+    public List<AIClient> getSeats() {
+        synchronized (seats) {
+            return new ArrayList<>(seats);
+        }
+    }
+
+    /**
+     * Disconnects all seats.
+     */
+    public void shutdown() {
+        for (AIClient seat : getSeats()) {
+            seat.shutdown();
+        }
+        seats.clear();
+        logger.info("Decision cache: " + DecisionCache.getInstance().getStats());
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        String host = args.length > 0 ? args[0] : "localhost";
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : 8080;
+        int seatCount = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+        int cleverness = args.length > 3 ? Integer.parseInt(args[3]) : 2;
+
+        BotHost botHost = new BotHost(host, port);
+        CountDownLatch stopped = new CountDownLatch(1);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            botHost.shutdown();
+            stopped.countDown();
+        }));
+        for (int seat = 0; seat < seatCount; seat++) {
+            botHost.addSeat(cleverness);
+            // Seats pick their figure at random, so give each seat time to see the figures already taken
+            Thread.sleep(SEAT_STAGGER_MILLIS);
+        }
+        logger.info("Started " + seatCount + " bots on " + host + ":" + port + " sharing "
+                + PlanningPool.getInstance().getParallelism() + " planning threads");
+        stopped.await();
+    }
+}
@@ -0,0 +1,303 @@
+package model.game.AI;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * Cache of planned card sequences, shared by all AI clients in the JVM.
+ * <p>
+ * A decision is identified by a 64-bit hash of the situation: map, position, direction, checkpoints and the hand
+ * as a sorted multiset. The same situation comes up again and again across rounds and games, and the
+ * planner's result only depends on it, so a cached decision can be used instead of searching again.
+ * </p>
+ * <p>
+ * The cache keeps the most recently used decisions in memory. If the system property
+ * {@code roborally.aiCacheFile} is set, decisions are also written to a memory-mapped ring file that is read
+ * back on start, so the cache stays warm across restarts. The file is meant for one process at a time.
+ * </p>
+ */
+public class DecisionCache {
+    private static final Logger logger = Logger.getLogger(DecisionCache.class.getName());
+    private static DecisionCache instance;
+
+    private static final int DEFAULT_CAPACITY = 10_000;
+    private static final int MAGIC = 0x52524443; // "RRDC"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    private static final int MAX_SEQUENCE_LENGTH = 5;
+    // key (8), search time in microseconds (4), checksum (4), length (1), card indices (5), padding (2)
+    private static final int RECORD_SIZE = 24;
+
+    private final int capacity;
+    private final Map<Long, Entry> entries;
+    private final MappedByteBuffer file;
+    private int nextRecord;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong savedNanos = new AtomicLong();
+
+    /**
+     * A cached decision: the indices of the chosen cards in the sorted hand and the time the search took.
+     */
+    private record Entry(byte[] cardIndices, long searchNanos) {
+    }
+
+    /**
+     * Statistics of the cache.
+     *
+     * @param hits       number of lookups that found a decision.
+     * @param misses     number of lookups that did not.
+     * @param savedNanos sum of the search times of all decisions that were found.
+     */
+    public record Stats(long hits, long misses, long savedNanos) {
+        public double hitRate() {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0 : (double) hits / lookups;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d hits, %d misses (%.1f%% hit rate), %d ms search time saved",
+                    hits, misses, hitRate() * 100, TimeUnit.NANOSECONDS.toMillis(savedNanos));
+        }
+    }
+
+    /**
+     * Creates a cache.
+     *
+     * @param capacity the maximum number of decisions kept in memory and in the file.
+     * @param filePath the file to persist decisions to, or {@code null} to keep them in memory only.
+     */
+    public DecisionCache(int capacity, Path filePath) {
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                return size() > DecisionCache.this.capacity;
+            }
+        };
+        this.file = filePath == null ? null : openFile(filePath);
+    }
+
+    public static synchronized DecisionCache getInstance() {
+        if (instance == null) {
+            String filePath = System.getProperty("roborally.aiCacheFile");
+            instance = new DecisionCache(Integer.getInteger("roborally.aiCacheSize", DEFAULT_CAPACITY),
+                    filePath == null ? null : Paths.get(filePath));
+        }
+        return instance;
+    }
+
+    /**
+     * Calculates the key of a situation.
+     *
+     * @param situation  the canonical description of the board situation, see {@link Pathfinder#describeSituation}.
+     * @param sortedHand the cards in hand, sorted.
+     * @return the 64-bit situation hash.
+     */
+    public static long situationHash(String situation, List<String> sortedHand) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest((situation + "|" + String.join(",", sortedHand))
+                    .getBytes(StandardCharsets.UTF_8));
+            long key = 0;
+            for (int i = 0; i < Long.BYTES; i++) {
+                key = (key << 8) | (hash[i] & 0xFF);
+            }
+            // 0 marks an empty record in the file
+            return key == 0 ? 1 : key;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Looks up a decision and updates the statistics.
+     *
+     * @param key        the situation hash.
+     * @param sortedHand the cards in hand, sorted as when the decision was stored.
+     * @return the cached card sequence, or {@code null} if there is none.
+     */
+    public List<String> get(long key, List<String> sortedHand) {
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(key);
+        }
+        List<String> sequence = entry == null ? null : decode(entry.cardIndices(), sortedHand);
+        if (sequence == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        savedNanos.addAndGet(entry.searchNanos());
+        return sequence;
+    }
+
+    /**
+     * Stores the result of a complete search.
+     *
+     * @param key         the situation hash.
+     * @param sortedHand  the cards in hand, sorted.
+     * @param sequence    the chosen card sequence; all cards must be taken from the hand.
+     * @param searchNanos the time the search took.
+     */
+    public void put(long key, List<String> sortedHand, List<String> sequence, long searchNanos) {
+        byte[] cardIndices = encode(sequence, sortedHand);
+        if (cardIndices == null) {
+            return;
+        }
+        Entry entry = new Entry(cardIndices, searchNanos);
+        synchronized (this) {
+            entries.put(key, entry);
+            if (file != null) {
+                writeRecord(key, entry);
+            }
+        }
+    }
+
+    public Stats getStats() {
+        return new Stats(hits.get(), misses.get(), savedNanos.get());
+    }
+
+    /**
+     * Forces the memory-mapped file to disk.
+     */
+    public synchronized void flush() {
+        if (file != null) {
+            file.force();
+        }
+    }
+
+    private static byte[] encode(List<String> sequence, List<String> sortedHand) {
+        if (sequence.size() > MAX_SEQUENCE_LENGTH) {
+            return null;
+        }
+        boolean[] used = new boolean[sortedHand.size()];
+        byte[] cardIndices = new byte[sequence.size()];
+        for (int register = 0; register < sequence.size(); register++) {
+            int index = -1;
+            for (int i = 0; i < sortedHand.size(); i++) {
+                if (!used[i] && sortedHand.get(i).equals(sequence.get(register))) {
+                    index = i;
+                    break;
+                }
+            }
+            if (index < 0) {
+                return null;
+            }
+            used[index] = true;
+            cardIndices[register] = (byte) index;
+        }
+        return cardIndices;
+    }
+
+    private static List<String> decode(byte[] cardIndices, List<String> sortedHand) {
+        List<String> sequence = new ArrayList<>(cardIndices.length);
+        for (byte index : cardIndices) {
+            if (index < 0 || index >= sortedHand.size()) {
+                return null;
+            }
+            sequence.add(sortedHand.get(index));
+        }
+        return sequence;
+    }
+
+    /**
+     * Maps the ring file and loads its records, oldest first, so the newest ones end up most recently used.
+     */
+    private MappedByteBuffer openFile(Path filePath) {
+        try {
+            Path parent = filePath.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                long size = HEADER_SIZE + (long) capacity * RECORD_SIZE;
+                boolean compatible = channel.size() == size;
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+                if (!compatible || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION
+                        || buffer.getInt(8) != capacity) {
+                    // New file or written with other settings: start empty
+                    for (int i = 0; i < size; i++) {
+                        buffer.put(i, (byte) 0);
+                    }
+                    buffer.putInt(0, MAGIC).putInt(4, VERSION).putInt(8, capacity).putInt(12, 0);
+                    return buffer;
+                }
+                nextRecord = Math.floorMod(buffer.getInt(12), capacity);
+                int loaded = 0;
+                for (int i = 0; i < capacity; i++) {
+                    if (readRecord(buffer, (nextRecord + i) % capacity)) {
+                        loaded++;
+                    }
+                }
+                logger.info("Loaded " + loaded + " AI decisions from " + filePath);
+                return buffer;
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.warning("Could not open AI decision cache file " + filePath + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private boolean readRecord(MappedByteBuffer buffer, int record) {
+        int offset = HEADER_SIZE + record * RECORD_SIZE;
+        long key = buffer.getLong(offset);
+        if (key == 0) {
+            return false;
+        }
+        int searchMicros = buffer.getInt(offset + 8);
+        int checksum = buffer.getInt(offset + 12);
+        int length = buffer.get(offset + 16);
+        if (length < 0 || length > MAX_SEQUENCE_LENGTH) {
+            return false;
+        }
+        byte[] cardIndices = new byte[length];
+        buffer.get(offset + 17, cardIndices);
+        // Skip records that were only partly written when the process stopped
+        if (checksum != checksum(key, searchMicros, cardIndices)) {
+            return false;
+        }
+        entries.put(key, new Entry(cardIndices, TimeUnit.MICROSECONDS.toNanos(searchMicros)));
+        return true;
+    }
+
+    private void writeRecord(long key, Entry entry) {
+        int offset = HEADER_SIZE + nextRecord * RECORD_SIZE;
+        int searchMicros = (int) Math.min(Integer.MAX_VALUE, TimeUnit.NANOSECONDS.toMicros(entry.searchNanos()));
+        byte[] padded = new byte[MAX_SEQUENCE_LENGTH];
+        System.arraycopy(entry.cardIndices(), 0, padded, 0, entry.cardIndices().length);
+        file.putLong(offset, key)
+                .putInt(offset + 8, searchMicros)
+                .putInt(offset + 12, checksum(key, searchMicros, entry.cardIndices()))
+                .put(offset + 16, (byte) entry.cardIndices().length)
+                .put(offset + 17, padded);
+        nextRecord = (nextRecord + 1) % capacity;
+        file.putInt(12, nextRecord);
+    }
+
+    private static int checksum(long key, int searchMicros, byte[] cardIndices) {
+        int checksum = Long.hashCode(key) * 31 + searchMicros;
+        for (byte index : cardIndices) {
+            checksum = checksum * 31 + index;
+        }
+        return checksum * 31 + cardIndices.length;
+    }
+}
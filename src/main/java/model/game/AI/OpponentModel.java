@@ -0,0 +1,120 @@
+package model.game.AI;
+
+import model.game.board.Direction;
+import model.game.board.Position;
+import model.game.cards.CardType;
+import model.game.cards.ProgrammingCardType;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * What an AI knows about the other robots: their last known position and direction.
+ * <p>
+ * The model is fed from the Movement, PlayerTurning and StartingPointTaken messages. Rollouts place the
+ * opponents on the simulation board and let them play random programs, see {@link #sampleProgram(Random)}.
+ * </p>
+ */
+public class OpponentModel {
+
+    /**
+     * The last known state of an opponent's robot.
+     *
+     * @param position  the position of the robot
+     * @param direction the direction the robot faces
+     */
+    public record Opponent(Position position, Direction direction) {
+    }
+
+    /** The cards of a fresh programming deck, see {@link model.game.cards.PersonalProgrammingDeck}. */
+    private static final List<ProgrammingCardType> PROGRAMMING_DECK = createProgrammingDeck();
+    private static final int REGISTER_COUNT = 5;
+
+    private final Map<Integer, Opponent> opponents = new ConcurrentHashMap<>();
+
+    /**
+     * Places an opponent on its starting point.
+     *
+     * @param clientId  the client ID of the opponent
+     * @param position  the starting point
+     * @param direction the starting direction
+     */
+    public void setStartingPoint(int clientId, Position position, Direction direction) {
+        opponents.put(clientId, new Opponent(position, direction));
+    }
+
+    /**
+     * Updates the position of an opponent. Opponents whose starting point is unknown are ignored.
+     *
+     * @param clientId the client ID of the opponent
+     * @param position the new position
+     */
+    public void move(int clientId, Position position) {
+        opponents.computeIfPresent(clientId, (_, opponent) -> new Opponent(position, opponent.direction()));
+    }
+
+    /**
+     * Turns an opponent.
+     *
+     * @param clientId the client ID of the opponent
+     * @param rotation "clockwise" or "counterclockwise"
+     */
+    public void rotate(int clientId, String rotation) {
+        opponents.computeIfPresent(clientId,
+                (_, opponent) -> new Opponent(opponent.position(), opponent.direction().rotate(rotation)));
+    }
+
+    /**
+     * @return the current state of all known opponents
+     */
+    public List<Opponent> snapshot() {
+        return new ArrayList<>(opponents.values());
+    }
+
+    /**
+     * Samples a plausible program of an opponent: five cards drawn from a fresh programming deck.
+     * "Again" repeats the previous card; cards the simulation cannot play (a leading "Again", "PowerUp")
+     * are {@code null} and leave the robot where it is.
+     *
+     * @param random the source of randomness
+     * @return the card types for the five registers
+     */
+    public static List<CardType> sampleProgram(Random random) {
+        List<ProgrammingCardType> deck = new ArrayList<>(PROGRAMMING_DECK);
+        Collections.shuffle(deck, random);
+        List<CardType> program = new ArrayList<>(REGISTER_COUNT);
+        for (int register = 0; register < REGISTER_COUNT; register++) {
+            ProgrammingCardType card = deck.get(register);
+            if (card == ProgrammingCardType.AGAIN) {
+                program.add(register == 0 ? null : program.get(register - 1));
+            } else {
+                program.add(card == ProgrammingCardType.POWER_UP ? null : card);
+            }
+        }
+        return program;
+    }
+
+    private static List<ProgrammingCardType> createProgrammingDeck() {
+        List<ProgrammingCardType> deck = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            deck.add(ProgrammingCardType.MOVE_1);
+        }
+        for (int i = 0; i < 3; i++) {
+            deck.add(ProgrammingCardType.MOVE_2);
+            deck.add(ProgrammingCardType.TURN_RIGHT);
+            deck.add(ProgrammingCardType.TURN_LEFT);
+        }
+        for (int i = 0; i < 2; i++) {
+            deck.add(ProgrammingCardType.AGAIN);
+        }
+        deck.add(ProgrammingCardType.MOVE_3);
+        deck.add(ProgrammingCardType.BACK_UP);
+        deck.add(ProgrammingCardType.U_TURN);
+        deck.add(ProgrammingCardType.POWER_UP);
+        return Collections.unmodifiableList(deck);
+    }
+}
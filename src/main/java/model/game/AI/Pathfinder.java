@@ -1,16 +1,16 @@
 package model.game.AI;
 
-import model.game.Game;
 import model.game.board.Board;
 import model.game.board.Direction;
 import model.game.board.Position;
 import model.game.board.robots.Robot;
-import model.game.board.tiles.Tile;
 import model.game.cards.CardType;
-import model.game.maps.MapParser;
+import model.game.maps.CompiledMap;
+import model.game.maps.DistanceField;
+import model.game.maps.MapRegistry;
 
-import java.io.InputStream;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.List;
 import java.util.logging.*;
 import java.util.logging.Formatter;
@@ -21,15 +21,20 @@ import static model.game.cards.ProgrammingCardType.*;
 /**
  * The Pathfinder class computes the optimal path for the AI by simulating card sequences.
  * It evaluates moves, distances, and fields to decide the best course toward a checkpoint.
+ * <p>
+ * Every simulation runs on its own borrowed board, so sequences and rollouts can be evaluated
+ * on several threads at once while the message thread updates the checkpoints.
+ * </p>
  */
 public class Pathfinder {
-    private Board board;
-    private Direction direction;
+    private volatile Direction direction;
     private Position position;
-    private final Map<Integer,Position> checkpoints = new HashMap<>();
-    private int currentCheckpointIndex;
+    private final Map<Integer,Position> checkpoints = new ConcurrentHashMap<>();
+    private final Map<Integer, DistanceField> checkpointDistanceFields = new ConcurrentHashMap<>();
+    private volatile CompiledMap compiledMap;
+    private volatile int currentCheckpointIndex;
     private static final Logger logger = Logger.getLogger(Pathfinder.class.getName());
-    private int[] startingPoint;
+    private volatile int[] startingPoint;
 
     /**
      * Constructs a Pathfinder and initializes its logger.
@@ -39,121 +44,102 @@ public class Pathfinder {
     }
 
     /**
-     * Returns ONE list of 5-card sequences (limited by cleverness) that maximize the score to reach the next checkpoint.
+     * Scores one card sequence by simulating it on a board borrowed from the compiled map.
+     * The board is cleared and returned afterwards, so sequences can be evaluated one after another
+     * while the game state (checkpoints, reboot directions) is updated in between.
      *
-     * @param start       the starting position
-     * @param cardsInHand the list of available cards in hand
-     * @param cleverness  the AIs cleverness level; higher means more permutations are considered
-     * @return the best found card sequence
+     * @param start          the starting position
+     * @param startDirection the direction the robot faces at the start
+     * @param sequence       the 5-card sequence to simulate
+     * @return the score of the sequence; higher is better
      */
-    public List<String> bruteForceBestSequence(Position start,
-                                               List<String> cardsInHand, int cleverness) {
-        List<List<String>> allPermutations = new ArrayList<>();
-
-        // Number of permutations per cleverness level of the AI
-        if(cleverness == 0){
-            allPermutations = generatePermutationsLimited(cardsInHand, 125);
-        } else if(cleverness == 1){
-            allPermutations = generatePermutationsLimited(cardsInHand, 500);
-        } else if(cleverness == 2){
-            allPermutations = generatePermutationsLimited(cardsInHand, Integer.MAX_VALUE);
-        }
-
-        List<String> bestSequence = null;
-        int bestScore = 0;
-
-        // Iterate over permutations of cards on hand
-        for (List<String> sequence : allPermutations) {
-            Robot tempRobot = new Robot();
-            tempRobot.setBoard(board);
-            tempRobot.setDirection(direction);
-            tempRobot.selectStartingPosition(startingPoint);
-
-            // simulate the card sequence for the given robot on the current board
-            Map<Position, Integer> simulationResult = simulateCardSequence(start, tempRobot, sequence);
-            Map.Entry<Position, Integer> entry = simulationResult.entrySet().iterator().next();
-            int score = entry.getValue();
-
-            // Only keep the best permutation / the highest score
-            if (score > bestScore) {
-                bestScore = score;
-                bestSequence = sequence;
-            }
-            // Remove testRobots
-            board.clearRobotPositions();
+    public int evaluateSequence(Position start, Direction startDirection, List<String> sequence) {
+        CompiledMap map = compiledMap;
+        Board board = map.borrowSimulationBoard();
+        Robot tempRobot = new Robot();
+        tempRobot.setDirection(startDirection);
+        tempRobot.selectStartingPosition(startingPoint);
+        try {
+            // simulate the card sequence for the given robot on the borrowed board
+            Map<Position, Integer> simulationResult = simulateCardSequence(board, start, tempRobot, sequence,
+                    Collections.emptyList());
+            return simulationResult.values().iterator().next();
+        } finally {
+            // Removes the testRobot
+            map.returnSimulationBoard(board);
         }
-        logger.info("Best Sequence to reach the CP:"+bestSequence);
-        return bestSequence;
     }
 
     /**
-     * Generates all permutations of 5 cards from the hand, up to a maximum number.
+     * Scores one card sequence in a single Monte-Carlo rollout: the opponents are placed on their last known
+     * positions and play random programs, so pushes, blocked cells and robot lasers are taken into account.
+     * Robots closer to the antenna play their register first.
      *
-     * @param cardsInHand   the available cards
-     * @param maxPermutations the maximum number of permutations to generate
-     * @return a list of valid 5-card sequences
+     * @param start          the starting position
+     * @param startDirection the direction the robot faces at the start
+     * @param sequence       the 5-card sequence to simulate
+     * @param opponents      the last known state of the other robots
+     * @param random         the source of randomness for the opponents' programs
+     * @return the score of the sequence in this rollout; higher is better
      */
-    private List<List<String>> generatePermutationsLimited(List<String> cardsInHand, int maxPermutations) {
-        List<List<String>> result = new ArrayList<>();
-        boolean[] used = new boolean[cardsInHand.size()];
-        generateLimitedSequences(cardsInHand, used, new ArrayList<>(), result, maxPermutations);
-        return result;
+    public int evaluateRollout(Position start, Direction startDirection, List<String> sequence,
+                               List<OpponentModel.Opponent> opponents, Random random) {
+        CompiledMap map = compiledMap;
+        Board board = map.borrowSimulationBoard();
+        Robot tempRobot = new Robot();
+        tempRobot.setDirection(startDirection);
+        tempRobot.selectStartingPosition(startingPoint);
+        try {
+            Position antenna = board.getLandmarks().getAntennaPosition();
+            int ownDistance = antenna == null ? 0 : manhattanDistance(start, antenna);
+            List<SimulatedOpponent> simulatedOpponents = new ArrayList<>(opponents.size());
+            for (OpponentModel.Opponent opponent : opponents) {
+                Position position = opponent.position();
+                if (position.equals(start)) {
+                    continue;
+                }
+                Robot robot = new Robot();
+                robot.setDirection(opponent.direction());
+                robot.selectStartingPosition(new int[]{position.x(), position.y()});
+                board.placeRobot(robot, position.x(), position.y());
+                boolean playsFirst = antenna != null && manhattanDistance(position, antenna) < ownDistance;
+                simulatedOpponents.add(new SimulatedOpponent(robot, OpponentModel.sampleProgram(random), playsFirst));
+            }
+            Map<Position, Integer> simulationResult = simulateCardSequence(board, start, tempRobot, sequence,
+                    simulatedOpponents);
+            return simulationResult.values().iterator().next();
+        } finally {
+            // Removes the testRobot and the opponents
+            map.returnSimulationBoard(board);
+        }
     }
 
     /**
-     * Recursively builds 5-card sequences and stops when the limit is reached.
+     * An opponent robot in a rollout.
      *
-     * @param cardsInHand             available cards
-     * @param used                    boolean array marking used cards
-     * @param currentRegisterCards    current sequence being built
-     * @param registerCardPermutations collection of valid sequences
-     * @param maxPermutations         maximum sequences allowed
+     * @param robot      the robot on the simulation board
+     * @param program    the card types of its five registers; {@code null} entries do nothing
+     * @param playsFirst whether it plays its register before the AI's robot
      */
-    private void generateLimitedSequences(
-            List<String> cardsInHand,
-            boolean[] used,
-            List<String> currentRegisterCards,
-            List<List<String>> registerCardPermutations,
-            int maxPermutations) {
-
-        // Return when limit is reached
-        if (registerCardPermutations.size() >= maxPermutations) {
-            return;
-        }
-
-        // Add if a valid 5 card sequence was reached
-        if (currentRegisterCards.size() == 5) {
-            if (!currentRegisterCards.getFirst().equalsIgnoreCase("Again")) {
-                registerCardPermutations.add(new ArrayList<>(currentRegisterCards));
-            }
-            return;
-        }
-
-        // recursive iterations
-        for (int i = 0; i < cardsInHand.size(); i++) {
-            if (!used[i]) {
-                used[i] = true;
-                currentRegisterCards.add(cardsInHand.get(i));
-
-                generateLimitedSequences(cardsInHand, used, currentRegisterCards,
-                        registerCardPermutations, maxPermutations);
-
-                currentRegisterCards.removeLast();
-                used[i] = false;
-            }
-        }
+    private record SimulatedOpponent(Robot robot, List<CardType> program, boolean playsFirst) {
     }
 
+    private static int manhattanDistance(Position a, Position b) {
+        return Math.abs(a.x() - b.x()) + Math.abs(a.y() - b.y());
+    }
 
     /**
      * Simulates executing a sequence of cards from a start position.
      *
+     * @param board        The board to simulate on.
      * @param start        The starting position of the robot.
      * @param testRobot    A robot instance to simulate moves.
      * @param cardSequence The sequence of cards to simulate.
+     * @param opponents    The opponents on the board; empty to simulate the robot alone.
      * @return A map entry with the final position (after an extra move) as key and its score as value.
      */
-    private Map<Position, Integer> simulateCardSequence(Position start, Robot testRobot, List<String> cardSequence) {
+    private Map<Position, Integer> simulateCardSequence(Board board, Position start, Robot testRobot,
+                                                        List<String> cardSequence, List<SimulatedOpponent> opponents) {
         int temporaryCheckpointIndex = currentCheckpointIndex;
         board.placeRobot(testRobot, start.x(), start.y());
         int totalPenalty = 0;
@@ -162,10 +148,15 @@ public class Pathfinder {
         for (int register = 0; register < cardSequence.size(); register++) {
             int currentRegisterIndex = register;
             String cardName = cardSequence.get(register);
+            playOpponents(board, opponents, register, true);
 
             // Penalty for playing damage cards, higher for earlier registers
             if (DAMAGE_CARDS.contains(cardName)) {
                 totalPenalty+= (int)((6-register) * Math.pow(10,temporaryCheckpointIndex));
+                if (!opponents.isEmpty()) {
+                    playOpponents(board, opponents, register, false);
+                    activateBoardElements(board, register);
+                }
                 continue;
             }
 
@@ -174,9 +165,11 @@ public class Pathfinder {
                 currentRegisterIndex--;
                 cardName = cardSequence.get(currentRegisterIndex);
             }
-            CardType type = Game.getInstance().getCardTypeByName(cardName);
+            CardType type = CardType.forName(cardName);
 
-            simulateMove(register,testRobot,type);
+            applyCard(board, testRobot, type);
+            playOpponents(board, opponents, register, false);
+            activateBoardElements(board, register);
 
             // Bonus if final Checkpoint is reached in an earlier register
             Position currentPos = board.getRobotPositions(testRobot);
@@ -188,7 +181,8 @@ public class Pathfinder {
                     temporaryCheckpointIndex++;
                 }
             }
-            totalPenalty += evaluateTilePenalty(currentPos, temporaryCheckpointIndex);
+            totalPenalty += evaluateTilePenalty(board, currentPos, temporaryCheckpointIndex);
+            totalPenalty += evaluateRobotLaserPenalty(board, testRobot, opponents, temporaryCheckpointIndex);
 
             // If robot is rebooting, do not simulate additional cards
             if (testRobot.getIsRebooting()) {
@@ -200,7 +194,7 @@ public class Pathfinder {
         // Simulation of an additional straight move (MoveI / MoveII)
         Position posAfterMove;
         if(!testRobot.getIsRebooting()){
-            posAfterMove = simulateExtraMove(finalPosition, testRobot, temporaryCheckpointIndex);
+            posAfterMove = simulateExtraMove(board, finalPosition, testRobot, temporaryCheckpointIndex);
             // Penalty if the robot is facing a wall (-> worse for next round)
             if(posAfterMove.equals(finalPosition)){
                 totalPenalty += (int) Math.pow(10, temporaryCheckpointIndex);
@@ -224,12 +218,13 @@ public class Pathfinder {
      * we do not just account for the current position, but have the robot take the best possible position
      * for the next round as well.
      *
+     * @param board                    The board to simulate on.
      * @param startPosition            The starting position for extra move simulation.
      * @param robot                    The robot used for simulation.
      * @param temporaryCheckpointIndex The index of the current checkpoint target.
      * @return The best new position after applying additional moves.
      */
-    private Position simulateExtraMove(Position startPosition, Robot robot, int temporaryCheckpointIndex) {
+    private Position simulateExtraMove(Board board, Position startPosition, Robot robot, int temporaryCheckpointIndex) {
         List<CardType> cardTypesToPlay = new ArrayList<>(Arrays.asList(MOVE_1, MOVE_2));
 
         if(startPosition.equals(getCheckpointPosition(temporaryCheckpointIndex))) {
@@ -240,7 +235,7 @@ public class Pathfinder {
             for(CardType cardType : cardTypesToPlay) {
                 int tempCPIndexCopy = temporaryCheckpointIndex;
                 board.placeRobot(robot, startPosition.x(), startPosition.y());
-                simulateMove(0,robot,cardType);
+                simulateMove(board, 0, robot, cardType);
                 Position newPosition = board.getRobotPositions(robot);
                 if(board.isCheckpointTile(newPosition) && newPosition.equals(getCheckpointPosition(tempCPIndexCopy)) &&
                    tempCPIndexCopy < checkpoints.size()) {
@@ -267,7 +262,7 @@ public class Pathfinder {
      * @return The evaluated score for the position.
      */
     private int evaluatePosition(Position pos, Robot robot, int checkpointIndex) {
-        int distance = evaluateDistance(pos, getCheckpointPosition(checkpointIndex));
+        int distance = evaluateDistance(pos, checkpointIndex);
         int score = adjustDistanceForCheckpoint(distance, checkpointIndex);
         if(robot.getIsRebooting()) {
             score -= (int) (5 * Math.pow(10, checkpointIndex));
@@ -278,11 +273,12 @@ public class Pathfinder {
     /**
      * Evaluates penalties for landing on specific tile types.
      *
+     * @param board           The board to look up the tiles on.
      * @param pos             The position of the robot.
      * @param checkpointIndex The index of the current checkpoint.
      * @return The penalty score for the tile at the given position.
      */
-    private int evaluateTilePenalty(Position pos, int checkpointIndex) {
+    private int evaluateTilePenalty(Board board, Position pos, int checkpointIndex) {
         int penalty = 0;
         // Penalty for LaserTiles
         if (board.isLaserTileAt(pos)) {
@@ -298,13 +294,43 @@ public class Pathfinder {
 
 
     /**
-     * Calculates the absolute distance between two positions.
+     * Evaluates the penalty for standing in the line of fire of opponent robots.
+     *
+     * @param board           The board to simulate on.
+     * @param robot           The AI's robot.
+     * @param opponents       The opponents on the board.
+     * @param checkpointIndex The index of the current checkpoint.
+     * @return The penalty score, one laser tile per opponent that hits the robot.
+     */
+    private int evaluateRobotLaserPenalty(Board board, Robot robot, List<SimulatedOpponent> opponents,
+                                          int checkpointIndex) {
+        int penalty = 0;
+        for (SimulatedOpponent opponent : opponents) {
+            if (board.findRobotInLineOfFire(opponent.robot()) == robot) {
+                penalty += (int) Math.pow(10, checkpointIndex);
+            }
+        }
+        return penalty;
+    }
+
+    /**
+     * Calculates the distance from a position to a checkpoint.
+     * Uses the precomputed distance field of the map, which respects walls, pits and conveyor belts.
+     * Falls back to the Manhattan distance if there is no field or the checkpoint is unreachable from pos.
      *
-     * @param pos  The first position.
-     * @param goal The target position.
-     * @return The Manhattan distance between pos and goal.
+     * @param pos             The position.
+     * @param checkpointIndex The index of the target checkpoint.
+     * @return The number of steps between pos and the checkpoint.
      */
-    private int evaluateDistance(Position pos, Position goal) {
+    private int evaluateDistance(Position pos, int checkpointIndex) {
+        DistanceField distanceField = checkpointDistanceFields.get(checkpointIndex);
+        if (distanceField != null) {
+            int distance = distanceField.getDistance(pos);
+            if (distance != DistanceField.UNREACHABLE) {
+                return distance;
+            }
+        }
+        Position goal = getCheckpointPosition(checkpointIndex);
         return Math.abs(pos.x() - goal.x()) + Math.abs(pos.y() - goal.y());
     }
 
@@ -353,10 +379,60 @@ public class Pathfinder {
     ));
 
 
-    public void setCheckpoints(Map<Integer, Position> checkpointsMap) {
+    public synchronized void setCheckpoints(Map<Integer, Position> checkpointsMap) {
         checkpoints.clear();
         checkpoints.putAll(checkpointsMap);
         currentCheckpointIndex = 1;
+        updateDistanceFields();
+    }
+
+    /**
+     * Updates the position of a checkpoint that has been moved by a conveyor belt.
+     *
+     * @param checkpointIndex the number of the checkpoint
+     * @param newPosition     the new position of the checkpoint
+     */
+    public synchronized void moveCheckpoint(int checkpointIndex, Position newPosition) {
+        checkpoints.put(checkpointIndex, newPosition);
+        if (compiledMap != null) {
+            checkpointDistanceFields.put(checkpointIndex, compiledMap.getDistanceField(newPosition));
+        }
+    }
+
+    /**
+     * Looks up the distance fields of all checkpoints in the compiled map.
+     */
+    private void updateDistanceFields() {
+        checkpointDistanceFields.clear();
+        if (compiledMap == null) {
+            return;
+        }
+        for (Map.Entry<Integer, Position> checkpoint : checkpoints.entrySet()) {
+            checkpointDistanceFields.put(checkpoint.getKey(), compiledMap.getDistanceField(checkpoint.getValue()));
+        }
+    }
+
+    /**
+     * Describes everything besides the hand that the score of a card sequence depends on:
+     * the map, the robot, the targeted checkpoint and the positions of all checkpoints.
+     *
+     * @param start          the starting position
+     * @param startDirection the direction the robot faces at the start
+     * @return a canonical description of the situation, or {@code null} if no board is loaded
+     */
+    public synchronized String describeSituation(Position start, Direction startDirection) {
+        if (compiledMap == null) {
+            return null;
+        }
+        StringBuilder situation = new StringBuilder(compiledMap.getMapHash())
+                .append('|').append(start.x()).append(',').append(start.y())
+                .append('|').append(startDirection)
+                .append('|').append(currentCheckpointIndex)
+                .append('|').append(new TreeMap<>(checkpoints));
+        if (startingPoint != null) {
+            situation.append('|').append(startingPoint[0]).append(',').append(startingPoint[1]);
+        }
+        return situation.toString();
     }
 
     public Position getCheckpointPosition(int checkpointIndex) {
@@ -366,7 +442,7 @@ public class Pathfinder {
     /**
      * Increments the current checkpoint index if there are more checkpoints.
      */
-    public void moveToNextCheckpoint() {
+    public synchronized void moveToNextCheckpoint() {
         if (currentCheckpointIndex < checkpoints.size()) {
             currentCheckpointIndex++;
         }
@@ -377,21 +453,14 @@ public class Pathfinder {
     }
 
     /**
-     * Loads a board from a JSON file and initializes it.
+     * Looks up the compiled map of a board. The map is shared with all other pathfinders in the JVM;
+     * simulations borrow a board from it instead of keeping one per pathfinder.
      *
      * @param boardName the board file name (without ".json")
      */
-    public void initializeBoard(String boardName) {
-        InputStream inputStream = getClass().getClassLoader().getResourceAsStream("maps/" + boardName + ".json");
-        MapParser parser = new MapParser(inputStream);
-        List<List<List<Tile>>> tileBoard = parser.getBoard();
-
-        int rows = tileBoard.size();
-        int cols = tileBoard.getFirst().size();
-        Board newBoard = new Board(rows, cols);
-
-        newBoard.initializeBoard(tileBoard);
-        this.board = newBoard;
+    public synchronized void initializeBoard(String boardName) {
+        this.compiledMap = MapRegistry.getInstance().get(boardName);
+        updateDistanceFields();
     }
 
     /**
@@ -403,7 +472,7 @@ public class Pathfinder {
      * @param targetPosition    The position of the next target tile.
      * @return                  The best direction to choose when rebooting.
      */
-    public Direction findBestDirectionToGoal(Position currentPosition, Position targetPosition) {
+    public synchronized Direction findBestDirectionToGoal(Position currentPosition, Position targetPosition) {
         List<Direction> bestDirections = new ArrayList<>();
         // Identifies the direction(s) of the checkpoint relative to the current position
         if (currentPosition.x() < targetPosition.x()) {
@@ -422,8 +491,8 @@ public class Pathfinder {
         // Selects a random order for the list of bestDirections
         Collections.shuffle(bestDirections, new Random());
 
+        Board board = compiledMap.borrowSimulationBoard();
         Robot tempRobot = new Robot();
-        tempRobot.setBoard(board);
         tempRobot.selectStartingPosition(startingPoint);
 
         // Simulates a Move1 to prevent facing a wall
@@ -431,13 +500,13 @@ public class Pathfinder {
             tempRobot.setDirection(direction);
             board.placeRobot(tempRobot, currentPosition.x(), currentPosition.y());
 
-            simulateMove(0, tempRobot, MOVE_1);
+            simulateMove(board, 0, tempRobot, MOVE_1);
             Position newPosition = board.getRobotPositions(tempRobot);
 
             // Checks if the robot has moved to a new position
             if (!newPosition.equals(currentPosition)) {
                 logger.info("Selected Direction: " + direction + "for restarting.");
-                board.clearRobotPositions();
+                compiledMap.returnSimulationBoard(board);
                 return direction;
             } else {
                 logger.info("Direction: " + direction + " is blocked by a wall.");
@@ -445,12 +514,17 @@ public class Pathfinder {
             board.clearRobotPositions();
         }
 
+        compiledMap.returnSimulationBoard(board);
         logger.warning("No valid direction found towards the goal. Defaulting to UP.");
         return Direction.TOP;
     }
 
 
-    public static void initializeLogger() {
+    public static synchronized void initializeLogger() {
+        // Every pathfinder shares the class logger, so the handler is only added once
+        if (logger.getHandlers().length > 0) {
+            return;
+        }
         logger.setUseParentHandlers(false);
 
         // Create console handler with a custom formatter
@@ -489,15 +563,36 @@ public class Pathfinder {
     /**
      * Applies the effect of a card on a robot and activates board elements.
      *
+     * @param board    the board to simulate on
      * @param register the register index for the move
      * @param robot    the robot to move
      * @param cardType the card effect to apply
      */
 
-    private void simulateMove(int register, Robot robot, CardType cardType) {
+    private void simulateMove(Board board, int register, Robot robot, CardType cardType) {
+        applyCard(board, robot, cardType);
+        activateBoardElements(board, register);
+    }
+
+    private void applyCard(Board board, Robot robot, CardType cardType) {
         if(!(DAMAGE_CARDS.contains(cardType.toString()))){
-            cardType.applyEffect(robot);
+            cardType.applyEffect(robot, board.getContext());
         }
+    }
+
+    /**
+     * Plays the register of every opponent that acts before (or after) the AI's robot.
+     */
+    private void playOpponents(Board board, List<SimulatedOpponent> opponents, int register, boolean beforeRobot) {
+        for (SimulatedOpponent opponent : opponents) {
+            CardType cardType = opponent.program().get(register);
+            if (opponent.playsFirst() == beforeRobot && cardType != null) {
+                applyCard(board, opponent.robot(), cardType);
+            }
+        }
+    }
+
+    private void activateBoardElements(Board board, int register) {
         board.activateConveyorBelts();
         board.activatePushPanels(register);
         board.activateGears();
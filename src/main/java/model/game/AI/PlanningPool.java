@@ -0,0 +1,91 @@
+package model.game.AI;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.logging.Logger;
+
+/**
+ * The compute pool shared by the planners of all AI clients in the JVM.
+ * <p>
+ * Work is submitted as slices: a task does a few milliseconds of work and reports whether it has more.
+ * Unfinished tasks go to the back of one queue shared by all seats, so a long search cannot starve the
+ * other bots, no matter how many of them are planning at the same time.
+ * </p>
+ * <p>
+ * The number of threads can be set with the system property {@code roborally.planningThreads};
+ * the default is one thread per processor.
+ * </p>
+ */
+public class PlanningPool {
+    private static final Logger logger = Logger.getLogger(PlanningPool.class.getName());
+    private static PlanningPool instance;
+
+    private final ForkJoinPool pool;
+    private final ConcurrentLinkedQueue<SliceTask> readyTasks = new ConcurrentLinkedQueue<>();
+
+    /**
+     * A unit of work that can be run in slices.
+     */
+    @FunctionalInterface
+    public interface SliceTask {
+        /**
+         * Runs the next slice of work.
+         *
+         * @return {@code true} if the task has more work and should be scheduled again.
+         */
+        boolean runSlice();
+    }
+
+    /**
+     * Creates a pool.
+     *
+     * @param parallelism the number of threads.
+     */
+    public PlanningPool(int parallelism) {
+        this.pool = new ForkJoinPool(parallelism, ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true);
+    }
+
+    public static synchronized PlanningPool getInstance() {
+        if (instance == null) {
+            int processors = Runtime.getRuntime().availableProcessors();
+            instance = new PlanningPool(Math.max(1, Integer.getInteger("roborally.planningThreads", processors)));
+        }
+        return instance;
+    }
+
+    /**
+     * Queues a task behind all tasks that are already waiting.
+     *
+     * @param task the task to run.
+     */
+    public void submit(SliceTask task) {
+        readyTasks.offer(task);
+        // One pool task per queued slice; whichever thread runs it takes the oldest slice
+        pool.execute(this::runNextSlice);
+    }
+
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    public int getQueuedTaskCount() {
+        return readyTasks.size();
+    }
+
+    private void runNextSlice() {
+        SliceTask task = readyTasks.poll();
+        if (task == null) {
+            return;
+        }
+        boolean hasMoreWork;
+        try {
+            hasMoreWork = task.runSlice();
+        } catch (RuntimeException e) {
+            logger.warning("Planning task failed: " + e.getMessage());
+            hasMoreWork = false;
+        }
+        if (hasMoreWork) {
+            submit(task);
+        }
+    }
+}
@@ -1,18 +1,20 @@
 package model.game;
 
+import helpers.jfr.GamePhaseEvent;
 import model.game.board.Board;
 import model.game.board.Direction;
+import model.game.board.Position;
 import model.game.board.robots.Robot;
-import model.game.board.tiles.StartPointTile;
-import model.game.board.tiles.Tile;
 import model.game.cards.*;
-import model.game.maps.MapParser;
+import model.game.maps.CompiledMap;
+import model.game.maps.MapRegistry;
 import model.server_client.ConnectionHandler;
+import model.server_client.HashedWheelTimer;
 import model.server_client.Server;
 import network.messages.actions8.*;
 import network.messages.cards6.CardPlayedMessage;
-import network.messages.lobby3.GameStartedMessage;
 import network.JsonHandler;
+import network.messages.Message;
 import network.messages.phases7.ActivePhaseMessage;
 import network.messages.phases7.CurrentPlayerMessage;
 import network.messages.phases7.activation.CurrentCardsMessage;
@@ -24,10 +26,10 @@ import network.messages.phases7.upgrade.RefillShopMessage;
 import network.messages.phases7.upgrade.UpgradeBoughtMessage;
 import network.messages.specialMessage5.ErrorMessage;
 
-import java.io.InputStream;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.*;
 
@@ -39,7 +41,7 @@ import model.game.cards.PersonalProgrammingDeck;
  * It handles game state changes, notifications, and interactions between game components.
  * </p>
  */
-public class Game {
+public class Game implements GameContext, GameEvents {
     private static Game instance;
     private int numberPlayers;
     private int currentRound;
@@ -47,9 +49,20 @@ public class Game {
     private final List<Player> players;
     private Player currentPlayer;
     private String boardName;
-    private ScheduledExecutorService timerService;
+    private final HashedWheelTimer timerService;
+    /**
+     * Runs the delayed steps of the game one after another. The timer only fires them, as its tasks must be short.
+     * Shut down when the game finishes and created again for the next game.
+     */
+    private volatile ExecutorService stepExecutor = newStepExecutor();
+    private HashedWheelTimer.Timeout programmingTimeout;
     private boolean isTimerRunning = false;
     private GameState gameState;
+    private GamePhaseEvent phaseEvent;
+    // The values of the phase event, only set on the event if it is committed
+    private String phaseEventPhase;
+    private int phaseEventRound;
+    private int phaseEventPlayers;
     private DamageCardsDeck spamDeck;
     private DamageCardsDeck trojanDeck;
     private DamageCardsDeck virusDeck;
@@ -67,6 +80,15 @@ public class Game {
     private int currentRegisterIndex;
     private int currentPlayerIndex;
     private Logger logger;
+    /**
+     * Held while state messages are sent, so the messages of different threads are not interleaved.
+     */
+    private final Object stateSendLock = new Object();
+    /**
+     * The open state frame of each thread, so a card played on a client thread never lands in the frame of
+     * the board activation running on the step thread.
+     */
+    private final ThreadLocal<StateFrame> stateFrame = new ThreadLocal<>();
 
 
     private final HashMap<Integer, Integer> adminPrivilegePlayers = new HashMap<>();
@@ -76,7 +98,7 @@ public class Game {
      * It handles game state changes, notifications, and interactions between game components.
      */
     public Game() {
-        this.timerService = Executors.newScheduledThreadPool(1);
+        this.timerService = HashedWheelTimer.getInstance();
         this.players = new ArrayList<>();
         this.priorityOrder = new ArrayList<>();
         this.numberPlayers = 0;
@@ -129,6 +151,9 @@ public class Game {
      * Starts the game by building the board, setting checkpoints, and starting the setup.
      */
     public void startGame() {
+        if (stepExecutor.isShutdown()) {
+            stepExecutor = newStepExecutor();
+        }
         buildBoard();
         logger.info("Game: setCHeckPoints");
         setCheckpointsToWin(board);
@@ -143,40 +168,29 @@ public class Game {
      */
     public void buildBoard() {
         logger.info("Building board");
-        boardName = (server.getSelectedMap());
-        boardName = boardName.replaceAll("\\s+", "").toLowerCase();
-        // Lade die Ressource mit dem Klassenlader
-        InputStream inputStream = getClass().getClassLoader().getResourceAsStream("maps/" + boardName + ".json");
-
+        CompiledMap compiledMap = MapRegistry.getInstance().get(server.getSelectedMap());
+        boardName = compiledMap.getName();
+        logger.info("Using compiled map: " + boardName);
 
-        logger.info("Resource found and loaded successfully: maps/" + boardName + ".json");
-
-        MapParser parser = new MapParser(inputStream);
-        List<List<List<Tile>>> tileBoard = parser.getBoard();
-
-        int rows = tileBoard.size();
-        int cols = tileBoard.getFirst().size();
-        Board board = new Board(rows, cols);
-
-        board.initializeBoard(tileBoard);
+        Board board = compiledMap.createBoard();
         logger.info("Game: this.board");
         this.board = board;
         board.setLogger(logger);
+        board.setContext(this);
 
-        logger.info("Game: fieldMap");
-        List<List<List<GameStartedMessage.Field>>> fieldMap = parser.convertTilesToFields(tileBoard);
-        logger.info("Game: fieldMap printer:" + fieldMap.toString());
         logger.info("Game: notifyGameStarted");
         int startingEnergy = 5;
-        notifyGameStarted(startingEnergy, fieldMap);
+        notifyGameStarted(compiledMap, startingEnergy);
     }
 
 
-    private void notifyGameStarted(int startingEnergy, List<List<List<GameStartedMessage.Field>>> fieldMap) {
-        GameStartedMessage gsm = new GameStartedMessage(startingEnergy, fieldMap);
-        String gsmJson = JsonHandler.toJson(gsm);
-        server.broadcastToAll(gsmJson);
+    private void notifyGameStarted(CompiledMap compiledMap, int startingEnergy) {
+        server.broadcastGameStarted(compiledMap, startingEnergy);
         server.isGameRunning = true;
+        server.getChatService().openGameRoom(players.stream()
+                .map(player -> server.getConnectionHandlerById(player.getPlayerId()))
+                .filter(Objects::nonNull)
+                .toList());
     }
 
 
@@ -245,7 +259,7 @@ public class Game {
             RefillShopMessage mes = new RefillShopMessage(upgradeNames);
             mesJson = JsonHandler.toJson(mes);
         }
-        server.broadcastToPlayers(mesJson, players);
+        broadcastToPlayers(mesJson, players);
 
     }
 
@@ -262,7 +276,7 @@ public class Game {
                     if (!isStartingPointAvailable(startingPosition)) {
                         ErrorMessage startingPointTakenError = new ErrorMessage("StartingPointTaken");
                         String errorJson = JsonHandler.toJson(startingPointTakenError);
-                        server.getConnectionHandlerById(player.getPlayerId()).sendMessage(errorJson);
+                        sendMessage(server.getConnectionHandlerById(player.getPlayerId()), errorJson);
                     } else {
                         player.getRobot().selectStartingPosition(startingPosition);
 
@@ -280,7 +294,7 @@ public class Game {
                                 startingPosition[0], startingPosition[1],
                                 player.getRobot().getDirection().toLowercaseString(), player.getPlayerId());
                         String stmJson = JsonHandler.toJson(stm);
-                        server.broadcastToPlayers(stmJson, players);
+                        broadcastToPlayers(stmJson, players);
 
                         if (!haveAllPlayersChosen()) {
                             moveToNextPlayer();
@@ -292,14 +306,14 @@ public class Game {
                 } else {
                     ErrorMessage notYourTurnError = new ErrorMessage("NotYourTurn");
                     String errorJson = JsonHandler.toJson(notYourTurnError);
-                    server.getConnectionHandlerById(player.getPlayerId()).sendMessage(errorJson);
+                    sendMessage(server.getConnectionHandlerById(player.getPlayerId()), errorJson);
                 }
             }
         } else {
             ErrorMessage wrongPhaseError = new ErrorMessage(
                     "You can only do this during SetUp.");
             String errorJson = JsonHandler.toJson(wrongPhaseError);
-            server.getConnectionHandlerById(player.getPlayerId()).sendMessage(errorJson);
+            sendMessage(server.getConnectionHandlerById(player.getPlayerId()), errorJson);
         }
     }
 
@@ -331,7 +345,7 @@ public class Game {
             logger.severe("Not an upgrade phase");
             UpgradeBoughtMessage ubm = new UpgradeBoughtMessage(player.getPlayerId(), upCard);
             String ubmJson = JsonHandler.toJson(ubm);
-            server.broadcastToPlayers(ubmJson, players);
+            broadcastToPlayers(ubmJson, players);
 
             player.setHasChosen(true);
 
@@ -345,7 +359,7 @@ public class Game {
             logger.severe("Player " + player.getName() + " is not currently in game");
             UpgradeBoughtMessage ubm = new UpgradeBoughtMessage(player.getPlayerId(), upCard);
             String ubmJson = JsonHandler.toJson(ubm);
-            server.broadcastToPlayers(ubmJson, players);
+            broadcastToPlayers(ubmJson, players);
 
             player.setHasChosen(true);
 
@@ -373,7 +387,7 @@ public class Game {
             logger.severe("No upgrade found for " + upCard);
             UpgradeBoughtMessage ubm = new UpgradeBoughtMessage(player.getPlayerId(), upCard);
             String ubmJson = JsonHandler.toJson(ubm);
-            server.broadcastToPlayers(ubmJson, players);
+            broadcastToPlayers(ubmJson, players);
 
             player.setHasChosen(true);
 
@@ -388,7 +402,7 @@ public class Game {
             logger.severe("Player " + player.getName() + " does not have enough energy cube.");
             UpgradeBoughtMessage ubm = new UpgradeBoughtMessage(player.getPlayerId(), upCard);
             String ubmJson = JsonHandler.toJson(ubm);
-            server.broadcastToPlayers(ubmJson, players);
+            broadcastToPlayers(ubmJson, players);
 
             player.setHasChosen(true);
 
@@ -408,7 +422,7 @@ public class Game {
 
         UpgradeBoughtMessage ubm = new UpgradeBoughtMessage(player.getPlayerId(), upCard);
         String ubmJson = JsonHandler.toJson(ubm);
-        server.broadcastToPlayers(ubmJson, players);
+        broadcastToPlayers(ubmJson, players);
 
         player.addUpgradeCard(upgradeCard);
         player.setHasChosen(true);
@@ -459,6 +473,33 @@ public class Game {
         }
     }
 
+    /**
+     * Fills all registers of a player at once during the programming phase.
+     * The players are told with one broadcast instead of one per register.
+     *
+     * @param player    the player taking their turn
+     * @param cardNames the names of the programming cards, in register order
+     * @return {@code true} if the program was accepted, {@code false} if it is not valid or not
+     * the programming phase
+     */
+    public boolean takeTurnProgramming(Player player, List<String> cardNames) {
+        if (gameState != GameState.PROGRAMMING_PHASE) {
+            logger.severe("This action can not be performed right now.");
+            return false;
+        }
+        if (!player.selectCardsForRegisters(cardNames)) {
+            return false;
+        }
+        logger.info(player.getName() + " register is filled with" + player.getRobotMat().getRegisters());
+        List<Integer> registers = new ArrayList<>();
+        for (int register = 0; register < cardNames.size(); register++) {
+            registers.add(register);
+        }
+        server.broadcastCardsSelected(player.getPlayerId(), registers, players);
+        selectionFinished(player);
+        return true;
+    }
+
     /**
      * Begins the activation phase.
      * Fills empty registers, resets reboot status, and processes registers.
@@ -512,7 +553,7 @@ public class Game {
         if (currentPlayerIndex >= priorityOrder.size()) {
             logger.info("Activating board tiles.");
             board.activateTiles(currentRegisterIndex);
-            timerService.schedule(() -> {
+            scheduleStep(() -> {
                 // Check if the game has been won after activating tiles
                 if (hasGameBeenWon()) {
                     logger.info("Game is done");
@@ -529,7 +570,7 @@ public class Game {
         Player player = priorityOrder.get(currentPlayerIndex);
         setCurrentPlayer(player);
 
-        timerService.schedule(() -> {
+        scheduleStep(() -> {
             currentPlayerIndex++;
             processNextPlayer();
         }, 2, TimeUnit.SECONDS);
@@ -566,9 +607,10 @@ public class Game {
             default:
                 logger.severe("Invalid game state: " + phase);
         }
+        recordPhase(gameState.name());
 
         String apmJson = JsonHandler.toJson(apm);
-        server.broadcastToPlayers(apmJson, players);
+        broadcastToPlayers(apmJson, players);
     }
 
     /**
@@ -580,7 +622,7 @@ public class Game {
         List<CurrentCardsMessage.ActiveCard> activeCards = getActiveCards(currentRegister);
         CurrentCardsMessage currentCardsMessage = new CurrentCardsMessage(activeCards);
         String currentCardsJson = JsonHandler.toJson(currentCardsMessage);
-        server.broadcastToPlayers(currentCardsJson, players);
+        broadcastToPlayers(currentCardsJson, players);
     }
 
 
@@ -627,7 +669,7 @@ public class Game {
             ConnectionHandler playerHandler = server.getConnectionHandlerById(player.getPlayerId());
 
             if (playerHandler != null) {
-                playerHandler.sendMessage(ycmJson);
+                sendMessage(playerHandler, ycmJson);
             }
 
             //others
@@ -635,7 +677,7 @@ public class Game {
             String nycmJson = JsonHandler.toJson(nycm);
 
             if (playerHandler != null) {
-                server.broadcastToPlayersExceptSelf(nycmJson, playerHandler, players);
+                broadcastToPlayersExceptSelf(nycmJson, playerHandler, players);
             }
         }
     }
@@ -654,7 +696,7 @@ public class Game {
         player.getProgrammingDeck().shuffle();
         ShuffleCodingMessage scm = new ShuffleCodingMessage(player.getPlayerId());
         String scmJson = JsonHandler.toJson(scm);
-        server.broadcastToPlayers(scmJson, players);
+        broadcastToPlayers(scmJson, players);
     }
 
     /**
@@ -667,7 +709,7 @@ public class Game {
     public void notifyCardSelection(int playerId, int registerPosition, boolean filled) {
         CardSelectedMessage csm = new CardSelectedMessage(playerId, registerPosition, filled);
         String csmJson = JsonHandler.toJson(csm);
-        server.broadcastToPlayers(csmJson, players);
+        broadcastToPlayers(csmJson, players);
     }
 
     /**
@@ -679,7 +721,7 @@ public class Game {
         logger.info("notifyselecitonfinished");
         SelectionFinishedMessage sfm = new SelectionFinishedMessage(player.getPlayerId());
         String sfmJson = JsonHandler.toJson(sfm);
-        server.broadcastToPlayers(sfmJson, players);
+        broadcastToPlayers(sfmJson, players);
     }
 
     /**
@@ -734,13 +776,13 @@ public class Game {
         logger.info("Timer started.");
         TimerStartedMessage tsm = new TimerStartedMessage();
         String tsmJson = JsonHandler.toJson(tsm);
-        server.broadcastToPlayers(tsmJson, players);
+        broadcastToPlayers(tsmJson, players);
 
-        timerService.schedule(() -> {
+        programmingTimeout = scheduleGameStep(() -> {
             logger.info("Timer ended.");
             TimerEndedMessage tem = new TimerEndedMessage(getClientsWithUnfilledRegisters());
             String temJson = JsonHandler.toJson(tem);
-            server.broadcastToPlayers(temJson, players);
+            broadcastToPlayers(temJson, players);
             isTimerRunning = false;
 
             if (getGameState() == GameState.PROGRAMMING_PHASE && timerRound == currentRound) {
@@ -751,13 +793,15 @@ public class Game {
     }
 
     /**
-     * Cancels the programming timer and resets the timer service.
+     * Cancels the pending programming timer.
      */
     private void cancelTimer() {
         if (isTimerRunning) {
             logger.info("Timer cancelled as all players have chosen.");
-            timerService.shutdownNow();
-            timerService = Executors.newScheduledThreadPool(1); // Timer-Dienst neu initialisieren
+            if (programmingTimeout != null) {
+                programmingTimeout.cancel();
+                programmingTimeout = null;
+            }
             isTimerRunning = false;
         }
     }
@@ -786,7 +830,7 @@ public class Game {
                 resetProgrammingDeck(player);
                 ShuffleCodingMessage scm = new ShuffleCodingMessage(player.getPlayerId());
                 String scmJson = JsonHandler.toJson(scm);
-                server.broadcastToPlayers(scmJson, players);
+                broadcastToPlayers(scmJson, players);
             }
 
             Card drawnCard = player.getProgrammingDeck().drawCard();
@@ -798,7 +842,7 @@ public class Game {
                         resetProgrammingDeck(player);
                         ShuffleCodingMessage scm = new ShuffleCodingMessage(player.getPlayerId());
                         String scmJson = JsonHandler.toJson(scm);
-                        server.broadcastToPlayers(scmJson, players);
+                        broadcastToPlayers(scmJson, players);
                     }
                     drawnCard = player.getProgrammingDeck().drawCard();
 
@@ -811,7 +855,7 @@ public class Game {
         }
         CardsYouGotNowMessage cygnm = new CardsYouGotNowMessage(cardsToRegister);
         String cygnmJson = JsonHandler.toJson(cygnm);
-        server.getConnectionHandlerById(player.getPlayerId()).sendMessage(cygnmJson);
+        sendMessage(server.getConnectionHandlerById(player.getPlayerId()), cygnmJson);
     }
 
 
@@ -863,7 +907,7 @@ public class Game {
         logger.info("current player is " + player.getName());
         CurrentPlayerMessage cpm = new CurrentPlayerMessage(player.getPlayerId());
         String cpmJson = JsonHandler.toJson(cpm);
-        server.broadcastToPlayers(cpmJson, players);
+        broadcastToPlayers(cpmJson, players);
     }
 
     /**
@@ -894,7 +938,7 @@ public class Game {
             logger.info("Upgrade cards " + newUpgradeCards);
             ExchangeShopMessage esm = new ExchangeShopMessage(newUpgradeCards);
             String esmJson = JsonHandler.toJson(esm);
-            server.broadcastToPlayers(esmJson, players);
+            broadcastToPlayers(esmJson, players);
         } else {
             refillShop();
         }
@@ -1070,13 +1114,23 @@ public class Game {
      * @param cardName The name of the card to be played.
      */
     public void playCard(Player player, String cardName) {
+        runInStateFrame(() -> resolveCard(player, cardName));
+    }
+
+    /**
+     * Applies the effect of a played card. Called inside a state frame by {@link #playCard(Player, String)}.
+     *
+     * @param player   The {@link Player} who is playing the card.
+     * @param cardName The name of the card to be played.
+     */
+    private void resolveCard(Player player, String cardName) {
         int playerId = player.getPlayerId();
         CardType card = getCardTypeByName(cardName);
         // Activate Upgrade
         //TODO Should upgrade cards activate if player is rebooting?
         if (card != null) {
             if(card instanceof UpgradeCardType){
-                card.applyEffect(player.getRobot());
+                card.applyEffect(player.getRobot(), this);
                 // Remove temporary upgrade cards
                 if(!((UpgradeCardType) card).getIsPermanent()){
                     ArrayList<UpgradeCardType> upgrades = player.getUpgradeCards();
@@ -1099,10 +1153,10 @@ public class Game {
             if (card != null) {
                 if (card == ProgrammingCardType.AGAIN) {
                     CardType lastPlayedCard = getCardTypeByName(player.getLastPlayedCard());
-                    lastPlayedCard.applyEffect(player.getRobot());
+                    lastPlayedCard.applyEffect(player.getRobot(), this);
                 } else {
                     player.setLastPlayedCard(cardName);
-                    card.applyEffect(player.getRobot());
+                    card.applyEffect(player.getRobot(), this);
                 }
                 notifyCardPlayed(playerId, cardName);
             } else {
@@ -1120,9 +1174,7 @@ public class Game {
      * @param cardName the name of the played card.
      */
     public void notifyCardPlayed(int playerId, String cardName) {
-        CardPlayedMessage cpm = new CardPlayedMessage(playerId, cardName);
-        String cpmJson = JsonHandler.toJson(cpm);
-        server.broadcastToPlayers(cpmJson, players);
+        broadcastState(new CardPlayedMessage(playerId, cardName));
     }
 
     /**
@@ -1137,24 +1189,7 @@ public class Game {
      * @return The {@link CardType} that matches the name, or {@code null} if no match is found.
      */
     public CardType getCardTypeByName(String cardName) {
-        for (ProgrammingCardType cardType : ProgrammingCardType.values()) {
-            if (cardType.getName().equalsIgnoreCase(cardName)) {
-                return cardType;
-            }
-        }
-
-        for (DamageCardType cardType : DamageCardType.values()) {
-            if (cardType.getName().equalsIgnoreCase(cardName)) {
-                return cardType;
-            }
-        }
-
-        for (UpgradeCardType cardType : UpgradeCardType.values()) {
-            if (cardType.getName().equalsIgnoreCase(cardName)   ) {
-                return cardType;
-            }
-        }
-        return null;
+        return CardType.forName(cardName);
     }
 
     public List<Player> getPlayers() {
@@ -1177,9 +1212,7 @@ public class Game {
      * @param checkpointNumber the number of the checkpoint reached
      */
     public void notifyCheckpointReached(int clientID, int checkpointNumber) {
-        CheckPointReachedMessage crm = new CheckPointReachedMessage(clientID, checkpointNumber);
-        String crmJson = JsonHandler.toJson(crm);
-        server.broadcastToPlayers(crmJson, players);
+        broadcastState(new CheckPointReachedMessage(clientID, checkpointNumber));
     }
 
     /**
@@ -1189,9 +1222,151 @@ public class Game {
      * @param source a short descriptor indicating the source of the energy gain (e.g. "EnergySpace")
      */
     public void notifyEnergyValues(Player player, String source) {
-        EnergyMessage em = new EnergyMessage(player.getPlayerId(), player.getEnergyCube(), source);
-        String emJson = JsonHandler.toJson(em);
-        server.broadcastToPlayers(emJson, players);
+        broadcastState(new EnergyMessage(player.getPlayerId(), player.getEnergyCube(), source));
+    }
+
+    @Override
+    public void scheduleStep(Runnable step, long delay, TimeUnit unit) {
+        scheduleGameStep(step, delay, unit);
+    }
+
+    /**
+     * Schedules a step on the shared timer, which hands it to the step thread of this game when it is due.
+     *
+     * @return the handle to cancel the step before it is due.
+     */
+    private HashedWheelTimer.Timeout scheduleGameStep(Runnable step, long delay, TimeUnit unit) {
+        return timerService.schedule(() -> {
+            if (!submitStep(step)) {
+                logger.fine("Dropped a step of the finished game");
+            }
+        }, delay, unit);
+    }
+
+    /**
+     * Runs a step on the step thread of this game, e.g. removing a player whose connection expired, so it
+     * never runs at the same time as the board activation. Once the game has finished, nothing else changes
+     * it anymore and the step runs on the calling thread.
+     *
+     * @param step the step to run.
+     */
+    public void runStep(Runnable step) {
+        if (!submitStep(step)) {
+            step.run();
+        }
+    }
+
+    /**
+     * Hands a step to the step thread.
+     *
+     * @param step the step to run.
+     * @return {@code false} if the game has finished and the step was not accepted.
+     */
+    private boolean submitStep(Runnable step) {
+        try {
+            stepExecutor.execute(() -> {
+                try {
+                    step.run();
+                } catch (RuntimeException e) {
+                    logger.log(Level.SEVERE, "Game step failed", e);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    private static ExecutorService newStepExecutor() {
+        return Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "game-steps");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Runs an action as one state frame. All state messages the action produces on this thread are collected
+     * and broadcast together when it finishes. Frames may be nested; only the outermost frame is sent.
+     *
+     * @param action the card resolution or board activation step to run.
+     */
+    public void runInStateFrame(Runnable action) {
+        StateFrame frame = stateFrame.get();
+        if (frame == null) {
+            frame = new StateFrame();
+            stateFrame.set(frame);
+        }
+        frame.depth++;
+        try {
+            action.run();
+        } finally {
+            if (--frame.depth == 0) {
+                stateFrame.remove();
+                flushStateFrame(frame);
+            }
+        }
+    }
+
+    /**
+     * Broadcasts a state message to all players, or adds it to the state frame of this thread if one is open.
+     *
+     * @param message the state message.
+     */
+    private void broadcastState(Message message) {
+        StateFrame frame = stateFrame.get();
+        if (frame != null) {
+            frame.events.add(message);
+            return;
+        }
+        synchronized (stateSendLock) {
+            server.broadcastToPlayers(JsonHandler.toJson(message), players);
+        }
+    }
+
+    /**
+     * Sends the state messages collected so far in the frame of this thread. Called before any other message
+     * leaves the game, so clients never see e.g. a prompt or the end of the game before the state leading to it.
+     */
+    private void flushStateFrame() {
+        StateFrame frame = stateFrame.get();
+        if (frame != null) {
+            flushStateFrame(frame);
+        }
+    }
+
+    private void flushStateFrame(StateFrame frame) {
+        if (frame.events.isEmpty()) {
+            return;
+        }
+        List<Message> events = new ArrayList<>(frame.events);
+        frame.events.clear();
+        synchronized (stateSendLock) {
+            server.broadcastStateFrame(events, players);
+        }
+    }
+
+    private void broadcastToPlayers(String json, List<Player> recipients) {
+        flushStateFrame();
+        server.broadcastToPlayers(json, recipients);
+    }
+
+    private void broadcastToPlayersExceptSelf(String json, ConnectionHandler self, List<Player> recipients) {
+        flushStateFrame();
+        server.broadcastToPlayersExceptSelf(json, self, recipients);
+    }
+
+    private void sendMessage(ConnectionHandler handler, String json) {
+        flushStateFrame();
+        handler.sendMessage(json);
+    }
+
+    /**
+     * The state messages of an open frame and how deeply frames are nested on the thread.
+     */
+    private static final class StateFrame {
+        private final List<Message> events = new ArrayList<>();
+        private int depth;
     }
 
     /**
@@ -1202,9 +1377,7 @@ public class Game {
      * @param y        the new y-coordinate of the robot
      */
     public void notifyMovement(int playerId, int x, int y) {
-        MovementMessage mov = new MovementMessage(playerId, x, y);
-        String movJson = JsonHandler.toJson(mov);
-        server.broadcastToPlayers(movJson, players);
+        broadcastState(new MovementMessage(playerId, x, y));
     }
 
     /**
@@ -1214,9 +1387,7 @@ public class Game {
      * @param rotation the rotation direction (e.g., "clockwise" or "counterclockwise")
      */
     public synchronized void notifyTurning(int playerId, String rotation) {
-        PlayerTurningMessage ptm = new PlayerTurningMessage(playerId, rotation);
-        String ptmJson = JsonHandler.toJson(ptm);
-        server.broadcastToPlayers(ptmJson, players);
+        broadcastState(new PlayerTurningMessage(playerId, rotation));
     }
 
     /**
@@ -1225,9 +1396,7 @@ public class Game {
      * @param playerId the ID of the player whose robot is rebooting
      */
     public void notifyReboot(int playerId) {
-        RebootMessage rm = new RebootMessage(playerId);
-        String rmJson = JsonHandler.toJson(rm);
-        server.broadcastToPlayers(rmJson, players);
+        broadcastState(new RebootMessage(playerId));
     }
 
     /**
@@ -1236,9 +1405,7 @@ public class Game {
      * @param type a string representing the type of animation (e.g., a key or identifier)
      */
     public void notifyAnimation(String type) {
-        AnimationMessage anm = new AnimationMessage(type);
-        String anmJson = JsonHandler.toJson(anm);
-        server.broadcastToPlayers(anmJson, players);
+        broadcastState(new AnimationMessage(type));
     }
 
     /**
@@ -1249,9 +1416,7 @@ public class Game {
      * @param playerId the ID of the player whose card was replaced
      */
     public void notifyReplaceCard(int register, String newCard, int playerId) {
-        ReplaceCardMessage rcm = new ReplaceCardMessage(register, newCard, playerId);
-        String rcmJson = JsonHandler.toJson(rcm);
-        server.broadcastToPlayers(rcmJson, players);
+        broadcastState(new ReplaceCardMessage(register, newCard, playerId));
     }
 
     /**
@@ -1263,8 +1428,39 @@ public class Game {
     public void notifyGameFinished(Player player) {
         GameFinishedMessage gfm = new GameFinishedMessage(player.getPlayerId());
         String gfmJson = JsonHandler.toJson(gfm);
+        flushStateFrame();
         server.broadcastToAll(gfmJson);
         server.isGameRunning = false;
+        server.getMatchmakingService().onGameFinished();
+        server.getChatService().closeGameRoom();
+        recordPhase(null);
+        // Lets the step running now finish, the steps still scheduled are dropped
+        stepExecutor.shutdown();
+    }
+
+    /**
+     * Ends the flight recorder event of the current phase and starts one for the next phase.
+     *
+     * @param phase the name of the next phase, or {@code null} if the game is over.
+     */
+    private synchronized void recordPhase(String phase) {
+        if (phaseEvent != null) {
+            phaseEvent.end();
+            if (phaseEvent.shouldCommit()) {
+                phaseEvent.phase = phaseEventPhase;
+                phaseEvent.round = phaseEventRound;
+                phaseEvent.players = phaseEventPlayers;
+                phaseEvent.commit();
+            }
+        }
+        phaseEvent = null;
+        if (phase != null) {
+            phaseEvent = new GamePhaseEvent();
+            phaseEventPhase = phase;
+            phaseEventRound = currentRound;
+            phaseEventPlayers = players.size();
+            phaseEvent.begin();
+        }
     }
 
     public void setBoardName(String board) {
@@ -1275,6 +1471,15 @@ public class Game {
         return board;
     }
 
+    /**
+     * The game notifies the clients itself.
+     *
+     * @return this game.
+     */
+    public GameEvents getEvents() {
+        return this;
+    }
+
     /**
      * Draws a specified count of damage cards from the appropriate deck for a player.
      * Adds these cards to the player's personal discard deck and notifies other players.
@@ -1329,7 +1534,7 @@ public class Game {
     public void notifyPickDamage(Player player, int count, List<String> availablePiles) {
         PickDamageMessage pdm = new PickDamageMessage(count, availablePiles);
         String pdmJson = JsonHandler.toJson(pdm);
-        server.getConnectionHandlerById(player.getPlayerId()).sendMessage(pdmJson);
+        sendMessage(server.getConnectionHandlerById(player.getPlayerId()), pdmJson);
     }
 
     /**
@@ -1339,9 +1544,7 @@ public class Game {
      * @param cards  a list of names/types of the drawn damage cards
      */
     public void notifyDrawDamage(Player player, List<String> cards) {
-        DrawDamageMessage ddm = new DrawDamageMessage(player.getPlayerId(), cards);
-        String ddmJson = JsonHandler.toJson(ddm);
-        server.broadcastToPlayers(ddmJson, players);
+        broadcastState(new DrawDamageMessage(player.getPlayerId(), cards));
     }
 
     /**
@@ -1381,16 +1584,8 @@ public class Game {
     }
 
     private void gatherStartingPoints() {
-        List<List<List<Tile>>> boardMap = board.getMap();
-        for (int x = 0; x < boardMap.size(); x++) {
-            for (int y = 0; y < boardMap.get(x).size(); y++) {
-                List<Tile> tileList = boardMap.get(x).get(y);
-                for (Tile tile : tileList) {
-                    if (tile instanceof StartPointTile) {
-                        availableStartingPoints.add(new int[]{x, y});
-                    }
-                }
-            }
+        for (Position startPoint : board.getLandmarks().getStartPoints()) {
+            availableStartingPoints.add(new int[]{startPoint.x(), startPoint.y()});
         }
     }
 
@@ -1469,9 +1664,7 @@ public class Game {
      * @param checkpointID the checkpoint ID.
      */
     public void notifyCheckpointMoved(int x, int y, int checkpointID) {
-        CheckpointMovedMessage cmm = new CheckpointMovedMessage(checkpointID, x, y);
-        String cmmJson = JsonHandler.toJson(cmm);
-        server.broadcastToPlayers(cmmJson, players);
+        broadcastState(new CheckpointMovedMessage(checkpointID, x, y));
     }
 
     /**
@@ -1488,7 +1681,7 @@ public class Game {
             ErrorMessage wrongPhaseError = new ErrorMessage(
                     "Card can only be used during the programming phase.");
             String errorJson = JsonHandler.toJson(wrongPhaseError);
-            server.getConnectionHandlerById(player.getPlayerId()).sendMessage(errorJson);
+            sendMessage(server.getConnectionHandlerById(player.getPlayerId()), errorJson);
             return;
         }
 
@@ -1509,7 +1702,7 @@ public class Game {
         ConnectionHandler playerHandler = server.getConnectionHandlerById(player.getPlayerId());
 
         if (playerHandler != null) {
-            playerHandler.sendMessage(ycmJson);
+            sendMessage(playerHandler, ycmJson);
         }
     }
 
@@ -1532,7 +1725,7 @@ public class Game {
             ErrorMessage wrongPhaseError = new ErrorMessage(
                     "Card can only be used during the programming phase.");
             String errorJson = JsonHandler.toJson(wrongPhaseError);
-            server.getConnectionHandlerById(player.getPlayerId()).sendMessage(errorJson);
+            sendMessage(server.getConnectionHandlerById(player.getPlayerId()), errorJson);
             return;
         }
 
@@ -1554,7 +1747,7 @@ public class Game {
         String ycmJson = JsonHandler.toJson(ycm);
         ConnectionHandler playerHandler = server.getConnectionHandlerById(player.getPlayerId());
         if (playerHandler != null) {
-            playerHandler.sendMessage(ycmJson);
+            sendMessage(playerHandler, ycmJson);
         }
     }
 }
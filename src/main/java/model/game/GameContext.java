@@ -0,0 +1,72 @@
+package model.game;
+
+import model.game.board.Board;
+import model.game.board.robots.Robot;
+import model.game.cards.CardType;
+import model.game.cards.DamageCardType;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The game that rule code runs against.
+ * <p>
+ * Card effects ({@link CardType#applyEffect(Robot, GameContext)}), robots and board elements get the game
+ * they act on passed in instead of using {@link Game#getInstance()}. The same rule code can therefore run
+ * against the real game, which sends its events to the clients, and against a simulation board, which keeps
+ * everything to itself, e.g. on the planning threads of the AI.
+ * </p>
+ */
+public interface GameContext {
+    Board getBoard();
+
+    /**
+     * @return where the effects of the rules are reported.
+     */
+    GameEvents getEvents();
+
+    Player getPlayerByRobot(Robot robot);
+
+    /**
+     * Lets a player draw damage cards.
+     *
+     * @param player the player that takes damage.
+     * @param card   the type of damage card.
+     * @param count  the number of cards.
+     */
+    void drawDamageCard(Player player, DamageCardType card, int count);
+
+    /**
+     * Shuffles the discard pile of a player back into the programming deck.
+     *
+     * @param player the player whose deck is empty.
+     */
+    void resetProgrammingDeck(Player player);
+
+    /**
+     * Plays a card for a player, e.g. the card that replaced a damage card in a register.
+     *
+     * @param player   the player.
+     * @param cardName the name of the card.
+     */
+    void playCard(Player player, String cardName);
+
+    void handleMemorySwap(Robot robot);
+
+    void handleSpamBlocker(Robot robot);
+
+    /**
+     * Runs an action so that all events it reports are sent together.
+     *
+     * @param action the action.
+     */
+    void runInStateFrame(Runnable action);
+
+    /**
+     * Runs a step of the game after a delay, e.g. the next stage of the board activation.
+     *
+     * @param step  the step.
+     * @param delay the delay.
+     * @param unit  the time unit of the delay.
+     */
+    void scheduleStep(Runnable step, long delay, TimeUnit unit);
+}
@@ -0,0 +1,40 @@
+package model.game;
+
+/**
+ * Receives what happens in a game, so it can be sent to the clients.
+ * <p>
+ * Rule code reports its effects here instead of broadcasting them itself. All methods do nothing by default;
+ * {@link #NONE} is used where nobody is watching, e.g. for simulations.
+ * </p>
+ */
+public interface GameEvents {
+    /**
+     * Ignores all events.
+     */
+    GameEvents NONE = new GameEvents() {
+    };
+
+    default void notifyMovement(int playerId, int x, int y) {
+    }
+
+    default void notifyTurning(int playerId, String rotation) {
+    }
+
+    default void notifyAnimation(String type) {
+    }
+
+    default void notifyReboot(int playerId) {
+    }
+
+    default void notifyEnergyValues(Player player, String source) {
+    }
+
+    default void notifyReplaceCard(int register, String newCard, int playerId) {
+    }
+
+    default void notifyCheckpointMoved(int x, int y, int checkpointID) {
+    }
+
+    default void notifyCheckpointReached(int clientID, int checkpointNumber) {
+    }
+}
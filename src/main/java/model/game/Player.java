@@ -201,6 +201,48 @@ public class Player {
         return false;
     }
 
+    /**
+     * Places cards from the players hand into all registers at once. Cards that are already in the registers
+     * go back to the hand first. If the program is not valid, nothing changes.
+     *
+     * @param cardNames the names of the cards, in register order
+     * @return {@code true} if all registers were filled, {@code false} if the program is not valid
+     */
+    public boolean selectCardsForRegisters(List<String> cardNames) {
+        if (registerFilled || cardNames == null || cardNames.size() != robotMat.getRegisters().size()
+                || "Again".equalsIgnoreCase(cardNames.getFirst())) {
+            return false;
+        }
+        List<Card> available = new ArrayList<>(hand);
+        for (Card card : robotMat.getRegisters()) {
+            if (card != null) {
+                available.add(card);
+            }
+        }
+        List<Card> program = new ArrayList<>(cardNames.size());
+        for (String cardName : cardNames) {
+            Card selected = null;
+            for (Card card : available) {
+                if (card.type().getName().equals(cardName)) {
+                    selected = card;
+                    break;
+                }
+            }
+            if (selected == null) {
+                return false;
+            }
+            available.remove(selected);
+            program.add(selected);
+        }
+        hand.clear();
+        hand.addAll(available);
+        for (int position = 0; position < program.size(); position++) {
+            updateRegister(program.get(position), position);
+        }
+        registerFilled = true;
+        return true;
+    }
+
     public void buyUpgrade(String upgradeCardName){
         //TODO
     }
@@ -0,0 +1,198 @@
+package model.game;
+
+import model.game.board.Board;
+import model.game.board.Direction;
+import model.game.board.Position;
+import model.game.board.robots.Robot;
+import model.game.cards.CardType;
+import model.game.cards.DamageCardType;
+import model.game.cards.ProgrammingCardType;
+import model.game.maps.CompiledMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Previews the program of a player while the cards are chosen.
+ * <p>
+ * The registers are simulated with the same rule code as the game, on a board of the map that is kept for the
+ * whole game. The outcome of every register is kept, so when a card changes only the registers from that one
+ * onward are simulated again. The robot is simulated alone: other robots, damage cards and upgrades are not
+ * known in advance and are left out, as are checkpoints moved by conveyor belts.
+ * </p>
+ * <p>
+ * An instance is not thread-safe; it is meant to be used by the UI thread.
+ * </p>
+ */
+public class ProgramPreview {
+    public static final int REGISTERS = 5;
+
+    private final Board board;
+    private final Robot robot = new Robot();
+    private final String[] program = new String[REGISTERS];
+    private final RegisterOutcome[] outcomes = new RegisterOutcome[REGISTERS];
+    private int laserHits;
+    private Position start;
+    private Direction startDirection;
+    private int nextCheckpoint;
+
+    /**
+     * What happens to the robot in one register.
+     *
+     * @param path              the positions the robot is on after its card and after the board elements,
+     *                          without repeating a position.
+     * @param position          the position at the end of the register.
+     * @param direction         the direction at the end of the register.
+     * @param rebooted          whether the robot is rebooting, e.g. because it fell into a pit; the registers
+     *                          after a reboot are not played.
+     * @param laserHits         how often the robot is hit by board lasers.
+     * @param checkpointReached the number of the checkpoint reached, or {@code 0}.
+     */
+    public record RegisterOutcome(List<Position> path, Position position, Direction direction, boolean rebooted,
+                                  int laserHits, int checkpointReached) {
+    }
+
+    /**
+     * Counts the board laser hits of the previewed robot, which has no player to draw damage.
+     */
+    private class PreviewContext extends SimulationContext {
+        PreviewContext(Board board) {
+            super(board);
+        }
+
+        @Override
+        public void drawDamageCard(Player player, DamageCardType card, int count) {
+            laserHits += count;
+        }
+    }
+
+    /**
+     * Creates a preview for a map.
+     *
+     * @param map the map of the game.
+     */
+    public ProgramPreview(CompiledMap map) {
+        this.board = map.createBoard();
+        board.setContext(new PreviewContext(board));
+    }
+
+    /**
+     * Sets where the robot starts the round. If it changed, all registers are simulated again.
+     *
+     * @param start          the position of the robot.
+     * @param direction      the direction of the robot.
+     * @param nextCheckpoint the number of the next checkpoint the robot has to reach.
+     */
+    public void setStart(Position start, Direction direction, int nextCheckpoint) {
+        if (start.equals(this.start) && direction == startDirection && nextCheckpoint == this.nextCheckpoint) {
+            return;
+        }
+        this.start = start;
+        this.startDirection = direction;
+        this.nextCheckpoint = nextCheckpoint;
+        // Reboots on the start board put the robot back where the round started
+        robot.selectStartingPosition(new int[]{start.x(), start.y()});
+        simulateFrom(0);
+    }
+
+    /**
+     * Puts a card into a register and simulates the program from that register onward.
+     *
+     * @param register the register, from 0.
+     * @param cardName the name of the card, or {@code null} if the register is empty.
+     * @return the outcome of every register.
+     */
+    public List<RegisterOutcome> setCard(int register, String cardName) {
+        if (!Objects.equals(program[register], cardName)) {
+            program[register] = cardName;
+            simulateFrom(register);
+        }
+        return getOutcomes();
+    }
+
+    /**
+     * Empties all registers.
+     */
+    public void clearProgram() {
+        Arrays.fill(program, null);
+        simulateFrom(0);
+    }
+
+    /**
+     * @return the outcome of every register, or an empty list if the start is not set.
+     */
+    public List<RegisterOutcome> getOutcomes() {
+        return start == null ? List.of() : Collections.unmodifiableList(Arrays.asList(outcomes));
+    }
+
+    private void simulateFrom(int firstRegister) {
+        if (start == null) {
+            return;
+        }
+        RegisterOutcome previous = firstRegister == 0 ? null : outcomes[firstRegister - 1];
+        Position position = previous == null ? start : previous.position();
+        board.clearRobotPositions();
+        board.placeRobot(robot, position.x(), position.y());
+        robot.setDirection(previous == null ? startDirection : previous.direction());
+        robot.setIsRebooting(previous != null && previous.rebooted());
+        int checkpoint = nextCheckpoint;
+        for (int register = 0; register < firstRegister; register++) {
+            if (outcomes[register].checkpointReached() > 0) {
+                checkpoint++;
+            }
+        }
+        for (int register = firstRegister; register < REGISTERS; register++) {
+            outcomes[register] = simulateRegister(register, checkpoint);
+            if (outcomes[register].checkpointReached() > 0) {
+                checkpoint++;
+            }
+        }
+    }
+
+    /**
+     * Plays one register like the game does, but only with the board elements that do not need a player.
+     */
+    private RegisterOutcome simulateRegister(int register, int checkpoint) {
+        List<Position> path = new ArrayList<>(2);
+        laserHits = 0;
+        int checkpointReached = 0;
+        if (!robot.getIsRebooting()) {
+            CardType cardType = resolveCard(register);
+            if (cardType instanceof ProgrammingCardType) {
+                cardType.applyEffect(robot, board.getContext());
+            }
+            addToPath(path, board.getRobotPositions(robot));
+            board.activateConveyorBelts();
+            board.activatePushPanels(register);
+            board.activateGears();
+            board.activateLasers();
+            Position position = board.getRobotPositions(robot);
+            addToPath(path, position);
+            if (!robot.getIsRebooting() && position.equals(board.getCheckpointPosition(checkpoint))) {
+                checkpointReached = checkpoint;
+            }
+        }
+        return new RegisterOutcome(List.copyOf(path), board.getRobotPositions(robot), robot.getDirection(),
+                robot.getIsRebooting(), laserHits, checkpointReached);
+    }
+
+    /**
+     * @return the card played in a register; an Again card plays the card of the register before it.
+     */
+    private CardType resolveCard(int register) {
+        int cardRegister = register;
+        while (cardRegister > 0 && "Again".equals(program[cardRegister])) {
+            cardRegister--;
+        }
+        return program[cardRegister] == null ? null : CardType.forName(program[cardRegister]);
+    }
+
+    private static void addToPath(List<Position> path, Position position) {
+        if (path.isEmpty() || !path.getLast().equals(position)) {
+            path.add(position);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package model.game;
+
+import model.game.board.Board;
+import model.game.board.robots.Robot;
+import model.game.cards.DamageCardType;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The context of a board that is only used for simulating moves.
+ * <p>
+ * Its robots have no players, so there are no decks or cards: damage, card replacement and upgrade effects
+ * do nothing, and no events are reported. Each simulation board has its own context, so simulations can run
+ * on any thread at the same time as the real game.
+ * </p>
+ */
+public class SimulationContext implements GameContext {
+    private final Board board;
+
+    /**
+     * Creates the context of a simulation board.
+     *
+     * @param board the board that is simulated.
+     */
+    public SimulationContext(Board board) {
+        this.board = board;
+    }
+
+    @Override
+    public Board getBoard() {
+        return board;
+    }
+
+    @Override
+    public GameEvents getEvents() {
+        return GameEvents.NONE;
+    }
+
+    @Override
+    public Player getPlayerByRobot(Robot robot) {
+        return robot.getPlayer();
+    }
+
+    @Override
+    public void drawDamageCard(Player player, DamageCardType card, int count) {
+    }
+
+    @Override
+    public void resetProgrammingDeck(Player player) {
+    }
+
+    @Override
+    public void playCard(Player player, String cardName) {
+    }
+
+    @Override
+    public void handleMemorySwap(Robot robot) {
+    }
+
+    @Override
+    public void handleSpamBlocker(Robot robot) {
+    }
+
+    @Override
+    public void runInStateFrame(Runnable action) {
+        action.run();
+    }
+
+    /**
+     * Runs the step at once, as nobody watches a simulation.
+     */
+    @Override
+    public void scheduleStep(Runnable step, long delay, TimeUnit unit) {
+        step.run();
+    }
+}
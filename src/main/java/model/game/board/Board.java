@@ -1,9 +1,9 @@
 package model.game.board;
 
-import javafx.animation.PauseTransition;
-import javafx.util.Duration;
-import model.game.Game;
+import helpers.jfr.ActivationStageEvent;
+import model.game.GameContext;
 import model.game.Player;
+import model.game.SimulationContext;
 import model.game.board.robots.Robot;
 import model.game.board.tiles.*;
 import model.game.cards.DamageCardType;
@@ -11,6 +11,7 @@ import model.game.cards.UpgradeCardType;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
 
 /**
@@ -24,18 +25,24 @@ public class Board {
     private final ConcurrentHashMap<Robot, int[]> robotPositions;
     List<List<List<Tile>>> map; // Organized as rows -> columns -> list of tiles
 
-    private AntennaTile antenna;
-    private final List<ConveyorBeltTile> greenConveyorBelts;
-    private final List<ConveyorBeltTile> blueConveyorBelts;
+    private BoardLandmarks landmarks;
+    // Current checkpoint positions by checkpoint number
+    private final Map<Integer, Position> checkpointPositions = new HashMap<>();
+    private ConveyorGraph conveyorGraph;
     private final List<PushPanelTile> pushPanels;
     private final List<GearTile> gears;
     private final List<EnergySpaceTile> energySpaces;
     private final List<CheckpointTile> checkpoints;
     private final List<Position> laserStartingPositions;
     private Logger logger;
+    // Created when first needed, so this board does not escape from its constructor
+    private GameContext context;
 
     /**
      * Constructs a board with the specified number of rows and columns.
+     * <p>
+     * A new board is a simulation board until it is handed to a game with {@link #setContext(GameContext)}.
+     * </p>
      *
      * @param rows the number of rows on the board
      * @param cols the number of columns on the board
@@ -55,8 +62,6 @@ public class Board {
             map.add(row);
         }
 
-        this.greenConveyorBelts = new ArrayList<>();
-        this.blueConveyorBelts = new ArrayList<>();
         this.pushPanels = new ArrayList<>();
         this.gears = new ArrayList<>();
         this.energySpaces = new ArrayList<>();
@@ -67,6 +72,25 @@ public class Board {
         this.logger = log;
     }
 
+    /**
+     * Sets the game this board belongs to. Its board elements report their effects to that game.
+     *
+     * @param context the game of the board
+     */
+    public void setContext(GameContext context) {
+        this.context = context;
+    }
+
+    /**
+     * @return the game of the board, or a {@link SimulationContext} if the board belongs to no game.
+     */
+    public GameContext getContext() {
+        if (context == null) {
+            context = new SimulationContext(this);
+        }
+        return context;
+    }
+
     /**
      * Initializes the board’s map and populates internal lists for special tiles.
      *
@@ -75,6 +99,27 @@ public class Board {
     public void initializeBoard(List<List<List<Tile>>> map) {
         this.map = map;
         populateTiles();
+        landmarks = BoardLandmarks.of(map);
+        conveyorGraph = ConveyorGraph.of(map);
+        checkpointPositions.putAll(landmarks.getCheckpointPositions());
+    }
+
+    /**
+     * @return the landmark index built when the board was initialized
+     */
+    public BoardLandmarks getLandmarks() {
+        return landmarks;
+    }
+
+    /**
+     * Returns the current position of a checkpoint, which may differ from its start position
+     * if it has been moved by a conveyor belt.
+     *
+     * @param checkpointNumber the number of the checkpoint
+     * @return the position as (row, column), or {@code null} if there is no such checkpoint
+     */
+    public Position getCheckpointPosition(int checkpointNumber) {
+        return checkpointPositions.get(checkpointNumber);
     }
 
     /**
@@ -92,7 +137,7 @@ public class Board {
         }
         int[] currentPosition = robotPositions.get(robot);
         if (currentPosition == null) {
-            logger.warning("No position found for robot " + robot.getPlayer().getName()+ robot.getName());
+            logger.warning("No position found for robot " + robot.getName());
             return;
         }
         int currentRow = currentPosition[0];
@@ -150,14 +195,7 @@ public class Board {
         for(int row = 0; row <rows; row++){
             for(int col =0;col<cols;col++){
                 for (Tile tile : map.get(row).get(col)){
-                    if(tile instanceof ConveyorBeltTile){
-                        ConveyorBeltTile conveyorBelt = (ConveyorBeltTile)  tile;
-                        if(conveyorBelt.getSpeed()==1){
-                            greenConveyorBelts.add(conveyorBelt);
-                        } else if(conveyorBelt.getSpeed() == 2) {
-                            blueConveyorBelts.add(conveyorBelt);
-                        }
-                    } else if (tile instanceof PushPanelTile) {
+                    if (tile instanceof PushPanelTile) {
                         pushPanels.add((PushPanelTile) tile);
                     } else if (tile instanceof GearTile) {
                         gears.add((GearTile) tile);
@@ -165,8 +203,6 @@ public class Board {
                         energySpaces.add((EnergySpaceTile) tile);
                     } else if (tile instanceof CheckpointTile) {
                         checkpoints.add((CheckpointTile) tile);
-                    } else if (tile instanceof AntennaTile) {
-                        antenna = (AntennaTile) tile;
                     } else if (tile instanceof LaserTile) {
                         LaserTile laser = (LaserTile) tile;
                         if (laser.isStartingLaser()) {
@@ -353,7 +389,9 @@ public class Board {
                 continue;
             }
             if (otherPosition[0] == newRow && otherPosition[1] == newCol) {
-                logger.info(movingRobot.getPlayer().getName() + " " + movingRobot.getName() + " Robot pushes another robot!");
+                if (movingRobot.getPlayer() != null) {
+                    logger.info(movingRobot.getPlayer().getName() + " " + movingRobot.getName() + " Robot pushes another robot!");
+                }
 
                 // Try to push the other robot
                 if (!attemptPush(otherRobot, directionOfMovement)) {
@@ -422,60 +460,64 @@ public class Board {
 
     /**
      * Activates the effects of all board tiles.
+     * <p>
+     * The stages run one after another with short pauses in between, so clients can animate each of them.
+     * The stages are scheduled with {@link GameContext#scheduleStep}, so they run on the thread of the game.
+     * </p>
      *
      * @param currentRegister the current register
      */
     public void activateTiles(int currentRegister) {
-        PauseTransition pt1 = new PauseTransition(Duration.seconds(0.2));
-        pt1.setOnFinished(_ -> {
-            logger.info("Activating blue and then green conveyors...");
-            moveCheckpointsOnConveyorBelts();
-            activateConveyorBelts();
-
-            PauseTransition pt2 = new PauseTransition(Duration.seconds(0.4));
-            pt2.setOnFinished(_ -> {
-                logger.info("Activating push panels...");
-                activatePushPanels(currentRegister);
-
-                PauseTransition pt3 = new PauseTransition(Duration.seconds(0.4));
-                pt3.setOnFinished(_ -> {
-                    logger.info("Activating gears...");
-                    activateGears();
-
-                    PauseTransition pt4 = new PauseTransition(Duration.seconds(1));
-                    pt4.setOnFinished(_ -> {
-                        logger.info("Activating lasers...");
-                        activateLasers();
-                        logger.info("Post lasers");
-
-                        PauseTransition pt5 = new PauseTransition(Duration.seconds(1));
-                        pt5.setOnFinished(_ -> {
-                            logger.info("Activating robot lasers...");
-                            activateRobotLasers();
-
-                            PauseTransition pt6 = new PauseTransition(Duration.seconds(0.5));
-                            pt6.setOnFinished(_ -> {
-                                logger.info("Activating energy spaces...");
-                                activateEnergySpaces();
-
-                                PauseTransition pt7 = new PauseTransition(Duration.seconds(0.5));
-                                pt7.setOnFinished(_ -> {
-                                    logger.info("Checking checkpoints...");
-                                    activateCheckpoints();
-                                });
-                                pt7.play();
-                            });
-                            pt6.play();
-                        });
-                        pt5.play();
-                    });
-                    pt4.play();
-                });
-                pt3.play();
+        getContext().scheduleStep(() -> {
+            runActivationStage("conveyors", currentRegister, () -> {
+                moveCheckpointsOnConveyorBelts();
+                activateConveyorBelts();
             });
-            pt2.play();
-        });
-        pt1.play();
+
+            getContext().scheduleStep(() -> {
+                runActivationStage("pushPanels", currentRegister, () -> activatePushPanels(currentRegister));
+
+                getContext().scheduleStep(() -> {
+                    runActivationStage("gears", currentRegister, this::activateGears);
+
+                    getContext().scheduleStep(() -> {
+                        runActivationStage("lasers", currentRegister, this::activateLasers);
+
+                        getContext().scheduleStep(() -> {
+                            runActivationStage("robotLasers", currentRegister, this::activateRobotLasers);
+
+                            getContext().scheduleStep(() -> {
+                                runActivationStage("energySpaces", currentRegister, this::activateEnergySpaces);
+
+                                getContext().scheduleStep(() -> runActivationStage("checkpoints", currentRegister,
+                                        this::activateCheckpoints), 500, TimeUnit.MILLISECONDS);
+                            }, 500, TimeUnit.MILLISECONDS);
+                        }, 1000, TimeUnit.MILLISECONDS);
+                    }, 1000, TimeUnit.MILLISECONDS);
+                }, 400, TimeUnit.MILLISECONDS);
+            }, 400, TimeUnit.MILLISECONDS);
+        }, 200, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Runs one activation stage in its own state frame, so its movements and animations are sent together,
+     * and records it for the flight recorder.
+     *
+     * @param stage           the name of the stage.
+     * @param currentRegister the current register.
+     * @param activation      activates the board elements of the stage.
+     */
+    private void runActivationStage(String stage, int currentRegister, Runnable activation) {
+        ActivationStageEvent event = new ActivationStageEvent();
+        event.begin();
+        logger.info("Activating " + stage + "...");
+        getContext().runInStateFrame(activation);
+        event.end();
+        if (event.shouldCommit()) {
+            event.stage = stage;
+            event.register = currentRegister;
+            event.commit();
+        }
     }
 
     /**
@@ -485,7 +527,7 @@ public class Board {
         for (GearTile gear : gears) {
             Robot robot = getRobotOnTile(gear);
             if (robot != null) {
-                gear.activate(robot);
+                gear.activate(robot, getContext());
             }
         }
     }
@@ -509,7 +551,7 @@ public class Board {
      * Activates wall lasers. Fires a laser from each starting position in its set direction.
      */
     public void activateLasers() {
-        Game.getInstance().notifyAnimation("WallShooting");
+        getContext().getEvents().notifyAnimation("WallShooting");
         for (Position pos : laserStartingPositions) {
             int row = pos.x();
             int col = pos.y();
@@ -533,7 +575,7 @@ public class Board {
      * For each robot, fires a laser in its facing direction (and rear laser if applicable).
      */
     public void activateRobotLasers() {
-        Game.getInstance().notifyAnimation("PlayerShooting");
+        getContext().getEvents().notifyAnimation("PlayerShooting");
         for (Map.Entry<Robot, int[]> entry : robotPositions.entrySet()) {
             Robot robot = entry.getKey();
             int[] position = entry.getValue();
@@ -561,6 +603,23 @@ public class Board {
         }
     }
 
+    /**
+     * Returns the robot that the front laser of the given robot would hit, without firing it.
+     * Used by the AI to judge whether a position is under fire.
+     *
+     * @param shooter the robot whose laser is traced
+     * @return the robot that would be hit, or {@code null} if the laser hits nothing
+     */
+    public Robot findRobotInLineOfFire(Robot shooter) {
+        int[] position = robotPositions.get(shooter);
+        if (position == null || shooter.getIsRebooting()
+                || hasBlockingWall(position[0], position[1], shooter.getDirection())) {
+            return null;
+        }
+        int[] nextPosition = calculateNewCoordinates(position[0], position[1], shooter.getDirection());
+        return traceLaser(nextPosition[0], nextPosition[1], shooter.getDirection());
+    }
+
     /**
      * Fires a laser from the given starting coordinates in the specified direction.
      * The laser shoots until it hits a robot, is blocked by a wall, or goes out of bounds.
@@ -572,26 +631,42 @@ public class Board {
      * @param damage the damage to apply upon hitting a robot
      */
     private void fireLaser(int startRow, int startCol, Direction direction, int damage) {
+        Robot robot = traceLaser(startRow, startCol, direction);
+        if (robot == null) {
+            return;
+        }
+        int[] position = robotPositions.get(robot);
+        Player damagedPlayer = getContext().getPlayerByRobot(robot);
+        getContext().drawDamageCard(damagedPlayer, DamageCardType.SPAM, damage);
+        if (damagedPlayer != null) {
+            logger.info("Laser hit robot at (" + position[0] + ", " + position[1] + ")" + " " + robot.getName()  + " "  +  damagedPlayer.getName());
+        }
+    }
+
+    /**
+     * Follows a laser from the given starting coordinates until it hits a robot, is blocked by a wall,
+     * or leaves the board.
+     *
+     * @param startRow the row where the laser starts
+     * @param startCol the column where the laser starts
+     * @param direction the direction the laser travels
+     * @return the robot that is hit, or {@code null} if the laser hits nothing
+     */
+    private Robot traceLaser(int startRow, int startCol, Direction direction) {
         int row = startRow;
         int col = startCol;
 
         while (isWithinBounds(row, col)) {
-            // Get all tiles at the current position
-            List<Tile> tilesAtPosition = map.get(row).get(col);
             // Check for a robot on any of the tiles at this position
-            for (Tile tile : tilesAtPosition) {
+            for (Tile tile : map.get(row).get(col)) {
                 Robot robot = getRobotOnTile(tile);
                 if (robot != null) {
-                    Player damagedPlayer = Game.getInstance().getPlayerByRobot(robot);
-                    Game.getInstance().drawDamageCard(damagedPlayer, DamageCardType.SPAM, damage);
-                    logger.info("Laser hit robot at (" + row + ", " + col + ")" + " " + robot.getName()  + " "  +  robot.getPlayer().getName() + " " + damagedPlayer.getName());
-                    return; // Stop the laser
+                    return robot;
                 }
             }
             // Check for a wall blocking the laser on the current tile
             if (hasBlockingWall(row, col, direction)) {
-                logger.info("Laser blocked by wall on current tile at (" + row + ", " + col + ")");
-                return; // Stop the laser
+                return null;
             }
             switch (direction) {
                 case TOP:
@@ -610,10 +685,10 @@ public class Board {
             // Check for a wall blocking the laser from the next tile
             Direction invertedDirection = direction.invert();
             if (isWithinBounds(row, col) && hasBlockingWall(row, col, invertedDirection)) {
-                logger.info("Laser blocked by wall on next tile at (" + row + ", " + col + ")");
-                return; // Stop the laser
+                return null;
             }
         }
+        return null;
     }
 
     /**
@@ -667,7 +742,7 @@ public class Board {
         for (EnergySpaceTile energySpace : energySpaces) {
             Robot robot = getRobotOnTile(energySpace);
             if (robot != null) {
-                energySpace.activate(robot);
+                energySpace.activate(robot, getContext());
             }
         }
     }
@@ -684,7 +759,7 @@ public class Board {
         for (CheckpointTile checkpoint : checkpoints) {
             Robot robot = getRobotOnTile(checkpoint);
             if (robot != null) {
-                checkpoint.activate(robot);
+                checkpoint.activate(robot, getContext());
             }
         }
     }
@@ -733,7 +808,7 @@ public class Board {
 
         robotPositions.put(robot, new int[]{row, col});
         if (robot.getPlayer() != null) {
-            Game.getInstance().notifyMovement(robot.getPlayer().getPlayerId(), row, col);
+            getContext().getEvents().notifyMovement(robot.getPlayer().getPlayerId(), row, col);
         }
 
     }
@@ -746,21 +821,9 @@ public class Board {
      */
     public List<Player> determinePriority() {
         logger.info("board/determinepriority");
-        int[] antennaPosition = new int[]{}; // Find the antenna's position
-        Direction antennaDirection = null; // Get the antenna's direction
-        for (int row = 0; row < rows; row++) {
-            for (int col = 0; col < cols; col++) {
-                for (Tile tile : map.get(row).get(col)) {
-                    if (tile instanceof AntennaTile) {
-                        antennaPosition = new int[]{row, col};
-                        antennaDirection = ((AntennaTile) tile).getDirection();
-                        logger.info("AntennaDirection: " + antennaDirection);
-                        logger.info("AntennaPosition: " + Arrays.toString(antennaPosition));
-                        break;
-                    }
-                }
-            }
-        }
+        Position antenna = landmarks.getAntennaPosition();
+        int[] antennaPosition = new int[]{antenna.x(), antenna.y()};
+        Direction antennaDirection = landmarks.getAntennaDirection();
         // Create a list of robots with their positions
         logger.info("board/RobotPositions: "+ robotPositions);
         List<Map.Entry<Robot, int[]>> robotsWithDistances = new ArrayList<>(robotPositions.entrySet());
@@ -857,34 +920,15 @@ public class Board {
      * @param isOnBoard the board identifier used to match the reboot tile
      */
     public void prepareReboot(Robot robot, String isOnBoard){
-        for(int row = 0; row < rows; row++) {
-            for (int col = 0; col < cols; col++) {
-                for (Tile tile : map.get(row).get(col)) {
-                    if (tile instanceof RebootTokenTile) {
-                        String currentTileIsOnBoard = tile.getIsOnBoard();
-                        if (currentTileIsOnBoard.equals(isOnBoard)) {
-                            RebootTokenTile reboot = (RebootTokenTile) tile;
-                            Direction direction = Direction.TOP;
-                            if (reboot.getDirection() != null) {
-                                direction = reboot.getDirection();
-                            }
-                            if(checkForAnotherRobot(robot, row, col,direction)){// Robots on Reboot Token get pushed off
-                                placeRobot(robot, row, col);
-                                if(robot.getPlayer()!=null){
-                                    Game.getInstance().notifyReboot(robot.getPlayer().getPlayerId());
-                                    Player rebootedPlayer = Game.getInstance().getPlayerByRobot(robot);
-                                    Game.getInstance().drawDamageCard(rebootedPlayer, DamageCardType.SPAM, 2);
-                                }
-                                robot.reboot();
-                                return;
-                            }else{
-                                searchForUnblockedReboot(robot);
-                                return;
-                            }
-                        }
-                    }
-                }
+        BoardLandmarks.RebootPoint rebootPoint = landmarks.getRebootPoint(isOnBoard);
+        if (rebootPoint != null) {
+            Position position = rebootPoint.position();
+            if (checkForAnotherRobot(robot, position.x(), position.y(), rebootPoint.direction())) {// Robots on Reboot Token get pushed off
+                rebootAt(robot, position.x(), position.y());
+            } else {
+                searchForUnblockedReboot(robot);
             }
+            return;
         }
         if(isOnBoard.startsWith("Start")){
             prepareRebootStartPoint(robot);
@@ -899,27 +943,11 @@ public class Board {
      * @param robot the robot to reboot
      */
     private void searchForUnblockedReboot(Robot robot){
-        for (int row = 0; row < rows; row++) {
-            for (int col = 0; col < cols; col++) {
-                for (Tile tile : map.get(row).get(col)) {
-                    if (tile instanceof RebootTokenTile) {
-                        RebootTokenTile reboot = (RebootTokenTile) tile;
-                        Direction direction = Direction.TOP;
-                        if (reboot.getDirection() != null) {
-                            direction = reboot.getDirection();
-                        }
-                        if (checkForAnotherRobot(robot, row, col, direction)) {
-                            placeRobot(robot, row, col);
-                            if(robot.getPlayer()!=null){
-                                Game.getInstance().notifyReboot(robot.getPlayer().getPlayerId());
-                                Player rebootedPlayer = Game.getInstance().getPlayerByRobot(robot);
-                                Game.getInstance().drawDamageCard(rebootedPlayer, DamageCardType.SPAM, 2);
-                            }
-                            robot.reboot();
-                            return;
-                        }
-                    }
-                }
+        for (BoardLandmarks.RebootPoint rebootPoint : landmarks.getRebootPoints()) {
+            Position position = rebootPoint.position();
+            if (checkForAnotherRobot(robot, position.x(), position.y(), rebootPoint.direction())) {
+                rebootAt(robot, position.x(), position.y());
+                return;
             }
         }
     }
@@ -937,11 +965,22 @@ public class Board {
             searchForUnblockedReboot(robot);
             return;
         }
-        placeRobot(robot, startRow, startCol);
+        rebootAt(robot, startRow, startCol);
+    }
+
+    /**
+     * Places the robot on a reboot position, notifies the players and lets the player draw two SPAM cards.
+     *
+     * @param robot the robot to reboot
+     * @param row the row of the reboot position
+     * @param col the column of the reboot position
+     */
+    private void rebootAt(Robot robot, int row, int col) {
+        placeRobot(robot, row, col);
         if (robot.getPlayer() != null) {
-            Game.getInstance().notifyReboot(robot.getPlayer().getPlayerId());
-            Player rebootedPlayer = Game.getInstance().getPlayerByRobot(robot);
-            Game.getInstance().drawDamageCard(rebootedPlayer, DamageCardType.SPAM, 2);
+            getContext().getEvents().notifyReboot(robot.getPlayer().getPlayerId());
+            Player rebootedPlayer = getContext().getPlayerByRobot(robot);
+            getContext().drawDamageCard(rebootedPlayer, DamageCardType.SPAM, 2);
         }
         robot.reboot();
     }
@@ -951,171 +990,132 @@ public class Board {
      * Moves robots along the belts and adjusts their orientation when switching directions.
      */
     public void activateConveyorBelts() {
-        // Clone current robot positions
-        ConcurrentHashMap<Robot, int[]> oldRobotPositions = new ConcurrentHashMap<>(robotPositions);
-        Set<Robot> movedRobots = new HashSet<>();
-        // Handle blue conveyor belts, then green conveyor belts
-        for (int speed = 2; speed >= 1; speed--) {
-            for (int row = 0; row < rows; row++) {
-                for (int col = 0; col < cols; col++) {
-                    for (Tile tile : map.get(row).get(col)) {
-                        if (tile instanceof ConveyorBeltTile) {
-                            ConveyorBeltTile conveyor = (ConveyorBeltTile) tile;
-                            if (conveyor.getSpeed() == speed) {
-                                Robot robot = getRobotOnTile(conveyor);
-                                if (robot == null) {
-                                    continue;
-                                }
-                                // Skip if the robot has already been moved
-                                if (movedRobots.contains(robot)) {
-                                    if (robot.getPlayer() != null) {
-                                    }
-                                    continue;
-                                }
-                                if (greenConveyorBelts.contains(conveyor)) {
-                                    if(robot.getPlayer()!=null){
-                                    }
-                                    moveRobotOnConveyor(robot, conveyor);
-                                    if(robot.getPlayer()!=null){
-                                        Game.getInstance().notifyAnimation("GreenConveyorBelt");
-                                    }
-                                } else if (blueConveyorBelts.contains(conveyor)) {
-                                    if(robot.getPlayer()!=null){
-                                    }
-                                    moveRobotOnConveyor(robot, conveyor);
-                                    int[] currentPosition = robotPositions.get(robot);
-                                    if (currentPosition == null) {
-                                        if(robot.getPlayer()!=null){
-                                            logger.info("Robot position is null for robot on conveyor at " +
-                                                    "(" + row + ", " + col + ")");
-                                        }
-                                        continue;
-                                    }
-                                    for (Tile nextTile : map.get(currentPosition[0]).get(currentPosition[1])) {
-                                        if (nextTile instanceof ConveyorBeltTile) {
-                                            moveRobotOnConveyor(robot, (ConveyorBeltTile) nextTile);
-                                            if(robot.getPlayer()!=null){
-                                                Game.getInstance().notifyAnimation("BlueConveyorBelt");
-                                            }
-                                        }
-                                    }
-                                }
-                                movedRobots.add(robot);
-                            }
-                        }
-                    }
-                }
-            }
-            movedRobots.clear();
+        moveRobotsOnConveyorBelts(2);
+        moveRobotsOnConveyorBelts(1);
+    }
 
-            // Check if multiple robots occupy the same space
-            handleRobotCollisions(oldRobotPositions);
-            oldRobotPositions = new ConcurrentHashMap<>(robotPositions);
-            for (Map.Entry<Robot, int[]> entry : robotPositions.entrySet()) {
-                Robot robot = entry.getKey();
-                int[] position = entry.getValue();
-                placeRobot(robot, position[0], position[1]);
-            }
+    /**
+     * A robot carried by the belts in one phase.
+     */
+    private static final class BeltMove {
+        final Robot robot;
+        final int from;
+        final List<String> rotations = new ArrayList<>();
+        int to;
+        byte outcome = ConveyorGraph.MOVE;
+        int rebootCell;
+
+        BeltMove(Robot robot, int from) {
+            this.robot = robot;
+            this.from = from;
+            this.to = from;
         }
-    }
 
+        void stay() {
+            to = from;
+            rotations.clear();
+        }
+    }
 
     /**
-     * Moves the given robot along the specified conveyor belt tile.
+     * Moves all robots standing on belts of the given speed at the same time. Only the robots are visited,
+     * the board is not scanned. Robots that would end up on the same cell, or on the cell of a robot that
+     * stays, do not move; robots carried off the board or into a pit reboot.
      *
-     * @param robot the robot on the conveyor
-     * @param conveyor the conveyor belt tile determining movement direction and speed
+     * @param speed 2 for the blue belts, which carry a robot two cells, 1 for the green belts
      */
-    private void moveRobotOnConveyor(Robot robot, ConveyorBeltTile conveyor) {
-        // Determine the next position based on the conveyor's outflow direction
-        if(robot == null){
-            return;
+    private void moveRobotsOnConveyorBelts(int speed) {
+        List<BeltMove> moves = new ArrayList<>();
+        for (Map.Entry<Robot, int[]> entry : robotPositions.entrySet()) {
+            int cell = conveyorGraph.cell(entry.getValue()[0], entry.getValue()[1]);
+            if (conveyorGraph.speed(cell) == speed) {
+                moves.add(planBeltMove(entry.getKey(), cell, speed));
+            }
         }
-        int[] currentPosition = robotPositions.get(robot);
-        int currentRow = currentPosition[0];
-        int currentCol = currentPosition[1];
-
-        // Calculate the new position for the pushed robot
-        int[] newPosition = calculateNewCoordinates(currentPosition[0], currentPosition[1],
-                conveyor.getOutflowDirection());
-        int newRow = newPosition[0];
-        int newCol = newPosition[1];
-
-        if (!checkBoundaries(robot, newRow, newCol, currentRow, currentCol)
-            || !checkPit(robot, newRow, newCol)
-            || !checkWallCurrentTile(currentRow, currentCol, conveyor.getOutflowDirection())
-            || !checkWallNextTile(currentRow, currentCol, conveyor.getOutflowDirection())) {
+        if (moves.isEmpty()) {
             return;
         }
+        resolveBeltConflicts(moves);
 
-        // Move the robot to the next position
-        //placeRobot(robot, newRow, newCol);
-        robotPositions.put(robot, new int[]{newRow, newCol});
-
-        // Get the tile at the new position
-        List<Tile> nextTiles = map.get(newRow).get(newCol);
-        // Check for rotation on the conveyor belt
-        for (Tile tile : nextTiles) {
-            if (tile instanceof ConveyorBeltTile) {
-                ConveyorBeltTile nextConveyor = (ConveyorBeltTile) tile;
-                // Compare the outflow directions
-                Direction fromOutflow = conveyor.getOutflowDirection();
-                Direction toOutflow = nextConveyor.getOutflowDirection();
-                if (!fromOutflow.equals(toOutflow)) {
-                    handleRotationOnConveyor(fromOutflow, toOutflow, robot);
+        boolean animate = false;
+        for (BeltMove move : moves) {
+            if (move.outcome != ConveyorGraph.MOVE || move.to == move.from) {
+                continue;
+            }
+            placeRobot(move.robot, conveyorGraph.row(move.to), conveyorGraph.col(move.to));
+            for (String rotation : move.rotations) {
+                move.robot.rotateRobot(rotation, getContext());
+            }
+            animate |= move.robot.getPlayer() != null;
+        }
+        // Reboot last, so the robots that left the reboot tokens are out of the way
+        for (BeltMove move : moves) {
+            if (move.outcome == ConveyorGraph.OFF_BOARD || move.outcome == ConveyorGraph.PIT) {
+                if (move.robot.getPlayer() != null && move.outcome == ConveyorGraph.PIT) {
+                    logger.info("Robot fell into a pit!");
                 }
-                break;
+                int row = conveyorGraph.row(move.rebootCell);
+                int col = conveyorGraph.col(move.rebootCell);
+                prepareReboot(move.robot, map.get(row).get(col).getFirst().getIsOnBoard());
+                animate |= move.robot.getPlayer() != null;
             }
         }
+        if (animate) {
+            getContext().getEvents().notifyAnimation(speed == 2 ? "BlueConveyorBelt" : "GreenConveyorBelt");
+        }
     }
 
     /**
-     * Rotates a robot when transitioning between conveyor belts with different directions.
-     * The robot rotates clockwise if the difference is 1, or counterclockwise if the difference is 3.
-     *
-     * @param fromOutflow the current conveyor’s direction
-     * @param toOutflow the next conveyor’s direction
-     * @param robot the robot to rotate
+     * Follows the belts from the robot's cell. A robot that reaches a cell without a belt stops there.
      */
-    private void handleRotationOnConveyor(Direction fromOutflow, Direction toOutflow, Robot robot) {
-        List<Direction> directions = List.of(Direction.TOP, Direction.RIGHT, Direction.BOTTOM, Direction.LEFT);
-        int fromIndex = directions.indexOf(fromOutflow);
-        int toIndex = directions.indexOf(toOutflow);
-
-        if (fromIndex == -1 || toIndex == -1) {
-            if(robot.getPlayer()!=null){
-                logger.warning("Invalid directions provided for rotation.");
+    private BeltMove planBeltMove(Robot robot, int cell, int speed) {
+        BeltMove move = new BeltMove(robot, cell);
+        int current = cell;
+        for (int step = 0; step < speed && conveyorGraph.speed(current) > 0; step++) {
+            byte outcome = conveyorGraph.outcome(current);
+            if (outcome == ConveyorGraph.BLOCKED) {
+                break;
             }
-            return;
-        }
-        int diff = (toIndex - fromIndex + 4) % 4;
-        if (diff == 1) {
-            robot.rotateRobot("clockwise");
-        } else if (diff == 3) {
-            robot.rotateRobot("counterclockwise");
+            if (outcome == ConveyorGraph.OFF_BOARD || outcome == ConveyorGraph.PIT) {
+                move.outcome = outcome;
+                move.rebootCell = outcome == ConveyorGraph.PIT ? conveyorGraph.successor(current) : current;
+                break;
+            }
+            String rotation = conveyorGraph.rotation(current);
+            if (rotation != null) {
+                move.rotations.add(rotation);
+            }
+            current = conveyorGraph.successor(current);
         }
+        move.to = current;
+        return move;
     }
 
     /**
-     * Checks for collisions between robots. If two robots share the same cell, they are reset
-     * to their previous positions.
-     *
-     * @param oldRobotPositions a map of robots to their previous positions before conveyor movement
+     * Belts do not push robots: a robot whose target is claimed by another robot stays where it is.
+     * A robot that stays can in turn block the robot behind it, so this repeats until nothing changes.
      */
-    private void handleRobotCollisions(ConcurrentHashMap<Robot, int[]> oldRobotPositions) {
-        List<Robot> robots = new ArrayList<>(robotPositions.keySet()); // Get a list of all robots
-        // Check for collisions by comparing every pair of robots
-        for (int i = 0; i < robots.size(); i++) {
-            Robot robot1 = robots.get(i);
-            int[] position1 = robotPositions.get(robot1);
-            for (int j = i + 1; j < robots.size(); j++) { // Start from i+1 to avoid duplicate comparisons
-                Robot robot2 = robots.get(j);
-                int[] position2 = robotPositions.get(robot2);
-                // Compare positions of the two robots
-                if (position1[0] == position2[0] && position1[1] == position2[1]) {
-                    // Reset both robots to their old positions
-                    robotPositions.put(robot1, oldRobotPositions.get(robot1));
-                    robotPositions.put(robot2, oldRobotPositions.get(robot2));
+    private void resolveBeltConflicts(List<BeltMove> moves) {
+        Map<Robot, BeltMove> movesByRobot = new HashMap<>();
+        for (BeltMove move : moves) {
+            movesByRobot.put(move.robot, move);
+        }
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            Map<Integer, Integer> claims = new HashMap<>();
+            for (Map.Entry<Robot, int[]> entry : robotPositions.entrySet()) {
+                BeltMove move = movesByRobot.get(entry.getKey());
+                if (move == null) {
+                    claims.merge(conveyorGraph.cell(entry.getValue()[0], entry.getValue()[1]), 1, Integer::sum);
+                } else if (move.outcome == ConveyorGraph.MOVE) {
+                    claims.merge(move.to, 1, Integer::sum);
+                }
+            }
+            for (BeltMove move : moves) {
+                if (move.outcome == ConveyorGraph.MOVE && move.to != move.from && claims.get(move.to) > 1) {
+                    move.stay();
+                    changed = true;
                 }
             }
         }
@@ -1210,58 +1210,52 @@ public class Board {
      * Moves robots along the belts and adjusts their orientation when switching directions.
      */
     public void moveCheckpointsOnConveyorBelts() {
-        List<CheckpointTile> movedCheckpoints = new ArrayList<>();
-        for (int row = 0; row < rows; row++) {
-            for (int col = 0; col < cols; col++) {
-                for (Tile tile : new ArrayList<>(map.get(row).get(col))) {
-                    if (tile instanceof CheckpointTile) {
-                        CheckpointTile checkpoint = (CheckpointTile) tile;
-                        if (movedCheckpoints.contains(checkpoint)) {
-                            continue;
-                        }
-                        ConveyorBeltTile conveyorBelt = null;
-                        for (Tile tileConveyor : map.get(row).get(col)) {
-                            if (tileConveyor instanceof ConveyorBeltTile) {
-                                conveyorBelt = (ConveyorBeltTile) tileConveyor;
-                                break;
-                            }
-                        }
-                        if (conveyorBelt == null) {
-                            continue;
-                        }
-                        int speed = conveyorBelt.getSpeed();
-                        int[] currentPosition = {row, col};
-                        Direction currentDirection = conveyorBelt.getOutflowDirection();
-                        for (int i = 0; i < speed; i++) {
-                            int[] newPosition = calculateNewCoordinates(currentPosition[0], currentPosition[1], currentDirection);
-                            int newRow = newPosition[0];
-                            int newCol = newPosition[1];
-                            if (newRow < 0 || newRow >= rows || newCol < 0 || newCol >= cols) {
-                                break;
-                            }
-                            // Remove from old position
-                            map.get(currentPosition[0]).get(currentPosition[1]).remove(checkpoint);
-                            map.get(newRow).get(newCol).add(checkpoint);
-                            Game.getInstance().notifyCheckpointMoved(newRow, newCol, checkpoint.getCheckpointNumber());
-                            currentPosition[0] = newRow;
-                            currentPosition[1] = newCol;
-                            ConveyorBeltTile nextConveyor = null;
-                            for (Tile tileNext : map.get(newRow).get(newCol)) {
-                                if (tileNext instanceof ConveyorBeltTile) {
-                                    nextConveyor = (ConveyorBeltTile) tileNext;
-                                    break;
-                                }
-                            }
-                            if (nextConveyor != null) {
-                                currentDirection = nextConveyor.getOutflowDirection();
-                            } else {
-                                break;
-                            }
-                        }
-                        movedCheckpoints.add(checkpoint);
-                    }
+        for (CheckpointTile checkpoint : checkpoints) {
+            Position position = checkpointPositions.get(checkpoint.getCheckpointNumber());
+            ConveyorBeltTile conveyorBelt = getConveyorBeltAt(position.x(), position.y());
+            if (conveyorBelt == null) {
+                continue;
+            }
+            int speed = conveyorBelt.getSpeed();
+            int[] currentPosition = {position.x(), position.y()};
+            Direction currentDirection = conveyorBelt.getOutflowDirection();
+            for (int i = 0; i < speed; i++) {
+                int[] newPosition = calculateNewCoordinates(currentPosition[0], currentPosition[1], currentDirection);
+                int newRow = newPosition[0];
+                int newCol = newPosition[1];
+                if (newRow < 0 || newRow >= rows || newCol < 0 || newCol >= cols) {
+                    break;
+                }
+                // Remove from old position
+                map.get(currentPosition[0]).get(currentPosition[1]).remove(checkpoint);
+                map.get(newRow).get(newCol).add(checkpoint);
+                getContext().getEvents().notifyCheckpointMoved(newRow, newCol, checkpoint.getCheckpointNumber());
+                currentPosition[0] = newRow;
+                currentPosition[1] = newCol;
+                ConveyorBeltTile nextConveyor = getConveyorBeltAt(newRow, newCol);
+                if (nextConveyor != null) {
+                    currentDirection = nextConveyor.getOutflowDirection();
+                } else {
+                    break;
                 }
             }
+            checkpointPositions.put(checkpoint.getCheckpointNumber(), new Position(currentPosition[0], currentPosition[1]));
         }
     }
+
+    /**
+     * Returns the conveyor belt at the given position.
+     *
+     * @param row the row index
+     * @param col the column index
+     * @return the conveyor belt tile, or {@code null} if there is none
+     */
+    private ConveyorBeltTile getConveyorBeltAt(int row, int col) {
+        for (Tile tile : map.get(row).get(col)) {
+            if (tile instanceof ConveyorBeltTile) {
+                return (ConveyorBeltTile) tile;
+            }
+        }
+        return null;
+    }
 }
\ No newline at end of file
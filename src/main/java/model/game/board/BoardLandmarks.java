@@ -0,0 +1,131 @@
+package model.game.board;
+
+import model.game.board.tiles.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Positions of the tiles the game has to find again and again: the antenna, the reboot tokens,
+ * the start points and the checkpoints.
+ * <p>
+ * The index is built once when a board is initialized and never changes afterwards. Positions use the
+ * same (row, column) order as {@link Board}. Checkpoints can be moved by conveyor belts, so the checkpoint
+ * positions stored here are the positions at the start of the game; the board keeps track of the current ones.
+ * </p>
+ */
+public final class BoardLandmarks {
+
+    /**
+     * A reboot token and the direction a robot faces after rebooting on it.
+     *
+     * @param position  the position of the reboot token.
+     * @param direction the direction of the reboot token, {@link Direction#TOP} if the map does not define one.
+     */
+    public record RebootPoint(Position position, Direction direction) {
+    }
+
+    private final Position antennaPosition;
+    private final Direction antennaDirection;
+    private final List<RebootPoint> rebootPoints;
+    private final Map<String, RebootPoint> rebootPointsBySection;
+    private final List<Position> startPoints;
+    private final Map<Integer, Position> checkpointPositions;
+
+    private BoardLandmarks(Position antennaPosition, Direction antennaDirection, List<RebootPoint> rebootPoints,
+                           Map<String, RebootPoint> rebootPointsBySection, List<Position> startPoints,
+                           Map<Integer, Position> checkpointPositions) {
+        this.antennaPosition = antennaPosition;
+        this.antennaDirection = antennaDirection;
+        this.rebootPoints = Collections.unmodifiableList(rebootPoints);
+        this.rebootPointsBySection = Collections.unmodifiableMap(rebootPointsBySection);
+        this.startPoints = Collections.unmodifiableList(startPoints);
+        this.checkpointPositions = Collections.unmodifiableMap(checkpointPositions);
+    }
+
+    /**
+     * Collects the landmarks of a map in a single pass.
+     *
+     * @param map the board's map organized as rows, columns, and lists of tiles
+     * @return the landmark index of the map
+     */
+    public static BoardLandmarks of(List<List<List<Tile>>> map) {
+        Position antennaPosition = null;
+        Direction antennaDirection = null;
+        List<RebootPoint> rebootPoints = new ArrayList<>();
+        Map<String, RebootPoint> rebootPointsBySection = new LinkedHashMap<>();
+        List<Position> startPoints = new ArrayList<>();
+        Map<Integer, Position> checkpointPositions = new LinkedHashMap<>();
+
+        for (int row = 0; row < map.size(); row++) {
+            for (int col = 0; col < map.get(row).size(); col++) {
+                for (Tile tile : map.get(row).get(col)) {
+                    Position position = new Position(row, col);
+                    if (tile instanceof AntennaTile antenna) {
+                        if (antennaPosition == null) {
+                            antennaPosition = position;
+                            antennaDirection = antenna.getDirection();
+                        }
+                    } else if (tile instanceof RebootTokenTile reboot) {
+                        Direction direction = reboot.getDirection() != null ? reboot.getDirection() : Direction.TOP;
+                        RebootPoint rebootPoint = new RebootPoint(position, direction);
+                        rebootPoints.add(rebootPoint);
+                        // The first reboot token of a section is the one used for robots falling off that section
+                        rebootPointsBySection.putIfAbsent(tile.getIsOnBoard(), rebootPoint);
+                    } else if (tile instanceof StartPointTile) {
+                        startPoints.add(position);
+                    } else if (tile instanceof CheckpointTile checkpoint) {
+                        checkpointPositions.put(checkpoint.getCheckpointNumber(), position);
+                    }
+                }
+            }
+        }
+        return new BoardLandmarks(antennaPosition, antennaDirection, rebootPoints, rebootPointsBySection,
+                startPoints, checkpointPositions);
+    }
+
+    /**
+     * @return the position of the antenna, or {@code null} if the map has none.
+     */
+    public Position getAntennaPosition() {
+        return antennaPosition;
+    }
+
+    public Direction getAntennaDirection() {
+        return antennaDirection;
+    }
+
+    /**
+     * @return all reboot tokens in row-major order.
+     */
+    public List<RebootPoint> getRebootPoints() {
+        return rebootPoints;
+    }
+
+    /**
+     * Returns the reboot token of a board section.
+     *
+     * @param section the "isOnBoard" value of the section, e.g. "1B".
+     * @return the reboot token of the section, or {@code null} if the section has none.
+     */
+    public RebootPoint getRebootPoint(String section) {
+        return rebootPointsBySection.get(section);
+    }
+
+    /**
+     * @return all start points in row-major order.
+     */
+    public List<Position> getStartPoints() {
+        return startPoints;
+    }
+
+    /**
+     * @return the start position of every checkpoint by its number.
+     */
+    public Map<Integer, Position> getCheckpointPositions() {
+        return checkpointPositions;
+    }
+}
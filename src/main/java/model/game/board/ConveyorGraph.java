@@ -0,0 +1,172 @@
+package model.game.board;
+
+import model.game.board.tiles.ConveyorBeltTile;
+import model.game.board.tiles.PitTile;
+import model.game.board.tiles.Tile;
+import model.game.board.tiles.WallTile;
+
+import java.util.List;
+
+/**
+ * The conveyor belts of a map, compiled into flat arrays indexed by cell.
+ * <p>
+ * For every belt cell the graph stores the speed, the cell a robot is carried to and the rotation the robot
+ * makes when it enters a belt with a different outflow direction. Walls, pits and the board edge are resolved
+ * when the graph is built, so moving a robot one step along a belt is a few array lookups. Cells are numbered
+ * {@code row * cols + col}, using the same (row, column) order as {@link Board}.
+ * </p>
+ */
+final class ConveyorGraph {
+
+    /** The robot is carried to the successor cell. */
+    static final byte MOVE = 0;
+    /** A wall stops the robot; it stays where it is. */
+    static final byte BLOCKED = 1;
+    /** The belt carries the robot off the board. */
+    static final byte OFF_BOARD = 2;
+    /** The belt carries the robot into a pit on the successor cell. */
+    static final byte PIT = 3;
+
+    private static final List<Direction> DIRECTIONS =
+            List.of(Direction.TOP, Direction.RIGHT, Direction.BOTTOM, Direction.LEFT);
+
+    private final int rows;
+    private final int cols;
+    private final byte[] speed;
+    private final byte[] outcome;
+    private final int[] successor;
+    private final String[] rotation;
+
+    private ConveyorGraph(int rows, int cols) {
+        this.rows = rows;
+        this.cols = cols;
+        this.speed = new byte[rows * cols];
+        this.outcome = new byte[rows * cols];
+        this.successor = new int[rows * cols];
+        this.rotation = new String[rows * cols];
+    }
+
+    /**
+     * Compiles the conveyor belts of a map.
+     *
+     * @param map the board's map organized as rows, columns, and lists of tiles
+     * @return the conveyor graph of the map
+     */
+    static ConveyorGraph of(List<List<List<Tile>>> map) {
+        int rows = map.size();
+        int cols = rows == 0 ? 0 : map.getFirst().size();
+        ConveyorGraph graph = new ConveyorGraph(rows, cols);
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                ConveyorBeltTile belt = findTile(map.get(row).get(col), ConveyorBeltTile.class);
+                if (belt != null) {
+                    graph.compile(map, row, col, belt);
+                }
+            }
+        }
+        return graph;
+    }
+
+    private void compile(List<List<List<Tile>>> map, int row, int col, ConveyorBeltTile belt) {
+        int cell = cell(row, col);
+        Direction outflow = belt.getOutflowDirection();
+        speed[cell] = (byte) belt.getSpeed();
+        successor[cell] = cell;
+
+        if (hasWall(map.get(row).get(col), outflow)) {
+            outcome[cell] = BLOCKED;
+            return;
+        }
+        int nextRow = row, nextCol = col;
+        switch (outflow) {
+            case TOP -> nextCol--;
+            case RIGHT -> nextRow++;
+            case BOTTOM -> nextCol++;
+            case LEFT -> nextRow--;
+        }
+        if (nextRow < 0 || nextRow >= rows || nextCol < 0 || nextCol >= cols) {
+            outcome[cell] = OFF_BOARD;
+            return;
+        }
+        List<Tile> nextTiles = map.get(nextRow).get(nextCol);
+        if (hasWall(nextTiles, outflow.invert())) {
+            outcome[cell] = BLOCKED;
+            return;
+        }
+        successor[cell] = cell(nextRow, nextCol);
+        if (findTile(nextTiles, PitTile.class) != null) {
+            outcome[cell] = PIT;
+            return;
+        }
+        outcome[cell] = MOVE;
+
+        ConveyorBeltTile nextBelt = findTile(nextTiles, ConveyorBeltTile.class);
+        if (nextBelt != null) {
+            int diff = (DIRECTIONS.indexOf(nextBelt.getOutflowDirection()) - DIRECTIONS.indexOf(outflow) + 4) % 4;
+            if (diff == 1) {
+                rotation[cell] = "clockwise";
+            } else if (diff == 3) {
+                rotation[cell] = "counterclockwise";
+            }
+        }
+    }
+
+    /**
+     * @return the speed of the belt on the cell, 0 if there is none
+     */
+    int speed(int cell) {
+        return speed[cell];
+    }
+
+    /**
+     * @return what happens to a robot carried from the cell: {@link #MOVE}, {@link #BLOCKED},
+     * {@link #OFF_BOARD} or {@link #PIT}
+     */
+    byte outcome(int cell) {
+        return outcome[cell];
+    }
+
+    /**
+     * @return the cell a robot is carried to, the pit cell for {@link #PIT} and the cell itself otherwise
+     */
+    int successor(int cell) {
+        return successor[cell];
+    }
+
+    /**
+     * @return "clockwise" or "counterclockwise" if the robot turns when carried from the cell, otherwise {@code null}
+     */
+    String rotation(int cell) {
+        return rotation[cell];
+    }
+
+    int cell(int row, int col) {
+        return row * cols + col;
+    }
+
+    int row(int cell) {
+        return cell / cols;
+    }
+
+    int col(int cell) {
+        return cell % cols;
+    }
+
+    private static boolean hasWall(List<Tile> tiles, Direction direction) {
+        for (Tile tile : tiles) {
+            if (tile instanceof WallTile wall && wall.getWall(direction)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static <T extends Tile> T findTile(List<Tile> tiles, Class<T> type) {
+        for (Tile tile : tiles) {
+            if (type.isInstance(tile)) {
+                return type.cast(tile);
+            }
+        }
+        return null;
+    }
+}
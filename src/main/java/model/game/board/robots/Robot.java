@@ -1,8 +1,7 @@
 package model.game.board.robots;
 
-import model.game.Game;
+import model.game.GameContext;
 import model.game.Player;
-import model.game.board.Board;
 import model.game.board.Direction;
 
 import java.util.Objects;
@@ -17,7 +16,6 @@ public class Robot {
     private Direction direction;
     private boolean isRebooting = false;
     private Player player;
-    private Board board;
     private int[] startingPosition;
     private Logger logger = Logger.getLogger(Robot.class.getName());
 
@@ -27,12 +25,13 @@ public class Robot {
      * Rotates the robot in the given direction.
      *
      * @param directionOfRotation either "clockwise" or "counterclockwise"
+     * @param context             the game the robot is in
      */
-    public void rotateRobot(String directionOfRotation){
+    public void rotateRobot(String directionOfRotation, GameContext context){
         this.direction = direction.rotate(directionOfRotation);
         if (player != null) {
             logger.info("New Direction: " + direction);
-            Game.getInstance().notifyTurning(player.getPlayerId(), directionOfRotation);
+            context.getEvents().notifyTurning(player.getPlayerId(), directionOfRotation);
         }
     }
 
@@ -43,24 +42,18 @@ public class Robot {
      *     If steps is negative, the robot moves backward one step.
      * </p>
      *
-     * @param steps number of steps to move
+     * @param steps   number of steps to move
+     * @param context the game the robot is in; the robot moves on its board
      */
-   public void moveRobot(int steps){
+   public void moveRobot(int steps, GameContext context){
         if (steps > 0) {
             for (int i = 0; i < steps; i++) {
                 if(!isRebooting){
-                    if(board == null){
-                        Game.getInstance().getBoard().moveRobot(this, direction);
-                    } else {
-                        board.moveRobot(this, direction);
-                    }
+                    context.getBoard().moveRobot(this, direction);
                 }
             }
         } else if (steps < 0){
-            Direction invertedDirection = direction.invert();
-            if(board == null){
-                Game.getInstance().getBoard().moveRobot(this, invertedDirection);
-            } else {board.moveRobot(this, invertedDirection);}
+            context.getBoard().moveRobot(this, direction.invert());
         }
     }
 
@@ -70,8 +63,10 @@ public class Robot {
      * <p>
      *     The robot's direction is inverted and two turn messages are sent out.
      * </p>
+     *
+     * @param context the game the robot is in
      */
-    public void uTurn() {
+    public void uTurn(GameContext context) {
        if (player != null) {
            logger.info("direction before uturn: " + direction);
        }
@@ -81,8 +76,8 @@ public class Robot {
             logger.info("direction after uturn: " + direction);
         }
        if(player != null){
-           Game.getInstance().notifyTurning(player.getPlayerId(), "clockwise");
-           Game.getInstance().notifyTurning(player.getPlayerId(), "clockwise");
+           context.getEvents().notifyTurning(player.getPlayerId(), "clockwise");
+           context.getEvents().notifyTurning(player.getPlayerId(), "clockwise");
        }
     }
 
@@ -146,8 +141,4 @@ public class Robot {
     public int hashCode() {
         return Objects.hash(id);
     }
-
-    public void setBoard(Board board) {
-       this.board = board;
-    }
 }
\ No newline at end of file
@@ -1,6 +1,6 @@
 package model.game.board.tiles;
 
-import model.game.Game;
+import model.game.GameContext;
 import model.game.board.robots.Robot;
 /**
  * Represents a checkpoint tile.
@@ -26,15 +26,16 @@ public class CheckpointTile extends Tile {
      * and the checkpoint reached is notified.
      * </p>
      *
-     * @param robot the robot activating the tile.
+     * @param robot   the robot activating the tile.
+     * @param context the game the tile is in.
      */
     @Override
-    public void activate(Robot robot) {
+    public void activate(Robot robot, GameContext context) {
         int reachedCheckpoints = robot.getPlayer().getCheckpoints();
         if (reachedCheckpoints == (checkpointNumber - 1)) {
             robot.getPlayer().setCheckpoints(checkpointNumber);
-            Game.getInstance().notifyCheckpointReached(robot.getPlayer().getPlayerId(), checkpointNumber);
-            Game.getInstance().notifyAnimation("Checkpoint");
+            context.getEvents().notifyCheckpointReached(robot.getPlayer().getPlayerId(), checkpointNumber);
+            context.getEvents().notifyAnimation("Checkpoint");
         }
     }
 
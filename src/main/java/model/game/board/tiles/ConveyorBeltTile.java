@@ -1,5 +1,6 @@
 package model.game.board.tiles;
 
+import model.game.GameContext;
 import model.game.board.Direction;
 import model.game.board.robots.Robot;
 import java.util.*;
@@ -40,7 +41,7 @@ public class ConveyorBeltTile extends Tile {
     }
 
     @Override
-    public void activate(Robot robot) {
+    public void activate(Robot robot, GameContext context) {
     }
 
     /**
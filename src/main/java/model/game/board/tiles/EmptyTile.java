@@ -1,5 +1,6 @@
 package model.game.board.tiles;
 
+import model.game.GameContext;
 import model.game.board.robots.Robot;
 
 /**
@@ -18,6 +19,6 @@ public class EmptyTile extends Tile {
     }
 
     @Override
-    public void activate(Robot robot) {
+    public void activate(Robot robot, GameContext context) {
     }
 }
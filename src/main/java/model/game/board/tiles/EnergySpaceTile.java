@@ -1,6 +1,6 @@
 package model.game.board.tiles;
 
-import model.game.Game;
+import model.game.GameContext;
 import model.game.board.robots.Robot;
 
 /**
@@ -8,7 +8,6 @@ import model.game.board.robots.Robot;
  */
 public class EnergySpaceTile extends Tile {
     private int count;
-    Game game = Game.getInstance();
 
     /**
      * Constructs an EnergySpaceTile with the specified initial energy count.
@@ -27,16 +26,17 @@ public class EnergySpaceTile extends Tile {
      * The tile adds one energy cube to the robot's player, decrements its count, and notifies the game.
      * </p>
      *
-     * @param robot the robot activating the tile.
+     * @param robot   the robot activating the tile.
+     * @param context the game the tile is in.
      */
     @Override
-    public void activate(Robot robot) {
+    public void activate(Robot robot, GameContext context) {
         if(count>=1){
            robot.getPlayer().addEnergyCubes(1);
             count--;
             int playerEnergyCubes = robot.getPlayer().getEnergyCube();
-            game.notifyEnergyValues(robot.getPlayer(), "EnergySpace");
-            game.notifyAnimation("EnergySpace");
+            context.getEvents().notifyEnergyValues(robot.getPlayer(), "EnergySpace");
+            context.getEvents().notifyAnimation("EnergySpace");
         }
     }
 
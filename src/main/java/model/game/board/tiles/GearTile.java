@@ -1,6 +1,6 @@
 package model.game.board.tiles;
 
-import model.game.Game;
+import model.game.GameContext;
 import model.game.board.robots.Robot;
 
 /**
@@ -26,13 +26,14 @@ public class GearTile extends Tile {
      * The tile rotates the robot according to its defined logic and notifies the game of the gear animation.
      * </p>
      *
-     * @param robot the robot activating the tile.
+     * @param robot   the robot activating the tile.
+     * @param context the game the tile is in.
      */
     @Override
-    public void activate(Robot robot) {
-        robot.rotateRobot(direction);
+    public void activate(Robot robot, GameContext context) {
+        robot.rotateRobot(direction, context);
         if(robot.getPlayer()!=null) {
-            Game.getInstance().notifyAnimation("Gear");
+            context.getEvents().notifyAnimation("Gear");
         }
     }
 
@@ -1,5 +1,6 @@
 package model.game.board.tiles;
 
+import model.game.GameContext;
 import model.game.board.Direction;
 import model.game.board.robots.Robot;
 
@@ -26,7 +27,7 @@ public class LaserTile extends Tile {
     }
 
     @Override
-    public void activate(Robot robot) {
+    public void activate(Robot robot, GameContext context) {
     }
 
     public int getDamage(){
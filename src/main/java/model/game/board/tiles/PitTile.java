@@ -1,5 +1,6 @@
 package model.game.board.tiles;
 
+import model.game.GameContext;
 import model.game.board.robots.Robot;
 
 /**
@@ -11,6 +12,6 @@ public class PitTile extends Tile {
     }
 
     @Override
-    public void activate(Robot robot) {
+    public void activate(Robot robot, GameContext context) {
     }
 }
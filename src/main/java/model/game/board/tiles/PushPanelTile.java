@@ -1,6 +1,6 @@
 package model.game.board.tiles;
 
-import model.game.Game;
+import model.game.GameContext;
 import model.game.board.Board;
 import model.game.board.Direction;
 import model.game.board.robots.Robot;
@@ -29,7 +29,7 @@ public class PushPanelTile extends Tile {
     }
 
     @Override
-    public void activate(Robot robot) {
+    public void activate(Robot robot, GameContext context) {
     }
 
     /**
@@ -44,7 +44,7 @@ public class PushPanelTile extends Tile {
             if((activationRegisters.get(i)-1) == currentRegister) {
                 board.moveRobot(robot, direction);
                 if(robot.getPlayer()!=null) {
-                    Game.getInstance().notifyAnimation("PushPanel");
+                    board.getContext().getEvents().notifyAnimation("PushPanel");
                 }
             }
         }
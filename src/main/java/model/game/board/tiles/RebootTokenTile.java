@@ -1,5 +1,6 @@
 package model.game.board.tiles;
 
+import model.game.GameContext;
 import model.game.board.Direction;
 import model.game.board.robots.Robot;
 
@@ -21,7 +22,7 @@ public class RebootTokenTile extends Tile {
     }
 
     @Override
-    public void activate(Robot robot) {
+    public void activate(Robot robot, GameContext context) {
     }
 
     public Direction getDirection() {
@@ -1,5 +1,6 @@
 package model.game.board.tiles;
 
+import model.game.GameContext;
 import model.game.board.robots.Robot;
 
 /**
@@ -15,6 +16,6 @@ public class StartPointTile extends Tile{
         super("StartPoint", isOnBoard);
     }
     @Override
-    public void activate(Robot robot) {
+    public void activate(Robot robot, GameContext context) {
     }
 }
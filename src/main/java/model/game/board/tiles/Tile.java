@@ -1,5 +1,6 @@
 package model.game.board.tiles;
 
+import model.game.GameContext;
 import model.game.board.robots.Robot;
 
 /**
@@ -31,8 +32,9 @@ public abstract class Tile {
     /**
      * Activates the tile's effect on a robot.
      *
-     * @param robot the robot that activates the tile.
+     * @param robot   the robot that activates the tile.
+     * @param context the game the tile is in.
      */
-    public abstract void activate(Robot robot);
+    public abstract void activate(Robot robot, GameContext context);
 }
 
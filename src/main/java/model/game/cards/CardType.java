@@ -1,6 +1,6 @@
 package model.game.cards;
 
-import model.game.Player;
+import model.game.GameContext;
 import model.game.board.robots.Robot;
 
 /**
@@ -9,5 +9,36 @@ import model.game.board.robots.Robot;
 public interface CardType {
     String getName();
 
-    void applyEffect(Robot robot);
+    /**
+     * Applies the effect of the card.
+     *
+     * @param robot   the robot of the player that plays the card.
+     * @param context the game the card is played in.
+     */
+    void applyEffect(Robot robot, GameContext context);
+
+    /**
+     * Looks up a card type by its name, ignoring case.
+     *
+     * @param cardName the name of the card.
+     * @return the programming, damage or upgrade card type, or {@code null} if there is none.
+     */
+    static CardType forName(String cardName) {
+        for (ProgrammingCardType cardType : ProgrammingCardType.values()) {
+            if (cardType.getName().equalsIgnoreCase(cardName)) {
+                return cardType;
+            }
+        }
+        for (DamageCardType cardType : DamageCardType.values()) {
+            if (cardType.getName().equalsIgnoreCase(cardName)) {
+                return cardType;
+            }
+        }
+        for (UpgradeCardType cardType : UpgradeCardType.values()) {
+            if (cardType.getName().equalsIgnoreCase(cardName)) {
+                return cardType;
+            }
+        }
+        return null;
+    }
 }
@@ -1,6 +1,6 @@
 package model.game.cards;
 
-import model.game.Game;
+import model.game.GameContext;
 import model.game.Player;
 import model.game.board.Board;
 import model.game.board.robots.Robot;
@@ -24,10 +24,10 @@ public enum DamageCardType implements CardType{
      */
     SPAM("Spam"){
         @Override
-        public void applyEffect(Robot robot) {
+        public void applyEffect(Robot robot, GameContext context) {
             Card newCard = robot.getPlayer().getProgrammingDeck().drawCard();
             if (newCard == null) {
-                Game.getInstance().resetProgrammingDeck(robot.getPlayer());
+                context.resetProgrammingDeck(robot.getPlayer());
                 newCard = robot.getPlayer().getProgrammingDeck().drawCard();
             }
             int currentRegister = -1;
@@ -39,8 +39,8 @@ public enum DamageCardType implements CardType{
                 }
             }
             robot.getPlayer().getRobotMat().setRegisters(newCard, currentRegister);
-            Game.getInstance().notifyReplaceCard(currentRegister, newCard.type().getName(), robot.getPlayer().getPlayerId());
-            Game.getInstance().playCard(robot.getPlayer(), newCard.type().getName());
+            context.getEvents().notifyReplaceCard(currentRegister, newCard.type().getName(), robot.getPlayer().getPlayerId());
+            context.playCard(robot.getPlayer(), newCard.type().getName());
         }
     },
 
@@ -52,8 +52,8 @@ public enum DamageCardType implements CardType{
      */
     WORM("Worm"){
         @Override
-        public void applyEffect(Robot robot) {
-            Board board = Game.getInstance().getBoard();
+        public void applyEffect(Robot robot, GameContext context) {
+            Board board = context.getBoard();
             board.prepareReboot(robot, board.isOnBoard(robot));
 
         }
@@ -67,8 +67,8 @@ public enum DamageCardType implements CardType{
      */
     TROJAN("Trojan"){
         @Override
-        public void applyEffect(Robot robot) {
-            Game.getInstance().drawDamageCard(robot.getPlayer(), SPAM, 2);
+        public void applyEffect(Robot robot, GameContext context) {
+            context.drawDamageCard(robot.getPlayer(), SPAM, 2);
         }
     },
 
@@ -80,13 +80,13 @@ public enum DamageCardType implements CardType{
      */
     VIRUS("Virus"){
         @Override
-        public void applyEffect(Robot robot) {
-            List<Robot> damagedRobots = Game.getInstance().getBoard().getRobotsInRadius(robot);
+        public void applyEffect(Robot robot, GameContext context) {
+            List<Robot> damagedRobots = context.getBoard().getRobotsInRadius(robot);
             if (!damagedRobots.isEmpty()) {
                 for (Robot damagedRobot : damagedRobots) {
-                    Player damagedPlayer = Game.getInstance().getPlayerByRobot(damagedRobot);
+                    Player damagedPlayer = context.getPlayerByRobot(damagedRobot);
                     if (damagedPlayer != null) {
-                        Game.getInstance().drawDamageCard(damagedPlayer, SPAM, 1);
+                        context.drawDamageCard(damagedPlayer, SPAM, 1);
                     }
                 }
             }
@@ -1,6 +1,6 @@
 package model.game.cards;
 
-import model.game.Game;
+import model.game.GameContext;
 import model.game.board.robots.Robot;
 
 
@@ -13,58 +13,58 @@ import model.game.board.robots.Robot;
 public enum ProgrammingCardType implements CardType{
     MOVE_1("MoveI") {
         @Override
-        public void applyEffect(Robot robot) {
-        robot.moveRobot(1);
+        public void applyEffect(Robot robot, GameContext context) {
+            robot.moveRobot(1, context);
         }
     },
     MOVE_2("MoveII") {
         @Override
-        public void applyEffect(Robot robot) {
-            robot.moveRobot(2);
+        public void applyEffect(Robot robot, GameContext context) {
+            robot.moveRobot(2, context);
         }
     },
     MOVE_3("MoveIII") {
         @Override
-        public void applyEffect(Robot robot) {
-            robot.moveRobot(3);
+        public void applyEffect(Robot robot, GameContext context) {
+            robot.moveRobot(3, context);
         }
     },
     TURN_RIGHT("TurnRight") {
         @Override
-        public void applyEffect(Robot robot) {
-            robot.rotateRobot("clockwise");
+        public void applyEffect(Robot robot, GameContext context) {
+            robot.rotateRobot("clockwise", context);
         }
     },
     TURN_LEFT("TurnLeft") {
         @Override
-        public void applyEffect(Robot robot) {
-            robot.rotateRobot("counterclockwise");
+        public void applyEffect(Robot robot, GameContext context) {
+            robot.rotateRobot("counterclockwise", context);
         }
     },
     BACK_UP("BackUp") {
         @Override
-        public void applyEffect(Robot robot) {
-            robot.moveRobot(-1);
+        public void applyEffect(Robot robot, GameContext context) {
+            robot.moveRobot(-1, context);
         }
     },
     U_TURN("UTurn") {
         @Override
-        public void applyEffect(Robot robot) {
-            robot.uTurn();
+        public void applyEffect(Robot robot, GameContext context) {
+            robot.uTurn(context);
         }
     },
     POWER_UP("PowerUp") {
         @Override
-        public void applyEffect(Robot robot) {
+        public void applyEffect(Robot robot, GameContext context) {
             if(robot.getPlayer()!=null){
                 robot.getPlayer().addEnergyCubes(1);
-                Game.getInstance().notifyEnergyValues(robot.getPlayer(), "PowerUp");
+                context.getEvents().notifyEnergyValues(robot.getPlayer(), "PowerUp");
             }
         }
     },
     AGAIN("Again") {
         @Override
-        public void applyEffect(Robot robot) {
+        public void applyEffect(Robot robot, GameContext context) {
         }
     };
 
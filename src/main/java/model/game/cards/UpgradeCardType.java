@@ -1,6 +1,6 @@
 package model.game.cards;
 
-import model.game.Game;
+import model.game.GameContext;
 import model.game.board.robots.Robot;
 import model.server_client.ConnectionHandler;
 import network.JsonHandler;
@@ -21,26 +21,26 @@ public enum UpgradeCardType implements CardType {
 
     ADMIN_PRIVILEGE("AdminPrivilege",3, true){
         @Override
-        public void applyEffect(Robot robot) {
+        public void applyEffect(Robot robot, GameContext context) {
             // Effect not handled here
         }
     },
     REAR_LASER("RearLaser",2, true){
         @Override
-        public void applyEffect(Robot robot) {
+        public void applyEffect(Robot robot, GameContext context) {
             // Effect not handled here
         }
     },
     MEMORY_SWAP("MemorySwap",1, false){
         @Override
-        public void applyEffect(Robot robot) {
-            Game.getInstance().handleMemorySwap(robot);
+        public void applyEffect(Robot robot, GameContext context) {
+            context.handleMemorySwap(robot);
         }
     },
     SPAM_BLOCKER("SpamBlocker",3, false){
         @Override
-        public void applyEffect(Robot robot) {
-            Game.getInstance().handleSpamBlocker(robot);
+        public void applyEffect(Robot robot, GameContext context) {
+            context.handleSpamBlocker(robot);
         }
     },;
 
@@ -64,7 +64,7 @@ public enum UpgradeCardType implements CardType {
     }
 
     @Override
-    public void applyEffect(Robot robot) {}
+    public void applyEffect(Robot robot, GameContext context) {}
     public int getEnergyCost() {
         return energyCost;
     }
@@ -0,0 +1,199 @@
+package model.game.maps;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import model.game.board.Board;
+import model.game.board.Position;
+import model.game.board.tiles.Tile;
+import network.JsonHandler;
+import network.messages.lobby3.GameStartedMessage;
+import network.messages.lobby3.MapDataMessage;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * A map that has been parsed once and can be shared by all games and bots.
+ * <p>
+ * The parsed JSON tree and the converted {@link GameStartedMessage.Field}s are never modified after
+ * construction. Tiles are mutable (e.g. the energy left on an energy space), so every caller of
+ * {@link #createBoard()} gets its own fresh set of tiles.
+ * </p>
+ */
+public final class CompiledMap {
+    private final String name;
+    private final JsonObject mapObject;
+    private final int rows;
+    private final int columns;
+    private final List<List<List<GameStartedMessage.Field>>> fields;
+    private final String mapHash;
+    private final String mapDataJson;
+    private final ConcurrentHashMap<Integer, String> gameStartedJsonByEnergy = new ConcurrentHashMap<>();
+    private final List<List<List<Tile>>> referenceTiles;
+    private final ConcurrentHashMap<Position, DistanceField> distanceFields = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Board> simulationBoards = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Compiles a map from the "messageBody" object of a map file.
+     *
+     * @param name      the normalized map name, e.g. "dizzyhighway".
+     * @param mapObject the JSON object containing the "gameMap" field.
+     */
+    CompiledMap(String name, JsonObject mapObject) {
+        this.name = name;
+        this.mapObject = mapObject.deepCopy();
+        MapParser parser = new MapParser(this.mapObject);
+        List<List<List<Tile>>> tileBoard = parser.getBoard();
+        this.rows = tileBoard.size();
+        this.columns = tileBoard.getFirst().size();
+        this.fields = freeze(parser.convertTilesToFields(tileBoard));
+        // Hash the map exactly as clients will see it after parsing the GameStarted message
+        this.mapHash = MapCache.contentHash(JsonParser.parseString(JsonHandler.toJson(fields)));
+        this.mapDataJson = JsonHandler.toJson(new MapDataMessage(mapHash, fields));
+        // Only read from now on, e.g. to compute distance fields
+        this.referenceTiles = tileBoard;
+    }
+
+    /**
+     * Compiles a map from the fields of a GameStarted message, e.g. on a client that does not have the
+     * map file. The compiled map has no name.
+     *
+     * @param fields the map as sent in the GameStarted message.
+     * @return the compiled map.
+     */
+    public static CompiledMap fromFields(List<List<List<GameStartedMessage.Field>>> fields) {
+        return fromGameMap(JsonParser.parseString(JsonHandler.toJson(fields)).getAsJsonArray());
+    }
+
+    /**
+     * Compiles a map from its JSON as stored in the {@link MapCache}. The compiled map has no name.
+     *
+     * @param gameMap the game map as JSON.
+     * @return the compiled map.
+     */
+    public static CompiledMap fromGameMap(JsonArray gameMap) {
+        JsonObject mapObject = new JsonObject();
+        mapObject.add("gameMap", gameMap);
+        return new CompiledMap("", mapObject);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    /**
+     * Returns the content hash that identifies this map in the map cache protocol extension.
+     *
+     * @return the SHA-256 hash of the game map as hex string.
+     */
+    public String getMapHash() {
+        return mapHash;
+    }
+
+    /**
+     * Returns the serialized MapData message sent to clients that requested this map.
+     *
+     * @return the MapData message as JSON.
+     */
+    public String getMapDataJson() {
+        return mapDataJson;
+    }
+
+    /**
+     * Returns the map in the format of the GameStarted message.
+     *
+     * @return an unmodifiable view of the fields, organized as rows, columns and fields per cell.
+     */
+    public List<List<List<GameStartedMessage.Field>>> getFields() {
+        return fields;
+    }
+
+    /**
+     * Creates new tiles for this map.
+     *
+     * @return a fresh tile board that the caller may modify.
+     */
+    public List<List<List<Tile>>> createTileBoard() {
+        return new MapParser(mapObject).getBoard();
+    }
+
+    /**
+     * Creates a new board with fresh tiles for this map.
+     *
+     * @return the initialized board.
+     */
+    public Board createBoard() {
+        Board board = new Board(rows, columns);
+        board.initializeBoard(createTileBoard());
+        return board;
+    }
+
+    /**
+     * Lends a board for simulating moves, e.g. by the AI. Boards are reused, so the number of boards
+     * only grows with the number of simulations running at the same time, not with the number of bots.
+     *
+     * @return a board without robots; it must be given back with {@link #returnSimulationBoard(Board)}.
+     */
+    public Board borrowSimulationBoard() {
+        Board board = simulationBoards.poll();
+        return board != null ? board : createBoard();
+    }
+
+    /**
+     * Gives back a board lent by {@link #borrowSimulationBoard()}. Its robots are removed.
+     *
+     * @param board the board to give back.
+     */
+    public void returnSimulationBoard(Board board) {
+        board.clearRobotPositions();
+        simulationBoards.offer(board);
+    }
+
+    /**
+     * Returns the distance field to the given goal. Fields are computed once per goal and then shared,
+     * so a checkpoint that is moved back and forth by conveyor belts does not trigger new computations.
+     * A field is only computed when it is first asked for, so maps compiled just to be shown or cached
+     * never pay for it.
+     *
+     * @param goal the goal position as (x, y).
+     * @return the distance field.
+     */
+    public DistanceField getDistanceField(Position goal) {
+        return distanceFields.computeIfAbsent(goal, g -> DistanceField.compute(referenceTiles, g));
+    }
+
+    /**
+     * Returns the serialized GameStarted message for this map. It is encoded once per starting energy.
+     *
+     * @param startingEnergy the starting energy of every player.
+     * @return the GameStarted message as JSON.
+     */
+    public String getGameStartedJson(int startingEnergy) {
+        return gameStartedJsonByEnergy.computeIfAbsent(startingEnergy,
+                energy -> JsonHandler.toJson(new GameStartedMessage(energy, fields)));
+    }
+
+    private static List<List<List<GameStartedMessage.Field>>> freeze(List<List<List<GameStartedMessage.Field>>> board) {
+        List<List<List<GameStartedMessage.Field>>> rowsList = new ArrayList<>(board.size());
+        for (List<List<GameStartedMessage.Field>> row : board) {
+            List<List<GameStartedMessage.Field>> colsList = new ArrayList<>(row.size());
+            for (List<GameStartedMessage.Field> cell : row) {
+                colsList.add(Collections.unmodifiableList(cell));
+            }
+            rowsList.add(Collections.unmodifiableList(colsList));
+        }
+        return Collections.unmodifiableList(rowsList);
+    }
+}
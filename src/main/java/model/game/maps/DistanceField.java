@@ -0,0 +1,191 @@
+package model.game.maps;
+
+import model.game.board.Direction;
+import model.game.board.Position;
+import model.game.board.tiles.*;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Distance from every cell of a map to one goal cell, taking walls, pits, the antenna and conveyor belts into account.
+ * <p>
+ * A step to a neighbouring cell costs 1. Standing on a conveyor belt moves the robot along the belt for free
+ * (one cell for green, two cells for blue belts), so cells upstream of a belt leading to the goal are rated closer.
+ * The field is computed once with a 0-1 breadth-first search backwards from the goal; looking up a distance
+ * afterwards is a single array read.
+ * </p>
+ */
+public final class DistanceField {
+    public static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    private static final Direction[] DIRECTIONS = {Direction.TOP, Direction.RIGHT, Direction.BOTTOM, Direction.LEFT};
+
+    private final Position goal;
+    private final int rows;
+    private final int columns;
+    private final int[] distances;
+
+    private DistanceField(Position goal, int rows, int columns, int[] distances) {
+        this.goal = goal;
+        this.rows = rows;
+        this.columns = columns;
+        this.distances = distances;
+    }
+
+    /**
+     * Computes the distance field of a map to the given goal.
+     *
+     * @param tiles the map organized as x, y and lists of tiles. The tiles are only read.
+     * @param goal  the goal cell, e.g. the position of a checkpoint.
+     * @return the distance field.
+     */
+    public static DistanceField compute(List<List<List<Tile>>> tiles, Position goal) {
+        int rows = tiles.size();
+        int columns = tiles.getFirst().size();
+        int cells = rows * columns;
+
+        // Build the reversed graph: for every cell the cells that can reach it, with the cost of that edge
+        List<List<int[]>> predecessors = new ArrayList<>(cells);
+        for (int i = 0; i < cells; i++) {
+            predecessors.add(new ArrayList<>());
+        }
+        for (int x = 0; x < rows; x++) {
+            for (int y = 0; y < columns; y++) {
+                if (!isEnterable(tiles, x, y)) {
+                    continue;
+                }
+                int from = x * columns + y;
+                for (Direction direction : DIRECTIONS) {
+                    int[] next = step(tiles, x, y, direction);
+                    if (next != null) {
+                        predecessors.get(next[0] * columns + next[1]).add(new int[]{from, 1});
+                    }
+                }
+                int[] carried = carry(tiles, x, y);
+                if (carried != null) {
+                    predecessors.get(carried[0] * columns + carried[1]).add(new int[]{from, 0});
+                }
+            }
+        }
+
+        int[] distances = new int[cells];
+        Arrays.fill(distances, UNREACHABLE);
+        if (goal.x() >= 0 && goal.x() < rows && goal.y() >= 0 && goal.y() < columns) {
+            int start = goal.x() * columns + goal.y();
+            distances[start] = 0;
+            Deque<Integer> queue = new ArrayDeque<>();
+            queue.add(start);
+            while (!queue.isEmpty()) {
+                int cell = queue.poll();
+                for (int[] edge : predecessors.get(cell)) {
+                    int distance = distances[cell] + edge[1];
+                    if (distance < distances[edge[0]]) {
+                        distances[edge[0]] = distance;
+                        if (edge[1] == 0) {
+                            queue.addFirst(edge[0]);
+                        } else {
+                            queue.addLast(edge[0]);
+                        }
+                    }
+                }
+            }
+        }
+        return new DistanceField(goal, rows, columns, distances);
+    }
+
+    public Position getGoal() {
+        return goal;
+    }
+
+    /**
+     * Returns the distance from the given position to the goal.
+     *
+     * @param position the position to evaluate.
+     * @return the number of steps to the goal, or {@link #UNREACHABLE} if the goal cannot be reached from there.
+     */
+    public int getDistance(Position position) {
+        if (position.x() < 0 || position.x() >= rows || position.y() < 0 || position.y() >= columns) {
+            return UNREACHABLE;
+        }
+        return distances[position.x() * columns + position.y()];
+    }
+
+    /**
+     * Returns the cell a robot reaches with one step, or {@code null} if the step is blocked
+     * or ends outside the map or in a pit.
+     */
+    private static int[] step(List<List<List<Tile>>> tiles, int x, int y, Direction direction) {
+        int newX = x;
+        int newY = y;
+        switch (direction) {
+            case TOP -> newY--;
+            case RIGHT -> newX++;
+            case BOTTOM -> newY++;
+            case LEFT -> newX--;
+        }
+        if (newX < 0 || newX >= tiles.size() || newY < 0 || newY >= tiles.get(newX).size()) {
+            return null;
+        }
+        if (hasWall(tiles.get(x).get(y), direction) || hasWall(tiles.get(newX).get(newY), direction.invert())) {
+            return null;
+        }
+        return isEnterable(tiles, newX, newY) ? new int[]{newX, newY} : null;
+    }
+
+    /**
+     * Returns the cell a conveyor belt moves a robot to, or {@code null} if the cell has no belt
+     * or the belt cannot move the robot.
+     */
+    private static int[] carry(List<List<List<Tile>>> tiles, int x, int y) {
+        ConveyorBeltTile conveyor = getConveyorBelt(tiles.get(x).get(y));
+        if (conveyor == null) {
+            return null;
+        }
+        int[] position = null;
+        int currentX = x;
+        int currentY = y;
+        int speed = conveyor.getSpeed();
+        for (int i = 0; i < speed && conveyor != null; i++) {
+            int[] next = step(tiles, currentX, currentY, conveyor.getOutflowDirection());
+            if (next == null) {
+                break;
+            }
+            position = next;
+            currentX = next[0];
+            currentY = next[1];
+            conveyor = getConveyorBelt(tiles.get(currentX).get(currentY));
+        }
+        return position;
+    }
+
+    private static boolean isEnterable(List<List<List<Tile>>> tiles, int x, int y) {
+        for (Tile tile : tiles.get(x).get(y)) {
+            if (tile instanceof PitTile || tile instanceof AntennaTile) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean hasWall(List<Tile> cell, Direction direction) {
+        for (Tile tile : cell) {
+            if (tile instanceof WallTile && ((WallTile) tile).getWall(direction)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static ConveyorBeltTile getConveyorBelt(List<Tile> cell) {
+        for (Tile tile : cell) {
+            if (tile instanceof ConveyorBeltTile) {
+                return (ConveyorBeltTile) tile;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,177 @@
+package model.game.maps;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * Client-side cache of game maps, addressed by the content hash of the map.
+ * <p>
+ * Maps are kept in memory and stored on disk, so a client that already played a map does not
+ * have to download it again, even after a restart. All clients and bots in the same process share
+ * one cache. Every entry is checked against its hash before it is used, so a damaged or foreign
+ * file is never mistaken for a map.
+ * </p>
+ * <p>
+ * The directory can be changed with the system property {@code roborally.mapCacheDir}.
+ * </p>
+ */
+public class MapCache {
+    private static final Logger logger = Logger.getLogger(MapCache.class.getName());
+    private static MapCache instance;
+
+    private final Path directory;
+    private final ConcurrentHashMap<String, JsonArray> maps = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, CompletableFuture<JsonArray>> awaited = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a cache that stores its maps in the given directory.
+     *
+     * @param directory the directory for the cached map files.
+     */
+    public MapCache(Path directory) {
+        this.directory = directory;
+    }
+
+    public static synchronized MapCache getInstance() {
+        if (instance == null) {
+            String defaultDirectory = Paths.get(System.getProperty("user.home"), ".roborally", "maps").toString();
+            instance = new MapCache(Paths.get(System.getProperty("roborally.mapCacheDir", defaultDirectory)));
+        }
+        return instance;
+    }
+
+    /**
+     * Calculates the content hash of a game map as sent in the "gameMap" field of GameStarted.
+     *
+     * @param gameMap the game map as JSON.
+     * @return the SHA-256 hash of the compact JSON as hex string.
+     */
+    public static String contentHash(JsonElement gameMap) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(gameMap.toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Returns the map with the given hash from memory or disk.
+     * The returned JSON is shared and must not be modified.
+     *
+     * @param mapHash the content hash of the map.
+     * @return the game map, or {@code null} if it is not cached.
+     */
+    public JsonArray get(String mapHash) {
+        if (!isValidHash(mapHash)) {
+            return null;
+        }
+        JsonArray gameMap = maps.get(mapHash);
+        if (gameMap != null) {
+            return gameMap;
+        }
+        gameMap = readFromDisk(mapHash);
+        if (gameMap != null) {
+            maps.putIfAbsent(mapHash, gameMap);
+        }
+        return gameMap;
+    }
+
+    /**
+     * Adds a map to the cache if it matches the given hash.
+     *
+     * @param mapHash the content hash announced by the server.
+     * @param gameMap the received game map.
+     * @return {@code true} if the map was cached; {@code false} if the hash did not match.
+     */
+    public boolean put(String mapHash, JsonArray gameMap) {
+        if (!isValidHash(mapHash) || !mapHash.equals(contentHash(gameMap))) {
+            logger.warning("Received map does not match its hash " + mapHash);
+            return false;
+        }
+        if (maps.putIfAbsent(mapHash, gameMap) == null) {
+            writeToDisk(mapHash, gameMap);
+        }
+        CompletableFuture<JsonArray> waiting = awaited.remove(mapHash);
+        if (waiting != null) {
+            waiting.complete(maps.get(mapHash));
+        }
+        return true;
+    }
+
+    /**
+     * Returns a future that completes with the map once it is in the cache, e.g. after it was requested from
+     * the server. The future is already complete if the map is cached.
+     *
+     * @param mapHash the content hash of the map.
+     * @return the future game map; shared and must not be modified.
+     */
+    public CompletableFuture<JsonArray> whenCached(String mapHash) {
+        JsonArray gameMap = get(mapHash);
+        if (gameMap != null) {
+            return CompletableFuture.completedFuture(gameMap);
+        }
+        CompletableFuture<JsonArray> future = awaited.computeIfAbsent(mapHash, _ -> new CompletableFuture<>());
+        // The map may have been put in the meantime
+        gameMap = maps.get(mapHash);
+        if (gameMap != null) {
+            awaited.remove(mapHash, future);
+            future.complete(gameMap);
+        }
+        return future;
+    }
+
+    private JsonArray readFromDisk(String mapHash) {
+        Path file = directory.resolve(mapHash + ".json");
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try {
+            JsonArray gameMap = JsonParser.parseString(Files.readString(file, StandardCharsets.UTF_8)).getAsJsonArray();
+            if (mapHash.equals(contentHash(gameMap))) {
+                return gameMap;
+            }
+            logger.warning("Deleting damaged map cache file " + file);
+            Files.deleteIfExists(file);
+        } catch (IOException | RuntimeException e) {
+            logger.warning("Could not read map cache file " + file + ": " + e.getMessage());
+        }
+        return null;
+    }
+
+    private void writeToDisk(String mapHash, JsonArray gameMap) {
+        try {
+            Files.createDirectories(directory);
+            // Write to a temporary file first, so other processes never read a half written map
+            Path tempFile = Files.createTempFile(directory, mapHash, ".tmp");
+            Files.writeString(tempFile, gameMap.toString(), StandardCharsets.UTF_8);
+            Files.move(tempFile, directory.resolve(mapHash + ".json"),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warning("Could not write map cache file for " + mapHash + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Only accepts hex strings, so a hash from the network can never point outside the cache directory.
+     */
+    private static boolean isValidHash(String mapHash) {
+        return mapHash != null && mapHash.length() == 64 && mapHash.chars()
+                .allMatch(c -> (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f'));
+    }
+}
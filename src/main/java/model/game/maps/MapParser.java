@@ -17,7 +17,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
-public class MapParser {
+public final class MapParser {
 
     private String fileName;
     private JsonReader reader;
@@ -39,6 +39,16 @@ public class MapParser {
         }
     }
 
+    /**
+     * Creates a MapParser instance from an already parsed map.
+     * Only the internal board representation is built; the JSON object is not modified.
+     *
+     * @param mapObject the JSON object containing the map data under the "gameMap" field
+     */
+    public MapParser(JsonObject mapObject) {
+        board = createBoard(mapObject);
+    }
+
     /**
      * Returns the content of the selected map as a JSON string.
      *
@@ -0,0 +1,102 @@
+package model.game.maps;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * Registry of all maps that have been loaded from the "maps" resource folder.
+ * <p>
+ * Every map file is read and parsed only once per JVM. The server, every game and every bot
+ * running in the same process share the resulting {@link CompiledMap}.
+ * </p>
+ */
+public class MapRegistry {
+    private static final Logger logger = Logger.getLogger(MapRegistry.class.getName());
+    private static MapRegistry instance;
+
+    private final ConcurrentHashMap<String, CompiledMap> maps = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, CompiledMap> mapsByHash = new ConcurrentHashMap<>();
+
+    private MapRegistry() {
+    }
+
+    public static synchronized MapRegistry getInstance() {
+        if (instance == null) {
+            instance = new MapRegistry();
+        }
+        return instance;
+    }
+
+    /**
+     * Converts a map name like "Dizzy Highway" to the name of its resource file, e.g. "dizzyhighway".
+     *
+     * @param mapName the display or file name of the map.
+     * @return the normalized map name.
+     */
+    public static String normalizeName(String mapName) {
+        return mapName.replaceAll("\\s+", "").toLowerCase();
+    }
+
+    /**
+     * Returns the compiled map, loading it on first access.
+     *
+     * @param mapName the display or file name of the map.
+     * @return the compiled map.
+     * @throws IllegalArgumentException if there is no map file with this name.
+     */
+    public CompiledMap get(String mapName) {
+        return maps.computeIfAbsent(normalizeName(mapName), this::load);
+    }
+
+    /**
+     * Returns an already loaded map by its content hash.
+     *
+     * @param mapHash the content hash of the map.
+     * @return the compiled map, or {@code null} if no loaded map has this hash.
+     */
+    public CompiledMap getByHash(String mapHash) {
+        return mapHash == null ? null : mapsByHash.get(mapHash);
+    }
+
+    /**
+     * Loads the given maps ahead of time so that starting a game does not have to parse them.
+     * Maps that cannot be loaded are logged and skipped.
+     *
+     * @param mapNames the display or file names of the maps.
+     */
+    public void preload(Collection<String> mapNames) {
+        for (String mapName : mapNames) {
+            try {
+                get(mapName);
+            } catch (RuntimeException e) {
+                logger.warning("Could not load map " + mapName + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private CompiledMap load(String name) {
+        String resource = "maps/" + name + ".json";
+        InputStream inputStream = MapRegistry.class.getClassLoader().getResourceAsStream(resource);
+        if (inputStream == null) {
+            throw new IllegalArgumentException("Map not found: " + resource);
+        }
+        try (Reader reader = new InputStreamReader(inputStream, StandardCharsets.UTF_8)) {
+            JsonObject json = JsonParser.parseReader(reader).getAsJsonObject();
+            CompiledMap compiledMap = new CompiledMap(name, json.getAsJsonObject("messageBody"));
+            mapsByHash.put(compiledMap.getMapHash(), compiledMap);
+            logger.info("Compiled map " + resource);
+            return compiledMap;
+        } catch (IOException e) {
+            throw new RuntimeException("Error reading map JSON " + resource, e);
+        }
+    }
+}
@@ -7,7 +7,9 @@ import network.messages.actions8.SelectedDamageMessage;
 import network.messages.cards6.PlayCardMessage;
 import network.messages.chat4.SendChatMessage;
 import network.messages.lobby3.SetStatusMessage;
+import network.messages.connection2.HelloServerMessage;
 import network.messages.phases7.programming.SelectedCardMessage;
+import network.messages.phases7.programming.SelectedCardsMessage;
 import network.messages.phases7.setup.SetStartingPointMessage;
 import network.messages.phases7.upgrade.BuyUpgradeMessage;
 import network.messages.specialMessage5.ConnectionUpdateMessage;
@@ -22,6 +24,7 @@ import java.io.PrintWriter;
 import java.net.Socket;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Set;
 import java.util.logging.*;
 
 /**
@@ -32,7 +35,7 @@ public abstract class BaseClient implements Runnable {
     protected static final String DEFAULT_HOST = "localhost";
     protected static final int DEFAULT_PORT = 8080;
 
-    protected String protocolVersion = "Version 2.0";
+    protected String protocolVersion = HelloServerMessage.PROTOCOL_VERSION;
 
     protected Socket socket;
     protected BufferedReader in;
@@ -49,6 +52,7 @@ public abstract class BaseClient implements Runnable {
     protected GameDataBridge gameDataBridge;
     protected boolean isAI;
     protected String group;
+    protected volatile Set<String> extensions = Set.of();
 
     // BaseClient Constructor
     /**
@@ -71,7 +75,7 @@ public abstract class BaseClient implements Runnable {
         this.gameDataBridge = new GameDataBridge();
         this.chatDataBridge = new ChatDataBridge();
         this.lobbyDataBridge = new LobbyDataBridge();
-        this.group = "EdleEisbecher";
+        this.group = HelloServerMessage.GROUP;
         initializeLogger();
     }
 
@@ -98,12 +102,18 @@ public abstract class BaseClient implements Runnable {
      */
     protected void initializeLogger() {
         logger = Logger.getLogger(this.getClass().getName());
-        logger.setUseParentHandlers(false); // Prevent default console handler
+        // Clients of the same class share the logger, so the handler is only added once
+        synchronized (logger) {
+            if (logger.getHandlers().length > 0) {
+                return;
+            }
+            logger.setUseParentHandlers(false); // Prevent default console handler
 
-        // Create and configure ConsoleHandler
-        ConsoleHandler consoleHandler = new ConsoleHandler();
-        consoleHandler.setFormatter(createFormatter());
-        logger.addHandler(consoleHandler);
+            // Create and configure ConsoleHandler
+            ConsoleHandler consoleHandler = new ConsoleHandler();
+            consoleHandler.setFormatter(createFormatter());
+            logger.addHandler(consoleHandler);
+        }
 
 //        try {
 //            FileHandler fileHandler = new FileHandler("Client_Log_File.txt", true);
@@ -199,6 +209,19 @@ public abstract class BaseClient implements Runnable {
         return protocolVersion;
     }
 
+    /**
+     * Sets the protocol extensions the server accepted in its Welcome message.
+     *
+     * @param extensions the accepted extensions.
+     */
+    public void setExtensions(List<String> extensions) {
+        this.extensions = Set.copyOf(extensions);
+    }
+
+    public boolean supportsExtension(String extension) {
+        return extensions.contains(extension);
+    }
+
     public void setClientName(String clientName) {
         this.clientName = clientName;
     }
@@ -271,6 +294,22 @@ public abstract class BaseClient implements Runnable {
         sendMessageToServer(json);
     }
 
+    /**
+     * Sends the cards for all registers. If the server supports the SelectedCards extension, they are sent
+     * in one message, otherwise one SelectedCard message per register.
+     *
+     * @param cards the names of the cards, in register order.
+     */
+    public void sendSelectedCards(List<String> cards) {
+        if (supportsExtension(HelloServerMessage.EXTENSION_SELECTED_CARDS)) {
+            sendMessageToServer(JsonHandler.toJson(new SelectedCardsMessage(cards)));
+            return;
+        }
+        for (int register = 0; register < cards.size(); register++) {
+            sendSelectedCard(cards.get(register), register);
+        }
+    }
+
     /**
      * Sends a message indicating the chosen reboot direction.
      *
@@ -0,0 +1,70 @@
+package model.server_client;
+
+import java.util.Arrays;
+
+/**
+ * An append-only log of the encoded messages the server broadcasts to all players.
+ * <p>
+ * Spectators read the log through their own cursors, see {@link SpectatorHub}. Appending only stores the
+ * already encoded message, so broadcasting costs the game thread the same no matter how many spectators
+ * there are. The log is written by one thread at a time and can be read by any number of threads without
+ * locking: entries are stored in fixed-size chunks that never move, and an entry is published by
+ * increasing the size.
+ * </p>
+ */
+public class BroadcastLog {
+    private static final int CHUNK_SIZE = 1024;
+
+    private volatile String[][] messageChunks = new String[16][];
+    private volatile long[][] timeChunks = new long[16][];
+    private volatile int size;
+
+    /**
+     * Appends a message.
+     *
+     * @param json the encoded message.
+     */
+    public synchronized void append(String json) {
+        int index = size;
+        int chunk = index / CHUNK_SIZE;
+        if (chunk == messageChunks.length) {
+            messageChunks = Arrays.copyOf(messageChunks, chunk * 2);
+            timeChunks = Arrays.copyOf(timeChunks, chunk * 2);
+        }
+        if (messageChunks[chunk] == null) {
+            messageChunks[chunk] = new String[CHUNK_SIZE];
+            timeChunks[chunk] = new long[CHUNK_SIZE];
+        }
+        messageChunks[chunk][index % CHUNK_SIZE] = json;
+        timeChunks[chunk][index % CHUNK_SIZE] = System.nanoTime();
+        // Publishes the entry to the readers
+        size = index + 1;
+    }
+
+    /**
+     * @return the number of messages in the log.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns a message. Only indices below a previously read {@link #size()} may be read.
+     *
+     * @param index the index of the message.
+     * @return the encoded message.
+     */
+    public String get(int index) {
+        return messageChunks[index / CHUNK_SIZE][index % CHUNK_SIZE];
+    }
+
+    /**
+     * Returns when a message was appended. Only indices below a previously read {@link #size()} may be read.
+     *
+     * @param index the index of the message.
+     * @return the {@link System#nanoTime()} of the append.
+     */
+    public long getAppendNanos(int index) {
+        return timeChunks[index / CHUNK_SIZE][index % CHUNK_SIZE];
+    }
+}
@@ -0,0 +1,199 @@
+package model.server_client;
+
+import network.JsonHandler;
+import network.messages.Message;
+import network.messages.actions8.StateFrameMessage;
+import network.messages.chat4.ReceivedChatMessage;
+import network.messages.connection2.HelloServerMessage;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Logger;
+
+/**
+ * Delivers chat messages on the server.
+ * <p>
+ * Every connection is a member of one room: it starts in the lobby and its players move to the game room
+ * while a game runs. A public message goes to the other members of the sender's room, a private message
+ * only to its recipient. Every message is encoded once and delivered on a dedicated chat
+ * thread, so a flood of chat messages never delays the game messages, which are sent by the game threads.
+ * </p>
+ * <p>
+ * Each room keeps its last messages. A connection that joins a room gets them in one StateFrame message if
+ * it negotiated the state frame extension, otherwise one by one. Every sender has a token bucket: a burst of
+ * {@link #BURST_MESSAGES} messages is allowed, after that one message per {@link #REFILL_MILLIS}
+ * milliseconds; messages over the limit are dropped and the sender is told once.
+ * </p>
+ */
+public class ChatService {
+    public static final String LOBBY_ROOM = "lobby";
+    public static final String GAME_ROOM = "game";
+    public static final int HISTORY_SIZE = 50;
+    public static final int BURST_MESSAGES = 5;
+    public static final long REFILL_MILLIS = 1000;
+
+    private final Server server;
+    private final Logger logger;
+    private final Map<String, Room> rooms = new ConcurrentHashMap<>();
+    // Only accessed on the chat thread
+    private final Map<ConnectionHandler, Room> roomOf = new HashMap<>();
+    private final Map<Integer, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final Set<Integer> warnedSenders = ConcurrentHashMap.newKeySet();
+    private final ExecutorService chatThread = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "chat");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * The members of a room and its recent messages.
+     */
+    private static final class Room {
+        private final Set<ConnectionHandler> members = ConcurrentHashMap.newKeySet();
+        // Only accessed on the chat thread
+        private final ArrayDeque<ReceivedChatMessage> history = new ArrayDeque<>(HISTORY_SIZE);
+    }
+
+    /**
+     * Creates the chat service of a server.
+     *
+     * @param server the server whose connections chat.
+     */
+    public ChatService(Server server) {
+        this.server = server;
+        this.logger = server.getLogger();
+    }
+
+    /**
+     * Moves a connection to a room and sends it the room's recent messages.
+     *
+     * @param roomName the name of the room.
+     * @param handler  the connection that joins.
+     */
+    public void join(String roomName, ConnectionHandler handler) {
+        chatThread.execute(() -> {
+            Room room = rooms.computeIfAbsent(roomName, _ -> new Room());
+            moveTo(room, handler);
+            sendHistory(room, handler);
+        });
+    }
+
+    /**
+     * Moves the players of a game that started from the lobby to the game room.
+     *
+     * @param players the connections of the players.
+     */
+    public void openGameRoom(List<ConnectionHandler> players) {
+        players.forEach(player -> join(GAME_ROOM, player));
+    }
+
+    /**
+     * Moves the members of the game room back to the lobby after the game finished and forgets the
+     * messages of the game.
+     */
+    public void closeGameRoom() {
+        chatThread.execute(() -> {
+            Room gameRoom = rooms.remove(GAME_ROOM);
+            if (gameRoom == null) {
+                return;
+            }
+            Room lobby = rooms.computeIfAbsent(LOBBY_ROOM, _ -> new Room());
+            // They saw the lobby before the game, so its history is not sent again
+            List.copyOf(gameRoom.members).forEach(member -> moveTo(lobby, member));
+        });
+    }
+
+    /**
+     * Removes a connection from its room.
+     *
+     * @param handler the connection that left.
+     */
+    public void leave(ConnectionHandler handler) {
+        buckets.remove(handler.getClientId());
+        warnedSenders.remove(handler.getClientId());
+        chatThread.execute(() -> {
+            Room room = roomOf.remove(handler);
+            if (room != null) {
+                room.members.remove(handler);
+            }
+        });
+    }
+
+    /**
+     * Sends a chat message from a client.
+     *
+     * @param sender      the connection of the sender.
+     * @param text        the message.
+     * @param recipientId the client ID of the recipient, or {@code -1} for the sender's rooms.
+     */
+    public void send(ConnectionHandler sender, String text, int recipientId) {
+        int senderId = sender.getClientId();
+        if (!buckets.computeIfAbsent(senderId, _ -> new TokenBucket(BURST_MESSAGES, REFILL_MILLIS)).tryTake()) {
+            if (warnedSenders.add(senderId)) {
+                logger.info("Dropping chat messages of client " + senderId + ": rate limit");
+                server.sendError("You are sending chat messages too fast", sender);
+            }
+            return;
+        }
+        warnedSenders.remove(senderId);
+        boolean isPrivate = recipientId != -1;
+        ReceivedChatMessage message = new ReceivedChatMessage(text, sender.getClientId(), isPrivate);
+        chatThread.execute(() -> {
+            String json = JsonHandler.toJson(message);
+            if (isPrivate) {
+                ConnectionHandler target = server.getConnectionHandlerById(recipientId);
+                if (target != null) {
+                    target.sendMessage(json);
+                }
+                return;
+            }
+            Room room = roomOf.get(sender);
+            if (room == null) {
+                return;
+            }
+            if (room.history.size() == HISTORY_SIZE) {
+                room.history.poll();
+            }
+            room.history.add(message);
+            for (ConnectionHandler member : room.members) {
+                if (member != sender) {
+                    member.sendMessage(json);
+                }
+            }
+        });
+    }
+
+    /**
+     * Stops the chat thread.
+     */
+    public void shutdown() {
+        chatThread.shutdownNow();
+    }
+
+    private void moveTo(Room room, ConnectionHandler handler) {
+        Room previous = roomOf.put(handler, room);
+        if (previous != null && previous != room) {
+            previous.members.remove(handler);
+        }
+        room.members.add(handler);
+    }
+
+    private void sendHistory(Room room, ConnectionHandler handler) {
+        if (room.history.isEmpty()) {
+            return;
+        }
+        List<Message> history = new ArrayList<>(room.history);
+        if (handler.supportsExtension(HelloServerMessage.EXTENSION_STATE_FRAMES)) {
+            handler.sendMessage(JsonHandler.toJson(new StateFrameMessage(history)));
+        } else {
+            history.forEach(message -> handler.sendMessage(JsonHandler.toJson(message)));
+        }
+    }
+}
@@ -4,11 +4,11 @@ import network.interpreters.JsonInterpreter;
 import network.interpreters.ServerJsonInterpreter;
 
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.io.PrintWriter;
 import java.net.Socket;
+import java.util.List;
+import java.util.Set;
 import java.util.logging.Logger;
 
 /**
@@ -19,11 +19,17 @@ public class ConnectionHandler implements Runnable {
     private final Socket clientSocket;
     private final Server server;
     //private final ServerController serverController;
-    private BufferedReader in;
+    private static final int MAX_FRAME_BYTES =
+            Integer.getInteger("roborally.maxFrameBytes", FrameReader.DEFAULT_MAX_FRAME_BYTES);
+
+    private FrameReader in;
     private PrintWriter out;
     private String nickname;
     private final int clientID;// clientid from client
-    private long lastAliveTime = System.currentTimeMillis();
+    private volatile long lastAliveTime = System.currentTimeMillis();
+    private volatile Set<String> extensions = Set.of();
+    private volatile boolean spectator;
+    private volatile boolean ai;
     private Logger logger;
 
 
@@ -54,25 +60,52 @@ public class ConnectionHandler implements Runnable {
         logger = server.getLogger();
         try {
             out = new PrintWriter(clientSocket.getOutputStream(), true);
-            in = new BufferedReader(new InputStreamReader(clientSocket.getInputStream()));
+            in = new FrameReader(clientSocket.getInputStream(), MAX_FRAME_BYTES);
             server.helloClient(this);
             JsonInterpreter interpreter = new ServerJsonInterpreter(this, server, logger);
             listenForMessages(interpreter);
+        } catch (FrameReader.FrameTooLargeException e) {
+            logger.warning("Disconnecting client " + clientID + ": " + e.getMessage());
+            shutdownClient();
         } catch (IOException e) {
             logger.severe("Error handling client: " + e.getMessage());
         }
+        if (spectator) {
+            server.removeSpectator(this);
+            shutdownClient();
+        }
     }
 
 
     /**
      * Listens for incoming messages from the client and processes them.
+     * <p>
+     * Messages over the rate limit of their type are dropped before they are parsed. A client that keeps
+     * sending too many messages is disconnected.
+     * </p>
      *
-     * @throws IOException if an I/O error occurs
+     * @throws IOException if an I/O error occurs or a message is too long
      */
     private synchronized void listenForMessages(JsonInterpreter interpreter) throws IOException {
+        InputRateLimiter rateLimiter = new InputRateLimiter();
         String json;
-        while ((json = in.readLine()) != null) {
-            interpreter.interpretMessage(json);
+        while ((json = in.readFrame()) != null) {
+            switch (rateLimiter.check(json)) {
+                case ACCEPT -> {
+                    // Any accepted message proves the client is alive, not only Alive replies. A flood of
+                    // dropped messages does not, so it cannot keep a dead client connected.
+                    lastAliveTime = System.currentTimeMillis();
+                    interpreter.interpretMessage(json);
+                }
+                case DROP -> {
+                }
+                case DISCONNECT -> {
+                    logger.warning("Disconnecting client " + clientID + ": dropped "
+                            + rateLimiter.getDroppedMessages() + " messages over the rate limit");
+                    shutdownClient();
+                    return;
+                }
+            }
         }
     }
 
@@ -86,6 +119,19 @@ public class ConnectionHandler implements Runnable {
         out.flush();
     }
 
+    /**
+     * Sends several messages to the client and flushes once.
+     *
+     * @param messages the messages to send
+     * @return {@code false} if the connection is broken
+     */
+    public boolean sendMessages(List<String> messages) {
+        for (String message : messages) {
+            out.println(message);
+        }
+        return !out.checkError();
+    }
+
     /**
      * Updates the user list for the client.
      *
@@ -119,6 +165,44 @@ public class ConnectionHandler implements Runnable {
         this.lastAliveTime = lastAliveTime;
     }
 
+    /**
+     * Sets the protocol extensions negotiated with this client.
+     *
+     * @param extensions the extensions both client and server support
+     */
+    public void setExtensions(Set<String> extensions) {
+        this.extensions = Set.copyOf(extensions);
+    }
+
+    public boolean supportsExtension(String extension) {
+        return extensions.contains(extension);
+    }
+
+    /**
+     * Marks this client as a spectator, which only receives the broadcast messages of the game.
+     *
+     * @param spectator {@code true} if the client is a spectator
+     */
+    public void setSpectator(boolean spectator) {
+        this.spectator = spectator;
+    }
+
+    public boolean isSpectator() {
+        return spectator;
+    }
+
+    /**
+     * Marks this client as an AI client, as announced in its HelloServer message.
+     *
+     * @param ai {@code true} if the client is an AI
+     */
+    public void setAI(boolean ai) {
+        this.ai = ai;
+    }
+
+    public boolean isAI() {
+        return ai;
+    }
 
     /**
      * Retrieves the client's nickname.
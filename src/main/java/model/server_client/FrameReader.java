@@ -0,0 +1,106 @@
+package model.server_client;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Reads the newline separated messages of a client with a bounded amount of memory.
+ * <p>
+ * Unlike {@link java.io.BufferedReader#readLine()}, a message may not be longer than a maximum number of
+ * bytes, so a client cannot make the server buffer an endless line. The read buffer and the message buffer
+ * are allocated once per connection and reused; the message buffer only grows up to the maximum.
+ * </p>
+ */
+public class FrameReader implements Closeable {
+    public static final int DEFAULT_MAX_FRAME_BYTES = 64 * 1024;
+    private static final int READ_BUFFER_BYTES = 8192;
+    private static final int INITIAL_FRAME_BYTES = 1024;
+
+    private final InputStream in;
+    private final int maxFrameBytes;
+    private final byte[] readBuffer = new byte[READ_BUFFER_BYTES];
+    private int readPosition;
+    private int readLimit;
+    private byte[] frame = new byte[INITIAL_FRAME_BYTES];
+    private int frameLength;
+
+    /**
+     * Thrown if a message is longer than the maximum.
+     */
+    public static class FrameTooLargeException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        public FrameTooLargeException(int maxFrameBytes) {
+            super("Message longer than " + maxFrameBytes + " bytes");
+        }
+    }
+
+    /**
+     * Creates a reader.
+     *
+     * @param in            the stream to read from.
+     * @param maxFrameBytes the maximum length of a message in bytes, without the line separator.
+     */
+    public FrameReader(InputStream in, int maxFrameBytes) {
+        this.in = in;
+        this.maxFrameBytes = maxFrameBytes;
+    }
+
+    /**
+     * Reads the next message.
+     *
+     * @return the message without the line separator, or {@code null} at the end of the stream.
+     * @throws FrameTooLargeException if the message is longer than the maximum.
+     * @throws IOException            if reading fails.
+     */
+    public String readFrame() throws IOException {
+        frameLength = 0;
+        while (true) {
+            if (readPosition == readLimit) {
+                readLimit = in.read(readBuffer);
+                readPosition = 0;
+                if (readLimit <= 0) {
+                    readLimit = 0;
+                    return frameLength > 0 ? decodeFrame() : null;
+                }
+            }
+            int start = readPosition;
+            while (readPosition < readLimit && readBuffer[readPosition] != '\n') {
+                readPosition++;
+            }
+            appendToFrame(start, readPosition - start);
+            if (readPosition < readLimit) {
+                // Skips the line separator
+                readPosition++;
+                return decodeFrame();
+            }
+        }
+    }
+
+    private void appendToFrame(int offset, int length) throws FrameTooLargeException {
+        if (frameLength + length > maxFrameBytes) {
+            throw new FrameTooLargeException(maxFrameBytes);
+        }
+        if (frameLength + length > frame.length) {
+            frame = Arrays.copyOf(frame, Math.min(maxFrameBytes, Math.max(frame.length * 2, frameLength + length)));
+        }
+        System.arraycopy(readBuffer, offset, frame, frameLength, length);
+        frameLength += length;
+    }
+
+    private String decodeFrame() {
+        int length = frameLength;
+        if (length > 0 && frame[length - 1] == '\r') {
+            length--;
+        }
+        return new String(frame, 0, length, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
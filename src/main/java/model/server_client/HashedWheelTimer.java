@@ -0,0 +1,304 @@
+package model.server_client;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A hashed timing wheel that runs delayed tasks on a single worker thread.
+ * <p>
+ * Tasks are hashed into one of {@code ticksPerWheel} buckets by their deadline. Every tick the worker
+ * only visits the bucket of the current tick, so scheduling and cancelling are O(1) no matter how many
+ * timeouts are pending. One shared instance drives the phase timers and delayed game steps of every game
+ * on the server, which avoids creating and shutting down thread pools per game.
+ * </p>
+ * <p>
+ * Tasks run on the worker thread and must therefore be short; long-running work should be handed off
+ * to another executor.
+ * </p>
+ */
+public class HashedWheelTimer {
+    private static final Logger logger = Logger.getLogger(HashedWheelTimer.class.getName());
+    private static HashedWheelTimer instance;
+
+    private static final int STATE_INIT = 0;
+    private static final int STATE_CANCELLED = 1;
+    private static final int STATE_EXPIRED = 2;
+
+    private final long tickDuration;
+    private final Bucket[] wheel;
+    private final int mask;
+    private final Queue<Timeout> pendingTimeouts = new ConcurrentLinkedQueue<>();
+    private final Queue<Timeout> cancelledTimeouts = new ConcurrentLinkedQueue<>();
+    private final Thread workerThread;
+    private final long startTime;
+    private volatile boolean running = true;
+    private long tick;
+
+    /**
+     * Creates a timer and starts its worker thread.
+     *
+     * @param tickDuration  the duration between two ticks.
+     * @param unit          the time unit of {@code tickDuration}.
+     * @param ticksPerWheel the number of buckets; rounded up to the next power of two.
+     * @param threadName    the name of the worker thread.
+     */
+    public HashedWheelTimer(long tickDuration, TimeUnit unit, int ticksPerWheel, String threadName) {
+        if (tickDuration <= 0) {
+            throw new IllegalArgumentException("tickDuration must be greater than 0: " + tickDuration);
+        }
+        if (ticksPerWheel <= 0) {
+            throw new IllegalArgumentException("ticksPerWheel must be greater than 0: " + ticksPerWheel);
+        }
+        int normalizedTicks = Integer.highestOneBit(ticksPerWheel - 1) << 1;
+        if (normalizedTicks <= 0) {
+            normalizedTicks = 1;
+        }
+        this.wheel = new Bucket[normalizedTicks];
+        for (int i = 0; i < wheel.length; i++) {
+            wheel[i] = new Bucket();
+        }
+        this.mask = wheel.length - 1;
+        this.tickDuration = unit.toNanos(tickDuration);
+        this.startTime = System.nanoTime();
+        this.workerThread = new Thread(this::runWorker, threadName);
+        this.workerThread.setDaemon(true);
+        this.workerThread.start();
+    }
+
+    /**
+     * Returns the server-wide timer shared by all games.
+     * <p>
+     * It ticks every 10 ms with 512 buckets, so one rotation covers a little over five seconds;
+     * longer delays simply wait for additional rounds.
+     * </p>
+     *
+     * @return the shared timer instance.
+     */
+    public static synchronized HashedWheelTimer getInstance() {
+        if (instance == null) {
+            instance = new HashedWheelTimer(10, TimeUnit.MILLISECONDS, 512, "game-timer");
+        }
+        return instance;
+    }
+
+    /**
+     * Schedules a task to run once after the given delay.
+     *
+     * @param task  the task to run on the worker thread.
+     * @param delay the delay after which the task runs.
+     * @param unit  the time unit of {@code delay}.
+     * @return a handle that can be used to cancel the task.
+     */
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        if (task == null) {
+            throw new IllegalArgumentException("task must not be null");
+        }
+        long deadline = System.nanoTime() - startTime + unit.toNanos(Math.max(0, delay));
+        Timeout timeout = new Timeout(this, task, deadline);
+        pendingTimeouts.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * Stops the worker thread. Timeouts that have not expired yet are dropped.
+     */
+    public void stop() {
+        running = false;
+        workerThread.interrupt();
+    }
+
+    /**
+     * Main loop of the worker thread: waits for the next tick and expires the timeouts of the current bucket.
+     */
+    private void runWorker() {
+        while (running) {
+            long deadline = waitForNextTick();
+            if (deadline < 0) {
+                continue;
+            }
+            processCancelledTimeouts();
+            transferPendingTimeouts();
+            wheel[(int) (tick & mask)].expireTimeouts(deadline);
+            tick++;
+        }
+    }
+
+    /**
+     * Sleeps until the start of the next tick.
+     *
+     * @return the elapsed time since start in nanoseconds, or -1 if the wait was interrupted.
+     */
+    private long waitForNextTick() {
+        long deadline = tickDuration * (tick + 1);
+        while (true) {
+            long currentTime = System.nanoTime() - startTime;
+            long sleepMillis = (deadline - currentTime + 999_999) / 1_000_000;
+            if (sleepMillis <= 0) {
+                return currentTime;
+            }
+            try {
+                Thread.sleep(sleepMillis);
+            } catch (InterruptedException e) {
+                if (!running) {
+                    return -1;
+                }
+            }
+        }
+    }
+
+    /**
+     * Moves newly scheduled timeouts into their buckets.
+     */
+    private void transferPendingTimeouts() {
+        // Bounded per tick so that a burst of scheduling cannot stall the wheel
+        for (int i = 0; i < 100_000; i++) {
+            Timeout timeout = pendingTimeouts.poll();
+            if (timeout == null) {
+                return;
+            }
+            if (timeout.state.get() == STATE_CANCELLED) {
+                continue;
+            }
+            long calculated = timeout.deadline / tickDuration;
+            timeout.remainingRounds = (calculated - tick) / wheel.length;
+            long ticks = Math.max(calculated, tick);
+            wheel[(int) (ticks & mask)].add(timeout);
+        }
+    }
+
+    /**
+     * Unlinks cancelled timeouts from their buckets.
+     */
+    private void processCancelledTimeouts() {
+        Timeout timeout;
+        while ((timeout = cancelledTimeouts.poll()) != null) {
+            if (timeout.bucket != null) {
+                timeout.bucket.remove(timeout);
+            }
+        }
+    }
+
+    /**
+     * Handle of a scheduled task.
+     */
+    public static final class Timeout {
+        private final HashedWheelTimer timer;
+        private final Runnable task;
+        private final long deadline;
+        private final AtomicInteger state = new AtomicInteger(STATE_INIT);
+        private long remainingRounds;
+        private Timeout next;
+        private Timeout prev;
+        private Bucket bucket;
+
+        private Timeout(HashedWheelTimer timer, Runnable task, long deadline) {
+            this.timer = timer;
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        /**
+         * Cancels the task if it has not run yet.
+         *
+         * @return {@code true} if the task was cancelled; {@code false} if it already ran or was cancelled.
+         */
+        public boolean cancel() {
+            if (!state.compareAndSet(STATE_INIT, STATE_CANCELLED)) {
+                return false;
+            }
+            timer.cancelledTimeouts.add(this);
+            return true;
+        }
+
+        public boolean isCancelled() {
+            return state.get() == STATE_CANCELLED;
+        }
+
+        public boolean isExpired() {
+            return state.get() == STATE_EXPIRED;
+        }
+
+        private void expire() {
+            if (!state.compareAndSet(STATE_INIT, STATE_EXPIRED)) {
+                return;
+            }
+            try {
+                task.run();
+            } catch (Throwable t) {
+                logger.log(Level.WARNING, "A timer task threw an exception", t);
+            }
+        }
+    }
+
+    /**
+     * Doubly linked list of the timeouts that hash to one slot of the wheel.
+     * Only accessed by the worker thread.
+     */
+    private static final class Bucket {
+        private Timeout head;
+        private Timeout tail;
+
+        private void add(Timeout timeout) {
+            timeout.bucket = this;
+            if (head == null) {
+                head = tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.prev = tail;
+                tail = timeout;
+            }
+        }
+
+        /**
+         * Runs every timeout of this bucket whose deadline has passed and counts down the rounds of the others.
+         *
+         * @param deadline the elapsed time of the current tick in nanoseconds.
+         */
+        private void expireTimeouts(long deadline) {
+            Timeout timeout = head;
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                if (timeout.remainingRounds <= 0) {
+                    remove(timeout);
+                    if (timeout.deadline <= deadline) {
+                        timeout.expire();
+                    } else if (!timeout.isCancelled()) {
+                        // Not due yet, so it is hashed again into its bucket on the next tick instead of being dropped
+                        timeout.timer.pendingTimeouts.add(timeout);
+                    }
+                } else if (timeout.isCancelled()) {
+                    remove(timeout);
+                } else {
+                    timeout.remainingRounds--;
+                }
+                timeout = next;
+            }
+        }
+
+        private void remove(Timeout timeout) {
+            if (timeout.bucket != this) {
+                return;
+            }
+            Timeout next = timeout.next;
+            if (timeout.prev != null) {
+                timeout.prev.next = next;
+            }
+            if (next != null) {
+                next.prev = timeout.prev;
+            }
+            if (timeout == head) {
+                head = next;
+            }
+            if (timeout == tail) {
+                tail = timeout.prev;
+            }
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.bucket = null;
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package model.server_client;
+
+import network.JsonHandler;
+import network.messages.connection2.AliveMessage;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Logger;
+
+/**
+ * Sends alive pings to connected clients and detects connections that stopped responding.
+ * <p>
+ * Every registered connection gets its own ping and expiry deadline on the shared {@link HashedWheelTimer},
+ * so the server never walks all connections at once. An expiry deadline that fires while the client has
+ * sent something in the meantime is simply pushed back; only connections that really went silent are removed.
+ * </p>
+ * <p>
+ * Any message received from a client counts as a sign of life. If {@code skipPingWhenActive} is set,
+ * clients that sent traffic within the last half ping interval are not pinged. A skipped client is pinged at
+ * the latest one and a half intervals after its last message, well within the timeout.
+ * </p>
+ * <p>
+ * The timer thread only reschedules deadlines. Writing a ping and removing an expired connection may block,
+ * so both run on virtual threads.
+ * </p>
+ */
+public class HeartbeatService {
+    public static final long DEFAULT_PING_INTERVAL_MILLIS = 5000;
+    public static final long DEFAULT_TIMEOUT_MILLIS = 11000;
+
+    /**
+     * The alive message is always the same, so it is encoded only once.
+     */
+    private static final String ALIVE_JSON = JsonHandler.toJson(new AliveMessage());
+
+    private final Server server;
+    private final HashedWheelTimer timer;
+    private final long pingIntervalMillis;
+    private final long timeoutMillis;
+    private final boolean skipPingWhenActive;
+    private final ConcurrentHashMap<ConnectionHandler, Heartbeat> heartbeats = new ConcurrentHashMap<>();
+    private final Logger logger;
+
+    /**
+     * Creates a heartbeat service with the default ping interval and timeout.
+     *
+     * @param server the server whose connections are monitored.
+     * @param timer  the timer used for all deadlines.
+     */
+    public HeartbeatService(Server server, HashedWheelTimer timer) {
+        this(server, timer, DEFAULT_PING_INTERVAL_MILLIS, DEFAULT_TIMEOUT_MILLIS, true);
+    }
+
+    /**
+     * Creates a heartbeat service.
+     *
+     * @param server             the server whose connections are monitored.
+     * @param timer              the timer used for all deadlines.
+     * @param pingIntervalMillis the interval between two alive pings.
+     * @param timeoutMillis      the time without any traffic after which a connection is removed.
+     * @param skipPingWhenActive {@code true} to skip pings for clients that sent traffic recently.
+     */
+    public HeartbeatService(Server server, HashedWheelTimer timer, long pingIntervalMillis, long timeoutMillis,
+                            boolean skipPingWhenActive) {
+        this.server = server;
+        this.timer = timer;
+        this.pingIntervalMillis = pingIntervalMillis;
+        this.timeoutMillis = timeoutMillis;
+        this.skipPingWhenActive = skipPingWhenActive;
+        this.logger = server.getLogger();
+    }
+
+    /**
+     * Starts monitoring a connection. Registering the same connection twice has no effect.
+     *
+     * @param handler the connection to monitor.
+     */
+    public void register(ConnectionHandler handler) {
+        Heartbeat heartbeat = new Heartbeat(handler);
+        if (heartbeats.putIfAbsent(handler, heartbeat) != null) {
+            return;
+        }
+        handler.setLastAliveTime(System.currentTimeMillis());
+        // The first ping goes out right away, like the old fixed-rate broadcast did
+        heartbeat.pingTimeout = timer.schedule(() -> ping(heartbeat), 0, TimeUnit.MILLISECONDS);
+        heartbeat.expiryTimeout = timer.schedule(() -> checkExpiry(heartbeat), timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops monitoring a connection and cancels its pending deadlines.
+     *
+     * @param handler the connection to forget.
+     */
+    public void unregister(ConnectionHandler handler) {
+        Heartbeat heartbeat = heartbeats.remove(handler);
+        if (heartbeat != null) {
+            heartbeat.cancel();
+        }
+    }
+
+    public int getMonitoredConnectionCount() {
+        return heartbeats.size();
+    }
+
+    /**
+     * Sends the pre-encoded alive frame unless the client was active recently, then schedules the next ping.
+     *
+     * @param heartbeat the heartbeat state of the connection.
+     */
+    private void ping(Heartbeat heartbeat) {
+        if (heartbeat.cancelled) {
+            return;
+        }
+        long idleMillis = System.currentTimeMillis() - heartbeat.handler.getLastAliveTime();
+        // Only skip if the next ping still comes early enough for the answer to beat the timeout
+        // A client whose previous ping is still being written does not get a second one
+        boolean due = !skipPingWhenActive || idleMillis >= pingIntervalMillis / 2;
+        if (due && heartbeat.sending.compareAndSet(false, true)) {
+            Thread.ofVirtual().name("heartbeat-ping").start(() -> {
+                try {
+                    heartbeat.handler.sendMessage(ALIVE_JSON);
+                } catch (Exception e) {
+                    logger.warning("Error sending the alive message " + heartbeat.handler.getNickname() + ": "
+                            + e.getMessage());
+                } finally {
+                    heartbeat.sending.set(false);
+                }
+            });
+        }
+        heartbeat.pingTimeout = timer.schedule(() -> ping(heartbeat), pingIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Removes the connection if it has been silent for longer than the timeout, otherwise moves its
+     * expiry deadline to the time the timeout would be reached.
+     *
+     * @param heartbeat the heartbeat state of the connection.
+     */
+    private void checkExpiry(Heartbeat heartbeat) {
+        if (heartbeat.cancelled) {
+            return;
+        }
+        long idleMillis = System.currentTimeMillis() - heartbeat.handler.getLastAliveTime();
+        if (idleMillis > timeoutMillis) {
+            unregister(heartbeat.handler);
+            Thread.ofVirtual().name("heartbeat-expiry")
+                    .start(() -> server.removeExpiredConnection(heartbeat.handler));
+            return;
+        }
+        long remainingMillis = timeoutMillis - idleMillis + 1;
+        heartbeat.expiryTimeout = timer.schedule(() -> checkExpiry(heartbeat), remainingMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Ping and expiry deadlines of a single connection.
+     */
+    private static final class Heartbeat {
+        private final ConnectionHandler handler;
+        private volatile HashedWheelTimer.Timeout pingTimeout;
+        private volatile HashedWheelTimer.Timeout expiryTimeout;
+        private final AtomicBoolean sending = new AtomicBoolean();
+        private volatile boolean cancelled;
+
+        private Heartbeat(ConnectionHandler handler) {
+            this.handler = handler;
+        }
+
+        private void cancel() {
+            cancelled = true;
+            if (pingTimeout != null) {
+                pingTimeout.cancel();
+            }
+            if (expiryTimeout != null) {
+                expiryTimeout.cancel();
+            }
+        }
+    }
+}
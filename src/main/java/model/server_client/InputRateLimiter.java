@@ -0,0 +1,125 @@
+package model.server_client;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Limits the messages one client may send, before they are parsed.
+ * <p>
+ * Every message type has its own token bucket, so e.g. a flood of chat messages does not use up the budget
+ * for selecting cards. The type is read from the raw message without parsing the JSON. A message over the
+ * limit is dropped; a client that keeps sending over the limit is disconnected.
+ * </p>
+ * <p>
+ * An instance belongs to one connection and is only used by its reading thread.
+ * </p>
+ */
+public class InputRateLimiter {
+    private static final String MESSAGE_TYPE_KEY = "\"messageType\"";
+
+    /**
+     * The burst and refill interval of a token bucket.
+     */
+    private record Limit(int burst, long refillMillis) {
+    }
+
+    private static final Limit LOBBY_LIMIT = new Limit(5, 1000);
+    private static final Limit GAME_ACTION_LIMIT = new Limit(10, 200);
+    private static final Map<String, Limit> LIMITS = Map.ofEntries(
+            Map.entry("HelloServer", LOBBY_LIMIT),
+            Map.entry("Spectate", LOBBY_LIMIT),
+            Map.entry("PlayerValues", LOBBY_LIMIT),
+            Map.entry("SetStatus", LOBBY_LIMIT),
+            Map.entry("MapSelected", LOBBY_LIMIT),
+            Map.entry("RequestMap", LOBBY_LIMIT),
+            Map.entry("ConnectionUpdate", LOBBY_LIMIT),
+            Map.entry("Alive", new Limit(3, 1000)),
+            Map.entry("SendChat", new Limit(10, 500)),
+            Map.entry("SelectedCard", new Limit(20, 100)),
+            Map.entry("SelectedCards", GAME_ACTION_LIMIT),
+            Map.entry("PlayCard", GAME_ACTION_LIMIT),
+            Map.entry("BuyUpgrade", GAME_ACTION_LIMIT),
+            Map.entry("SetStartingPoint", GAME_ACTION_LIMIT),
+            Map.entry("SelectedDamage", GAME_ACTION_LIMIT),
+            Map.entry("RebootDirection", GAME_ACTION_LIMIT),
+            Map.entry("DiscardSome", GAME_ACTION_LIMIT),
+            Map.entry("ChooseRegister", GAME_ACTION_LIMIT));
+    /**
+     * How many dropped messages are tolerated at once and how often one more is tolerated.
+     */
+    private static final Limit VIOLATION_LIMIT = new Limit(50, 1000);
+
+    /**
+     * What to do with a message.
+     */
+    public enum Verdict {
+        ACCEPT,
+        DROP,
+        DISCONNECT
+    }
+
+    private final Map<String, TokenBucket> buckets = new HashMap<>();
+    private final TokenBucket violations = newBucket(VIOLATION_LIMIT);
+    private int droppedMessages;
+
+    /**
+     * Decides whether a message is handled.
+     *
+     * @param frame the raw message.
+     * @return {@link Verdict#ACCEPT} if the message is within the limit of its type, {@link Verdict#DROP} if
+     * not, and {@link Verdict#DISCONNECT} if the client sent too many messages over the limit.
+     */
+    public Verdict check(String frame) {
+        String messageType = peekMessageType(frame);
+        Limit limit = LIMITS.getOrDefault(messageType, LOBBY_LIMIT);
+        // Unknown types share one bucket, so a client cannot get new buckets by making up types
+        String bucketKey = LIMITS.containsKey(messageType) ? messageType : "";
+        if (buckets.computeIfAbsent(bucketKey, _ -> newBucket(limit)).tryTake()) {
+            return Verdict.ACCEPT;
+        }
+        droppedMessages++;
+        return violations.tryTake() ? Verdict.DROP : Verdict.DISCONNECT;
+    }
+
+    public int getDroppedMessages() {
+        return droppedMessages;
+    }
+
+    private static TokenBucket newBucket(Limit limit) {
+        return new TokenBucket(limit.burst(), limit.refillMillis());
+    }
+
+    /**
+     * Reads the message type from a raw message without parsing it.
+     *
+     * @param frame the raw message.
+     * @return the value of the first {@code "messageType"} key, or an empty string if there is none.
+     */
+    static String peekMessageType(String frame) {
+        int index = frame.indexOf(MESSAGE_TYPE_KEY);
+        // An escaped key is part of a string value, e.g. a chat message
+        while (index > 0 && frame.charAt(index - 1) == '\\') {
+            index = frame.indexOf(MESSAGE_TYPE_KEY, index + 1);
+        }
+        if (index < 0) {
+            return "";
+        }
+        index = skipWhitespace(frame, index + MESSAGE_TYPE_KEY.length());
+        if (index >= frame.length() || frame.charAt(index) != ':') {
+            return "";
+        }
+        index = skipWhitespace(frame, index + 1);
+        if (index >= frame.length() || frame.charAt(index) != '"') {
+            return "";
+        }
+        int end = frame.indexOf('"', index + 1);
+        return end < 0 ? "" : frame.substring(index + 1, end);
+    }
+
+    private static int skipWhitespace(String frame, int index) {
+        while (index < frame.length() && Character.isWhitespace(frame.charAt(index))) {
+            index++;
+        }
+        return index;
+    }
+}
@@ -0,0 +1,334 @@
+package model.server_client;
+
+import helpers.jfr.MatchStartedEvent;
+import model.game.AI.BotHost;
+import model.game.Game;
+import network.JsonHandler;
+import network.messages.connection2.HelloServerMessage;
+import network.messages.lobby3.MapSelectedMessage;
+import network.messages.lobby3.SelectMapMessage;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Forms a game from the players in the lobby and starts it.
+ * <p>
+ * Players that are ready wait in a queue in the order they became ready. The first human in the queue is
+ * asked to select the map; every map a player selects before the game can start counts as a preference.
+ * The game starts as soon as all players are ready and the map is selected. While the player asked for the
+ * map is in the queue, the game waits for their choice. Only if that player left and the first human has
+ * waited for {@link #DEFAULT_WAIT_MILLIS} milliseconds, the game starts on the map most players preferred.
+ * </p>
+ * <p>
+ * Filling seats with bots is opt-in, so a human waiting for a friend never gets a bot instead: with the system
+ * property {@code roborally.matchFillWithBots} set, the missing seats up to {@link #DEFAULT_SEATS} are filled
+ * with bots once the wait has expired. The wait, the number of seats and the bots' cleverness can be set with
+ * the system properties {@code roborally.matchWaitMillis}, {@code roborally.matchSeats} and
+ * {@code roborally.botCleverness}. Every started game is recorded as a {@link MatchStartedEvent}.
+ * </p>
+ * <p>
+ * The server runs a single {@link Game} at a time, so there is one lobby instead of rooms grouped by map and
+ * size: the preferred maps decide the map of that lobby and {@code roborally.matchSeats} its size. When the
+ * game finishes, {@link #onGameFinished()} clears the lobby and the players become ready again for the next one.
+ * </p>
+ */
+public class MatchmakingService {
+    public static final long DEFAULT_WAIT_MILLIS = 30000;
+    public static final int DEFAULT_SEATS = 2;
+    public static final int DEFAULT_BOT_CLEVERNESS = 2;
+    /**
+     * Bots pick their figure at random, so each bot gets time to see the figures already taken.
+     */
+    private static final long BOT_STAGGER_MILLIS = 1000;
+
+    private final Server server;
+    private final Game game;
+    private final HashedWheelTimer timer;
+    private final Logger logger;
+    private final long waitMillis = Long.getLong("roborally.matchWaitMillis", DEFAULT_WAIT_MILLIS);
+    private final int seats = Integer.getInteger("roborally.matchSeats", DEFAULT_SEATS);
+    private final int botCleverness = Integer.getInteger("roborally.botCleverness", DEFAULT_BOT_CLEVERNESS);
+    private final boolean fillWithBots = Boolean.getBoolean("roborally.matchFillWithBots");
+    private BotHost botHost;
+
+    // Guarded by this
+    private final Map<ConnectionHandler, Long> queue = new LinkedHashMap<>();
+    private final Map<ConnectionHandler, String> mapPreferences = new HashMap<>();
+    private ConnectionHandler mapChooser;
+    private String chosenMap;
+    private boolean chooserLeft;
+    private HashedWheelTimer.Timeout waitTimeout;
+    private boolean waitExpired;
+    private int pendingBots;
+    private boolean started;
+    private int joins;
+    private int botsAdded;
+    private int gamesStarted;
+    private long lastTimeToGameMillis = -1;
+
+    /**
+     * The matchmaking counters since the server started.
+     *
+     * @param joins                how often a player became ready.
+     * @param botsAdded            how many bots were added to fill seats.
+     * @param gamesStarted         how many games were started.
+     * @param lastTimeToGameMillis the time from the first human becoming ready to the start of the last game,
+     *                             or {@code -1} if no game was started yet.
+     */
+    public record Stats(int joins, int botsAdded, int gamesStarted, long lastTimeToGameMillis) {
+    }
+
+    /**
+     * Creates the matchmaking of a server.
+     *
+     * @param server the server whose lobby is matched.
+     * @param game   the game that is started.
+     * @param timer  the timer used for the wait.
+     */
+    public MatchmakingService(Server server, Game game, HashedWheelTimer timer) {
+        this.server = server;
+        this.game = game;
+        this.timer = timer;
+        this.logger = server.getLogger();
+    }
+
+    /**
+     * Updates whether a player is ready and starts the game if it can start.
+     *
+     * @param handler the connection of the player.
+     * @param isReady whether the player is ready.
+     */
+    public void setReady(ConnectionHandler handler, boolean isReady) {
+        synchronized (this) {
+            if (isReady) {
+                if (queue.putIfAbsent(handler, System.nanoTime()) == null) {
+                    joins++;
+                    if (handler.isAI() && pendingBots > 0) {
+                        pendingBots--;
+                    }
+                }
+            } else {
+                queue.remove(handler);
+                mapPreferences.remove(handler);
+            }
+            updateWait();
+            updateMapChooser();
+        }
+        startIfReady();
+    }
+
+    /**
+     * Removes a player that left the lobby.
+     *
+     * @param handler the connection of the player.
+     */
+    public void leave(ConnectionHandler handler) {
+        if (handler != null) {
+            setReady(handler, false);
+        }
+    }
+
+    /**
+     * Handles a map selected by a player. The map the first human selects is played if all players are
+     * ready, the maps of all players count as preferences if the game is started after the wait.
+     *
+     * @param handler the connection of the player.
+     * @param map     the name of the map.
+     */
+    public void selectMap(ConnectionHandler handler, String map) {
+        if (!server.getAvailableMaps().contains(map)) {
+            server.sendError("Unknown map: " + map, handler);
+            return;
+        }
+        synchronized (this) {
+            mapPreferences.put(handler, map);
+            if (handler == mapChooser) {
+                chosenMap = map;
+            }
+        }
+        startIfReady();
+    }
+
+    /**
+     * Clears the lobby after a game finished, so the next game is formed from scratch. The counters are kept.
+     */
+    public synchronized void onGameFinished() {
+        queue.clear();
+        mapPreferences.clear();
+        mapChooser = null;
+        chosenMap = null;
+        chooserLeft = false;
+        if (waitTimeout != null) {
+            waitTimeout.cancel();
+            waitTimeout = null;
+        }
+        waitExpired = false;
+        pendingBots = 0;
+        started = false;
+    }
+
+    public synchronized int getReadyCount() {
+        return queue.size();
+    }
+
+    public synchronized Stats getStats() {
+        return new Stats(joins, botsAdded, gamesStarted, lastTimeToGameMillis);
+    }
+
+    /**
+     * Starts the wait when the first human is ready and cancels it when no human is ready any more.
+     */
+    private void updateWait() {
+        boolean humanWaiting = queue.keySet().stream().anyMatch(handler -> !handler.isAI());
+        if (humanWaiting && waitTimeout == null && !started) {
+            // Starting the game takes long, so it is not done on the timer thread
+            waitTimeout = timer.schedule(() -> Thread.ofVirtual().name("matchmaking-wait").start(this::onWaitExpired),
+                    waitMillis, TimeUnit.MILLISECONDS);
+        } else if (!humanWaiting && waitTimeout != null) {
+            waitTimeout.cancel();
+            waitTimeout = null;
+            waitExpired = false;
+        }
+    }
+
+    /**
+     * Asks the first human in the queue to select the map, unless that player was already asked. Remembers
+     * if an asked player left, as the map is then voted for after the wait.
+     */
+    private void updateMapChooser() {
+        if (started || (mapChooser != null && queue.containsKey(mapChooser))) {
+            return;
+        }
+        if (mapChooser != null) {
+            chooserLeft = true;
+        }
+        mapChooser = queue.keySet().stream().filter(handler -> !handler.isAI()).findFirst().orElse(null);
+        if (mapChooser == null) {
+            chooserLeft = false;
+        }
+        chosenMap = mapChooser != null ? mapPreferences.get(mapChooser) : null;
+        if (mapChooser != null && chosenMap == null) {
+            // With the map cache, the chooser can request the maps it does not have to show them
+            List<String> mapHashes = mapChooser.supportsExtension(HelloServerMessage.EXTENSION_MAP_CACHE)
+                    ? server.getAvailableMapHashes() : null;
+            mapChooser.sendMessage(JsonHandler.toJson(new SelectMapMessage(server.getAvailableMaps(), mapHashes)));
+        }
+    }
+
+    private void onWaitExpired() {
+        int missingSeats;
+        synchronized (this) {
+            if (started || waitTimeout == null) {
+                return;
+            }
+            waitExpired = true;
+            missingSeats = fillWithBots ? Math.max(0, seats - game.getPlayers().size() - pendingBots) : 0;
+            pendingBots += missingSeats;
+            botsAdded += missingSeats;
+        }
+        if (missingSeats > 0) {
+            logger.info("Filling " + missingSeats + " seats with bots after waiting " + waitMillis + " ms");
+        }
+        for (int bot = 0; bot < missingSeats; bot++) {
+            timer.schedule(() -> Thread.ofVirtual().name("matchmaking-bot").start(this::addBot),
+                    bot * BOT_STAGGER_MILLIS, TimeUnit.MILLISECONDS);
+        }
+        startIfReady();
+    }
+
+    private void addBot() {
+        try {
+            getBotHost().addSeat(botCleverness);
+        } catch (RuntimeException e) {
+            logger.warning("Could not add a bot: " + e.getMessage());
+            synchronized (this) {
+                pendingBots--;
+            }
+            startIfReady();
+        }
+    }
+
+    private synchronized BotHost getBotHost() {
+        if (botHost == null) {
+            botHost = new BotHost("localhost", server.getPort());
+        }
+        return botHost;
+    }
+
+    /**
+     * Starts the game if all players are ready and all bots have joined, and either the map is selected or
+     * the wait has expired after the map chooser left.
+     */
+    private void startIfReady() {
+        String map;
+        int humans;
+        boolean mapVoted;
+        synchronized (this) {
+            int players = game.getPlayers().size();
+            boolean allReady = queue.size() == players && players >= game.getMinPlayers();
+            if (started || server.isGameRunning || !allReady || pendingBots > 0
+                    || (chosenMap == null && !(waitExpired && chooserLeft))) {
+                return;
+            }
+            mapVoted = chosenMap == null;
+            map = mapVoted ? mostPreferredMap() : chosenMap;
+            humans = (int) queue.keySet().stream().filter(handler -> !handler.isAI()).count();
+            Long firstReadyNanos = queue.entrySet().stream().filter(entry -> !entry.getKey().isAI())
+                    .map(Map.Entry::getValue).min(Long::compare).orElse(null);
+            lastTimeToGameMillis = firstReadyNanos == null ? -1
+                    : TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - firstReadyNanos);
+            started = true;
+            gamesStarted++;
+            if (waitTimeout != null) {
+                waitTimeout.cancel();
+                waitTimeout = null;
+            }
+            MatchStartedEvent event = new MatchStartedEvent();
+            if (event.shouldCommit()) {
+                event.map = map;
+                event.humans = humans;
+                event.bots = players - humans;
+                event.mapVoted = mapVoted;
+                event.timeToGameMillis = lastTimeToGameMillis;
+                event.joins = joins;
+                event.botsAdded = botsAdded;
+                event.gamesStarted = gamesStarted;
+                event.commit();
+            }
+        }
+        logger.info("Starting the game on " + map + " with " + humans + " humans and "
+                + (game.getPlayers().size() - humans) + " bots, " + lastTimeToGameMillis
+                + " ms after the first player was ready. " + getStats());
+        server.setSelectedMap(map);
+        server.broadcastToAll(JsonHandler.toJson(new MapSelectedMessage(map)));
+        game.startGame();
+    }
+
+    /**
+     * @return the map most players prefer; on a tie the map preferred first, without preferences the
+     * first available map.
+     */
+    private String mostPreferredMap() {
+        Map<String, Integer> votes = new LinkedHashMap<>();
+        for (ConnectionHandler handler : queue.keySet()) {
+            String map = mapPreferences.get(handler);
+            if (map != null) {
+                votes.merge(map, 1, Integer::sum);
+            }
+        }
+        String mostPreferred = server.getAvailableMaps().getFirst();
+        int mostVotes = 0;
+        for (Map.Entry<String, Integer> vote : votes.entrySet()) {
+            if (vote.getValue() > mostVotes) {
+                mostPreferred = vote.getKey();
+                mostVotes = vote.getValue();
+            }
+        }
+        return mostPreferred;
+    }
+}
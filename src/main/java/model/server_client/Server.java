@@ -1,16 +1,23 @@
 package model.server_client;
 
+import helpers.jfr.BroadcastEvent;
 import model.game.Game;
 import model.game.Player;
+import model.game.maps.CompiledMap;
+import model.game.maps.MapRegistry;
 import network.JsonHandler;
+import network.messages.Message;
 import network.messages.actions8.GameFinishedMessage;
-import network.messages.connection2.AliveMessage;
+import network.messages.actions8.StateFrameMessage;
 import network.messages.connection2.HelloClientMessage;
+import network.messages.connection2.HelloServerMessage;
+import network.messages.lobby3.MapAnnouncementMessage;
 import network.messages.lobby3.PlayerAddedMessage;
 import network.messages.lobby3.PlayerStatusMessage;
+import network.messages.phases7.programming.CardSelectedMessage;
+import network.messages.phases7.programming.CardsSelectedMessage;
 import network.messages.specialMessage5.ConnectionUpdateMessage;
 import network.messages.specialMessage5.ErrorMessage;
-import network.messages.lobby3.SelectMapMessage;
 
 import java.io.IOException;
 import java.net.ServerSocket;
@@ -36,12 +43,21 @@ public class Server implements Runnable {
     public final Set<String> nicknamesSet = Collections.synchronizedSet(new HashSet<>());
     public boolean isGameCreated = false;
     public boolean isGameRunning = false;
-    private ScheduledExecutorService scheduler;
-    private final String protocolVersion = "Version 2.0";
+    // Created in run(), so this server does not escape from its constructor
+    private HeartbeatService heartbeatService;
+    private ChatService chatService;
+    private MatchmakingService matchmakingService;
+    // Replaced when a game starts, so it only holds the current game
+    private volatile BroadcastLog broadcastLog = new BroadcastLog();
+    private final SpectatorHub spectatorHub =
+            new SpectatorHub(broadcastLog, Long.getLong("roborally.spectatorDelayMillis", 0));
+    private final String protocolVersion = HelloServerMessage.PROTOCOL_VERSION;
+    private static final Set<String> supportedExtensions = Set.of(
+            HelloServerMessage.EXTENSION_MAP_CACHE, HelloServerMessage.EXTENSION_STATE_FRAMES,
+            HelloServerMessage.EXTENSION_SELECTED_CARDS);
     private int clientID = 0;
     public ConcurrentHashMap<Integer, ConnectionHandler> clientIdMap = new ConcurrentHashMap<>();
     private ConcurrentHashMap<Integer, String> clientIdToNameMap = new ConcurrentHashMap<>();
-    private List<ConnectionHandler> readyPlayers = new ArrayList<>();
     private List<String> availableMaps = new ArrayList<>();
     private String selectedMap;
     private static final Logger logger = Logger.getLogger(Server.class.getName());
@@ -78,11 +94,13 @@ public class Server implements Runnable {
 
             serverSocket = new ServerSocket(port);
             threadPool = Executors.newCachedThreadPool();
-            startAliveMessages(new AliveMessage());
-            startAliveCheck();
+            MapRegistry.getInstance().preload(availableMaps);
 
 
             game.setServer(this);
+            heartbeatService = new HeartbeatService(this, HashedWheelTimer.getInstance());
+            chatService = new ChatService(this);
+            matchmakingService = new MatchmakingService(this, game, HashedWheelTimer.getInstance());
             game.setLogger(logger);
 
             while (!done) {
@@ -170,6 +188,9 @@ public class Server implements Runnable {
             if (threadPool != null) {
                 threadPool.shutdown();
             }
+            if (chatService != null) {
+                chatService.shutdown();
+            }
             if (serverSocket != null && !serverSocket.isClosed()) {
                 serverSocket.close(); //close serverSocket
             }
@@ -244,38 +265,28 @@ public class Server implements Runnable {
         this.selectedMap = selectedMap;
     }
 
-    /**
-     * Updates the list of ready players based on a client's readiness status.
-     *
-     * @param handler the connection handler of the client.
-     * @param isReady the readiness status of the client.
-     */
-    public void updateReadyPlayers(ConnectionHandler handler, boolean isReady) {
-        if (!isReady) {
-            readyPlayers.remove(handler);
-        } else if (!readyPlayers.contains(handler)) {
-            readyPlayers.add(handler);
-        }
-        handleFirstReadyPlayer();
+    public List<String> getAvailableMaps() {
+        return availableMaps;
     }
 
     /**
-     * Notifies the first ready non-AI player to select a map.
+     * Returns the content hashes of the available maps, in the order of {@link #getAvailableMaps()}.
+     * The hash of a map that cannot be loaded is {@code null}.
+     *
+     * @return the content hashes of the maps.
      */
-    public void handleFirstReadyPlayer() {
-        for (ConnectionHandler handler : readyPlayers) {
-            Player player = game.getPlayerById(handler.getClientId());
-            if (!player.isAI()) {
-                SelectMapMessage smm = new SelectMapMessage(availableMaps);
-                String smmJson = JsonHandler.toJson(smm);
-                handler.sendMessage(smmJson);
-                return;
+    public List<String> getAvailableMapHashes() {
+        return availableMaps.stream().map(map -> {
+            try {
+                return MapRegistry.getInstance().get(map).getMapHash();
+            } catch (RuntimeException e) {
+                return null;
             }
-        }
+        }).toList();
     }
 
-    public List<ConnectionHandler> getReadyPlayers() {
-        return readyPlayers;
+    public MatchmakingService getMatchmakingService() {
+        return matchmakingService;
     }
 
     /**
@@ -284,7 +295,12 @@ public class Server implements Runnable {
      * @param nickname The nickname of the client.
      */
     public void removeConnection(String nickname) {
-        connectionsMap.remove(nickname);
+        ConnectionHandler handler = connectionsMap.remove(nickname);
+        if (handler != null) {
+            heartbeatService.unregister(handler);
+            chatService.leave(handler);
+            matchmakingService.leave(handler);
+        }
         updateAllClients();
     }
 
@@ -303,10 +319,13 @@ public class Server implements Runnable {
      * @param handler The connectionHandler of the sender.
      */
     public void broadcastToAllExceptSelf(String message, ConnectionHandler handler) {
-        connectionsMap.forEach((nickname, h) -> {
-            if (h != handler) {
-                h.sendMessage(message);
-            }
+        recordBroadcast("allExceptSelf", connectionsMap.size() - 1, message.length(), () -> {
+            broadcastLog.append(message);
+            connectionsMap.forEach((nickname, h) -> {
+                if (h != handler) {
+                    h.sendMessage(message);
+                }
+            });
         });
     }
 
@@ -316,7 +335,35 @@ public class Server implements Runnable {
      * @param jsonMessage The message to broadcast.
      */
     public void broadcastToAll(String jsonMessage) {
-        connectionsMap.values().forEach(handler -> handler.sendMessage(jsonMessage));
+        recordBroadcast("all", connectionsMap.size(), jsonMessage.length(), () -> {
+            broadcastLog.append(jsonMessage);
+            connectionsMap.values().forEach(handler -> handler.sendMessage(jsonMessage));
+        });
+    }
+
+    /**
+     * Sends the GameStarted message to all connected clients.
+     * <p>
+     * Clients that negotiated the map cache extension only get the content hash of the map and request
+     * the full map if they do not have it yet. All other clients get the full map as before.
+     * </p>
+     *
+     * @param compiledMap    the map of the started game.
+     * @param startingEnergy the starting energy of every player.
+     */
+    public void broadcastGameStarted(CompiledMap compiledMap, int startingEnergy) {
+        String gameStartedJson = compiledMap.getGameStartedJson(startingEnergy);
+        String announcementJson = JsonHandler.toJson(
+                new MapAnnouncementMessage(startingEnergy, compiledMap.getMapHash()));
+        recordBroadcast("gameStarted", connectionsMap.size(), gameStartedJson.length(), () -> {
+            broadcastLog = new BroadcastLog();
+            spectatorHub.setLog(broadcastLog);
+            // Spectators get the full map, a relay may serve clients without the map cache
+            broadcastLog.append(gameStartedJson);
+            connectionsMap.values().forEach(handler -> handler.sendMessage(
+                    handler.supportsExtension(HelloServerMessage.EXTENSION_MAP_CACHE)
+                            ? announcementJson : gameStartedJson));
+        });
     }
 
     /**
@@ -326,10 +373,73 @@ public class Server implements Runnable {
      * @param players     the list of players to which the message should be sent.
      */
     public void broadcastToPlayers(String jsonMessage, List<Player> players){
-        for (Player player : players) {
-            int id = player.getPlayerId();
-            clientIdMap.get(id).sendMessage(jsonMessage);
-        }
+        recordBroadcast("players", players.size(), jsonMessage.length(), () -> {
+            broadcastLog.append(jsonMessage);
+            for (Player player : players) {
+                int id = player.getPlayerId();
+                clientIdMap.get(id).sendMessage(jsonMessage);
+            }
+        });
+    }
+
+    /**
+     * Broadcasts the state messages of one frame to a specified list of players.
+     * <p>
+     * Clients that negotiated the state frame extension get one StateFrame message, all other clients
+     * get the messages one by one. Each message is encoded at most once.
+     * </p>
+     *
+     * @param events  the state messages in the order they occurred.
+     * @param players the list of players to which the messages should be sent.
+     */
+    public void broadcastStateFrame(List<Message> events, List<Player> players) {
+        // Always needed for the spectators
+        String frameJson = JsonHandler.toJson(new StateFrameMessage(events));
+        recordBroadcast("stateFrame", players.size(), frameJson.length(), () -> {
+            List<String> eventJsons = null;
+            for (Player player : players) {
+                ConnectionHandler handler = clientIdMap.get(player.getPlayerId());
+                if (handler.supportsExtension(HelloServerMessage.EXTENSION_STATE_FRAMES)) {
+                    handler.sendMessage(frameJson);
+                } else {
+                    if (eventJsons == null) {
+                        eventJsons = events.stream().map(JsonHandler::toJson).toList();
+                    }
+                    eventJsons.forEach(handler::sendMessage);
+                }
+            }
+            broadcastLog.append(frameJson);
+        });
+    }
+
+    /**
+     * Broadcasts that a player filled several registers at once.
+     * <p>
+     * Clients that negotiated the SelectedCards extension get one CardsSelected message, all other clients
+     * get one CardSelected message per register. Each message is encoded at most once.
+     * </p>
+     *
+     * @param clientId  the player who selected the cards.
+     * @param registers the registers that are filled now.
+     * @param players   the list of players to which the message should be sent.
+     */
+    public void broadcastCardsSelected(int clientId, List<Integer> registers, List<Player> players) {
+        String aggregatedJson = JsonHandler.toJson(new CardsSelectedMessage(clientId, registers));
+        List<String> registerJsons = registers.stream()
+                .map(register -> JsonHandler.toJson(new CardSelectedMessage(clientId, register, true)))
+                .toList();
+        recordBroadcast("cardsSelected", players.size(), aggregatedJson.length(), () -> {
+            // Spectators may not know the extension
+            registerJsons.forEach(broadcastLog::append);
+            for (Player player : players) {
+                ConnectionHandler handler = clientIdMap.get(player.getPlayerId());
+                if (handler.supportsExtension(HelloServerMessage.EXTENSION_SELECTED_CARDS)) {
+                    handler.sendMessage(aggregatedJson);
+                } else {
+                    registerJsons.forEach(handler::sendMessage);
+                }
+            }
+        });
     }
 
     /**
@@ -340,78 +450,123 @@ public class Server implements Runnable {
      * @param players     the list of players to which the message should be sent.
      */
     public void broadcastToPlayersExceptSelf(String jsonMessage,  ConnectionHandler handler, List<Player> players){
-        for (Player player : players) {
-            int id = player.getPlayerId();
-            ConnectionHandler h = clientIdMap.get(id);
-            if(h != handler){
-                h.sendMessage(jsonMessage);
+        recordBroadcast("playersExceptSelf", players.size() - 1, jsonMessage.length(), () -> {
+            broadcastLog.append(jsonMessage);
+            for (Player player : players) {
+                int id = player.getPlayerId();
+                ConnectionHandler h = clientIdMap.get(id);
+                if(h != handler){
+                    h.sendMessage(jsonMessage);
+                }
             }
+        });
+    }
+
+    /**
+     * Sends a broadcast and records it for the flight recorder, if it is recording broadcasts.
+     *
+     * @param kind       the broadcast method, e.g. all, players or stateFrame.
+     * @param recipients the number of recipients.
+     * @param length     the length of the message in characters.
+     * @param send       sends the message.
+     */
+    private static void recordBroadcast(String kind, int recipients, int length, Runnable send) {
+        BroadcastEvent event = new BroadcastEvent();
+        event.begin();
+        send.run();
+        event.end();
+        if (event.shouldCommit()) {
+            event.kind = kind;
+            event.recipients = recipients;
+            event.length = length;
+            event.commit();
         }
     }
 
-    private void startAliveMessages(AliveMessage aliveMessage) {
-        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
-        scheduler.scheduleAtFixedRate(() -> {
-            connectionsMap.forEach((nickname, handler) -> {
-                try {
-                    String aliveJson = JsonHandler.toJson(aliveMessage);
-                    handler.sendMessage(aliveJson);
-                } catch (Exception e) {
-                    logger.warning("Error sending the alive message " + nickname + ": " + e.getMessage());
-                }
-            });
-        }, 0, 5, TimeUnit.SECONDS);
+    /**
+     * Adds a client that sent its player values to the connected clients, starts its heartbeat and
+     * lets it join the lobby chat.
+     *
+     * @param nickname the nickname of the client.
+     * @param handler  the ConnectionHandler of the client.
+     */
+    public void addConnection(String nickname, ConnectionHandler handler) {
+        connectionsMap.put(nickname, handler);
+        heartbeatService.register(handler);
+        chatService.join(ChatService.LOBBY_ROOM, handler);
+    }
+
+    public ChatService getChatService() {
+        return chatService;
     }
 
     /**
-     * Starts checking periodically if clients are alive.
+     * Lets a client watch the game read-only. It gets all messages broadcast to the players so far and
+     * from then on, delayed by the system property {@code roborally.spectatorDelayMillis}.
+     *
+     * @param handler the ConnectionHandler of the spectator.
      */
-    public void startAliveCheck() {
-        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
-        scheduler.scheduleAtFixedRate(() -> {
-            connectionsMap.forEach((nickname, handler) -> {
-                try {
-                    checkAlive(handler);
-                } catch (Exception e) {
-                    logger.warning("Error sending the alive message " + nickname + ": " + e.getMessage());
-                }
-            });
-        }, 0, 10, TimeUnit.SECONDS);
+    public void addSpectator(ConnectionHandler handler) {
+        handler.setSpectator(true);
+        heartbeatService.register(handler);
+        spectatorHub.addViewer(handler, handler::sendMessages);
+        logger.info("Client " + handler.getClientId() + " is spectating, " + spectatorHub.getViewerCount()
+                + " spectators");
     }
 
     /**
-     * Checks if the specified client is alive based on the last alive timestamp.
+     * Stops sending the game to a spectator.
+     *
+     * @param handler the ConnectionHandler of the spectator.
+     */
+    public void removeSpectator(ConnectionHandler handler) {
+        spectatorHub.removeViewer(handler);
+        heartbeatService.unregister(handler);
+        clientIdMap.remove(handler.getClientId());
+    }
+
+    /**
+     * Removes a client whose heartbeat expired.
      * <p>
-     * If the client is not alive, it removes the client, broadcasts a connection update, and, if only one player
-     * remains, sends a GameFinished message.
+     * It removes the client, broadcasts a connection update, and, if only one player remains,
+     * sends a GameFinished message. The player is removed on the step thread of the game, so the
+     * removal never interleaves with a running activation.
      * </p>
      *
-     * @param handler the ConnectionHandler for the client to check.
+     * @param handler the ConnectionHandler of the client that stopped responding.
      */
-    public void checkAlive(ConnectionHandler handler) {
-       long timeSinceLastAlive = System.currentTimeMillis() - handler.getLastAliveTime();
-        if (timeSinceLastAlive > 11000) {
-            //If client not alive anymore -> Ignore
-            ConnectionUpdateMessage cum = new ConnectionUpdateMessage(handler.getClientId(), false, "Ignore");
-            String json = JsonHandler.toJson(cum);
-            try {
-                connectionsMap.remove(handler.getNickname());
-                clientIdMap.remove(handler.getClientId());
-                clientIdToNameMap.remove(handler.getClientId());
-                Game.getInstance().removePlayerByID(handler.getClientId());
-                handler.shutdownClient();
-            } catch (Exception e) {
-                logger.warning("Error while shutting down Client " + e.getMessage());
-            }
-            if(Game.getInstance().getPlayers().size() == 1) {
-                GameFinishedMessage fm = new GameFinishedMessage(Game.getInstance().getPlayers().get(0).getPlayerId());
-                String json2 = JsonHandler.toJson(fm);
-                broadcastToAll(json2);
+    public void removeExpiredConnection(ConnectionHandler handler) {
+        if (handler.isSpectator()) {
+            removeSpectator(handler);
+            handler.shutdownClient();
+            return;
+        }
+        //If client not alive anymore -> Ignore
+        ConnectionUpdateMessage cum = new ConnectionUpdateMessage(handler.getClientId(), false, "Ignore");
+        String json = JsonHandler.toJson(cum);
+        try {
+            chatService.leave(handler);
+            connectionsMap.remove(handler.getNickname());
+            clientIdMap.remove(handler.getClientId());
+            clientIdToNameMap.remove(handler.getClientId());
+            handler.shutdownClient();
+        } catch (Exception e) {
+            logger.warning("Error while shutting down Client " + e.getMessage());
+        }
+        Game game = Game.getInstance();
+        game.runStep(() -> {
+            game.removePlayerByID(handler.getClientId());
+            if (game.getPlayers().size() == 1) {
+                if (isGameRunning) {
+                    game.notifyGameFinished(game.getPlayers().get(0));
+                } else {
+                    GameFinishedMessage fm = new GameFinishedMessage(game.getPlayers().get(0).getPlayerId());
+                    broadcastToAll(JsonHandler.toJson(fm));
+                }
             }
             //for broadcasting that a client left
             broadcastToAll(json);
-
-        }
+        });
     }
 
     /**
@@ -440,6 +595,19 @@ public class Server implements Runnable {
         return protocolVersion;
     }
 
+    public int getPort() {
+        return port;
+    }
+
+    /**
+     * Returns the protocol extensions this server can use with clients that offer them in HelloServer.
+     *
+     * @return the names of the supported extensions.
+     */
+    public Set<String> getSupportedExtensions() {
+        return supportedExtensions;
+    }
+
     /**
      * Associates a client ID with a client name.
      *
@@ -461,9 +629,7 @@ public class Server implements Runnable {
      */
     public void removeClientName(int clientId) {
         clientIdToNameMap.remove(clientId);
-        readyPlayers.remove(clientId);
-        clientIdMap.remove(clientId);
-        clientIdMap.remove(clientId);
+        matchmakingService.leave(clientIdMap.remove(clientId));
     }
 
     public Logger getLogger() {
@@ -0,0 +1,129 @@
+package model.server_client;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Sends a {@link BroadcastLog} to spectators.
+ * <p>
+ * Every spectator has a cursor into the log and its own virtual thread that sends the new messages in batches,
+ * starting from the beginning of the log so late spectators see the whole game. A new log is started for every
+ * game, so the log never grows beyond one game. A slow spectator only slows down its own thread; the thread
+ * that appends to the log never waits for spectators. Messages can be delayed, e.g. so that spectators cannot
+ * tell players what the others do.
+ * </p>
+ */
+public class SpectatorHub {
+    private static final Logger logger = Logger.getLogger(SpectatorHub.class.getName());
+    private static final long POLL_MILLIS = 50;
+    private static final int MAX_BATCH_SIZE = 256;
+
+    private volatile BroadcastLog log;
+    private final long delayNanos;
+    private final Map<Object, Thread> viewers = new ConcurrentHashMap<>();
+
+    /**
+     * Receives the messages of the log.
+     */
+    @FunctionalInterface
+    public interface Viewer {
+        /**
+         * Sends messages to the spectator.
+         *
+         * @param messages the encoded messages, in log order.
+         * @return {@code false} if the connection is broken and the spectator should be removed.
+         */
+        boolean send(List<String> messages);
+    }
+
+    /**
+     * Creates a hub.
+     *
+     * @param log         the log to send.
+     * @param delayMillis how long a message stays in the log before it is sent to spectators.
+     */
+    public SpectatorHub(BroadcastLog log, long delayMillis) {
+        this.log = log;
+        this.delayNanos = TimeUnit.MILLISECONDS.toNanos(delayMillis);
+    }
+
+    /**
+     * Starts sending the log to a spectator.
+     *
+     * @param key    identifies the spectator, e.g. its connection.
+     * @param viewer sends messages to the spectator.
+     */
+    public void addViewer(Object key, Viewer viewer) {
+        Thread thread = Thread.ofVirtual().name("spectator").unstarted(() -> {
+            try {
+                follow(viewer);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                viewers.remove(key, Thread.currentThread());
+            }
+        });
+        if (viewers.putIfAbsent(key, thread) == null) {
+            thread.start();
+        }
+    }
+
+    /**
+     * Stops sending the log to a spectator.
+     *
+     * @param key identifies the spectator.
+     */
+    public void removeViewer(Object key) {
+        Thread thread = viewers.remove(key);
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    /**
+     * Starts sending another log, e.g. the log of the next game. Spectators continue at its beginning and the
+     * old log can be collected once they left it.
+     *
+     * @param log the new log.
+     */
+    public void setLog(BroadcastLog log) {
+        this.log = log;
+    }
+
+    public int getViewerCount() {
+        return viewers.size();
+    }
+
+    private void follow(Viewer viewer) throws InterruptedException {
+        BroadcastLog current = log;
+        int cursor = 0;
+        List<String> batch = new ArrayList<>(MAX_BATCH_SIZE);
+        while (!Thread.currentThread().isInterrupted()) {
+            int available = current.size();
+            if (cursor == available && log != current) {
+                // The old log is sent completely, go on with the new one
+                current = log;
+                cursor = 0;
+                continue;
+            }
+            long cutoff = System.nanoTime() - delayNanos;
+            while (cursor < available && batch.size() < MAX_BATCH_SIZE
+                    && current.getAppendNanos(cursor) <= cutoff) {
+                batch.add(current.get(cursor++));
+            }
+            if (batch.isEmpty()) {
+                Thread.sleep(POLL_MILLIS);
+                continue;
+            }
+            if (!viewer.send(batch)) {
+                logger.info("Spectator disconnected");
+                return;
+            }
+            batch.clear();
+        }
+    }
+}
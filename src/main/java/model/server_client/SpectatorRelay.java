@@ -0,0 +1,144 @@
+package model.server_client;
+
+import com.google.gson.JsonParser;
+import network.JsonHandler;
+import network.messages.connection2.AliveMessage;
+import network.messages.connection2.HelloServerMessage;
+import network.messages.lobby3.SpectateMessage;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * A standalone process that spectates a game and passes it on to its own spectators.
+ * <p>
+ * The relay connects to the game server as one spectator and appends everything it receives to its own
+ * {@link BroadcastLog}, which a {@link SpectatorHub} sends to the clients connected to the relay. This way
+ * a game can be watched by many more spectators than the game server itself should serve, and relays can
+ * be chained. Relay clients get a read-only stream with one message per line, starting with the beginning
+ * of the game; anything they send is ignored.
+ * </p>
+ * <p>
+ * Usage: {@code SpectatorRelay [serverHost] [serverPort] [listenPort] [delayMillis]}, defaults are
+ * localhost, 8080, 8090 and 0.
+ * </p>
+ */
+public class SpectatorRelay {
+    private static final Logger logger = Logger.getLogger(SpectatorRelay.class.getName());
+    private static final String ALIVE_JSON = JsonHandler.toJson(new AliveMessage());
+
+    private BroadcastLog log = new BroadcastLog();
+    private final SpectatorHub hub;
+
+    /**
+     * Creates a relay.
+     *
+     * @param delayMillis how long messages are held back before they are sent to the relay's spectators.
+     */
+    public SpectatorRelay(long delayMillis) {
+        this.hub = new SpectatorHub(log, delayMillis);
+    }
+
+    /**
+     * Spectates the game on a server on a virtual thread.
+     *
+     * @param host the host of the game server or of another relay.
+     * @param port the port of the game server or of another relay.
+     * @throws IOException if the connection fails.
+     */
+    public void connect(String host, int port) throws IOException {
+        Socket socket = new Socket(host, port);
+        BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+        PrintWriter out = new PrintWriter(socket.getOutputStream(), true);
+        Thread.ofVirtual().name("relay-upstream").start(() -> {
+            try (socket) {
+                String json;
+                while ((json = in.readLine()) != null) {
+                    handleUpstreamMessage(json, out);
+                }
+                logger.info("Upstream closed the connection");
+            } catch (IOException e) {
+                logger.warning("Upstream connection failed: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Answers the handshake and pings of a game server and appends all other messages to the log.
+     * Messages from another relay are appended as they are.
+     */
+    private void handleUpstreamMessage(String json, PrintWriter out) {
+        String messageType = messageTypeOf(json);
+        switch (messageType) {
+            case "HelloClient" -> out.println(JsonHandler.toJson(new HelloServerMessage(HelloServerMessage.GROUP,
+                    false, HelloServerMessage.PROTOCOL_VERSION, -1,
+                    List.of(HelloServerMessage.EXTENSION_STATE_FRAMES))));
+            case "Welcome" -> out.println(JsonHandler.toJson(new SpectateMessage()));
+            case "Alive" -> out.println(ALIVE_JSON);
+            case "GameStarted" -> {
+                // Like the server, keep only the current game
+                log = new BroadcastLog();
+                hub.setLog(log);
+                log.append(json);
+            }
+            default -> log.append(json);
+        }
+    }
+
+    private static String messageTypeOf(String json) {
+        try {
+            return JsonParser.parseString(json).getAsJsonObject().get("messageType").getAsString();
+        } catch (RuntimeException e) {
+            return "";
+        }
+    }
+
+    /**
+     * Accepts spectators until the process ends.
+     *
+     * @param port the port to listen on.
+     * @throws IOException if the port cannot be opened.
+     */
+    public void serve(int port) throws IOException {
+        try (ServerSocket serverSocket = new ServerSocket(port)) {
+            logger.info("Relaying on port " + port);
+            while (true) {
+                Socket client = serverSocket.accept();
+                PrintWriter out = new PrintWriter(client.getOutputStream(), false);
+                hub.addViewer(client, messages -> {
+                    messages.forEach(out::println);
+                    boolean connected = !out.checkError();
+                    if (!connected) {
+                        closeQuietly(client);
+                    }
+                    return connected;
+                });
+            }
+        }
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // Already closed
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        String host = args.length > 0 ? args[0] : "localhost";
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : 8080;
+        int listenPort = args.length > 2 ? Integer.parseInt(args[2]) : 8090;
+        long delayMillis = args.length > 3 ? Long.parseLong(args[3]) : 0;
+
+        SpectatorRelay relay = new SpectatorRelay(delayMillis);
+        relay.connect(host, port);
+        relay.serve(listenPort);
+    }
+}
@@ -0,0 +1,41 @@
+package model.server_client;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits the rate of some action: a burst of actions is allowed, after that one action per refill interval.
+ */
+class TokenBucket {
+    private final int burst;
+    private final long refillNanos;
+    private double tokens;
+    private long lastRefillNanos = System.nanoTime();
+
+    /**
+     * Creates a full bucket.
+     *
+     * @param burst        the number of actions allowed at once.
+     * @param refillMillis the time after which one more action is allowed.
+     */
+    TokenBucket(int burst, long refillMillis) {
+        this.burst = burst;
+        this.refillNanos = TimeUnit.MILLISECONDS.toNanos(refillMillis);
+        this.tokens = burst;
+    }
+
+    /**
+     * Takes a token if there is one.
+     *
+     * @return {@code true} if the action is allowed.
+     */
+    synchronized boolean tryTake() {
+        long now = System.nanoTime();
+        tokens = Math.min(burst, tokens + (double) (now - lastRefillNanos) / refillNanos);
+        lastRefillNanos = now;
+        if (tokens >= 1) {
+            tokens--;
+            return true;
+        }
+        return false;
+    }
+}
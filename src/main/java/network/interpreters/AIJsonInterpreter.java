@@ -3,6 +3,7 @@ package network.interpreters;
 import model.game.AI.AIClient;
 import model.game.board.Direction;
 import model.game.board.Position;
+import model.server_client.HashedWheelTimer;
 import network.JsonHandler;
 import network.messages.actions8.*;
 import network.messages.connection2.WelcomeMessage;
@@ -20,6 +21,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
 
 
@@ -57,16 +59,9 @@ public class AIJsonInterpreter extends BaseClientJsonInterpreter implements Json
         handlerMap.put("Welcome", jsonObj -> {
             WelcomeMessage welcomeMessage = JsonHandler.fromJson(jsonObj.toString(), WelcomeMessage.class);
             aiClient.setClientID(welcomeMessage.getMessageBody().getClientID());
+            aiClient.setExtensions(welcomeMessage.getMessageBody().getExtensions());
 
-            new Thread(() -> {
-                try {
-                    Thread.sleep(500);
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    logger.severe("Thread was interrupted during sleep.");
-                }
-                aiClient.sendPlayerValues();
-            }).start();
+            HashedWheelTimer.getInstance().schedule(aiClient::sendPlayerValues, 500, TimeUnit.MILLISECONDS);
         });
         handlerMap.put("PlayerAdded", jsonObj -> {
             PlayerAddedMessage pam = JsonHandler.fromJson(jsonObj.toString(), PlayerAddedMessage.class);
@@ -74,6 +69,9 @@ public class AIJsonInterpreter extends BaseClientJsonInterpreter implements Json
             String playerName = pam.getMessageBody().getName();
             aiClient.removeFigureIdFromList(figureNumber);
             aiClient.removeNameFromAvailableNames(playerName);
+            if (pam.getMessageBody().getClientID() == aiClient.getClientID()) {
+                aiClient.setJoined(true);
+            }
         });
 
         handlerMap.put("CurrentPlayer", jsonObj -> {
@@ -88,6 +86,10 @@ public class AIJsonInterpreter extends BaseClientJsonInterpreter implements Json
         handlerMap.put("PlayerStatus", jsonObj -> {
             PlayerStatusMessage psm = JsonHandler.fromJson(jsonObj.toString(), PlayerStatusMessage.class);
             boolean status = psm.getMessageBody().isReady();
+            // The statuses sent before the AI joined are sent again after it joined
+            if (!aiClient.hasJoined() || psm.getMessageBody().getClientID() == aiClient.getClientID()) {
+                return;
+            }
             if (status && !aiClient.isReady()) {
                 aiClient.sendSetStatus(true);
             } else if (!status && aiClient.isReady()) {
@@ -112,6 +114,11 @@ public class AIJsonInterpreter extends BaseClientJsonInterpreter implements Json
             }
         });
 
+        handlerMap.put("TimerStarted", _ -> aiClient.getPlanner().onTimerStarted());
+
+        // The server filled the registers itself, so a plan that was not committed yet is no longer needed
+        handlerMap.put("TimerEnded", _ -> aiClient.getPlanner().cancel());
+
         handlerMap.put("MapSelected", jsonObj -> {
         MapSelectedMessage ms = JsonHandler.fromJson(jsonObj.toString(), MapSelectedMessage.class);
         String map = ms.getMessageBody().getMap().toLowerCase();
@@ -137,6 +144,9 @@ public class AIJsonInterpreter extends BaseClientJsonInterpreter implements Json
         if (clientIDStart == aiClient.getClientID()) {
             aiClient.setPosition(startingPosition);
             aiClient.setStartingDirection(Direction.fromString(startingDirection));
+        } else {
+            aiClient.getOpponentModel().setStartingPoint(clientIDStart, startingPosition,
+                    Direction.fromString(startingDirection));
         }
         });
 
@@ -145,6 +155,8 @@ public class AIJsonInterpreter extends BaseClientJsonInterpreter implements Json
             Position pos = new Position(mm.getMessageBody().getX(), mm.getMessageBody().getY());
             if (aiClient.getClientID() == mm.getMessageBody().getClientID()) {
                 aiClient.setPosition(pos);
+            } else {
+                aiClient.getOpponentModel().move(mm.getMessageBody().getClientID(), pos);
             }
         });
 
@@ -153,6 +165,8 @@ public class AIJsonInterpreter extends BaseClientJsonInterpreter implements Json
             String rotation = ptm.getMessageBody().getRotation();
             if (aiClient.getClientID() == ptm.getMessageBody().getClientID()) {
                 aiClient.rotate(rotation);
+            } else {
+                aiClient.getOpponentModel().rotate(ptm.getMessageBody().getClientID(), rotation);
             }
         });
 
@@ -177,6 +191,12 @@ public class AIJsonInterpreter extends BaseClientJsonInterpreter implements Json
             }
         });
 
+        handlerMap.put("CheckpointMoved", jsonObj -> {
+            CheckpointMovedMessage cmm = JsonHandler.fromJson(jsonObj.toString(), CheckpointMovedMessage.class);
+            Position newPosition = new Position(cmm.getMessageBody().getX(), cmm.getMessageBody().getY());
+            aiClient.getPathfinder().moveCheckpoint(cmm.getMessageBody().getCheckpointID(), newPosition);
+        });
+
         handlerMap.put("GameFinished", _ -> aiClient.shutdown());
 
         handlerMap.put("GameStarted", jsonObj -> {
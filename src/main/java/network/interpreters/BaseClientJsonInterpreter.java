@@ -1,5 +1,7 @@
 package network.interpreters;
 
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import com.google.gson.JsonSyntaxException;
@@ -8,6 +10,7 @@ import javafx.application.Platform;
 import model.game.Player;
 import model.game.board.Direction;
 import model.game.board.Position;
+import model.game.maps.MapCache;
 import model.server_client.BaseClient;
 import network.JsonHandler;
 import network.messages.actions8.*;
@@ -29,6 +32,7 @@ import network.messages.phases7.upgrade.UpgradeBoughtMessage;
 import network.messages.specialMessage5.ConnectionUpdateMessage;
 import helpers.SoundFX;
 import viewmodel.MapParser;
+import viewmodel.UiUpdateBus;
 
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -44,9 +48,12 @@ import java.util.logging.Logger;
  * this class and modify or add handlers as needed.
  */
 public abstract class BaseClientJsonInterpreter implements JsonInterpreter {
+    private static final String ALIVE_JSON = JsonHandler.toJson(new AliveMessage());
     protected BaseClient client;
     protected Logger logger;
     protected Map<String, Consumer<JsonObject>> handlerMap = new HashMap<>();
+    private String pendingMapHash;
+    private int pendingMapEnergy;
 
     /**
      * Constructs a BaseClientJsonInterpreter with the specified client and logger.
@@ -73,19 +80,45 @@ public abstract class BaseClientJsonInterpreter implements JsonInterpreter {
         try {
             logger.info("Received message: " + jsonMessage);
             JsonObject jsonObj = JsonParser.parseString(jsonMessage).getAsJsonObject();
-            String messageType = jsonObj.get("messageType").getAsString();
-            Consumer<JsonObject> handler = handlerMap.get(messageType);
-            if (handler != null) {
-                handler.accept(jsonObj);
-            } else {
-                logger.warning("Unknown message type: " + messageType);
-            }
+            dispatch(jsonObj);
         } catch (JsonSyntaxException exception) {
             logger.severe("JSON Error: " + exception.getMessage());
         }
     }
 
 
+    /**
+     * Passes a parsed message to the handler registered for its message type.
+     *
+     * @param jsonObj the message as JSON object
+     */
+    private void dispatch(JsonObject jsonObj) {
+        String messageType = jsonObj.get("messageType").getAsString();
+        Consumer<JsonObject> handler = handlerMap.get(messageType);
+        if (handler != null) {
+            handler.accept(jsonObj);
+        } else {
+            logger.warning("Unknown message type: " + messageType);
+        }
+    }
+
+    /**
+     * Handles a map from the map cache or a MapData message like a regular GameStarted message,
+     * so the GameStarted handlers of all clients work unchanged.
+     *
+     * @param energy  the starting energy of every player.
+     * @param gameMap the game map as JSON.
+     */
+    private void startGameWithMap(int energy, JsonArray gameMap) {
+        JsonObject body = new JsonObject();
+        body.addProperty("energy", energy);
+        body.add("gameMap", gameMap);
+        JsonObject gameStarted = new JsonObject();
+        gameStarted.addProperty("messageType", "GameStarted");
+        gameStarted.add("messageBody", body);
+        handlerMap.get("GameStarted").accept(gameStarted);
+    }
+
     /**
      * Registers the common handlers.
      * Subclasses may override or add additional handlers as needed.
@@ -93,7 +126,9 @@ public abstract class BaseClientJsonInterpreter implements JsonInterpreter {
     protected void initializeHandlers() {
         handlerMap.put("HelloClient", _ -> {
             HelloServerMessage helloServerMessage = new HelloServerMessage(
-                    client.getGroup(), client.isAI(), client.getProtocolVersion(), client.getClientID());
+                    client.getGroup(), client.isAI(), client.getProtocolVersion(), client.getClientID(),
+                    List.of(HelloServerMessage.EXTENSION_MAP_CACHE, HelloServerMessage.EXTENSION_STATE_FRAMES,
+                            HelloServerMessage.EXTENSION_SELECTED_CARDS));
             client.sendMessageToServer(JsonHandler.toJson(helloServerMessage));
             if(!client.isAI()){
                 SoundFX.playBackgroundMusic("theme.wav");
@@ -103,11 +138,12 @@ public abstract class BaseClientJsonInterpreter implements JsonInterpreter {
         handlerMap.put("Welcome", jsonObj -> {
             WelcomeMessage welcomeMessage = JsonHandler.fromJson(jsonObj.toString(), WelcomeMessage.class);
             client.setClientID(welcomeMessage.getMessageBody().getClientID());
+            client.setExtensions(welcomeMessage.getMessageBody().getExtensions());
+            logger.info("Accepted protocol extensions: " + welcomeMessage.getMessageBody().getExtensions());
         });
 
         handlerMap.put("Alive", _ -> {
-            AliveMessage aliveMessage = new AliveMessage();
-            client.sendMessageToServer(JsonHandler.toJson(aliveMessage));
+            client.sendMessageToServer(ALIVE_JSON);
         });
 
         handlerMap.put("ReceivedChat", jsonObj -> {
@@ -167,7 +203,7 @@ public abstract class BaseClientJsonInterpreter implements JsonInterpreter {
             int phase = apm.getMessageBody().getPhase();
             client.getGameDataBridge().setPhase(phase);
             logger.info("Current Phase: " + phase);
-            Platform.runLater(() -> client.getGameDataBridge().setTimerValue(-1));
+            client.getGameDataBridge().getUpdateBus().post(() -> client.getGameDataBridge().setTimerValue(-1));
             if(phase == 1){
                 client.getGameDataBridge().setActiveRegisterSlot(-1);
             }
@@ -259,7 +295,7 @@ public abstract class BaseClientJsonInterpreter implements JsonInterpreter {
             }else{
                 client.getGameDataBridge().setCardsInHand(ycm.getMessageBody().getCardsInHand());
             }
-            Platform.runLater(() -> client.getGameDataBridge().setDoneButtonDisabled(false));
+            client.getGameDataBridge().getUpdateBus().post(() -> client.getGameDataBridge().setDoneButtonDisabled(false));
         });
 
 
@@ -287,13 +323,15 @@ public abstract class BaseClientJsonInterpreter implements JsonInterpreter {
         handlerMap.put("RefillShop", jsonObj -> {
             RefillShopMessage rsm = JsonHandler.fromJson(jsonObj.toString(), RefillShopMessage.class);
             List<String> upgradeCardsShop = rsm.getMessageBody().getCards();
-            Platform.runLater(() -> client.getGameDataBridge().addAvailableUpgradeCard(upgradeCardsShop));
+            client.getGameDataBridge().getUpdateBus().post(
+                    () -> client.getGameDataBridge().addAvailableUpgradeCard(upgradeCardsShop));
         });
 
         handlerMap.put("ExchangeShop", jsonObj -> {
             ExchangeShopMessage eam = JsonHandler.fromJson(jsonObj.toString(), ExchangeShopMessage.class);
             List<String> upgradeCardsExchange = eam.getMessageBody().getCards();
-            Platform.runLater(() -> client.getGameDataBridge().setAvailableUpgradeCards(upgradeCardsExchange));
+            client.getGameDataBridge().getUpdateBus().post(
+                    () -> client.getGameDataBridge().setAvailableUpgradeCards(upgradeCardsExchange));
         });
 
         handlerMap.put("UpgradeBought", jsonObj -> {
@@ -318,7 +356,10 @@ public abstract class BaseClientJsonInterpreter implements JsonInterpreter {
             int x = mm.getMessageBody().getX();
             int y = mm.getMessageBody().getY();
             int clientIDMovement = mm.getMessageBody().getClientID();
-            Platform.runLater(() -> client.getGameDataBridge().updateRobotPosition(clientIDMovement, x, y));
+            // Every move is animated in order, so a robot pushed along a conveyor does not cut corners
+            client.getGameDataBridge().getUpdateBus().append(new UiUpdateBus.Key("Movement", clientIDMovement),
+                    new Position(x, y), position -> client.getGameDataBridge()
+                            .updateRobotPosition(clientIDMovement, position.x(), position.y()));
         });
 
 
@@ -327,7 +368,18 @@ public abstract class BaseClientJsonInterpreter implements JsonInterpreter {
             int clientIDTurning = ptm.getMessageBody().getClientID();
             String dirTurning = ptm.getMessageBody().getRotation();
             logger.info("direction of turning: " + dirTurning);
-            Platform.runLater(() -> client.getGameDataBridge().rotateRobotModel(clientIDTurning, dirTurning));
+            // Consecutive turns within a frame are added up as quarter turns clockwise and applied at once
+            int quarterTurns = "clockwise".equals(dirTurning) ? 1 : 3;
+            client.getGameDataBridge().getUpdateBus().merge(new UiUpdateBus.Key("PlayerTurning", clientIDTurning),
+                    quarterTurns, (pending, newer) -> (pending + newer) % 4, turns -> {
+                        if (turns == 3) {
+                            client.getGameDataBridge().rotateRobotModel(clientIDTurning, "counterclockwise");
+                        } else {
+                            for (int i = 0; i < turns; i++) {
+                                client.getGameDataBridge().rotateRobotModel(clientIDTurning, "clockwise");
+                            }
+                        }
+                    });
         });
 
 
@@ -345,7 +397,8 @@ public abstract class BaseClientJsonInterpreter implements JsonInterpreter {
             EnergyMessage em = JsonHandler.fromJson(jsonObj.toString(), EnergyMessage.class);
             int clientIDForEnergy = em.getMessageBody().getClientID();
             int energy = em.getMessageBody().getCount();
-            client.getGameDataBridge().setEnergy(clientIDForEnergy, energy);
+            client.getGameDataBridge().getUpdateBus().post(new UiUpdateBus.Key("Energy", clientIDForEnergy),
+                    () -> client.getGameDataBridge().setEnergy(clientIDForEnergy, energy));
             String source = em.getMessageBody().getSource();
 
             if (source.equals("EnergySpace")) {
@@ -354,7 +407,7 @@ public abstract class BaseClientJsonInterpreter implements JsonInterpreter {
                 if (robotModel != null) {
                     int energyX = robotModel.getX();
                     int energyY = robotModel.getY();
-                    Platform.runLater(() -> MapParser.updateEnergySpace(
+                    client.getGameDataBridge().getUpdateBus().post(() -> MapParser.updateEnergySpace(
                             client.getGameDataBridge().getGameMapGridPane(), energyX, energyY));
                     if (clientIDForEnergy == client.getClientID() && !client.isAI()) {
                         SoundFX.playSoundEffect("charging.wav");
@@ -394,7 +447,7 @@ public abstract class BaseClientJsonInterpreter implements JsonInterpreter {
             List<String> availablePiles = pdm.getMessageBody().getAvailablePiles();
             int count = pdm.getMessageBody().getCount();
 
-            Platform.runLater(() -> {
+            client.getGameDataBridge().getUpdateBus().post(() -> {
                 client.getGameDataBridge().setPickDamageCount(count);
                 client.getGameDataBridge().setAvailableDamageCards(availablePiles);
                 client.getGameDataBridge().setPickDamageTriggered(true);
@@ -407,11 +460,44 @@ public abstract class BaseClientJsonInterpreter implements JsonInterpreter {
             int checkpointID = cmm.getMessageBody().getCheckpointID();
             int checkpointX = cmm.getMessageBody().getX();
             int checkpointY = cmm.getMessageBody().getY();
-            Platform.runLater(() -> {
-                MapParser.moveCheckpoints(client.getGameDataBridge().getGameMapGridPane(),client.getGameDataBridge().getGameMap(),checkpointID,checkpointX,checkpointY);
-            });
+            client.getGameDataBridge().getUpdateBus().post(new UiUpdateBus.Key("CheckpointMoved", checkpointID),
+                    () -> MapParser.moveCheckpoints(client.getGameDataBridge().getGameMapGridPane(),
+                            client.getGameDataBridge().getGameMap(), checkpointID, checkpointX, checkpointY));
+        });
+
+
+        handlerMap.put("StateFrame", jsonObj -> {
+            // The events of a frame are handled in order, as if they had been received one by one
+            JsonArray events = jsonObj.getAsJsonObject("messageBody").getAsJsonArray("events");
+            for (JsonElement event : events) {
+                dispatch(event.getAsJsonObject());
+            }
         });
 
+        handlerMap.put("MapAnnouncement", jsonObj -> {
+            MapAnnouncementMessage mam = JsonHandler.fromJson(jsonObj.toString(), MapAnnouncementMessage.class);
+            String mapHash = mam.getMessageBody().getMapHash();
+            JsonArray gameMap = MapCache.getInstance().get(mapHash);
+            if (gameMap != null) {
+                logger.info("Map " + mapHash + " found in cache");
+                startGameWithMap(mam.getMessageBody().getEnergy(), gameMap);
+            } else {
+                pendingMapHash = mapHash;
+                pendingMapEnergy = mam.getMessageBody().getEnergy();
+                client.sendMessageToServer(JsonHandler.toJson(new RequestMapMessage(mapHash)));
+            }
+        });
+
+        handlerMap.put("MapData", jsonObj -> {
+            JsonObject body = jsonObj.getAsJsonObject("messageBody");
+            String mapHash = body.get("mapHash").getAsString();
+            JsonArray gameMap = body.getAsJsonArray("gameMap");
+            if (!MapCache.getInstance().put(mapHash, gameMap) || !mapHash.equals(pendingMapHash)) {
+                return;
+            }
+            pendingMapHash = null;
+            startGameWithMap(pendingMapEnergy, gameMap);
+        });
 
         handlerMap.put("GameStarted", jsonObj -> {
             GameStartedMessage gsm = JsonHandler.fromJson(jsonObj.toString(), GameStartedMessage.class);
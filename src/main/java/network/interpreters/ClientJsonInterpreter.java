@@ -81,7 +81,10 @@ public class ClientJsonInterpreter extends BaseClientJsonInterpreter implements
         handlerMap.put("SelectMap", jsonObj -> {
             SelectMapMessage sm = JsonHandler.fromJson(jsonObj.toString(), SelectMapMessage.class);
             List<String> availableMaps = sm.getMessageBody().getAvailableMaps();
+            List<String> mapHashes = sm.getMessageBody().getMapHashes();
             Platform.runLater(() -> {
+                client.getLobbyDataBridge().setMapHashes(availableMaps, mapHashes);
+                client.getLobbyDataBridge().setAvailableMaps(availableMaps);
                 client.getLobbyDataBridge().addClientIDToMapSelection(client.getClientID(), true);
             });
         });
@@ -103,6 +106,10 @@ public class ClientJsonInterpreter extends BaseClientJsonInterpreter implements
             CardSelectedMessage csm = JsonHandler.fromJson(jsonObj.toString(), CardSelectedMessage.class);
         });
 
+        handlerMap.put("CardsSelected", jsonObj -> {
+            CardsSelectedMessage csm = JsonHandler.fromJson(jsonObj.toString(), CardsSelectedMessage.class);
+        });
+
         handlerMap.put("SelectionFinished", jsonObj -> {
             SelectionFinishedMessage sfm = JsonHandler.fromJson(jsonObj.toString(), SelectionFinishedMessage.class);
             if (sfm.getMessageBody().getClientID() == client.getClientID()) {
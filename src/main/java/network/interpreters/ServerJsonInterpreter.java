@@ -3,6 +3,7 @@ package network.interpreters;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import com.google.gson.JsonSyntaxException;
+import helpers.jfr.MessageHandledEvent;
 import model.game.AI.AIClient;
 import model.game.Game;
 import model.game.GameState;
@@ -12,17 +13,19 @@ import model.game.board.robots.Robot;
 import model.game.cards.Card;
 import model.game.cards.Deck;
 import model.game.cards.UpgradeCardType;
+import model.game.maps.CompiledMap;
+import model.game.maps.MapRegistry;
 import model.server_client.Server;
 import network.JsonHandler;
 import network.messages.actions8.*;
 import network.messages.cards6.PlayCardMessage;
-import network.messages.chat4.ReceivedChatMessage;
 import network.messages.chat4.SendChatMessage;
 import network.messages.connection2.HelloServerMessage;
 import network.messages.connection2.WelcomeMessage;
 import network.messages.lobby3.*;
 import network.messages.phases7.programming.NotYourCardsMessage;
 import network.messages.phases7.programming.SelectedCardMessage;
+import network.messages.phases7.programming.SelectedCardsMessage;
 import network.messages.phases7.programming.YourCardsMessage;
 import network.messages.phases7.setup.SetStartingPointMessage;
 import model.server_client.ConnectionHandler;
@@ -65,14 +68,23 @@ public class ServerJsonInterpreter implements JsonInterpreter {
      */
     @Override
     public synchronized void interpretMessage(String jsonMessage) {
+        MessageHandledEvent event = new MessageHandledEvent();
+        event.begin();
         try {
             logger.info("Received JSON: " + jsonMessage);
 
             JsonObject jsonObj = JsonParser.parseString(jsonMessage).getAsJsonObject();
             String messageType = jsonObj.get("messageType").getAsString();
+            event.messageType = messageType;
 
             Server server = connectionHandler.getServer();
 
+            // Spectators only watch
+            if (connectionHandler.isSpectator() && !messageType.equals("Alive")) {
+                server.sendError("Spectators cannot send " + messageType, connectionHandler);
+                return;
+            }
+
             switch (messageType) {
                 case "HelloServer":
                     HelloServerMessage hsm = JsonHandler.fromJson(jsonMessage, HelloServerMessage.class);
@@ -88,6 +100,10 @@ public class ServerJsonInterpreter implements JsonInterpreter {
                     handleChatMessage(scm, connectionHandler, server);
                     break;
 
+                case "Spectate":
+                    handleSpectate(connectionHandler, server);
+                    break;
+
                 case "PlayerValues":
                     PlayerValuesMessage pvm = JsonHandler.fromJson(jsonMessage, PlayerValuesMessage.class);
                     handlePlayerValues(pvm, connectionHandler, server);
@@ -126,6 +142,10 @@ public class ServerJsonInterpreter implements JsonInterpreter {
                     SelectedCardMessage selectedCaMe = JsonHandler.fromJson(jsonMessage, SelectedCardMessage.class);
                     handleSelectedCard(selectedCaMe, connectionHandler, server);
                     break;
+                case "SelectedCards":
+                    SelectedCardsMessage selectedCardsMessage = JsonHandler.fromJson(jsonMessage, SelectedCardsMessage.class);
+                    handleSelectedCards(selectedCardsMessage, connectionHandler, server);
+                    break;
                 case "SelectedDamage":
                     SelectedDamageMessage sdm = JsonHandler.fromJson(jsonMessage, SelectedDamageMessage.class);
                     handleSelectedDamage(sdm, connectionHandler, server);
@@ -142,6 +162,10 @@ public class ServerJsonInterpreter implements JsonInterpreter {
                     ChooseRegisterMessage crm = JsonHandler.fromJson(jsonMessage, ChooseRegisterMessage.class);
                     handleChooseRegister(crm,connectionHandler,server);
                     break;
+                case "RequestMap":
+                    RequestMapMessage rmm = JsonHandler.fromJson(jsonMessage, RequestMapMessage.class);
+                    handleRequestMap(rmm, connectionHandler, server);
+                    break;
                 default:
                     logger.warning("Unknown message type: " + messageType);
             }
@@ -149,9 +173,32 @@ public class ServerJsonInterpreter implements JsonInterpreter {
         } catch (JsonSyntaxException exception) {
             logger.severe("Invalid JSON message received: " + jsonMessage);
             logger.severe("JSON error: " + exception.getMessage());
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.length = jsonMessage.length();
+                event.clientId = connectionHandler.getClientId();
+                event.commit();
+            }
         }
     }
 
+    /**
+     * Sends the full map to a client that did not find an announced map in its cache.
+     *
+     * @param requestMapMessage the request containing the content hash of the map.
+     * @param handler           the ConnectionHandler of the requesting client.
+     * @param server            the server instance.
+     */
+    private void handleRequestMap(RequestMapMessage requestMapMessage, ConnectionHandler handler, Server server) {
+        CompiledMap compiledMap = MapRegistry.getInstance().getByHash(requestMapMessage.getMessageBody().getMapHash());
+        if (compiledMap == null) {
+            server.sendError("Unknown map", handler);
+            return;
+        }
+        handler.sendMessage(compiledMap.getMapDataJson());
+    }
+
     private void handleHelloServer(HelloServerMessage helloServerMessage,
                                           ConnectionHandler handler, Server server) {
 
@@ -159,7 +206,12 @@ public class ServerJsonInterpreter implements JsonInterpreter {
             logger.info("Client doesn't have the needed protocol version. Access denied!");
             handler.shutdownClient();
         } else {
-            WelcomeMessage message = new WelcomeMessage(handler.getClientId());
+            Set<String> extensions = new HashSet<>(helloServerMessage.getMessageBody().getExtensions());
+            extensions.retainAll(server.getSupportedExtensions());
+            handler.setExtensions(extensions);
+            handler.setAI(helloServerMessage.getMessageBody().getisAI());
+            WelcomeMessage message = new WelcomeMessage(handler.getClientId(),
+                    extensions.isEmpty() ? null : new ArrayList<>(extensions));
             String json = JsonHandler.toJson(message);
             logger.info("Client has the needed protocol version. Access granted.");
             handler.sendMessage(json);
@@ -174,18 +226,15 @@ public class ServerJsonInterpreter implements JsonInterpreter {
     private static void handleChatMessage(SendChatMessage scm, ConnectionHandler handler, Server server) {
         String chatText = scm.getMessageBody().getMessage();
         int recipientID = scm.getMessageBody().getTo();
-        boolean isPrivate = (recipientID != (-1));
-        ReceivedChatMessage message = new ReceivedChatMessage(chatText, handler.getClientId(), isPrivate);
-        String chatMessageJson = JsonHandler.toJson(message);
-
-        if (isPrivate) {
-            ConnectionHandler target = server.getConnectionHandlerById(recipientID);
-            if (target != null) {
-                target.sendMessage(chatMessageJson);
-            }
-        }else {
-            server.broadcastToAllExceptSelf(chatMessageJson, handler);
+        server.getChatService().send(handler, chatText, recipientID);
+    }
+
+    private void handleSpectate(ConnectionHandler handler, Server server) {
+        if (handler.getNickname() != null) {
+            server.sendError("Players cannot become spectators", handler);
+            return;
         }
+        server.addSpectator(handler);
     }
 
     private void handlePlayerValues(PlayerValuesMessage pvm, ConnectionHandler handler, Server server) {
@@ -194,7 +243,7 @@ public class ServerJsonInterpreter implements JsonInterpreter {
         handler.setNickname(name);
         logger.info("set nickname " + name);
         int figureID = pvm.getMessageBody().getFigure();
-        server.connectionsMap.put(name, handler);
+        server.addConnection(name, handler);
         if(server.isGameRunning){
             //send error message
             server.sendError("A game for group EdleEisbecher is already running", handler);
@@ -205,6 +254,7 @@ public class ServerJsonInterpreter implements JsonInterpreter {
         Player player = Game.getInstance().getPlayerById(handler.getClientId());
         if (player == null) {
             player = new Player(handler.getClientId(), name, null);
+            player.setAI(handler.isAI());
             Game.getInstance().addPlayer(player);
         }
 
@@ -227,6 +277,10 @@ public class ServerJsonInterpreter implements JsonInterpreter {
     private void handleSetStatusMessage(SetStatusMessage ssm, ConnectionHandler handler, Server server){
         boolean isReady = ssm.getMessageBody().isReady();
         Player player = Game.getInstance().getPlayerById(handler.getClientId());
+        if (player == null) {
+            server.sendError("Send your player values before your status", handler);
+            return;
+        }
         player.setPlayerStatus(isReady);
 
         //send PlayerStatus message to all players
@@ -234,14 +288,7 @@ public class ServerJsonInterpreter implements JsonInterpreter {
         String psmJson = JsonHandler.toJson(psm);
         server.broadcastToAll(psmJson);
 
-        server.updateReadyPlayers(handler, isReady);
-
-        if (server.getReadyPlayers().size() == game.getPlayers().size() &&
-                server.getReadyPlayers().size() >= game.getMinPlayers() && server.getSelectedMap() != null) {
-            logger.info("All players are ready! Starting the game.");
-            game.startGame();
-        }
-
+        server.getMatchmakingService().setReady(handler, isReady);
     }
 
     /**
@@ -268,32 +315,10 @@ public class ServerJsonInterpreter implements JsonInterpreter {
     }
 
     private void handleMapSelected(MapSelectedMessage mm, ConnectionHandler handler, Server server) {
-        int totalPlayers = Game.getInstance().getPlayers().size();
-        int readyCount   = server.getReadyPlayers().size();
-        int minPlayers   = 2;
-
-        if (readyCount != totalPlayers) {
-            server.sendError("Cannot select map yet. All players are not ready.", handler);
-            return;
-
-        } else if (totalPlayers < minPlayers) {
-            server.sendError("Cannot select map yet. There are not enough players.", handler);
-            return;
-        }
-
-
-        String selectedMap = mm.getMessageBody().getMap();
-        selectedMap = selectedMap.trim();
-        server.setSelectedMap(selectedMap);
-
-        MapSelectedMessage msm = new MapSelectedMessage(selectedMap);
-        String mmJson = JsonHandler.toJson(msm);
-        server.broadcastToAll(mmJson);
-
-        if (readyCount == totalPlayers && totalPlayers >= minPlayers) {
-            game.startGame();
-        }
+        String selectedMap = mm.getMessageBody().getMap().trim();
+        server.getMatchmakingService().selectMap(handler, selectedMap);
     }
+
     private void handleBuyUpgrade(BuyUpgradeMessage bum, ConnectionHandler handler) {
         String upgradeCardName = bum.getMessageBody().getCard();
         Player player = game.getPlayerById(handler.getClientId());
@@ -330,6 +355,25 @@ public class ServerJsonInterpreter implements JsonInterpreter {
         Player player = game.getPlayerById(handler.getClientId());
         game.takeTurnProgramming(player, cardName, register);
     }
+    /**
+     * Handles the "Selected Cards" action of the SelectedCards extension, which fills all registers at once.
+     * The program is checked as a whole; if it is not valid, no register changes and the client gets an error.
+     *
+     * @param sm      The SelectedCardsMessage containing the chosen cards in register order.
+     * @param handler The ConnectionHandler of the player.
+     * @param server  The Server instance.
+     */
+    public void handleSelectedCards(SelectedCardsMessage sm, ConnectionHandler handler, Server server) {
+        if (!handler.supportsExtension(HelloServerMessage.EXTENSION_SELECTED_CARDS)) {
+            server.sendError("SelectedCards needs the " + HelloServerMessage.EXTENSION_SELECTED_CARDS
+                    + " extension", handler);
+            return;
+        }
+        Player player = game.getPlayerById(handler.getClientId());
+        if (player == null || !game.takeTurnProgramming(player, sm.getMessageBody().getCards())) {
+            server.sendError("Your program can not be selected", handler);
+        }
+    }
     /**
      * Handles the "Reboot Direction" action received from a client.
      * <p>
@@ -357,13 +401,13 @@ public class ServerJsonInterpreter implements JsonInterpreter {
                 directionToRotate = Direction.RIGHT;
             }
             while (robot.getDirection() != directionToRotate) {
-                robot.rotateRobot("clockwise");
+                robot.rotateRobot("clockwise", game);
                 logger.info("[TEST] Robot turns for reboot: " + robot.getDirection());
             }
         } else {
             logger.warning("Rebooting direction is null.");
             while(robot.getDirection()!=Direction.TOP){
-                robot.rotateRobot("clockwise");
+                robot.rotateRobot("clockwise", game);
             }
         }
     }
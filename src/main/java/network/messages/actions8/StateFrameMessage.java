@@ -0,0 +1,52 @@
+package network.messages.actions8;
+
+import network.messages.Message;
+
+import java.util.List;
+
+/**
+ * Represents a batch of state messages that were produced while resolving one card or one board activation step.
+ * <p>
+ * Only sent to clients that negotiated the state frame extension. The events have to be handled in the given order,
+ * exactly as if they had been received as single messages.
+ * </p>
+ */
+public class StateFrameMessage extends Message {
+
+    private final MessageBody messageBody;
+
+    /**
+     * Constructs a StateFrameMessage with the given events.
+     *
+     * @param events the state messages of this frame in the order they occurred.
+     */
+    public StateFrameMessage(List<Message> events) {
+        super("StateFrame");
+        this.messageBody = new MessageBody(events);
+    }
+
+    @Override
+    public MessageBody getMessageBody() {
+        return messageBody;
+    }
+
+    /**
+     * Represents the body of the StateFrameMessage.
+     */
+    public static class MessageBody {
+        private final List<Message> events;
+
+        /**
+         * Constructs a MessageBody with the given events.
+         *
+         * @param events the state messages of this frame.
+         */
+        public MessageBody(List<Message> events) {
+            this.events = events;
+        }
+
+        public List<Message> getEvents() {
+            return events;
+        }
+    }
+}
@@ -2,13 +2,51 @@ package network.messages.connection2;
 
 import network.messages.Message;
 
+import java.util.List;
+
 public class HelloServerMessage extends Message {
 
+    /**
+     * The protocol version spoken by the clients and the server.
+     */
+    public static final String PROTOCOL_VERSION = "Version 2.0";
+
+    /**
+     * The group the clients and the server belong to.
+     */
+    public static final String GROUP = "EdleEisbecher";
+
+    /**
+     * Extension for announcing the game map by content hash instead of sending it with every GameStarted message.
+     */
+    public static final String EXTENSION_MAP_CACHE = "MapCache";
+
+    /**
+     * Extension for receiving the state changes of one card or board activation step as a single StateFrame message.
+     */
+    public static final String EXTENSION_STATE_FRAMES = "StateFrames";
+
+    /**
+     * Extension for filling all registers with one SelectedCards message and receiving one CardsSelected message
+     * instead of one message per register.
+     */
+    public static final String EXTENSION_SELECTED_CARDS = "SelectedCards";
+
     private final MessageBody messageBody;
 
     public HelloServerMessage(String group, boolean isAI, String protocol, int clientID) {
+        this(group, isAI, protocol, clientID, null);
+    }
+
+    /**
+     * Constructs a HelloServerMessage that offers optional protocol extensions.
+     * Servers that do not know the extensions simply ignore the additional field.
+     *
+     * @param extensions the extensions the client supports, or {@code null} for none.
+     */
+    public HelloServerMessage(String group, boolean isAI, String protocol, int clientID, List<String> extensions) {
         super("HelloServer");
-        this.messageBody = new MessageBody(group, isAI, protocol, clientID);
+        this.messageBody = new MessageBody(group, isAI, protocol, clientID, extensions);
     }
 
     public static class MessageBody {
@@ -16,12 +54,14 @@ public class HelloServerMessage extends Message {
         private final boolean isAI;
         private final String protocol;
         private final int clientID;
+        private final List<String> extensions;
 
-        public MessageBody(String group, boolean isAI, String protocol, int clientID) {
+        public MessageBody(String group, boolean isAI, String protocol, int clientID, List<String> extensions) {
             this.group = group;
             this.isAI = isAI;
             this.protocol = protocol;
             this.clientID = clientID;
+            this.extensions = extensions;
         }
 
         public String getGroup() {
@@ -39,6 +79,10 @@ public class HelloServerMessage extends Message {
         public int getClientID() {
             return clientID;
         }
+
+        public List<String> getExtensions() {
+            return extensions == null ? List.of() : extensions;
+        }
     }
 
     @Override
@@ -2,25 +2,42 @@ package network.messages.connection2;
 
 import network.messages.Message;
 
+import java.util.List;
+
 public class WelcomeMessage extends Message {
 
     private final MessageBody messageBody;
 
     public WelcomeMessage(int clientID) {
+        this(clientID, null);
+    }
+
+    /**
+     * Constructs a WelcomeMessage that confirms the protocol extensions the server accepted.
+     *
+     * @param extensions the accepted extensions, or {@code null} if none were accepted.
+     */
+    public WelcomeMessage(int clientID, List<String> extensions) {
         super("Welcome");
-        this.messageBody = new MessageBody(clientID);
+        this.messageBody = new MessageBody(clientID, extensions);
     }
 
     public static class MessageBody {
         private final int clientID;
+        private final List<String> extensions;
 
-        public MessageBody(int clientID) {
+        public MessageBody(int clientID, List<String> extensions) {
             this.clientID = clientID;
+            this.extensions = extensions;
         }
 
         public int getClientID() {
             return clientID;
         }
+
+        public List<String> getExtensions() {
+            return extensions == null ? List.of() : extensions;
+        }
     }
 
     @Override
@@ -0,0 +1,52 @@
+package network.messages.lobby3;
+
+import network.messages.Message;
+
+/**
+ * Message sent instead of {@link GameStartedMessage} to clients that negotiated the map cache extension.
+ * <p>
+ * It only contains the content hash of the map. Clients that do not have a map with this hash
+ * in their cache request it with a {@link RequestMapMessage}.
+ * </p>
+ */
+public class MapAnnouncementMessage extends Message {
+
+    private final MessageBody messageBody;
+
+    /**
+     * Constructs a MapAnnouncementMessage.
+     *
+     * @param energy  the starting energy for each player.
+     * @param mapHash the content hash of the game map.
+     */
+    public MapAnnouncementMessage(int energy, String mapHash) {
+        super("MapAnnouncement");
+        this.messageBody = new MessageBody(energy, mapHash);
+    }
+
+    /**
+     * The body of a MapAnnouncementMessage.
+     */
+    public static class MessageBody {
+        private final int energy;
+        private final String mapHash;
+
+        public MessageBody(int energy, String mapHash) {
+            this.energy = energy;
+            this.mapHash = mapHash;
+        }
+
+        public int getEnergy() {
+            return energy;
+        }
+
+        public String getMapHash() {
+            return mapHash;
+        }
+    }
+
+    @Override
+    public MessageBody getMessageBody() {
+        return messageBody;
+    }
+}
@@ -0,0 +1,50 @@
+package network.messages.lobby3;
+
+import network.messages.Message;
+
+import java.util.List;
+
+/**
+ * Message sent in response to a {@link RequestMapMessage}. Contains the full game map and its content hash.
+ */
+public class MapDataMessage extends Message {
+
+    private final MessageBody messageBody;
+
+    /**
+     * Constructs a MapDataMessage.
+     *
+     * @param mapHash the content hash of the game map.
+     * @param gameMap the game map in the same format as in {@link GameStartedMessage}.
+     */
+    public MapDataMessage(String mapHash, List<List<List<GameStartedMessage.Field>>> gameMap) {
+        super("MapData");
+        this.messageBody = new MessageBody(mapHash, gameMap);
+    }
+
+    /**
+     * The body of a MapDataMessage.
+     */
+    public static class MessageBody {
+        private final String mapHash;
+        private final List<List<List<GameStartedMessage.Field>>> gameMap;
+
+        public MessageBody(String mapHash, List<List<List<GameStartedMessage.Field>>> gameMap) {
+            this.mapHash = mapHash;
+            this.gameMap = gameMap;
+        }
+
+        public String getMapHash() {
+            return mapHash;
+        }
+
+        public List<List<List<GameStartedMessage.Field>>> getGameMap() {
+            return gameMap;
+        }
+    }
+
+    @Override
+    public MessageBody getMessageBody() {
+        return messageBody;
+    }
+}
@@ -0,0 +1,42 @@
+package network.messages.lobby3;
+
+import network.messages.Message;
+
+/**
+ * Message sent by a client to request the full game map after a {@link MapAnnouncementMessage}
+ * whose map is not in its cache.
+ */
+public class RequestMapMessage extends Message {
+
+    private final MessageBody messageBody;
+
+    /**
+     * Constructs a RequestMapMessage.
+     *
+     * @param mapHash the content hash of the requested map.
+     */
+    public RequestMapMessage(String mapHash) {
+        super("RequestMap");
+        this.messageBody = new MessageBody(mapHash);
+    }
+
+    /**
+     * The body of a RequestMapMessage.
+     */
+    public static class MessageBody {
+        private final String mapHash;
+
+        public MessageBody(String mapHash) {
+            this.mapHash = mapHash;
+        }
+
+        public String getMapHash() {
+            return mapHash;
+        }
+    }
+
+    @Override
+    public MessageBody getMessageBody() {
+        return messageBody;
+    }
+}
@@ -6,7 +6,8 @@ import java.util.List;
 /**
  * Message sent to prompt a client to select a map.
  * <p>
- * Contains a list of available map names.
+ * Contains a list of available map names. Clients that negotiated the map cache extension also get the
+ * content hashes of the maps, so they can request and show maps they do not have.
  * </p>
  */
 public class SelectMapMessage extends Message {
@@ -19,8 +20,18 @@ public class SelectMapMessage extends Message {
      * @param availableMaps a list of map names.
      */
     public SelectMapMessage(List<String> availableMaps) {
+        this(availableMaps, null);
+    }
+
+    /**
+     * Constructs a SelectMapMessage with the specified list of available maps and their content hashes.
+     *
+     * @param availableMaps a list of map names.
+     * @param mapHashes     the content hashes of the maps in the same order, or {@code null} to leave them out.
+     */
+    public SelectMapMessage(List<String> availableMaps, List<String> mapHashes) {
         super("SelectMap");
-        this.messageBody = new MessageBody(availableMaps);
+        this.messageBody = new MessageBody(availableMaps, mapHashes);
     }
 
     @Override
@@ -33,18 +44,28 @@ public class SelectMapMessage extends Message {
      */
     public static class MessageBody {
         private final List<String> availableMaps;
+        private final List<String> mapHashes;
 
         /**
          * Constructs a MessageBody with the specified list of available maps.
          *
          * @param availableMaps the list of map names.
+         * @param mapHashes     the content hashes of the maps, or {@code null}.
          */
-        public MessageBody(List<String> availableMaps) {
+        public MessageBody(List<String> availableMaps, List<String> mapHashes) {
             this.availableMaps = availableMaps;
+            this.mapHashes = mapHashes;
         }
 
         public List<String> getAvailableMaps() {
             return availableMaps;
         }
+
+        /**
+         * @return the content hashes of the maps, or {@code null} if the server did not send them.
+         */
+        public List<String> getMapHashes() {
+            return mapHashes;
+        }
     }
 }
\ No newline at end of file
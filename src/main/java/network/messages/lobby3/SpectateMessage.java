@@ -0,0 +1,28 @@
+package network.messages.lobby3;
+
+import network.messages.Message;
+
+/**
+ * Sent by a client instead of PlayerValues to watch the game without playing.
+ * <p>
+ * The client then receives every message the server broadcasts to the players from the start, possibly with
+ * a delay, and cannot send anything but Alive. The players already sent after HelloServer come again with the
+ * replay, so spectators have to treat PlayerAdded and PlayerStatus as updates.
+ * </p>
+ */
+public class SpectateMessage extends Message {
+
+    private final MessageBody messageBody = new MessageBody();
+
+    public SpectateMessage() {
+        super("Spectate");
+    }
+
+    public static class MessageBody {
+    }
+
+    @Override
+    public MessageBody getMessageBody() {
+        return messageBody;
+    }
+}
@@ -0,0 +1,59 @@
+package network.messages.phases7.programming;
+
+import network.messages.Message;
+
+import java.util.List;
+
+/**
+ * Message sent when a client filled several registers at once during the programming phase.
+ * <p>
+ * Part of the SelectedCards protocol extension; it replaces one CardSelected message per register.
+ * </p>
+ */
+public class CardsSelectedMessage extends Message {
+
+    private final MessageBody messageBody;
+
+    /**
+     * Constructs a CardsSelectedMessage with the specified client ID and registers.
+     *
+     * @param clientID  the ID of the client selecting the cards.
+     * @param registers the indices of the registers that are filled now.
+     */
+    public CardsSelectedMessage(int clientID, List<Integer> registers) {
+        super("CardsSelected");
+        this.messageBody = new MessageBody(clientID, registers);
+    }
+
+    @Override
+    public MessageBody getMessageBody() {
+        return messageBody;
+    }
+
+    /**
+     * The body of a CardsSelectedMessage.
+     */
+    public static class MessageBody {
+        private final int clientID;
+        private final List<Integer> registers;
+
+        /**
+         * Constructs a MessageBody with the specified client ID and registers.
+         *
+         * @param clientID  the client ID.
+         * @param registers the filled register indices.
+         */
+        public MessageBody(int clientID, List<Integer> registers) {
+            this.clientID = clientID;
+            this.registers = registers;
+        }
+
+        public int getClientID() {
+            return clientID;
+        }
+
+        public List<Integer> getRegisters() {
+            return registers;
+        }
+    }
+}
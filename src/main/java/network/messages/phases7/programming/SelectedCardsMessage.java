@@ -0,0 +1,51 @@
+package network.messages.phases7.programming;
+
+import network.messages.Message;
+
+import java.util.List;
+
+/**
+ * Message sent by a client to fill all registers at once.
+ * <p>
+ * Part of the SelectedCards protocol extension; it replaces one SelectedCard message per register.
+ * </p>
+ */
+public class SelectedCardsMessage extends Message {
+
+    private final MessageBody messageBody;
+
+    /**
+     * Constructs a SelectedCardsMessage.
+     *
+     * @param cards the names of the cards, in register order.
+     */
+    public SelectedCardsMessage(List<String> cards) {
+        super("SelectedCards");
+        this.messageBody = new MessageBody(cards);
+    }
+
+    @Override
+    public MessageBody getMessageBody() {
+        return messageBody;
+    }
+
+    /**
+     * The body of a SelectedCardsMessage.
+     */
+    public static class MessageBody {
+        private final List<String> cards;
+
+        /**
+         * Constructs a MessageBody with the specified cards.
+         *
+         * @param cards the card names, in register order.
+         */
+        public MessageBody(List<String> cards) {
+            this.cards = cards;
+        }
+
+        public List<String> getCards() {
+            return cards;
+        }
+    }
+}
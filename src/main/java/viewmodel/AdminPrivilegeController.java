@@ -37,13 +37,11 @@ public class AdminPrivilegeController {
 
 
     /**
-     * Initializes the register slots and resets their state.
+     * Initializes the register slots. Their state is set by {@link #reset()}.
      */
     @FXML
     public void initialize() {
         registerSlots = List.of(register0, register1, register2, register3, register4);
-        displaySelectedRegisters();
-        resetAllRegisters();
     }
 
 
@@ -53,7 +51,21 @@ public class AdminPrivilegeController {
     public void setClient(Client client) {
         this.client = client;
         this.gameDataBridge = client.getGameDataBridge();
-        this.played = client.getGameDataBridge().isAdminPrivilegePlayed();
+    }
+
+    /**
+     * Clears the previous selection and shows the current registers, so the popup can be shown again.
+     */
+    public void reset() {
+        this.played = gameDataBridge.isAdminPrivilegePlayed();
+        if (selectedRegister != null) {
+            resetRegisterUI(selectedRegister);
+        }
+        selectedRegister = null;
+        selectedRegisterIndex = -1;
+        removeError();
+        displaySelectedRegisters();
+        resetAllRegisters();
     }
 
     /**
@@ -79,24 +79,6 @@ public class Animation {
         fadeTransition.play();
     }
 
-    /**
-     * Animates the movement of a node.
-     *
-     * @param node The node to move.
-     * @param dx The change in X position.
-     * @param dy The change in Y position.
-     * @param onFinished The action to perform after the animation.
-     */
-    public static void animateMovement(Node node, double dx, double dy, Runnable onFinished) {
-        TranslateTransition transition = new TranslateTransition(Duration.millis(500), node);
-        transition.setByX(dx);
-        transition.setByY(dy);
-        transition.setInterpolator(Interpolator.EASE_BOTH);
-        transition.setOnFinished(e -> onFinished.run());
-        transition.play();
-    }
-
-
     /**
      * Animates the rotation of a node.
      *
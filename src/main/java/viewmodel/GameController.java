@@ -1,5 +1,6 @@
 package viewmodel;
 
+import helpers.RobotModel;
 import javafx.animation.PauseTransition;
 import javafx.animation.Timeline;
 import javafx.application.Platform;
@@ -24,6 +25,8 @@ import javafx.scene.shape.Rectangle;
 import javafx.scene.text.Text;
 import javafx.stage.Stage;
 import javafx.util.Duration;
+import model.game.ProgramPreview;
+import model.game.board.Position;
 import model.server_client.Client;
 import network.CardImageMapper;
 import network.JsonHandler;
@@ -131,13 +134,25 @@ public class GameController {
         this.logger = client.getLogger();
     }
 
+    /**
+     * Sets up the nodes of the view. The view may be loaded on a background thread, so nothing here
+     * touches the game data; that is done by {@link #bindToGame()}.
+     */
     @FXML
     public void initialize() {
+        initializeFields();
+        playerNameLabel.setText("YOUR CARDS");
+    }
+
+    /**
+     * Registers the listeners on the game data and shows the current state of the game.
+     * Must be called on the JavaFX thread once the view is loaded.
+     */
+    public void bindToGame() {
         TimerManager timerManager = new TimerManager(gameDataBridge, label2, logger);
         infoBoxManager = new InfoBoxManager(infoText, infoImage, damageText,
                                             client, gameDataBridge);
         currentPhase = gameDataBridge.getPhaseValue();
-        initializeFields();
         initializeListeners();
         attachMap();
         buildCheckpointsDisplay(playerClientIDs.size(), gameDataBridge.getCheckpointNumber());
@@ -146,8 +161,9 @@ public class GameController {
         hideDamageLabelTransition.setOnFinished(event -> damageText.setVisible(false));
         applyStylesBasedOnRobot(client.getGameDataBridge().getClientIDToFigure().get(client.getClientID()));
         applyCheckpointStyleBasedOnRobot(client.getGameDataBridge().getClientIDToFigure().get(client.getClientID()));
-        playerNameLabel.setText("YOUR CARDS");
         initializeShadowRegisterCardListener();
+        // Compiles the map for the program preview before the first card is dropped
+        gameDataBridge.loadProgramPreview();
     }
 
     private void initializeFields() {
@@ -224,6 +240,9 @@ public class GameController {
                     infoText.setText("");
                     infoImage.setImage(null);
                 }
+                if (oldValue.intValue() == 2) {
+                    MapParser.clearProgramPreview(gameBoard);
+                }
                 if (newValue.intValue() != 3 && oldValue.intValue() == 3) { // Exiting Activation Phase
                     resetActivationPhaseView();
                     resetRobotClicked();
@@ -270,12 +289,8 @@ public class GameController {
                     updateRobotImage(infoImage, gameDataBridge.getCurrentPlayerID());
                     if (gameDataBridge.getCurrentPlayerID() == client.getClientID()) {
                         Platform.runLater(() -> {
-                            try {
-                                sceneManager.openUpgradeShopPopUp(client, false);
-                                gameDataBridge.setAdminPrivilegePlayed(false);
-                            } catch (IOException e) {
-                                throw new RuntimeException(e);
-                            }
+                            sceneManager.openUpgradeShopPopUp(client, false);
+                            gameDataBridge.setAdminPrivilegePlayed(false);
                         });
                     }
                 }
@@ -291,12 +306,7 @@ public class GameController {
                 Platform.runLater(() -> {
                     Integer figureNumber = gameDataBridge.getClientIDToFigure().get(rebootedID);
                     String robotName = getRobotName(figureNumber);
-                    try {
-                        sceneManager.openRebootDirectionPopUp(client, robotName);
-                    } catch (IOException e) {
-                        logger.severe("Failed to open RebootDirection popup: " + e.getMessage());
-                        e.printStackTrace();
-                    }
+                    sceneManager.openRebootDirectionPopUp(client, robotName);
                 });
             }
         });
@@ -317,9 +327,6 @@ public class GameController {
                             gameDataBridge.getAvailableDamageCards(),
                             gameDataBridge.getPickDamageCount()
                     );
-                } catch (IOException e) {
-                    logger.severe("Failed to open Pick Damage pop-up: " + e.getMessage());
-                    e.printStackTrace();
                 } finally {
                     gameDataBridge.setPickDamageTriggered(false);
                 }
@@ -721,7 +728,10 @@ public class GameController {
 
     private void setSelectedCardsListener() {
         gameDataBridge.getSelectedCards().addListener((MapChangeListener<? super Integer, ? super String>) change -> {
+            int register = change.getKey();
+            String cardName = change.wasAdded() ? change.getValueAdded() : null;
             Platform.runLater(() -> {
+                updateProgramPreview(register, cardName);
                 int selectedCount = gameDataBridge.getSelectedCards().size();
                 if (selectedCount == 5) {
 
@@ -735,6 +745,24 @@ public class GameController {
         });
     }
 
+    /**
+     * Simulates the own program from the changed register onward and shows where the robot will go.
+     *
+     * @param register the register whose card changed.
+     * @param cardName the card in the register, or {@code null} if it was emptied.
+     */
+    private void updateProgramPreview(int register, String cardName) {
+        ProgramPreview preview = gameDataBridge.getProgramPreview();
+        RobotModel robotModel = gameDataBridge.getClientIDToRoboModelToRobotModel().get(client.getClientID());
+        if (preview == null || robotModel == null || currentPhase != 2) {
+            return;
+        }
+        int reachedCheckpoints = gameDataBridge.getClientIDToCheckpoint().getOrDefault(client.getClientID(), 0);
+        preview.setStart(new Position(robotModel.getX(), robotModel.getY()), robotModel.getDirection(),
+                reachedCheckpoints + 1);
+        MapParser.showProgramPreview(gameBoard, preview.setCard(register, cardName));
+    }
+
     /**
      * Displays cards in hand by loading their corresponding images into card slots.
      *
@@ -1182,22 +1210,22 @@ public class GameController {
         });
     }
 
+    /**
+     * Sends the selected cards to the server. A complete program is sent at once, single registers one by one.
+     *
+     * @param selectedCards the card names by register index.
+     */
     public void sendSelectedCards(Map<Integer, String> selectedCards) {
-        try {
-            for (Map.Entry<Integer, String> entry : selectedCards.entrySet()) {
-                int registerIndex = entry.getKey();
-                String cardName = entry.getValue();
-
-                notifySelectedCard(cardName, registerIndex);
-
-                try {
-                    Thread.sleep(10);
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
-                }
-            }
-        } catch (Exception e) {
-            logger.severe("Error sending the selected cards: " + e.getMessage());
+        List<String> program = new ArrayList<>();
+        for (int register = 0; register < registerSlots.length; register++) {
+            program.add(selectedCards.get(register));
+        }
+        if (!program.contains(null)) {
+            client.sendSelectedCards(program);
+            return;
+        }
+        for (Map.Entry<Integer, String> entry : selectedCards.entrySet()) {
+            notifySelectedCard(entry.getValue(), entry.getKey());
         }
     }
 
@@ -1522,13 +1550,7 @@ public class GameController {
 
     @FXML
     private void handleShopButton(MouseEvent event) {
-        Platform.runLater(() -> {
-            try {
-                sceneManager.openUpgradeShopPopUp(client, true);
-            } catch (IOException e) {
-                throw new RuntimeException(e);
-            }
-        });
+        Platform.runLater(() -> sceneManager.openUpgradeShopPopUp(client, true));
     }
 
     private void setDefaultImages() {
@@ -1566,23 +1588,11 @@ public class GameController {
     }
 
     private void openMemorySwap() {
-        Platform.runLater(() -> {
-            try {
-                sceneManager.openMemorySwapPopUp(client);
-            } catch (IOException e) {
-                e.printStackTrace();
-            }
-        });
+        Platform.runLater(() -> sceneManager.openMemorySwapPopUp(client));
     }
 
     private void openAdminPrivilege() {
-        Platform.runLater(() -> {
-            try {
-                sceneManager.openAdminPrivilege(client);
-            } catch (IOException e) {
-                e.printStackTrace();
-            }
-        });
+        Platform.runLater(() -> sceneManager.openAdminPrivilege(client));
     }
 
     @FXML
@@ -11,12 +11,15 @@ import javafx.beans.property.SimpleBooleanProperty;
 
 import java.sql.SQLOutput;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 import javafx.collections.ObservableMap;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.GridPane;
+import model.game.ProgramPreview;
 import model.game.board.Direction;
 import model.game.board.Position;
+import model.game.maps.CompiledMap;
 import network.messages.lobby3.GameStartedMessage;
 import network.messages.phases7.activation.CurrentCardsMessage;
 import javafx.animation.PauseTransition;
@@ -45,6 +48,8 @@ public class GameDataBridge {
     private final ObservableMap<Integer, Integer> clientIDToFigure = FXCollections.observableHashMap();
     private final SimpleIntegerProperty timerValue = new SimpleIntegerProperty(-1);
     private List<List<List<GameStartedMessage.Field>>> gameMap;
+    // Completed by a background thread once the map is compiled
+    private volatile CompletableFuture<ProgramPreview> programPreview;
     private GridPane gameMapGridPane;
     private final BooleanProperty doneButtonDisabled = new SimpleBooleanProperty(true);
     private final SimpleBooleanProperty gameOver = new SimpleBooleanProperty(false);
@@ -64,8 +69,16 @@ public class GameDataBridge {
     private final Map<Integer, List<String>> clientIDToactivatedUpgradesMap = new HashMap<>();
     private boolean adminPrivilegePlayed = false;
     private final SimpleIntegerProperty activeRegisterSlot = new SimpleIntegerProperty(-1);
+    private final UiUpdateBus updateBus = new UiUpdateBus();
 
 
+    /**
+     * @return the bus that applies updates from the network thread to this bridge once per frame
+     */
+    public UiUpdateBus getUpdateBus() {
+        return updateBus;
+    }
+
     public void addActivatedUpgrade(int clientID, String upgrade) {
         clientIDToactivatedUpgradesMap.computeIfAbsent(clientID, _ -> new ArrayList<>()).add(upgrade);
     }
@@ -98,6 +111,41 @@ public class GameDataBridge {
 
     public synchronized void setGameMap(List<List<List<GameStartedMessage.Field>>> gameMap) {
         this.gameMap = gameMap;
+        this.programPreview = null;
+    }
+
+    /**
+     * Starts compiling the map for the preview of the own program on a background thread, once per map.
+     * Bots do not preview their cards, so they never call this and never compile the map.
+     *
+     * @return the preview once the map is compiled, or {@code null} if there is no map yet.
+     */
+    public synchronized CompletableFuture<ProgramPreview> loadProgramPreview() {
+        if (programPreview == null && gameMap != null) {
+            List<List<List<GameStartedMessage.Field>>> map = gameMap;
+            CompletableFuture<ProgramPreview> preview = new CompletableFuture<>();
+            Thread.ofVirtual().name("program-preview").start(() -> {
+                try {
+                    preview.complete(new ProgramPreview(CompiledMap.fromFields(map)));
+                } catch (RuntimeException e) {
+                    // The game is still played without the preview; the thread reports the failure
+                    preview.completeExceptionally(e);
+                    throw e;
+                }
+            });
+            programPreview = preview;
+        }
+        return programPreview;
+    }
+
+    /**
+     * Returns the preview of the own program without waiting for it.
+     *
+     * @return the preview, or {@code null} if {@link #loadProgramPreview()} has not finished compiling the map.
+     */
+    public ProgramPreview getProgramPreview() {
+        CompletableFuture<ProgramPreview> preview = programPreview;
+        return preview != null && preview.isDone() && !preview.isCompletedExceptionally() ? preview.join() : null;
     }
 
     public List<List<List<GameStartedMessage.Field>>> getGameMap() {
@@ -202,8 +250,7 @@ public class GameDataBridge {
         RobotModel robotModel = clientIDToRoboModel.get(clientID);
 
         if(robotModel != null){
-            robotModel.setX(x);
-            robotModel.setY(y);
+            robotModel.setPosition(x, y);
         }
         }
 
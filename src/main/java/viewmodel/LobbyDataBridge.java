@@ -13,7 +13,10 @@ import javafx.util.Duration;
 import model.server_client.Client;
 
 import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Manages the data shared between the lobby UI and the game logic.
@@ -31,6 +34,9 @@ public class LobbyDataBridge {
     private SimpleBooleanProperty selectButton = new SimpleBooleanProperty(true);
     private SimpleBooleanProperty validChoice = new SimpleBooleanProperty(false);
     private SimpleStringProperty robotErrorMessage = new SimpleStringProperty("");
+    private final ObservableList<String> availableMaps = FXCollections.observableArrayList();
+    // Read by the thumbnail loader thread
+    private final Map<String, String> mapHashes = new ConcurrentHashMap<>();
 
     public LobbyDataBridge() {
     }
@@ -179,6 +185,47 @@ public class LobbyDataBridge {
         this.clientIDToMapSelection.put(clientID, chooser);
     }
 
+    public ObservableList<String> getAvailableMaps() {
+        return availableMaps;
+    }
+
+    /**
+     * Replaces the maps the server offers, unless they did not change.
+     *
+     * @param maps the names of the maps.
+     */
+    public void setAvailableMaps(List<String> maps) {
+        if (maps != null && !availableMaps.equals(maps)) {
+            availableMaps.setAll(maps);
+        }
+    }
+
+    /**
+     * Remembers the content hashes of the maps the server offers, so maps this client has no file for can be
+     * requested from the server.
+     *
+     * @param maps   the names of the maps.
+     * @param hashes the content hashes in the same order, or {@code null} if the server did not send them.
+     */
+    public void setMapHashes(List<String> maps, List<String> hashes) {
+        if (maps == null || hashes == null) {
+            return;
+        }
+        for (int i = 0; i < Math.min(maps.size(), hashes.size()); i++) {
+            if (hashes.get(i) != null) {
+                mapHashes.put(maps.get(i), hashes.get(i));
+            }
+        }
+    }
+
+    /**
+     * @param map the name of the map.
+     * @return the content hash of the map, or {@code null} if the server did not send it.
+     */
+    public String getMapHash(String map) {
+        return mapHashes.get(map);
+    }
+
     public SimpleBooleanProperty startProperty() {
         return start;
     }
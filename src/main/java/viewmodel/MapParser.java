@@ -7,11 +7,13 @@ import javafx.animation.PauseTransition;
 import javafx.application.Platform;
 import javafx.scene.Node;
 import javafx.scene.control.Button;
+import javafx.scene.control.Label;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.GridPane;
 import javafx.scene.layout.StackPane;
 import javafx.util.Duration;
+import model.game.ProgramPreview;
 import model.game.board.Direction;
 import model.game.board.Position;
 import model.server_client.BaseClient;
@@ -30,6 +32,12 @@ import java.util.logging.Logger;
  * populating the UI with tiles.
  */
 public class MapParser {
+    private static final String PREVIEW_ID = "preview--";
+    private static final String PREVIEW_PATH_STYLE = "-fx-background-color: rgba(66, 165, 245, 0.35);";
+    private static final String PREVIEW_END_STYLE = "-fx-background-color: rgba(66, 165, 245, 0.6);";
+    private static final String PREVIEW_LASER_STYLE = "-fx-background-color: rgba(255, 152, 0, 0.6);";
+    private static final String PREVIEW_REBOOT_STYLE = "-fx-background-color: rgba(229, 57, 53, 0.6);";
+    private static final String PREVIEW_CHECKPOINT_STYLE = "-fx-background-color: rgba(67, 160, 71, 0.6);";
     private static int checkpointNumber = 0;
     private static Direction restartPointOrientation = Direction.TOP;
     private static Logger logger;
@@ -907,6 +915,75 @@ public class MapParser {
             }
         }
     }
+    /**
+     * Shows the preview of the own program on the board: the cells the robot passes, and at the end of
+     * every register its number, colored by what happens there (laser hit, reboot or checkpoint reached).
+     * The previous preview is removed.
+     *
+     * @param gridPane The grid pane representing the game board.
+     * @param outcomes The outcome of every register.
+     */
+    public static void showProgramPreview(GridPane gridPane, List<ProgramPreview.RegisterOutcome> outcomes) {
+        clearProgramPreview(gridPane);
+        Map<Position, StackPane> markedCells = new HashMap<>();
+        for (int register = 0; register < outcomes.size(); register++) {
+            ProgramPreview.RegisterOutcome outcome = outcomes.get(register);
+            if (outcome.path().isEmpty()) {
+                continue;
+            }
+            for (Position position : outcome.path()) {
+                markedCells.computeIfAbsent(position, p -> addPreviewMarker(gridPane, p, PREVIEW_PATH_STYLE));
+            }
+            String style = outcome.rebooted() ? PREVIEW_REBOOT_STYLE
+                    : outcome.laserHits() > 0 ? PREVIEW_LASER_STYLE
+                    : outcome.checkpointReached() > 0 ? PREVIEW_CHECKPOINT_STYLE
+                    : PREVIEW_END_STYLE;
+            StackPane marker = markedCells.get(outcome.position());
+            if (marker == null) {
+                marker = addPreviewMarker(gridPane, outcome.position(), style);
+                markedCells.put(outcome.position(), marker);
+            } else {
+                marker.setStyle(style);
+            }
+            if (marker != null) {
+                Label label = (Label) marker.getChildren().getFirst();
+                label.setText(label.getText().isEmpty() ? String.valueOf(register + 1)
+                        : label.getText() + "," + (register + 1));
+            }
+        }
+    }
+
+    /**
+     * Removes the preview of the own program from the board.
+     *
+     * @param gridPane The grid pane representing the game board.
+     */
+    public static void clearProgramPreview(GridPane gridPane) {
+        for (Node node : gridPane.getChildren()) {
+            if (node instanceof StackPane cellPane) {
+                cellPane.getChildren().removeIf(child -> PREVIEW_ID.equals(child.getId()));
+            }
+        }
+    }
+
+    private static StackPane addPreviewMarker(GridPane gridPane, Position position, String style) {
+        // Board positions are (row, column) of the map, the grid pane is laid out the other way round
+        StackPane cellPane = getCellPaneAt(gridPane, position.y(), position.x());
+        if (cellPane == null) {
+            return null;
+        }
+        Label label = new Label();
+        label.setStyle("-fx-font-weight: bold; -fx-text-fill: white;");
+        StackPane marker = new StackPane(label);
+        marker.setId(PREVIEW_ID);
+        marker.setStyle(style);
+        marker.setMouseTransparent(true);
+        marker.setMinSize(0, 0);
+        marker.setMaxSize(Double.MAX_VALUE, Double.MAX_VALUE);
+        cellPane.getChildren().add(marker);
+        return marker;
+    }
+
     /**
      * Moves a checkpoint on the game board to a new position and updates
      * the grid pane and game map accordingly.
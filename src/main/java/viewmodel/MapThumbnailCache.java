@@ -0,0 +1,310 @@
+package viewmodel;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+import model.game.board.Direction;
+import model.game.maps.CompiledMap;
+import network.JsonHandler;
+import network.messages.lobby3.GameStartedMessage;
+import viewmodel.tilesGUI.TileImageMapper;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * Cache of map thumbnails, addressed by the content hash of the map.
+ * <p>
+ * A thumbnail is rendered offscreen from the tiles of the map, with the same tile images and rotations as the
+ * game board, so every map gets a thumbnail without a hand-made picture. The map is rendered once at the
+ * largest size; the smaller sizes are scaled down from it. Thumbnails are kept in memory and stored on disk as
+ * PNG files, so they are only rendered again if the map changes. Loading and rendering read files and must not
+ * run on the JavaFX application thread.
+ * </p>
+ * <p>
+ * The directory can be changed with the system property {@code roborally.thumbnailCacheDir}.
+ * </p>
+ */
+public class MapThumbnailCache {
+    private static final Logger logger = Logger.getLogger(MapThumbnailCache.class.getName());
+    private static final String DEFAULT_TILE = "/images/general/tiles/Default.png";
+    private static final Color CELL_BACKGROUND = new Color(0xf0, 0xf0, 0xf0);
+    /**
+     * Part of the file names, so thumbnails are rendered again if the rendering changes.
+     */
+    private static final int RENDER_VERSION = 1;
+    private static MapThumbnailCache instance;
+
+    private final Path directory;
+    private final ConcurrentHashMap<String, Image> thumbnails = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, BufferedImage> tileImages = new ConcurrentHashMap<>();
+
+    /**
+     * The sizes of thumbnails, given as pixels per board cell.
+     */
+    public enum Size {
+        SMALL(8),
+        LARGE(40);
+
+        private final int cellPixels;
+
+        Size(int cellPixels) {
+            this.cellPixels = cellPixels;
+        }
+
+        public int getCellPixels() {
+            return cellPixels;
+        }
+    }
+
+    /**
+     * Creates a cache that stores its thumbnails in the given directory.
+     *
+     * @param directory the directory for the thumbnail files.
+     */
+    public MapThumbnailCache(Path directory) {
+        this.directory = directory;
+    }
+
+    public static synchronized MapThumbnailCache getInstance() {
+        if (instance == null) {
+            String defaultDirectory = Paths.get(System.getProperty("user.home"), ".roborally", "thumbnails").toString();
+            instance = new MapThumbnailCache(Paths.get(System.getProperty("roborally.thumbnailCacheDir",
+                    defaultDirectory)));
+        }
+        return instance;
+    }
+
+    /**
+     * Returns the thumbnail of a map from memory or disk, rendering the map if it has no thumbnail yet.
+     *
+     * @param map  the map.
+     * @param size the size of the thumbnail.
+     * @return the thumbnail.
+     */
+    public Image getThumbnail(CompiledMap map, Size size) {
+        Image thumbnail = thumbnails.get(key(map, size));
+        if (thumbnail != null) {
+            return thumbnail;
+        }
+        Path file = fileOf(map, size);
+        if (!Files.isRegularFile(file)) {
+            renderToDisk(map);
+        }
+        thumbnail = readFromDisk(file);
+        if (thumbnail == null) {
+            // Not stored, e.g. because the directory is read-only
+            thumbnail = toFxImage(scale(render(map), map, size));
+        }
+        Image cached = thumbnails.putIfAbsent(key(map, size), thumbnail);
+        return cached != null ? cached : thumbnail;
+    }
+
+    /**
+     * Renders all sizes of a map and stores them on disk. Several processes may do this at the same time.
+     */
+    private void renderToDisk(CompiledMap map) {
+        long start = System.nanoTime();
+        BufferedImage largest = render(map);
+        for (Size size : Size.values()) {
+            writeToDisk(fileOf(map, size), scale(largest, map, size));
+        }
+        logger.info("Rendered thumbnails of map " + map.getMapHash() + " in "
+                + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+
+    /**
+     * Draws the tiles of a map like {@link MapParser#renderGameMap}: every cell on a light background, the
+     * tiles in the order of the map, walls and antennas in front.
+     */
+    private BufferedImage render(CompiledMap map) {
+        int cellPixels = Size.values()[Size.values().length - 1].getCellPixels();
+        List<List<List<GameStartedMessage.Field>>> fields = map.getFields();
+        BufferedImage image = new BufferedImage(map.getRows() * cellPixels, map.getColumns() * cellPixels,
+                BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = image.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            for (int x = 0; x < fields.size(); x++) {
+                for (int y = 0; y < fields.get(x).size(); y++) {
+                    List<GameStartedMessage.Field> cellFields = fields.get(x).get(y);
+                    if (cellFields == null) {
+                        continue;
+                    }
+                    graphics.setColor(CELL_BACKGROUND);
+                    graphics.fillRect(x * cellPixels, y * cellPixels, cellPixels, cellPixels);
+                    List<GameStartedMessage.Field> front = new ArrayList<>();
+                    for (GameStartedMessage.Field field : cellFields) {
+                        if (field == null) {
+                            continue;
+                        }
+                        if ("Wall".equals(field.getType()) || "Antenna".equals(field.getType())) {
+                            front.add(field);
+                        } else {
+                            drawField(graphics, field, x, y, cellPixels);
+                        }
+                    }
+                    for (GameStartedMessage.Field field : front) {
+                        drawField(graphics, field, x, y, cellPixels);
+                    }
+                }
+            }
+        } finally {
+            graphics.dispose();
+        }
+        return image;
+    }
+
+    private void drawField(Graphics2D graphics, GameStartedMessage.Field field, int x, int y, int cellPixels) {
+        JsonObject tileObject = JsonParser.parseString(JsonHandler.toJson(field)).getAsJsonObject();
+        String imagePath;
+        try {
+            imagePath = TileImageMapper.getImagePath(field.getType(), tileObject);
+        } catch (RuntimeException e) {
+            imagePath = null;
+        }
+        BufferedImage tileImage = getTileImage(imagePath != null ? imagePath : DEFAULT_TILE);
+        if (tileImage == null) {
+            return;
+        }
+        Graphics2D cell = (Graphics2D) graphics.create(x * cellPixels, y * cellPixels, cellPixels, cellPixels);
+        try {
+            if (field.getOrientations() != null && !field.getOrientations().isEmpty()) {
+                cell.rotate(Math.toRadians(rotationOf(Direction.fromString(field.getOrientations().getFirst()))),
+                        cellPixels / 2.0, cellPixels / 2.0);
+            }
+            cell.drawImage(tileImage, 0, 0, cellPixels, cellPixels, null);
+        } finally {
+            cell.dispose();
+        }
+    }
+
+    private static int rotationOf(Direction direction) {
+        return switch (direction) {
+            case RIGHT -> 90;
+            case BOTTOM -> 180;
+            case LEFT -> 270;
+            default -> 0;
+        };
+    }
+
+    private BufferedImage getTileImage(String imagePath) {
+        BufferedImage tileImage = tileImages.get(imagePath);
+        if (tileImage == null) {
+            tileImage = readTileImage(imagePath);
+            if (tileImage == null && !DEFAULT_TILE.equals(imagePath)) {
+                tileImage = getTileImage(DEFAULT_TILE);
+            }
+            if (tileImage != null) {
+                tileImages.putIfAbsent(imagePath, tileImage);
+            }
+        }
+        return tileImage;
+    }
+
+    private static BufferedImage readTileImage(String imagePath) {
+        try (InputStream is = MapThumbnailCache.class.getResourceAsStream(imagePath)) {
+            if (is == null) {
+                logger.warning("Image not found: " + imagePath);
+                return null;
+            }
+            return ImageIO.read(is);
+        } catch (IOException e) {
+            logger.warning("Could not read tile image " + imagePath + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Scales the largest thumbnail down by averaging the pixels, which keeps thin lines visible in small sizes.
+     */
+    private static BufferedImage scale(BufferedImage largest, CompiledMap map, Size size) {
+        int width = map.getRows() * size.getCellPixels();
+        int height = map.getColumns() * size.getCellPixels();
+        if (largest.getWidth() == width && largest.getHeight() == height) {
+            return largest;
+        }
+        BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = scaled.createGraphics();
+        try {
+            graphics.drawImage(largest.getScaledInstance(width, height, java.awt.Image.SCALE_AREA_AVERAGING),
+                    0, 0, null);
+        } finally {
+            graphics.dispose();
+        }
+        return scaled;
+    }
+
+    private Image readFromDisk(Path file) {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        Image thumbnail = new Image(file.toUri().toString());
+        if (thumbnail.isError()) {
+            logger.warning("Could not read thumbnail file " + file);
+            return null;
+        }
+        return thumbnail;
+    }
+
+    private void writeToDisk(Path file, BufferedImage thumbnail) {
+        Path tempFile = null;
+        try {
+            Files.createDirectories(directory);
+            // Write to a temporary file first, so other processes never read a half written thumbnail
+            tempFile = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+            ImageIO.write(thumbnail, "png", tempFile.toFile());
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warning("Could not write thumbnail file " + file + ": " + e.getMessage());
+        } finally {
+            deleteQuietly(tempFile);
+        }
+    }
+
+    /**
+     * Deletes a temporary file that was not moved into place, e.g. because writing it failed.
+     */
+    private static void deleteQuietly(Path tempFile) {
+        if (tempFile == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(tempFile);
+        } catch (IOException e) {
+            logger.warning("Could not delete temporary thumbnail file " + tempFile + ": " + e.getMessage());
+        }
+    }
+
+    private static Image toFxImage(BufferedImage image) {
+        WritableImage fxImage = new WritableImage(image.getWidth(), image.getHeight());
+        int[] pixels = image.getRGB(0, 0, image.getWidth(), image.getHeight(), null, 0, image.getWidth());
+        fxImage.getPixelWriter().setPixels(0, 0, image.getWidth(), image.getHeight(),
+                PixelFormat.getIntArgbInstance(), pixels, 0, image.getWidth());
+        return fxImage;
+    }
+
+    private Path fileOf(CompiledMap map, Size size) {
+        return directory.resolve(key(map, size) + ".png");
+    }
+
+    private static String key(CompiledMap map, Size size) {
+        return map.getMapHash() + "-" + size.getCellPixels() + "px-v" + RENDER_VERSION;
+    }
+}
@@ -65,6 +65,15 @@ public class MemorySwapController {
         initializeCardsListener();
     }
 
+    /**
+     * Clears the previous choice and shows the cards in hand, so the popup can be shown again.
+     */
+    public void reset() {
+        chosenCards.clear();
+        removeError();
+        displayCards();
+    }
+
     @FXML
     private void onPileClicked(MouseEvent event) {
         removeError();
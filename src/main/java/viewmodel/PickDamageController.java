@@ -85,7 +85,8 @@ public class PickDamageController {
      * Configures the damage piles available for selection and the required number of picks.
      * <p>
      * This method updates the UI to display the available damage card piles and sets the title
-     * text to indicate how many damage cards the player must choose.
+     * text to indicate how many damage cards the player must choose. The choice of a previous
+     * pick is cleared, so the popup can be shown again.
      * </p>
      *
      * @param piles a list of damage pile identifiers.
@@ -94,6 +95,13 @@ public class PickDamageController {
     public void setDamagePiles(List<String> piles, int count) {
         this.availablePiles = piles;
         this.pickCount = count;
+        chosenCounts.clear();
+        errorLabel.setText("");
+        for (ImageView pile : List.of(damagePile1, damagePile2, damagePile3)) {
+            pile.setVisible(false);
+            updatePileUI(pile);
+            pile.setUserData(null);
+        }
         titleLabel.setText(
                 (pickCount == 1)
                         ? "CHOOSE YOUR DAMAGE CARD"
@@ -46,14 +46,13 @@ public class RebootDirectionController {
     private Client client;
 
     /**
-     * Initializes the reboot direction controller by setting buttons and starting countdown
-     * for direction selection.
+     * Initializes the reboot direction controller by setting buttons. The countdown for the
+     * direction selection starts with {@link #startCountdown()}.
      */
     @FXML
     public void initialize() {
         setStyles();
         setupButtons();
-        startCountdownTimer();
     }
 
     public void setClient(Client client) {
@@ -123,6 +122,18 @@ public class RebootDirectionController {
         closeScreen();
     }
 
+    /**
+     * Turns the robot back to the top and starts the countdown, after which the direction of the
+     * restart point is chosen.
+     */
+    public void startCountdown() {
+        stopTimer();
+        currentRotation = Direction.TOP;
+        robotImageView.setRotate(0);
+        timerLabel.setText(String.valueOf(TIMER_DURATION));
+        startCountdownTimer();
+    }
+
     private void startCountdownTimer() {
         final int[] countdownTime = {TIMER_DURATION};
         countdownTimeline = new Timeline(
@@ -1,23 +1,51 @@
 package viewmodel;
 
+import helpers.jfr.SceneLoadEvent;
+import helpers.jfr.SceneShowEvent;
+import javafx.application.Platform;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
+import javafx.util.Callback;
 import model.server_client.Client;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
 
 /**
  * Manages scene transitions and UI interactions in the game.
  * <p>
  * This class is responsible for switching between different game views
- * and handling popups.
+ * and handling popups. The popups of the game are loaded on a background
+ * thread while the player is in the lobby, and the game view while the
+ * countdown to the game runs, so no FXML is parsed on the JavaFX thread
+ * during the game. Every popup is loaded once and shown again in the same
+ * window; its controller clears the state of the previous showing.
+ * </p>
+ * <p>
+ * Only parsing the FXML happens in the background. Controllers are set up on the
+ * JavaFX thread, as they register listeners on the game data, and the JavaFX
+ * thread never waits for a view that is still loading; it shows the view once
+ * the view is ready.
  * </p>
  */
 public class SceneManager {
+    private static final Logger logger = Logger.getLogger(SceneManager.class.getName());
+    private static final String GAME_VIEW = "/ServerClient/game.fxml";
+    private static final String PICK_DAMAGE_VIEW = "/ServerClient/pickDamage.fxml";
+    private static final String UPGRADE_SHOP_VIEW = "/ServerClient/upgradeShop.fxml";
+    private static final String REBOOT_DIRECTION_VIEW = "/ServerClient/rebootDirection.fxml";
+    private static final String MEMORY_SWAP_VIEW = "/ServerClient/memorySwap.fxml";
+    private static final String ADMIN_PRIVILEGE_VIEW = "/ServerClient/adminPrivilege.fxml";
+
     private final Stage stage;
     private final String serverHost;
     private final int serverPort;
@@ -26,6 +54,30 @@ public class SceneManager {
     private Parent infoBoardRoot;
     private InfoBoardController infoBoardController;
     private Client client;
+    private volatile CompletableFuture<LoadedView<GameController>> gameView;
+    private CompletableFuture<LoadedView<PickDamageController>> pickDamageView;
+    private CompletableFuture<LoadedView<UpgradeShopController>> upgradeShopView;
+    private CompletableFuture<LoadedView<RebootDirectionController>> rebootDirectionView;
+    private CompletableFuture<LoadedView<MemorySwapController>> memorySwapView;
+    private CompletableFuture<LoadedView<AdminPrivilegeController>> adminPrivilegeView;
+
+    /**
+     * A view loaded from FXML, with its controller and scene. A popup keeps its window once it was shown,
+     * and the requests to show it again while it is open.
+     */
+    private static class LoadedView<C> {
+        private final Parent root;
+        private final C controller;
+        private final Scene scene;
+        private Stage popupStage;
+        private final Deque<Runnable> pendingShows = new ArrayDeque<>();
+
+        LoadedView(Parent root, C controller) {
+            this.root = root;
+            this.controller = controller;
+            this.scene = new Scene(root);
+        }
+    }
 
     /**
      * Initializes the scene manager with the server's host and port.
@@ -122,34 +174,50 @@ public class SceneManager {
         stage.setScene(scene);
         stage.show();
         client.setSelectMapErroLabel(true);
+        preloadPopUps(client);
 
     }
+    /**
+     * Loads the game view on a background thread, so switching to it does not have to.
+     * <p>
+     * Must be called after the game map has been rendered, as the game controller shows it.
+     * </p>
+     *
+     * @param client The client instance managing game data.
+     */
+    public void preloadGameView(Client client) {
+        gameView = preload(GAME_VIEW, gameControllerFactory(client), GameController::bindToGame);
+    }
     /**
      * Switches the scene to the game view.
      * <p>
-     * Loads the main game screen, initializes the game controller, and sets up the chat UI.
+     * Shows the game view loaded by {@link #preloadGameView(Client)} once it is ready, or loads it now,
+     * initializes the game controller, and sets up the chat UI.
      * </p>
      *
      * @param client The client instance managing game data.
-     * @throws IOException If the FXML file cannot be loaded.
      */
-    public void switchToGameView(Client client) throws IOException {
-        FXMLLoader loader = new FXMLLoader(
-                //Objects.requireNonNull(getClass().getResource("/ServerClient/gameView.fxml"))
-                Objects.requireNonNull(getClass().getResource("/ServerClient/game.fxml"))
-        );
-        GameDataBridge gameDataBridge = client.getGameDataBridge();
-        loader.setControllerFactory(param -> new GameController(client, gameDataBridge));
-        Parent root = loader.load();
-        GameController gameViewController = loader.getController();
+    public void switchToGameView(Client client) {
+        SceneShowEvent event = beginShowEvent(GAME_VIEW);
+        CompletableFuture<LoadedView<GameController>> preloaded = gameView;
+        // A game view belongs to one game
+        gameView = null;
+        resolveView(preloaded, GAME_VIEW, gameControllerFactory(client), GameController::bindToGame, event)
+                .thenAcceptAsync(view -> {
+                    GameController gameViewController = view.controller;
 
-        gameViewController.setSceneManager(this);
-        gameViewController.setChat(chatViewRoot, chatViewController);
+                    gameViewController.setSceneManager(this);
+                    gameViewController.setChat(chatViewRoot, chatViewController);
 
-        Scene scene = new Scene(root);
-        stage.setScene(scene);
-        stage.show();
-        //stage.setFullScreen(true);
+                    stage.setScene(view.scene);
+                    stage.show();
+                    event.commit();
+                    //stage.setFullScreen(true);
+                }, Platform::runLater);
+    }
+
+    private static Callback<Class<?>, Object> gameControllerFactory(Client client) {
+        return param -> new GameController(client, client.getGameDataBridge());
     }
     /**
      * Opens the game over popup displaying the winner.
@@ -171,6 +239,24 @@ public class SceneManager {
         Animation.animatePopUp(root);
         stage.showAndWait();
     }
+    /**
+     * Loads the popups of the game on background threads, so opening them during the game
+     * does not have to.
+     *
+     * @param client The client instance.
+     */
+    public void preloadPopUps(Client client) {
+        pickDamageView = preload(PICK_DAMAGE_VIEW, null,
+                (PickDamageController controller) -> controller.setClient(client));
+        upgradeShopView = preload(UPGRADE_SHOP_VIEW, param -> new UpgradeShopController(client),
+                (UpgradeShopController controller) -> { });
+        rebootDirectionView = preload(REBOOT_DIRECTION_VIEW, null,
+                (RebootDirectionController controller) -> controller.setClient(client));
+        memorySwapView = preload(MEMORY_SWAP_VIEW, null,
+                (MemorySwapController controller) -> controller.setClient(client));
+        adminPrivilegeView = preload(ADMIN_PRIVILEGE_VIEW, null,
+                (AdminPrivilegeController controller) -> controller.setClient(client));
+    }
     /**
      * Opens the reboot direction selection popup.
      * <p>
@@ -179,21 +265,16 @@ public class SceneManager {
      *
      * @param client    The client instance.
      * @param robotName The player's robot name.
-     * @throws IOException If the FXML file cannot be loaded.
      */
-    public void openRebootDirectionPopUp(Client client, String robotName) throws IOException {
-        FXMLLoader loader = new FXMLLoader(getClass().getResource("/ServerClient/rebootDirection.fxml"));
-        Parent root = loader.load();
-        RebootDirectionController rebootController = loader.getController();
-        rebootController.setClient(client);
-        rebootController.setRobotImage(robotName);
-        Stage stage = new Stage();
-        stage.setScene(new Scene(root));
-        stage.initModality(Modality.APPLICATION_MODAL);
-        stage.setTitle("REBOOT");
-        stage.setOnCloseRequest(event -> event.consume());
-        Animation.animatePopUp(root);
-        stage.showAndWait();
+    public void openRebootDirectionPopUp(Client client, String robotName) {
+        SceneShowEvent event = beginShowEvent(REBOOT_DIRECTION_VIEW);
+        rebootDirectionView = resolveView(rebootDirectionView, REBOOT_DIRECTION_VIEW, null,
+                controller -> controller.setClient(client), event);
+        rebootDirectionView.thenAcceptAsync(view -> showPopUp(view, "REBOOT", false, event, () -> {
+            RebootDirectionController rebootController = view.controller;
+            rebootController.setRobotImage(robotName);
+            rebootController.startCountdown();
+        }), Platform::runLater);
     }
     /**
      * Opens the damage selection popup.
@@ -204,47 +285,30 @@ public class SceneManager {
      * @param client      The client instance.
      * @param damageCards The list of available damage cards.
      * @param count       The number of cards the player must pick.
-     * @throws IOException If the FXML file cannot be loaded.
      */
-    public void openPickDamagePopUp(Client client, List<String> damageCards, int count) throws IOException {
-        FXMLLoader loader = new FXMLLoader(getClass().getResource("/ServerClient/pickDamage.fxml"));
-        Parent root = loader.load();
-
-        PickDamageController damageController = loader.getController();
-        damageController.setClient(client);
-        damageController.setDamagePiles(damageCards, count);
-        Stage stage = new Stage();
-        stage.setScene(new Scene(root));
-        stage.initModality(Modality.APPLICATION_MODAL);
-        stage.setTitle("Pick Damage");
-        stage.setOnCloseRequest(event -> event.consume());
-        Animation.animatePopUp(root);
-        stage.showAndWait();
+    public void openPickDamagePopUp(Client client, List<String> damageCards, int count) {
+        SceneShowEvent event = beginShowEvent(PICK_DAMAGE_VIEW);
+        pickDamageView = resolveView(pickDamageView, PICK_DAMAGE_VIEW, null,
+                controller -> controller.setClient(client), event);
+        pickDamageView.thenAcceptAsync(view -> showPopUp(view, "Pick Damage", false, event,
+                () -> view.controller.setDamagePiles(damageCards, count)), Platform::runLater);
     }
     /**
      * Opens the upgrade shop popup.
      * <p>
-     * Allows players to buy or view available upgrades.
+     * Allows players to buy or view available upgrades. If the shop is already open, it keeps its
+     * mode and opens again in the given mode once it is closed.
      * </p>
      *
      * @param client   The client instance.
      * @param viewMode If true, the shop is in view-only mode.
-     * @throws IOException If the FXML file cannot be loaded.
      */
-    public void openUpgradeShopPopUp(Client client, boolean viewMode) throws IOException {
-        FXMLLoader loader = new FXMLLoader(getClass().getResource("/ServerClient/upgradeShop.fxml"));
-        loader.setControllerFactory(param -> new UpgradeShopController(client, viewMode));
-        Parent root = loader.load();
-        UpgradeShopController upgradeShopController = loader.getController();
-        Stage stage = new Stage();
-        stage.setScene(new Scene(root));
-        stage.initModality(Modality.APPLICATION_MODAL);
-        stage.setTitle("Upgrade Shop");
-        if (!viewMode) {
-            stage.setOnCloseRequest(event -> event.consume());
-        }
-        Animation.animatePopUp(root);
-        stage.showAndWait();
+    public void openUpgradeShopPopUp(Client client, boolean viewMode) {
+        SceneShowEvent event = beginShowEvent(UPGRADE_SHOP_VIEW);
+        upgradeShopView = resolveView(upgradeShopView, UPGRADE_SHOP_VIEW,
+                param -> new UpgradeShopController(client), controller -> { }, event);
+        upgradeShopView.thenAcceptAsync(view -> showPopUp(view, "Upgrade Shop", viewMode, event,
+                () -> view.controller.setViewMode(viewMode)), Platform::runLater);
     }
     /**
      * Opens the memory swap popup.
@@ -253,22 +317,13 @@ public class SceneManager {
      * </p>
      *
      * @param client The client instance.
-     * @throws IOException If the FXML file cannot be loaded.
      */
-    public void openMemorySwapPopUp(Client client) throws IOException {
-        FXMLLoader loader = new FXMLLoader(getClass().getResource("/ServerClient/memorySwap.fxml"));
-        Parent root = loader.load();
-
-        MemorySwapController memorySwapController = loader.getController();
-        memorySwapController.setClient(client);
-
-        Stage stage = new Stage();
-        stage.setScene(new Scene(root));
-        stage.initModality(Modality.APPLICATION_MODAL);
-        stage.setTitle("Memory Swap");
-        stage.setOnCloseRequest(event -> event.consume());
-        Animation.animatePopUp(root);
-        stage.showAndWait();
+    public void openMemorySwapPopUp(Client client) {
+        SceneShowEvent event = beginShowEvent(MEMORY_SWAP_VIEW);
+        memorySwapView = resolveView(memorySwapView, MEMORY_SWAP_VIEW, null,
+                controller -> controller.setClient(client), event);
+        memorySwapView.thenAcceptAsync(view -> showPopUp(view, "Memory Swap", false, event, view.controller::reset),
+                Platform::runLater);
     }
     /**
      * Opens the admin privilege popup.
@@ -277,21 +332,123 @@ public class SceneManager {
      * </p>
      *
      * @param client The client instance.
-     * @throws IOException If the FXML file cannot be loaded.
      */
-    public void openAdminPrivilege(Client client) throws IOException {
-        FXMLLoader loader = new FXMLLoader(getClass().getResource("/ServerClient/adminPrivilege.fxml"));
+    public void openAdminPrivilege(Client client) {
+        SceneShowEvent event = beginShowEvent(ADMIN_PRIVILEGE_VIEW);
+        adminPrivilegeView = resolveView(adminPrivilegeView, ADMIN_PRIVILEGE_VIEW, null,
+                controller -> controller.setClient(client), event);
+        adminPrivilegeView.thenAcceptAsync(view -> showPopUp(view, "Admin Privilege", false, event,
+                view.controller::reset), Platform::runLater);
+    }
+
+    /**
+     * Loads a view on a virtual thread and sets up its controller on the JavaFX thread.
+     *
+     * @param fxml              The path of the FXML file.
+     * @param controllerFactory The factory of the controller, or null to create it from the FXML file.
+     * @param setup             Called with the controller on the JavaFX thread after loading.
+     * @return The view, or an exceptionally completed future if it could not be loaded.
+     */
+    private <C> CompletableFuture<LoadedView<C>> preload(String fxml, Callback<Class<?>, Object> controllerFactory,
+                                                         Consumer<C> setup) {
+        CompletableFuture<LoadedView<C>> loaded = new CompletableFuture<>();
+        Thread.ofVirtual().name("preload-view").start(() -> {
+            try {
+                loaded.complete(loadView(fxml, controllerFactory, true));
+            } catch (IOException | RuntimeException e) {
+                logger.warning("Could not preload " + fxml + ": " + e.getMessage());
+                loaded.completeExceptionally(e);
+            }
+        });
+        return loaded.thenApplyAsync(view -> {
+            setup.accept(view.controller);
+            return view;
+        }, Platform::runLater);
+    }
+
+    /**
+     * Returns a future of the preloaded view, or of the view loaded on the JavaFX thread if it was not
+     * preloaded or could not be loaded. The future completes on the JavaFX thread; nothing waits for it.
+     */
+    private <C> CompletableFuture<LoadedView<C>> resolveView(CompletableFuture<LoadedView<C>> preloaded, String fxml,
+                                                             Callback<Class<?>, Object> controllerFactory,
+                                                             Consumer<C> setup, SceneShowEvent event) {
+        CompletableFuture<LoadedView<C>> pending = preloaded != null ? preloaded
+                : CompletableFuture.failedFuture(new IllegalStateException(fxml + " was not preloaded"));
+        return pending.handleAsync((view, error) -> {
+            event.reused = error == null;
+            if (error == null) {
+                return view;
+            }
+            try {
+                LoadedView<C> loaded = loadView(fxml, controllerFactory, false);
+                setup.accept(loaded.controller);
+                return loaded;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, Platform::runLater).whenComplete((view, error) -> {
+            if (error != null) {
+                logger.warning("Could not load " + fxml + ": " + error.getMessage());
+            }
+        });
+    }
+
+    private <C> LoadedView<C> loadView(String fxml, Callback<Class<?>, Object> controllerFactory, boolean preloaded)
+            throws IOException {
+        SceneLoadEvent event = new SceneLoadEvent();
+        event.begin();
+        FXMLLoader loader = new FXMLLoader(Objects.requireNonNull(getClass().getResource(fxml)));
+        if (controllerFactory != null) {
+            loader.setControllerFactory(controllerFactory);
+        }
         Parent root = loader.load();
+        LoadedView<C> view = new LoadedView<>(root, loader.getController());
+        event.view = fxml;
+        event.preloaded = preloaded;
+        event.commit();
+        return view;
+    }
 
-        AdminPrivilegeController adminPrivilegeController = loader.getController();
-        adminPrivilegeController.setClient(client);
+    private static SceneShowEvent beginShowEvent(String fxml) {
+        SceneShowEvent event = new SceneShowEvent();
+        event.view = fxml;
+        event.begin();
+        return event;
+    }
 
-        Stage stage = new Stage();
-        stage.setScene(new Scene(root));
-        stage.initModality(Modality.APPLICATION_MODAL);
-        stage.setTitle("Admin Privilege");
-        stage.setOnCloseRequest(event -> event.consume());
-        Animation.animatePopUp(root);
-        stage.showAndWait();
+    /**
+     * Prepares the controller of a popup and shows the popup in its own modal window until it is closed.
+     * The window is created when the popup is shown the first time and reused afterwards. If the popup is
+     * already showing, it is brought to the front and the request is kept until it is closed, so the
+     * controller is not reset while the player still uses it.
+     *
+     * @param prepare sets up the controller for this request, e.g. the damage piles to pick from.
+     */
+    private void showPopUp(LoadedView<?> view, String title, boolean closable, SceneShowEvent event,
+                           Runnable prepare) {
+        if (view.popupStage == null) {
+            view.popupStage = new Stage();
+            view.popupStage.setScene(view.scene);
+            view.popupStage.initModality(Modality.APPLICATION_MODAL);
+            view.popupStage.setTitle(title);
+        }
+        Stage popupStage = view.popupStage;
+        if (popupStage.isShowing()) {
+            popupStage.toFront();
+            event.commit();
+            String fxml = event.view;
+            view.pendingShows.add(() -> showPopUp(view, title, closable, beginShowEvent(fxml), prepare));
+            return;
+        }
+        prepare.run();
+        popupStage.setOnCloseRequest(closable ? null : closeEvent -> closeEvent.consume());
+        popupStage.setOnShown(shownEvent -> event.commit());
+        Animation.animatePopUp(view.root);
+        popupStage.showAndWait();
+        Runnable pendingShow = view.pendingShows.poll();
+        if (pendingShow != null) {
+            pendingShow.run();
+        }
     }
 }
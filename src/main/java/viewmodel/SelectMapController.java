@@ -17,12 +17,22 @@ import javafx.scene.layout.GridPane;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
 import javafx.util.Duration;
+import com.google.gson.JsonArray;
+import model.game.maps.CompiledMap;
+import model.game.maps.MapCache;
+import model.game.maps.MapRegistry;
 import model.server_client.Client;
+import network.JsonHandler;
+import network.messages.lobby3.RequestMapMessage;
 
-import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.logging.Logger;
 
 /**
@@ -56,8 +66,20 @@ public class SelectMapController {
     @FXML
     private HBox imageHolder;
 
+    /**
+     * The maps shown until the server sends the maps it offers.
+     */
+    private static final List<String> DEFAULT_MAPS =
+            List.of("Dizzy Highway", "Extra Crispy", "Lost Bearings", "Death Trap", "Twister");
+    /**
+     * How long to wait for a map requested from the server before its thumbnail is given up.
+     */
+    private static final long MAP_REQUEST_TIMEOUT_SECONDS = 10;
+
     private List<Image> imageList;
+    private List<Image> smallImageList;
     private List<String> mapNames;
+    private Thread thumbnailLoader;
     private int currentIndex;
     private int chooserId;
     private Timeline countdownTimeline;
@@ -98,12 +120,11 @@ public class SelectMapController {
         this.logger = client.getLogger();
 
         setStyles();
-        loadImages();
-        currentIndex = 0;
-        updateSmallImages();
-        disableChooseMap();
         this.lobbyDataBridge = client.getLobbyDataBridge();
         this.gameDataBridge = client.getGameDataBridge();
+        loadImages(lobbyDataBridge.getAvailableMaps().isEmpty() ? DEFAULT_MAPS : lobbyDataBridge.getAvailableMaps());
+        disableChooseMap();
+        initializeAvailableMapsListener();
         initializeStartListener();
         initializeSelectMapListener();
         initializeStatusListener();
@@ -162,6 +183,14 @@ public class SelectMapController {
         );
     }
 
+    private void initializeAvailableMapsListener() {
+        lobbyDataBridge.getAvailableMaps().addListener((ListChangeListener<? super String>) change -> {
+            if (!lobbyDataBridge.getAvailableMaps().isEmpty()) {
+                loadImages(List.copyOf(lobbyDataBridge.getAvailableMaps()));
+            }
+        });
+    }
+
     private void initializeStartListener() {
         lobbyDataBridge.startProperty().addListener((observable, oldValue, newValue) -> {
             if (newValue) {
@@ -198,31 +227,75 @@ public class SelectMapController {
 
 
     /**
-     * Loads images into the imageList and also sets up mapNames so that each
-     * image has an associated name or ID.
+     * Sets up mapNames and loads the thumbnail of each map on a virtual thread, so the scene opens without
+     * waiting for images. The thumbnails are rendered from the maps and cached by {@link MapThumbnailCache}, so
+     * maps without a hand-made picture get one too. Maps only the server has are requested from it, see
+     * {@link #compileMap}.
+     *
+     * @param maps the names of the maps.
      */
-    private void loadImages() {
-        imageList = new ArrayList<>();
-        mapNames = new ArrayList<>();  // parallel to imageList
+    private void loadImages(List<String> maps) {
+        mapNames = new ArrayList<>(maps);
+        imageList = new ArrayList<>(Collections.nCopies(maps.size(), null));
+        smallImageList = new ArrayList<>(Collections.nCopies(maps.size(), null));
+        currentIndex = 0;
+        updateSmallImages();
+        updateNameLabel();
+        if (thumbnailLoader != null) {
+            thumbnailLoader.interrupt();
+        }
+        thumbnailLoader = Thread.ofVirtual().name("map-thumbnails").start(() -> {
+            MapThumbnailCache thumbnailCache = MapThumbnailCache.getInstance();
+            for (int index = 0; index < maps.size() && !Thread.currentThread().isInterrupted(); index++) {
+                try {
+                    CompiledMap map = compileMap(maps.get(index));
+                    Image small = thumbnailCache.getThumbnail(map, MapThumbnailCache.Size.SMALL);
+                    Image large = thumbnailCache.getThumbnail(map, MapThumbnailCache.Size.LARGE);
+                    int mapIndex = index;
+                    Platform.runLater(() -> showThumbnails(maps, mapIndex, small, large));
+                } catch (InterruptedException e) {
+                    return;
+                } catch (RuntimeException | ExecutionException | TimeoutException e) {
+                    logger.warning("Could not load the thumbnail of map " + maps.get(index) + ": " + e.getMessage());
+                }
+            }
+        });
+    }
 
+    /**
+     * Returns a map from the map files of this client. A map only the server has is taken from the
+     * {@link MapCache}, or requested from the server by its content hash if it is not cached yet.
+     *
+     * @param mapName the name of the map.
+     * @return the compiled map.
+     */
+    private CompiledMap compileMap(String mapName)
+            throws InterruptedException, ExecutionException, TimeoutException {
         try {
-            imageList.add(new Image(getClass().getResource("/images/general/map_dizzy_highway.pdf.png").toExternalForm()));
-            mapNames.add("Dizzy Highway");//Dizzy Highway
-
-            imageList.add(new Image(getClass().getResource("/images/general/map_extra_crispy.pdf.png").toExternalForm()));
-            mapNames.add("Extra Crispy");
-
-            imageList.add(new Image(getClass().getResource("/images/general/map_lost_bearings.pdf.png").toExternalForm()));
-            mapNames.add("Lost Bearings");
-
-            imageList.add(new Image(getClass().getResource("/images/general/map_death_trap.pdf.png").toExternalForm()));
-            mapNames.add("Death Trap");
-
-            imageList.add(new Image(getClass().getResource("/images/general/map_twister.png").toExternalForm()));
-            mapNames.add("Twister");
+            return MapRegistry.getInstance().get(mapName);
+        } catch (IllegalArgumentException e) {
+            String mapHash = lobbyDataBridge.getMapHash(mapName);
+            if (mapHash == null) {
+                throw e;
+            }
+            CompletableFuture<JsonArray> gameMap = MapCache.getInstance().whenCached(mapHash);
+            if (!gameMap.isDone()) {
+                client.sendMessageToServer(JsonHandler.toJson(new RequestMapMessage(mapHash)));
+            }
+            return CompiledMap.fromGameMap(gameMap.get(MAP_REQUEST_TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        }
+    }
 
-        } catch (Exception e) {
-            e.printStackTrace();
+    private void showThumbnails(List<String> maps, int index, Image small, Image large) {
+        if (!mapNames.equals(maps)) {
+            // The maps changed while the thumbnails were loaded
+            return;
+        }
+        smallImageList.set(index, small);
+        imageList.set(index, large);
+        updateSmallImages();
+        if (index == currentIndex && imageHolder.isVisible()) {
+            updateCentralImage();
         }
     }
 
@@ -233,6 +306,7 @@ public class SelectMapController {
         }
         Image currentImage = imageList.get(currentIndex);
         mapInfo.setImage(currentImage);
+        mapInfo.setRotate(0);
     }
 
     /**
@@ -248,16 +322,17 @@ public class SelectMapController {
     }
 
     private void updateSmallImages() {
-        if (imageList.isEmpty()) return;
+        if (smallImageList.isEmpty()) return;
 
-        int total = imageList.size();
+        int total = smallImageList.size();
         int smallImageCount = 5;
 
         for (int i = 0; i < smallImageCount; i++) {
             int index = i % total;
             ImageView smallImageView = getSmallImageView(i);
             if (smallImageView != null) {
-                smallImageView.setImage(imageList.get(index));
+                smallImageView.setImage(smallImageList.get(index));
+                smallImageView.setUserData(index);
             }
         }
     }
@@ -300,10 +375,8 @@ public class SelectMapController {
     @FXML
     private void handleSmallImageClick(MouseEvent event) {
         ImageView clickedImageView = (ImageView) event.getSource();
-        Image clickedImage = clickedImageView.getImage();
-        if (clickedImage != null) {
-            int clickedIndex = imageList.indexOf(clickedImage);
-            if (clickedIndex != -1) {
+        if (clickedImageView.getUserData() instanceof Integer clickedIndex) {
+            if (clickedIndex < mapNames.size()) {
                 currentIndex = clickedIndex;
                 updateCentralImage();
                 updateNameLabel();
@@ -374,35 +447,30 @@ public class SelectMapController {
      */
     public void startCountdown() {
         CountDownLatch latch = new CountDownLatch(1);
-        new Thread(() -> {
+        Thread.ofVirtual().name("map-render").start(() -> {
             MapParser mapParser = new MapParser();
-            mapParser.setLogger(logger);
+            MapParser.setLogger(logger);
             GridPane gameBoard = new GridPane();
             client.getGameDataBridge().setGameMapGridPane(gameBoard);
-            mapParser.renderGameMap(client.getGameDataBridge().getGameMap(), client, gameBoard);
+            MapParser.renderGameMap(client.getGameDataBridge().getGameMap(), client, gameBoard);
             updateCheckpointNumber(mapParser.getCheckpointNumber());
+            preloadGameView();
             latch.countDown(); // Ensure latch is decremented even if rendering fails
-        }).start();
+        });
         countdownTime = 1;
         countdownTimeline = new Timeline(
                 new KeyFrame(Duration.seconds(1), e -> {
                     countdownTime--;
                     if (countdownTime <= 0) {
                         stopCountdown();
-                        new Thread(() -> {
+                        Thread.ofVirtual().name("map-render-wait").start(() -> {
                             try {
                                 latch.await(); // Wait for map rendering to complete
-                                Platform.runLater(() -> {
-                                    try {
-                                        sceneManager.switchToGameView(client);
-                                    } catch (IOException ex) {
-                                        throw new RuntimeException(ex);
-                                    }
-                                });
+                                Platform.runLater(() -> sceneManager.switchToGameView(client));
                             } catch (InterruptedException ex) {
                                 ex.printStackTrace();
                             }
-                        }).start();
+                        });
                     }
                 })
         );
@@ -411,6 +479,14 @@ public class SelectMapController {
         countdownTimeline.play();
     }
 
+    /**
+     * Loads the game view while the countdown runs. The map renderer finishes the board on the JavaFX
+     * thread, so the game view is only loaded once the JavaFX thread has done that.
+     */
+    private void preloadGameView() {
+        Platform.runLater(() -> sceneManager.preloadGameView(client));
+    }
+
     private void stopCountdown() {
         if (countdownTimeline != null) {
             countdownTimeline.stop();
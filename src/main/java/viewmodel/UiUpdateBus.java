@@ -0,0 +1,199 @@
+package viewmodel;
+
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+/**
+ * Collects UI updates posted by the network thread and applies them on the JavaFX thread, once per frame.
+ * <p>
+ * Updates of a value posted under the same {@link Key} one after another before the next frame are coalesced:
+ * an energy counter that changes three times between two frames is only set once, to its last value. Steps that
+ * must all be shown, like the moves of a robot, are appended under their key instead and applied in order.
+ * Only consecutive updates of the same thing are combined, so a robot that moves, turns and moves again still
+ * turns between its moves. Updates without a key are always applied.
+ * Everything is applied in the order it was posted, so the UI is at most one frame behind the server,
+ * no matter how many messages arrive at once.
+ * </p>
+ * <p>
+ * The frame timer only runs while there is something to apply. Without a JavaFX toolkit, e.g. in headless bot
+ * clients, updates are applied right away on the posting thread.
+ * </p>
+ */
+public class UiUpdateBus {
+    private static final Logger logger = Logger.getLogger(UiUpdateBus.class.getName());
+
+    /**
+     * Identifies what an update changes, e.g. the position of one robot.
+     *
+     * @param type the kind of update, usually the message type
+     * @param id   the client ID or other number of the thing that is updated; updates with the same id are
+     *             applied in the order they were posted
+     */
+    public record Key(String type, int id) {
+    }
+
+    /**
+     * A pending update: the combined value of all posts under one key and how to apply it.
+     */
+    private static final class PendingUpdate<T> {
+        private final Object key;
+        private T value;
+        private final BinaryOperator<T> combiner;
+        private final Consumer<T> action;
+
+        private PendingUpdate(Object key, T value, BinaryOperator<T> combiner, Consumer<T> action) {
+            this.key = key;
+            this.value = value;
+            this.combiner = combiner;
+            this.action = action;
+        }
+
+        @SuppressWarnings("unchecked")
+        private void merge(Object newValue) {
+            value = combiner.apply(value, (T) newValue);
+        }
+
+        private void apply() {
+            action.accept(value);
+        }
+    }
+
+    private final List<PendingUpdate<?>> pending = new ArrayList<>();
+    // The last pending update of each id, the only one a newer update of that id may be combined with
+    private final Map<Integer, PendingUpdate<?>> lastPendingById = new HashMap<>();
+    // Created on the JavaFX thread when first needed
+    private AnimationTimer frameTimer;
+    private boolean frameTimerRunning;
+
+    /**
+     * Applies an update with the next frame.
+     *
+     * @param update the update
+     */
+    public void post(Runnable update) {
+        enqueue(null, null, (_, newer) -> newer, _ -> update.run());
+    }
+
+    /**
+     * Applies an update with the next frame, replacing the last pending update if it has the same key.
+     *
+     * @param key    what the update changes
+     * @param update the update
+     */
+    public void post(Key key, Runnable update) {
+        enqueue(key, update, (_, newer) -> newer, Runnable::run);
+    }
+
+    /**
+     * Applies a relative update with the next frame. Values posted under the same key one after another before
+     * the frame are combined and applied once, e.g. consecutive quarter turns of a robot are added up.
+     *
+     * @param key      what the update changes
+     * @param value    the change
+     * @param combiner combines a pending change with a newer one
+     * @param action   applies the combined change
+     * @param <T>      the type of the change
+     */
+    public <T> void merge(Key key, T value, BinaryOperator<T> combiner, Consumer<T> action) {
+        enqueue(key, value, combiner, action);
+    }
+
+    /**
+     * Applies a step with the next frame, together with the steps pending right before it under the same key.
+     * Unlike {@link #post(Key, Runnable)}, no step is dropped.
+     *
+     * @param key    what the steps change
+     * @param step   the step
+     * @param action applies one step
+     * @param <T>    the type of the steps
+     */
+    public <T> void append(Key key, T step, Consumer<T> action) {
+        enqueue(key, List.of(step), UiUpdateBus::concat, steps -> steps.forEach(action));
+    }
+
+    private static <T> List<T> concat(List<T> pending, List<T> newer) {
+        List<T> steps = new ArrayList<>(pending.size() + newer.size());
+        steps.addAll(pending);
+        steps.addAll(newer);
+        return steps;
+    }
+
+    private <T> void enqueue(Object key, T value, BinaryOperator<T> combiner, Consumer<T> action) {
+        synchronized (this) {
+            PendingUpdate<?> last = key instanceof Key k ? lastPendingById.get(k.id()) : null;
+            if (last != null && last.key.equals(key)) {
+                last.merge(value);
+            } else {
+                PendingUpdate<T> update = new PendingUpdate<>(key, value, combiner, action);
+                pending.add(update);
+                if (key instanceof Key k) {
+                    lastPendingById.put(k.id(), update);
+                }
+            }
+            if (frameTimerRunning) {
+                return;
+            }
+            try {
+                Platform.runLater(this::startFrameTimer);
+                frameTimerRunning = true;
+                return;
+            } catch (IllegalStateException e) {
+                // The JavaFX toolkit is not running
+            }
+        }
+        apply(takePendingUpdates());
+    }
+
+    private void startFrameTimer() {
+        if (frameTimer == null) {
+            frameTimer = new AnimationTimer() {
+                @Override
+                public void handle(long now) {
+                    onFrame();
+                }
+            };
+        }
+        frameTimer.start();
+    }
+
+    /**
+     * Applies all pending updates. Runs on the JavaFX thread; updates posted meanwhile wait for the next frame.
+     */
+    private void onFrame() {
+        List<PendingUpdate<?>> updates;
+        synchronized (this) {
+            if (pending.isEmpty()) {
+                frameTimer.stop();
+                frameTimerRunning = false;
+                return;
+            }
+            updates = takePendingUpdates();
+        }
+        apply(updates);
+    }
+
+    private synchronized List<PendingUpdate<?>> takePendingUpdates() {
+        List<PendingUpdate<?>> updates = new ArrayList<>(pending);
+        pending.clear();
+        lastPendingById.clear();
+        return updates;
+    }
+
+    private static void apply(List<PendingUpdate<?>> updates) {
+        for (PendingUpdate<?> update : updates) {
+            try {
+                update.apply();
+            } catch (RuntimeException e) {
+                logger.warning("UI update failed: " + e.getMessage());
+            }
+        }
+    }
+}
@@ -44,15 +44,14 @@ public class UpgradeShopController {
      * Constructs an UpgradeShopController.
      *
      * @param client The client instance.
-     * @param viewMode True if the shop is in view-only mode.
      */
-    public UpgradeShopController(Client client, boolean viewMode) {
+    public UpgradeShopController(Client client) {
         this.client = client;
-        this.viewMode = viewMode;
     }
 
     /**
-     * Initializes the upgrade shop, setting up images, prices, and available upgrades.
+     * Initializes the upgrade shop, setting up images and prices. The available upgrades are set
+     * by {@link #setViewMode(boolean)}.
      */
     @FXML
     public void initialize() {
@@ -63,6 +62,23 @@ public class UpgradeShopController {
         Animation.attachHoverAnimation(adminPrivilege);
         Animation.attachHoverAnimation(spamBlocker);
         Animation.attachHoverAnimation(memorySwap);
+    }
+
+    /**
+     * Clears the previous selection and shows the current energy and available upgrades,
+     * so the shop can be shown again.
+     *
+     * @param viewMode True if the shop is in view-only mode.
+     */
+    public void setViewMode(boolean viewMode) {
+        this.viewMode = viewMode;
+        selectedCard = null;
+        buyButton.setText("NO UPGRADE");
+        buyButton.setDisable(false);
+        setError("");
+        for (ImageView pile : cardImageViewToName.keySet()) {
+            Animation.animateScale(pile, 1.0);
+        }
         updateEnergyLabel(client.getGameDataBridge().getEnergy(client.getClientID()));
         if (viewMode) {
             disableInteraction();
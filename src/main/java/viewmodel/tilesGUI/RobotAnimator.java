@@ -0,0 +1,202 @@
+package viewmodel.tilesGUI;
+
+import javafx.animation.AnimationTimer;
+import javafx.animation.Interpolator;
+import javafx.scene.image.ImageView;
+import javafx.scene.layout.GridPane;
+import model.game.board.Direction;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Animates the robots on the game board with one shared {@link AnimationTimer}.
+ * <p>
+ * Every robot has a queue of steps (moves and turns) that are played one after the other. When steps
+ * queue up, e.g. when conveyor belts move several robots at once, the steps are played faster; if the
+ * queue grows too long, all but the last steps are applied without animation. This way the board never
+ * falls behind the server. All methods must be called on the JavaFX thread.
+ * </p>
+ */
+public class RobotAnimator {
+    private static RobotAnimator instance;
+
+    private static final long STEP_NANOS = TimeUnit.MILLISECONDS.toNanos(500);
+    private static final long MIN_STEP_NANOS = TimeUnit.MILLISECONDS.toNanos(80);
+    private static final int MAX_QUEUED_STEPS = 6;
+
+    private final List<Track> activeTracks = new ArrayList<>();
+    private final AnimationTimer timer = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            onFrame(now);
+        }
+    };
+    private boolean running;
+
+    public static synchronized RobotAnimator getInstance() {
+        if (instance == null) {
+            instance = new RobotAnimator();
+        }
+        return instance;
+    }
+
+    /**
+     * A queued step: a move to a cell or a turn to a direction.
+     */
+    private record Step(boolean move, int x, int y, double angle) {
+    }
+
+    /**
+     * The animation queue of one robot.
+     */
+    public final class Track {
+        private final ImageView view;
+        private final double cellSize;
+        private final ArrayDeque<Step> steps = new ArrayDeque<>();
+        private Step current;
+        private long startNanos;
+        private long durationNanos;
+        private int fromX;
+        private int fromY;
+        private double fromAngle;
+        private double deltaAngle;
+        // Where the robot is after all queued steps
+        private int lastX;
+        private int lastY;
+
+        private Track(ImageView view, double cellSize, int x, int y) {
+            this.view = view;
+            this.cellSize = cellSize;
+            this.lastX = x;
+            this.lastY = y;
+        }
+
+        /**
+         * Queues a move to a cell.
+         *
+         * @param x the column of the cell
+         * @param y the row of the cell
+         */
+        public void moveTo(int x, int y) {
+            if (x == lastX && y == lastY) {
+                return;
+            }
+            steps.add(new Step(true, x, y, 0));
+            lastX = x;
+            lastY = y;
+            activate(this);
+        }
+
+        /**
+         * Queues a turn to a direction.
+         *
+         * @param direction the new direction
+         */
+        public void turnTo(Direction direction) {
+            steps.add(new Step(false, 0, 0, angleOf(direction)));
+            activate(this);
+        }
+
+        /**
+         * Advances the animation.
+         *
+         * @return {@code true} if the track has more to play
+         */
+        private boolean advance(long now) {
+            if (current == null && !startNext(now)) {
+                return false;
+            }
+            double t = Math.min(1, (double) (now - startNanos) / durationNanos);
+            double eased = Interpolator.EASE_BOTH.interpolate(0.0, 1.0, t);
+            if (current.move()) {
+                view.setTranslateX((current.x() - fromX) * cellSize * eased);
+                view.setTranslateY((current.y() - fromY) * cellSize * eased);
+            } else {
+                view.setRotate(fromAngle + deltaAngle * eased);
+            }
+            if (t >= 1) {
+                finish(current);
+                current = null;
+            }
+            return current != null || !steps.isEmpty();
+        }
+
+        private boolean startNext(long now) {
+            // Too far behind: jump over everything but the last steps
+            while (steps.size() > MAX_QUEUED_STEPS) {
+                finish(steps.poll());
+            }
+            current = steps.poll();
+            if (current == null) {
+                return false;
+            }
+            startNanos = now;
+            durationNanos = Math.max(MIN_STEP_NANOS, STEP_NANOS / (1 + steps.size()));
+            fromX = GridPane.getColumnIndex(view);
+            fromY = GridPane.getRowIndex(view);
+            fromAngle = view.getRotate();
+            deltaAngle = current.angle() - fromAngle;
+            if (deltaAngle > 180) {
+                deltaAngle -= 360;
+            } else if (deltaAngle < -180) {
+                deltaAngle += 360;
+            }
+            return true;
+        }
+
+        private void finish(Step step) {
+            if (step.move()) {
+                GridPane.setColumnIndex(view, step.x());
+                GridPane.setRowIndex(view, step.y());
+                view.setTranslateX(0);
+                view.setTranslateY(0);
+            } else {
+                view.setRotate(step.angle());
+            }
+        }
+    }
+
+    /**
+     * Creates the animation queue for a robot.
+     *
+     * @param view     the robot's image, already placed in its cell
+     * @param cellSize the size of a cell in pixels
+     * @return the robot's track
+     */
+    public Track createTrack(ImageView view, double cellSize) {
+        return new Track(view, cellSize, GridPane.getColumnIndex(view), GridPane.getRowIndex(view));
+    }
+
+    /**
+     * @return the angle of an image facing the direction
+     */
+    public static double angleOf(Direction direction) {
+        return switch (direction) {
+            case TOP -> 0;
+            case RIGHT -> 90;
+            case BOTTOM -> 180;
+            case LEFT -> 270;
+        };
+    }
+
+    private void activate(Track track) {
+        if (!activeTracks.contains(track)) {
+            activeTracks.add(track);
+        }
+        if (!running) {
+            running = true;
+            timer.start();
+        }
+    }
+
+    private void onFrame(long now) {
+        activeTracks.removeIf(track -> !track.advance(now));
+        if (activeTracks.isEmpty()) {
+            timer.stop();
+            running = false;
+        }
+    }
+}
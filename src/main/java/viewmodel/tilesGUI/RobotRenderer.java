@@ -5,7 +5,6 @@ import javafx.scene.image.ImageView;
 import javafx.scene.layout.GridPane;
 import javafx.scene.layout.StackPane;
 import helpers.RobotModel;
-import viewmodel.Animation;
 import model.game.board.Direction;
 
 /**
@@ -61,23 +60,11 @@ public class RobotRenderer {
         GridPane.setColumnIndex(robotView, robot.getX());
         GridPane.setRowIndex(robotView, robot.getY());
 
-        final int[] lastCellPos = { robot.getX(), robot.getY() };
-        double finalCellSize = cellSize;
-        var moveListener = (javafx.beans.value.ChangeListener<Number>) (obs, oldVal, newVal) -> {
-            int targetX = robot.getX();
-            int targetY = robot.getY();
+        RobotAnimator.Track track = RobotAnimator.getInstance().createTrack(robotView, cellSize);
+        robot.positionProperty().addListener((obs, oldPosition, newPosition) ->
+                track.moveTo(newPosition.x(), newPosition.y()));
 
-            if (targetX != lastCellPos[0] || targetY != lastCellPos[1]) {
-                animateRobotMovement(robotView, lastCellPos[0], lastCellPos[1], targetX, targetY, finalCellSize, lastCellPos);
-            }
-        };
-
-        robot.xProperty().addListener(moveListener);
-        robot.yProperty().addListener(moveListener);
-
-        robot.directionProperty().addListener((obs, oldDir, newDir) -> {
-            animateRotation(robotView, newDir);
-        });
+        robot.directionProperty().addListener((obs, oldDir, newDir) -> track.turnTo(newDir));
         applyRotation(robotView, (robot.getDirection()));
         gridPane.getChildren().add(robotView);
     }
@@ -104,50 +91,4 @@ public class RobotRenderer {
                 break;
         }
     }
-
-
-    private static void animateRobotMovement(ImageView robotView,
-                                             int startX, int startY,
-                                             int targetX, int targetY,
-                                             double cellSize,
-                                             int[] lastCellPos) {
-        double dx = (targetX - startX) * cellSize;
-        double dy = (targetY - startY) * cellSize;
-        Animation.animateMovement(robotView, dx, dy, () -> {
-            GridPane.setColumnIndex(robotView, targetX);
-            GridPane.setRowIndex(robotView, targetY);
-            robotView.setTranslateX(0);
-            robotView.setTranslateY(0);
-            lastCellPos[0] = targetX;
-            lastCellPos[1] = targetY;
-        });
-    }
-
-    private static void animateRotation(ImageView robotView, Direction newDirection) {
-        double targetAngle = getAngleForDirection(newDirection);
-        double currentAngle = robotView.getRotate();
-        double delta = targetAngle - currentAngle;
-
-        if (delta > 180) {
-            delta -= 360;
-        } else if (delta < -180) {
-            delta += 360;
-        }
-
-        double animatedTarget = currentAngle + delta;
-
-        Animation.animateRotation(robotView, currentAngle, animatedTarget, () -> {
-            robotView.setRotate(targetAngle);
-        });
-    }
-
-
-    private static double getAngleForDirection(Direction direction) {
-        return switch (direction) {
-            case TOP -> 0;
-            case RIGHT -> 90;
-            case BOTTOM -> 180;
-            case LEFT -> 270;
-        };
-    }
 }